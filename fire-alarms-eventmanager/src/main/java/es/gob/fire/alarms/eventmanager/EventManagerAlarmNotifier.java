@@ -213,4 +213,15 @@ public class EventManagerAlarmNotifier implements AlarmNotifier {
 
 		this.client.send(alert, this.config);
 	}
+
+	@Override
+	public void notifyRepeated(final AlarmLevel level, final Alarm alarm, final int occurrences,
+			final long seconds, final String... source) throws IOException {
+
+		final String message = alarm.formatRepeatedDescription(occurrences, seconds, (Object[]) source);
+
+		final Alert alert = new Alert(alarm.getEventCode(), message);
+
+		this.client.send(alert, this.config);
+	}
 }
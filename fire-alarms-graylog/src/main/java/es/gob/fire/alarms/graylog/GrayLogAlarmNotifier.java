@@ -253,35 +253,48 @@ public class GrayLogAlarmNotifier implements AlarmNotifier {
 			throws IOException {
 
 		// Si GrayLog esta habilitado en el sistema...
-		if (this.grayLogEnabled) {
-
-			// Si ni el codigo de evento ni el mensaje son cadenas nulas o
-			// vacias...
-			boolean sended = false;
-			if (alarm != null) {
-
-				String message;
-				if (source == null) {
-					message = alarm.getDescription();
-				} else {
-					message = alarm.formatDescription((Object[]) source);
-				}
+		if (this.grayLogEnabled && alarm != null) {
+			String message;
+			if (source == null) {
+				message = alarm.getDescription();
+			} else {
+				message = alarm.formatDescription((Object[]) source);
+			}
+			sendMessage(level, alarm, message);
+		}
+	}
 
-				final GelfMessage gm = new GelfMessage();
-				gm.setShortMessage(message);
-				gm.setJavaTimestamp(Calendar.getInstance().getTimeInMillis());
-				gm.setLevel(translateLevel(level));
-				gm.addField(TOKEN_KEY_ERROR_CODE, alarm.getEventCode());
-				gm.addField(TOKEN_KEY_SOURCE, this.hostname);
-				gm.addField(TOKEN_KEY_MESSAGE, message);
-				gm.addFields(this.grayLogDeclaredFields);
+	@Override
+	public void notifyRepeated(final AlarmLevel level, final Alarm alarm, final int occurrences,
+			final long seconds, final String... source) throws IOException {
 
-				sended = this.grayLogMessageSender.sendMessage(gm);
+		if (this.grayLogEnabled && alarm != null) {
+			sendMessage(level, alarm, alarm.formatRepeatedDescription(occurrences, seconds, (Object[]) source));
+		}
+	}
 
-				if (!sended) {
-					throw new IOException("No se ha podido enviar el mensaje a GrayLog"); //$NON-NLS-1$
-				}
-			}
+	/**
+	 * Env&iacute;a a GrayLog el mensaje de una alarma.
+	 * @param level Nivel de la alarma.
+	 * @param alarm Tipo de alarma.
+	 * @param message Mensaje de la alarma.
+	 * @throws IOException Cuando no se puede enviar el mensaje.
+	 */
+	private void sendMessage(final AlarmLevel level, final Alarm alarm, final String message)
+			throws IOException {
+
+		final GelfMessage gm = new GelfMessage();
+		gm.setShortMessage(message);
+		gm.setJavaTimestamp(Calendar.getInstance().getTimeInMillis());
+		gm.setLevel(translateLevel(level));
+		gm.addField(TOKEN_KEY_ERROR_CODE, alarm.getEventCode());
+		gm.addField(TOKEN_KEY_SOURCE, this.hostname);
+		gm.addField(TOKEN_KEY_MESSAGE, message);
+		gm.addFields(this.grayLogDeclaredFields);
+
+		final boolean sended = this.grayLogMessageSender.sendMessage(gm);
+		if (!sended) {
+			throw new IOException("No se ha podido enviar el mensaje a GrayLog"); //$NON-NLS-1$
 		}
 	}
 
@@ -69,4 +69,18 @@ public enum Alarm {
 			return this.description;
 		}
 	}
+
+	/**
+	 * Obtiene el texto descriptivo de una alarma que se ha producido repetidas
+	 * veces, con los par&aacute;metros insertados en la cadena de texto.
+	 * @param occurrences N&uacute;mero de veces que se ha producido la alarma.
+	 * @param seconds Segundos en los que se ha producido.
+	 * @param params Par&aacute;metros de la alarma.
+	 * @return Texto descriptivo de la alarma con el n&uacute;mero de repeticiones.
+	 */
+	public String formatRepeatedDescription(final int occurrences, final long seconds, final Object...params) {
+		final String message = params == null ? this.description : formatDescription(params);
+		return message + String.format(" (%d veces en %d segundos)", //$NON-NLS-1$
+				Integer.valueOf(occurrences), Long.valueOf(seconds));
+	}
 }
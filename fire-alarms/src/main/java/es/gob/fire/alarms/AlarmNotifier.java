@@ -39,4 +39,19 @@ public interface AlarmNotifier {
 	 */
 	void notify(AlarmLevel level, Alarm alarm, String... source)
 			throws IOException;
+
+	/**
+	 * Notifica que una alarma se ha producido repetidas veces en un periodo de
+	 * tiempo. Por defecto, se notifica como una alarma normal.
+	 * @param level Nivel de la alarma.
+	 * @param alarm Tipo de alarma.
+	 * @param occurrences N&uacute;mero de veces que se ha producido la alarma.
+	 * @param seconds Segundos transcurridos desde que se produjo la primera vez.
+	 * @param source Origen de la alarma.
+	 * @throws IOException Cuando no se puede enviar la notificaci&oacute;n.
+	 */
+	default void notifyRepeated(final AlarmLevel level, final Alarm alarm, final int occurrences,
+			final long seconds, final String... source) throws IOException {
+		notify(level, alarm, source);
+	}
 }
@@ -102,6 +102,34 @@ public class ConfigManager {
 
 	private static final String PROP_BATCH_MAX_DOCUMENTS = "batch.maxDocuments"; //$NON-NLS-1$
 
+	private static final String PROP_BATCH_MAX_THREADS = "batch.threads.max"; //$NON-NLS-1$
+
+	private static final String DEFAULT_BATCH_MAX_THREADS = "20"; //$NON-NLS-1$
+
+	private static final String PROP_BATCH_TRANSACTION_THREADS = "batch.threads.transaction"; //$NON-NLS-1$
+
+	private static final String DEFAULT_BATCH_TRANSACTION_THREADS = "10"; //$NON-NLS-1$
+
+	private static final String PROP_BATCH_CLIENT_THREADS = "batch.client.threads"; //$NON-NLS-1$
+
+	private static final String DEFAULT_BATCH_CLIENT_THREADS = "1"; //$NON-NLS-1$
+
+	private static final String PROP_CLIENTEAFIRMA_CACHE_MAX_SIZE = "clienteafirma.cache.maxSize"; //$NON-NLS-1$
+
+	private static final String DEFAULT_CLIENTEAFIRMA_CACHE_MAX_SIZE = "104857600"; // 100 Mb //$NON-NLS-1$
+
+	private static final String PROP_CLIENTEAFIRMA_CACHE_DISK_THRESHOLD = "clienteafirma.cache.disk.threshold"; //$NON-NLS-1$
+
+	private static final String DEFAULT_CLIENTEAFIRMA_CACHE_DISK_THRESHOLD = "0"; //$NON-NLS-1$
+
+	private static final String PROP_APPLICATIONS_CACHE_TIMEOUT = "applications.cache.timeout"; //$NON-NLS-1$
+
+	private static final String DEFAULT_APPLICATIONS_CACHE_TIMEOUT = "0"; //$NON-NLS-1$
+
+	private static final String PROP_APPLICATIONS_CACHE_NEGATIVE_TIMEOUT = "applications.cache.negative.timeout"; //$NON-NLS-1$
+
+	private static final String DEFAULT_APPLICATIONS_CACHE_NEGATIVE_TIMEOUT = "10"; //$NON-NLS-1$
+
 	private static final String PROP_FIRE_TEMP_TIMEOUT = "temp.fire.timeout"; //$NON-NLS-1$
 
 	/** Segundos que, por defecto, tardan los ficheros temporales del proceso de firma de lote en caducar. */
@@ -115,6 +143,16 @@ public class ConfigManager {
 
 	private static final String PROP_ALARMS_NOTIFIER = "alarms.notifier"; //$NON-NLS-1$
 
+	/** N&uacute;mero m&aacute;ximo de notificaciones de alarmas pendientes de enviar. */
+	private static final String PROP_ALARMS_QUEUE_SIZE = "alarms.queue.size"; //$NON-NLS-1$
+
+	private static final String DEFAULT_ALARMS_QUEUE_SIZE = "256"; //$NON-NLS-1$
+
+	/** Segundos durante los que se agrupan las repeticiones de una misma alarma. */
+	private static final String PROP_ALARMS_WINDOW = "alarms.window"; //$NON-NLS-1$
+
+	private static final String DEFAULT_ALARMS_WINDOW = "60"; //$NON-NLS-1$
+
 	private static final String PROP_DOCUMENT_MANAGER_PREFIX = "docmanager."; //$NON-NLS-1$
 
 	private static final String PROP_DOCMANAGER_REQUESTOR_PARTICLE = ".requestor"; //$NON-NLS-1$
@@ -127,6 +165,12 @@ public class ConfigManager {
 
 	private static final String PROP_TEMP_DOCUMENTS_DAO = "sessions.documents.dao"; //$NON-NLS-1$
 
+	private static final String PROP_SESSIONS_CODEC = "sessions.codec"; //$NON-NLS-1$
+
+	private static final String PROP_SESSIONS_CACHE_SIZE = "sessions.dao.cache.size"; //$NON-NLS-1$
+
+	private static final String DEFAULT_SESSIONS_CACHE_SIZE = "0"; //$NON-NLS-1$
+
 	private static final String PROP_LOGS_DIR = "logs.dir"; //$NON-NLS-1$
 
 	private static final String PROP_LOGS_ROLLING_POLICY = "logs.rollingPolicy"; //$NON-NLS-1$
@@ -156,6 +200,21 @@ public class ConfigManager {
 	/** Configuraci&oacute;n del directorio de volcado de datosestad&iacute;sticos. */
 	private static final String PROP_STATISTICS_DIR = "statistics.dir"; //$NON-NLS-1$
 
+	/** N&uacute;mero m&aacute;ximo de registros de estad&iacute;sticas y auditor&iacute;a pendientes de escribir. */
+	private static final String PROP_STATISTICS_QUEUE_SIZE = "statistics.queue.size"; //$NON-NLS-1$
+
+	private static final String DEFAULT_STATISTICS_QUEUE_SIZE = "8192"; //$NON-NLS-1$
+
+	/** Comportamiento cuando se llena la cola de registros de estad&iacute;sticas y auditor&iacute;a. */
+	private static final String PROP_STATISTICS_QUEUE_OVERFLOW = "statistics.queue.overflow"; //$NON-NLS-1$
+
+	private static final String DEFAULT_STATISTICS_QUEUE_OVERFLOW = "block"; //$NON-NLS-1$
+
+	/** N&uacute;mero de registros que se insertan a la vez al volcar las estad&iacute;sticas a base de datos. */
+	private static final String PROP_STATISTICS_BATCH_SIZE = "statistics.batch.size"; //$NON-NLS-1$
+
+	private static final String DEFAULT_STATISTICS_BATCH_SIZE = "500"; //$NON-NLS-1$
+
 	/** Configuraci&oacute;n de la pol&iacute;tica de volcado de datos estad&iacute;sticos. */
 	private static final String PROP_AUDIT_POLICY ="audit.policy"; //$NON-NLS-1$
 
@@ -507,6 +566,193 @@ public class ConfigManager {
 		}
 	}
 
+	/**
+	 * Recupera el n&uacute;mero m&aacute;ximo de hilos que el componente central
+	 * dedicar&aacute; al procesado de las firmas de lote, compartidos entre todas
+	 * las transacciones.
+	 * @return N&uacute;mero m&aacute;ximo de hilos para el procesado de lotes.
+	 */
+	public static int getBatchMaxThreads() {
+		if (config == null) {
+			try {
+				loadConfig();
+			} catch (final ConfigFilesException e) {
+				LOGGER.warning("No se puede cargar el fichero de configuracion del componente central: " + e); //$NON-NLS-1$
+				return Integer.parseInt(DEFAULT_BATCH_MAX_THREADS);
+			}
+		}
+
+		try {
+			return Math.max(1, Integer.parseInt(getProperty(PROP_BATCH_MAX_THREADS, DEFAULT_BATCH_MAX_THREADS)));
+		}
+		catch (final Exception e) {
+			LOGGER.warning("Se encontro un valor invalido para la propiedad '" + //$NON-NLS-1$
+					PROP_BATCH_MAX_THREADS +
+					"' del fichero de configuracion. Se usara el valor por defecto: " + DEFAULT_BATCH_MAX_THREADS); //$NON-NLS-1$
+			return Integer.parseInt(DEFAULT_BATCH_MAX_THREADS);
+		}
+	}
+
+	/**
+	 * Recupera el n&uacute;mero m&aacute;ximo de firmas de un mismo lote que se
+	 * pueden procesar de forma simult&aacute;nea.
+	 * @return N&uacute;mero m&aacute;ximo de firmas simult&aacute;neas por transacci&oacute;n.
+	 */
+	public static int getBatchTransactionThreads() {
+		if (config == null) {
+			try {
+				loadConfig();
+			} catch (final ConfigFilesException e) {
+				LOGGER.warning("No se puede cargar el fichero de configuracion del componente central: " + e); //$NON-NLS-1$
+				return Integer.parseInt(DEFAULT_BATCH_TRANSACTION_THREADS);
+			}
+		}
+
+		try {
+			return Math.max(1, Integer.parseInt(getProperty(PROP_BATCH_TRANSACTION_THREADS, DEFAULT_BATCH_TRANSACTION_THREADS)));
+		}
+		catch (final Exception e) {
+			LOGGER.warning("Se encontro un valor invalido para la propiedad '" + //$NON-NLS-1$
+					PROP_BATCH_TRANSACTION_THREADS +
+					"' del fichero de configuracion. Se usara el valor por defecto: " + DEFAULT_BATCH_TRANSACTION_THREADS); //$NON-NLS-1$
+			return Integer.parseInt(DEFAULT_BATCH_TRANSACTION_THREADS);
+		}
+	}
+
+	/**
+	 * Recupera el n&uacute;mero de firmas de un lote del Cliente @firma que se
+	 * procesan en paralelo. Si el valor es 1, las firmas del lote se procesan
+	 * secuencialmente.
+	 * @return N&uacute;mero de firmas de un lote que se procesan a la vez.
+	 */
+	public static int getBatchClientThreads() {
+		if (config == null) {
+			try {
+				loadConfig();
+			} catch (final ConfigFilesException e) {
+				LOGGER.warning("No se puede cargar el fichero de configuracion del componente central: " + e); //$NON-NLS-1$
+				return Integer.parseInt(DEFAULT_BATCH_CLIENT_THREADS);
+			}
+		}
+
+		try {
+			return Math.max(1, Integer.parseInt(getProperty(PROP_BATCH_CLIENT_THREADS, DEFAULT_BATCH_CLIENT_THREADS)));
+		}
+		catch (final Exception e) {
+			LOGGER.warning("Se encontro un valor invalido para la propiedad '" + //$NON-NLS-1$
+					PROP_BATCH_CLIENT_THREADS +
+					"' del fichero de configuracion. Se procesaran secuencialmente los lotes"); //$NON-NLS-1$
+			return Integer.parseInt(DEFAULT_BATCH_CLIENT_THREADS);
+		}
+	}
+
+	/**
+	 * Recupera el tama&ntilde;o m&aacute;ximo en bytes que pueden ocupar en memoria
+	 * los datos intercambiados con el Cliente @firma.
+	 * @return Tama&ntilde;o m&aacute;ximo en bytes de la cach&eacute;.
+	 */
+	public static long getClienteAfirmaCacheMaxSize() {
+		if (config == null) {
+			try {
+				loadConfig();
+			} catch (final ConfigFilesException e) {
+				LOGGER.warning("No se puede cargar el fichero de configuracion del componente central: " + e); //$NON-NLS-1$
+				return Long.parseLong(DEFAULT_CLIENTEAFIRMA_CACHE_MAX_SIZE);
+			}
+		}
+
+		try {
+			return Math.max(0, Long.parseLong(getProperty(PROP_CLIENTEAFIRMA_CACHE_MAX_SIZE, DEFAULT_CLIENTEAFIRMA_CACHE_MAX_SIZE)));
+		}
+		catch (final Exception e) {
+			LOGGER.warning("Se encontro un valor invalido para la propiedad '" + //$NON-NLS-1$
+					PROP_CLIENTEAFIRMA_CACHE_MAX_SIZE +
+					"' del fichero de configuracion. Se usara el valor por defecto: " + DEFAULT_CLIENTEAFIRMA_CACHE_MAX_SIZE); //$NON-NLS-1$
+			return Long.parseLong(DEFAULT_CLIENTEAFIRMA_CACHE_MAX_SIZE);
+		}
+	}
+
+	/**
+	 * Recupera el tama&ntilde;o en bytes a partir del cual los datos intercambiados
+	 * con el Cliente @firma se guardan en disco en lugar de en memoria.
+	 * @return Tama&ntilde;o en bytes a partir del que se guardan los datos en disco o
+	 * 0 si nunca se deben guardar en disco.
+	 */
+	public static int getClienteAfirmaCacheDiskThreshold() {
+		if (config == null) {
+			try {
+				loadConfig();
+			} catch (final ConfigFilesException e) {
+				LOGGER.warning("No se puede cargar el fichero de configuracion del componente central: " + e); //$NON-NLS-1$
+				return Integer.parseInt(DEFAULT_CLIENTEAFIRMA_CACHE_DISK_THRESHOLD);
+			}
+		}
+
+		try {
+			return Math.max(0, Integer.parseInt(getProperty(PROP_CLIENTEAFIRMA_CACHE_DISK_THRESHOLD, DEFAULT_CLIENTEAFIRMA_CACHE_DISK_THRESHOLD)));
+		}
+		catch (final Exception e) {
+			LOGGER.warning("Se encontro un valor invalido para la propiedad '" + //$NON-NLS-1$
+					PROP_CLIENTEAFIRMA_CACHE_DISK_THRESHOLD +
+					"' del fichero de configuracion. No se guardaran en disco los datos de la cache"); //$NON-NLS-1$
+			return Integer.parseInt(DEFAULT_CLIENTEAFIRMA_CACHE_DISK_THRESHOLD);
+		}
+	}
+
+	/**
+	 * Recupera el tiempo en segundos durante el que se reutiliza la informaci&oacute;n
+	 * de acceso de una aplicaci&oacute;n sin volver a consultarla. Por defecto, no se
+	 * reutiliza, ya que los cambios en la aplicaci&oacute;n no se aplicar&iacute;an hasta
+	 * que transcurriese este tiempo.
+	 * @return Tiempo en segundos o 0 si no se debe reutilizar.
+	 */
+	public static int getApplicationsCacheTimeout() {
+		if (config == null) {
+			try {
+				loadConfig();
+			} catch (final ConfigFilesException e) {
+				LOGGER.warning("No se puede cargar el fichero de configuracion del componente central: " + e); //$NON-NLS-1$
+				return Integer.parseInt(DEFAULT_APPLICATIONS_CACHE_TIMEOUT);
+			}
+		}
+
+		try {
+			return Math.max(0, Integer.parseInt(getProperty(PROP_APPLICATIONS_CACHE_TIMEOUT, DEFAULT_APPLICATIONS_CACHE_TIMEOUT)));
+		}
+		catch (final Exception e) {
+			LOGGER.warning("Se encontro un valor invalido para la propiedad '" + //$NON-NLS-1$
+					PROP_APPLICATIONS_CACHE_TIMEOUT +
+					"' del fichero de configuracion. Se usara el valor por defecto: " + DEFAULT_APPLICATIONS_CACHE_TIMEOUT); //$NON-NLS-1$
+			return Integer.parseInt(DEFAULT_APPLICATIONS_CACHE_TIMEOUT);
+		}
+	}
+
+	/**
+	 * Recupera el tiempo en segundos durante el que se recuerda que una aplicaci&oacute;n
+	 * no est&aacute; dada de alta en el sistema.
+	 * @return Tiempo en segundos o 0 si no se debe recordar.
+	 */
+	public static int getApplicationsCacheNegativeTimeout() {
+		if (config == null) {
+			try {
+				loadConfig();
+			} catch (final ConfigFilesException e) {
+				LOGGER.warning("No se puede cargar el fichero de configuracion del componente central: " + e); //$NON-NLS-1$
+				return Integer.parseInt(DEFAULT_APPLICATIONS_CACHE_NEGATIVE_TIMEOUT);
+			}
+		}
+
+		try {
+			return Math.max(0, Integer.parseInt(getProperty(PROP_APPLICATIONS_CACHE_NEGATIVE_TIMEOUT, DEFAULT_APPLICATIONS_CACHE_NEGATIVE_TIMEOUT)));
+		}
+		catch (final Exception e) {
+			LOGGER.warning("Se encontro un valor invalido para la propiedad '" + //$NON-NLS-1$
+					PROP_APPLICATIONS_CACHE_NEGATIVE_TIMEOUT +
+					"' del fichero de configuracion. Se usara el valor por defecto: " + DEFAULT_APPLICATIONS_CACHE_NEGATIVE_TIMEOUT); //$NON-NLS-1$
+			return Integer.parseInt(DEFAULT_APPLICATIONS_CACHE_NEGATIVE_TIMEOUT);
+		}
+	}
+
 	/**
 	 * Lanza una excepci&oacute;n en caso de que no encuentre el fichero de configuraci&oacute;n o
 	 * no se encuentren propiedades obligatorias.
@@ -666,6 +912,75 @@ public class ConfigManager {
 		 return getProperty(PROP_STATISTICS_DIR);
 	}
 
+	/**
+	 * Recupera el n&uacute;mero m&aacute;ximo de registros de estad&iacute;sticas y
+	 * auditor&iacute;a que pueden estar pendientes de escribir.
+	 * @return N&uacute;mero m&aacute;ximo de registros pendientes.
+	 */
+	public static int getStatisticsQueueSize() {
+		if (config == null) {
+			try {
+				loadConfig();
+			} catch (final ConfigFilesException e) {
+				LOGGER.warning("No se puede cargar el fichero de configuracion del componente central: " + e); //$NON-NLS-1$
+				return Integer.parseInt(DEFAULT_STATISTICS_QUEUE_SIZE);
+			}
+		}
+
+		try {
+			return Math.max(1, Integer.parseInt(getProperty(PROP_STATISTICS_QUEUE_SIZE, DEFAULT_STATISTICS_QUEUE_SIZE)));
+		}
+		catch (final Exception e) {
+			LOGGER.warning("Se encontro un valor invalido para la propiedad '" + //$NON-NLS-1$
+					PROP_STATISTICS_QUEUE_SIZE +
+					"' del fichero de configuracion. Se usara el valor por defecto: " + DEFAULT_STATISTICS_QUEUE_SIZE); //$NON-NLS-1$
+			return Integer.parseInt(DEFAULT_STATISTICS_QUEUE_SIZE);
+		}
+	}
+
+	/**
+	 * Recupera el comportamiento a seguir cuando se llena la cola de registros de
+	 * estad&iacute;sticas y auditor&iacute;a ("block", "drop" o "count").
+	 * @return Nombre del comportamiento.
+	 */
+	public static String getStatisticsQueueOverflow() {
+		if (config == null) {
+			try {
+				loadConfig();
+			} catch (final ConfigFilesException e) {
+				LOGGER.warning("No se puede cargar el fichero de configuracion del componente central: " + e); //$NON-NLS-1$
+				return DEFAULT_STATISTICS_QUEUE_OVERFLOW;
+			}
+		}
+		return getProperty(PROP_STATISTICS_QUEUE_OVERFLOW, DEFAULT_STATISTICS_QUEUE_OVERFLOW);
+	}
+
+	/**
+	 * Recupera el n&uacute;mero m&aacute;ximo de registros que se insertan en cada lote al
+	 * volcar a base de datos los datos estad&iacute;sticos de un d&iacute;a.
+	 * @return N&uacute;mero m&aacute;ximo de registros de cada lote.
+	 */
+	public static int getStatisticsBatchSize() {
+		if (config == null) {
+			try {
+				loadConfig();
+			} catch (final ConfigFilesException e) {
+				LOGGER.warning("No se puede cargar el fichero de configuracion del componente central: " + e); //$NON-NLS-1$
+				return Integer.parseInt(DEFAULT_STATISTICS_BATCH_SIZE);
+			}
+		}
+
+		try {
+			return Math.max(1, Integer.parseInt(getProperty(PROP_STATISTICS_BATCH_SIZE, DEFAULT_STATISTICS_BATCH_SIZE)));
+		}
+		catch (final Exception e) {
+			LOGGER.warning("Se encontro un valor invalido para la propiedad '" + //$NON-NLS-1$
+					PROP_STATISTICS_BATCH_SIZE +
+					"' del fichero de configuracion. Se usara el valor por defecto: " + DEFAULT_STATISTICS_BATCH_SIZE); //$NON-NLS-1$
+			return Integer.parseInt(DEFAULT_STATISTICS_BATCH_SIZE);
+		}
+	}
+
 	/**
 	 * Recupera si se debe realizar una autenticaci&oacute;n mediante certificado de las aplicaciones cliente.
 	 * @return El valor del par&aacute;metro security.checkCertificate.
@@ -797,6 +1112,58 @@ public class ConfigManager {
 		return getProperty(PROP_ALARMS_NOTIFIER);
 	}
 
+	/**
+	 * Recupera el n&uacute;mero m&aacute;ximo de notificaciones de alarmas que
+	 * pueden estar pendientes de enviar.
+	 * @return N&uacute;mero m&aacute;ximo de notificaciones pendientes.
+	 */
+	public static int getAlarmsQueueSize() {
+		if (config == null) {
+			try {
+				loadConfig();
+			} catch (final ConfigFilesException e) {
+				LOGGER.warning("No se puede cargar el fichero de configuracion del componente central: " + e); //$NON-NLS-1$
+				return Integer.parseInt(DEFAULT_ALARMS_QUEUE_SIZE);
+			}
+		}
+
+		try {
+			return Math.max(1, Integer.parseInt(getProperty(PROP_ALARMS_QUEUE_SIZE, DEFAULT_ALARMS_QUEUE_SIZE)));
+		}
+		catch (final Exception e) {
+			LOGGER.warning("Se encontro un valor invalido para la propiedad '" + //$NON-NLS-1$
+					PROP_ALARMS_QUEUE_SIZE +
+					"' del fichero de configuracion. Se usara el valor por defecto: " + DEFAULT_ALARMS_QUEUE_SIZE); //$NON-NLS-1$
+			return Integer.parseInt(DEFAULT_ALARMS_QUEUE_SIZE);
+		}
+	}
+
+	/**
+	 * Recupera el n&uacute;mero de segundos durante los que se agrupan las
+	 * repeticiones de una misma alarma en una &uacute;nica notificaci&oacute;n.
+	 * @return N&uacute;mero de segundos o 0 si no deben agruparse.
+	 */
+	public static int getAlarmsWindow() {
+		if (config == null) {
+			try {
+				loadConfig();
+			} catch (final ConfigFilesException e) {
+				LOGGER.warning("No se puede cargar el fichero de configuracion del componente central: " + e); //$NON-NLS-1$
+				return Integer.parseInt(DEFAULT_ALARMS_WINDOW);
+			}
+		}
+
+		try {
+			return Math.max(0, Integer.parseInt(getProperty(PROP_ALARMS_WINDOW, DEFAULT_ALARMS_WINDOW)));
+		}
+		catch (final Exception e) {
+			LOGGER.warning("Se encontro un valor invalido para la propiedad '" + //$NON-NLS-1$
+					PROP_ALARMS_WINDOW +
+					"' del fichero de configuracion. Se usara el valor por defecto: " + DEFAULT_ALARMS_WINDOW); //$NON-NLS-1$
+			return Integer.parseInt(DEFAULT_ALARMS_WINDOW);
+		}
+	}
+
 	/**
 	 * Recupera la clase DocumentManager con la que obtener los datos a firmar y
 	 * guardar la firma.
@@ -880,6 +1247,52 @@ public class ConfigManager {
 		return getProperty(PROP_TEMP_DOCUMENTS_DAO);
 	}
 
+	/**
+	 * Recupera el identificador del codificador con el que los gestores de sesiones
+	 * compartidas guardan los datos de las sesiones.
+	 * @return Identificador o nombre de clase del codificador o {@code null}
+	 * si no se ha configurado.
+	 */
+	public static String getSessionsCodec() {
+		if (config == null) {
+			try {
+				loadConfig();
+			} catch (final ConfigFilesException e) {
+				LOGGER.warning("No se puede cargar el fichero de configuracion del componente central: " + e); //$NON-NLS-1$
+				return null;
+			}
+		}
+
+		return getProperty(PROP_SESSIONS_CODEC);
+	}
+
+	/**
+	 * Recupera el n&uacute;mero m&aacute;ximo de sesiones que cada nodo mantendr&aacute;
+	 * en la cach&eacute; local situada delante del gestor de sesiones compartidas.
+	 * @return N&uacute;mero m&aacute;ximo de sesiones en cach&eacute; o 0 si no se
+	 * debe usar la cach&eacute;.
+	 */
+	public static int getSessionsCacheSize() {
+		if (config == null) {
+			try {
+				loadConfig();
+			} catch (final ConfigFilesException e) {
+				LOGGER.warning("No se puede cargar el fichero de configuracion del componente central: " + e); //$NON-NLS-1$
+				return Integer.parseInt(DEFAULT_SESSIONS_CACHE_SIZE);
+			}
+		}
+
+		try {
+			return Math.max(0, Integer.parseInt(getProperty(PROP_SESSIONS_CACHE_SIZE, DEFAULT_SESSIONS_CACHE_SIZE)));
+		}
+		catch (final Exception e) {
+			LOGGER.warning("Se encontro un valor invalido para la propiedad '" + //$NON-NLS-1$
+					PROP_SESSIONS_CACHE_SIZE +
+					"' del fichero de configuracion. No se usara la cache de sesiones"); //$NON-NLS-1$
+			return Integer.parseInt(DEFAULT_SESSIONS_CACHE_SIZE);
+		}
+	}
+
 	/**
 	  * Recupera la URL de la parte p&uacute;blica del componente central.
 	  * @return URL de la parte p&uacute;blica del componente central o {@code null}
@@ -12,6 +12,7 @@ package es.gob.fire.signature;
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
@@ -174,6 +175,19 @@ public class DbManager {
 		return configured;
 	}
 
+	/**
+	 * Indica si un error de base de datos se debe a que se viol&oacute; una
+	 * restricci&oacute;n de integridad, como la de clave primaria al insertar
+	 * una entrada con un identificador ya existente.
+	 * @param e Error de base de datos.
+	 * @return {@code true} si el error se debe a una violaci&oacute;n de una
+	 * restricci&oacute;n de integridad, {@code false} en caso contrario.
+	 */
+	public static boolean isIntegrityConstraintViolation(final SQLException e) {
+		return e instanceof SQLIntegrityConstraintViolationException
+				|| e.getSQLState() != null && e.getSQLState().startsWith("23"); //$NON-NLS-1$
+	}
+
 	/**
 	 * Libera los recursos de acceso a base de datos.
 	 */
@@ -101,11 +101,10 @@ public final class ClaveFirmaConnector extends FIReConnector {
 
     @Override
     public void initOperation(final Properties config) {
-        if (config != null) {
-            this.redirectOkUrl = config.getProperty("redirectOkUrl"); //$NON-NLS-1$
-            this.redirectErrorUrl = config.getProperty("redirectErrorUrl"); //$NON-NLS-1$
-            this.procedureName = config.getProperty("procedureName"); //$NON-NLS-1$
-        }
+    	// Como el conector se reutiliza, se reinicia siempre la configuracion de la operacion
+        this.redirectOkUrl = config != null ? config.getProperty("redirectOkUrl") : null; //$NON-NLS-1$
+        this.redirectErrorUrl = config != null ? config.getProperty("redirectErrorUrl") : null; //$NON-NLS-1$
+        this.procedureName = config != null ? config.getProperty("procedureName") : null; //$NON-NLS-1$
 
         Security.removeProvider("BC");
     }
@@ -516,6 +515,11 @@ public final class ClaveFirmaConnector extends FIReConnector {
 		return false;
 	}
 
+	@Override
+	public boolean isReusable() {
+		return true;
+	}
+
 	@Override
 	public boolean allowRequestNewCerts() {
 
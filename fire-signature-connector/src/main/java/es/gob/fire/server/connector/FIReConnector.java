@@ -91,6 +91,17 @@ public abstract class FIReConnector {
 		return false;
 	}
 
+    /** Indica si una instancia del conector ya inicializada puede reutilizarse en
+     * distintas operaciones. Antes de cada operaci&oacute;n se llamar&aacute; a
+     * {@link #initOperation(Properties)}, que deber&aacute; reiniciar cualquier estado
+     * de la operaci&oacute;n anterior. Una misma instancia nunca se usar&aacute; en
+     * dos operaciones a la vez.
+     * @return {@code true} si el conector se puede reutilizar, {@code false} en caso
+     * contrario. */
+	public boolean isReusable() {
+		return false;
+	}
+
     /** Genera un nuevo certificado de firma para el usuario.
      * @param subjectId Identificador del usuario.
      * @return Resultado de la generacion con el ID de transacci&oacute;n y la URL para la redirecci&oacute;n en caso de &eacute;xito.
@@ -34,4 +34,20 @@ public final class FIReConnectorFactory {
         return ret;
     }
 
+    /** Devuelve la clase conectora ya cargada, de tal forma que puedan crearse
+     * distintas instancias de ella sin volver a resolverla.
+     * @param connectorClass Nombre de la clase conectora.
+     * @return Clase que implementa FIReConnector.
+     * @throws FIReConnectorFactoryException Si no se puede cargar la clase o no es
+     *                                     un conector. */
+    public static Class<? extends FIReConnector> getConnectorClass(final String connectorClass)
+    		throws FIReConnectorFactoryException {
+        try {
+        	return Class.forName(connectorClass).asSubclass(FIReConnector.class);
+        }
+        catch (final Exception e) {
+            throw new FIReConnectorFactoryException("No se ha podido cargar el conector definido", e); //$NON-NLS-1$
+        }
+    }
+
 }
@@ -213,6 +213,9 @@ public final class CertificateService extends HttpServlet {
             Responser.sendError(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.toString());
             return;
         }
+        finally {
+        	ProviderManager.releaseProviderConnector(providerName, connector);
+        }
 
         // JSON de los certificados
         final String certJSON;
@@ -32,6 +32,22 @@ public class DocInfo implements Serializable {
 	private String name = null;
 	private long size = 0;
 
+	/**
+	 * Construye un objeto de informaci&oacute;n del documento vac&iacute;o.
+	 */
+	public DocInfo() {
+		// Se inicializa sin informacion
+	}
+
+	/**
+	 * Construye la informaci&oacute;n de un documento.
+	 * @param title T&iacute;tulo del documento.
+	 * @param name Nombre del documento.
+	 */
+	public DocInfo(final String title, final String name) {
+		this.title = title;
+		this.name = name;
+	}
 
 	/**
 	 * Recupera el t&iacute;tulo del documento.
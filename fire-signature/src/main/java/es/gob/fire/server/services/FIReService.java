@@ -36,8 +36,10 @@ import es.gob.fire.server.services.internal.ServiceParams;
 import es.gob.fire.server.services.internal.SessionCollector;
 import es.gob.fire.server.services.internal.SignBatchManager;
 import es.gob.fire.server.services.internal.SignOperationManager;
+import es.gob.fire.server.services.internal.TasksPoolManager;
 import es.gob.fire.server.services.internal.TempDocumentsManager;
 import es.gob.fire.server.services.internal.TransactionAuxParams;
+import es.gob.fire.server.services.statistics.AsyncRecordWriter;
 import es.gob.fire.signature.ConfigFilesException;
 import es.gob.fire.signature.ConfigManager;
 import es.gob.fire.signature.DbManager;
@@ -109,7 +111,8 @@ public class FIReService extends HttpServlet {
     					jdbcDriver != null && !jdbcDriver.isEmpty() &&
     					dbConnectionString != null && !dbConnectionString.isEmpty()) {
     				final String startTime = ConfigManager.getStatisticsDumpTime();
-    				FireStatistics.init(statisticsDirPath, startTime, jdbcDriver, dbConnectionString, dbUser, dbPass, false);
+    				FireStatistics.init(statisticsDirPath, startTime, jdbcDriver, dbConnectionString, dbUser, dbPass, false,
+    						ConfigManager.getStatisticsBatchSize());
     			}
     		}
     		catch (final Exception e) {
@@ -145,7 +148,8 @@ public class FIReService extends HttpServlet {
 
 		RequestParameters params;
 		try {
-			params = RequestParameters.extractParameters(request);
+			// Los datos a firmar se decodifican durante la lectura para no cargar su Base64 en memoria
+			params = RequestParameters.extractParameters(request, ServiceParams.HTTP_PARAM_DATA);
 		}
 		catch (final Exception e) {
 			LOGGER.log(Level.WARNING, "Error en la lectura de los parametros de entrada", e); //$NON-NLS-1$
@@ -281,16 +285,36 @@ public class FIReService extends HttpServlet {
 			LOGGER.log(Level.SEVERE, "No se pudieron liberar los recursos del gestor de estadisticas", e); //$NON-NLS-1$
 		}
 
+		// Escribimos los registros de estadisticas y auditoria pendientes antes de
+		// cerrar las conexiones con base de datos
+		try {
+			AsyncRecordWriter.release();
+		} catch (final Throwable e) {
+			LOGGER.log(Level.SEVERE, "No se pudieron escribir los registros de estadisticas y auditoria pendientes", e); //$NON-NLS-1$
+		}
+
 		try {
 			DbManager.closeResources();
 		} catch (final Throwable e) {
 			LOGGER.log(Level.SEVERE, "No se pudieron liberar los recursos del gestor de bases de datos", e); //$NON-NLS-1$
 		}
 
+		try {
+			TasksPoolManager.release();
+		} catch (final Throwable e) {
+			LOGGER.log(Level.SEVERE, "No se pudieron liberar los recursos del pool de tareas de lote", e); //$NON-NLS-1$
+		}
+
 		try {
 			TempDocumentsManager.release();
 		} catch (final Throwable e) {
 			LOGGER.log(Level.SEVERE, "No se pudieron liberar los recursos del gestor de ficheros temporales", e); //$NON-NLS-1$
 		}
+
+		try {
+			AlarmsManager.release();
+		} catch (final Throwable e) {
+			LOGGER.log(Level.SEVERE, "No se pudieron enviar las alarmas pendientes", e); //$NON-NLS-1$
+		}
 	}
 }
@@ -249,152 +249,17 @@ public final class FIReTriHelper {
         		continue;
         	}
 
-        	final SignBatchConfig signConfig = doc.getConfig();
-        	final String cop = signConfig != null ? signConfig.getCryptoOperation() : criptoOperation;
-        	final String frmt = signConfig != null ? signConfig.getFormat() : format;
-        	final Properties params = signConfig != null ? signConfig.getExtraParams() : extraParams;
-
-        	// Instanciamos el preprocesador adecuado
-        	final TriPhasePreProcessor prep;
-            try {
-            	prep = getTriPhasePreProcessor(frmt);
-            }
-            catch (final FIReSignatureException e) {
-            	LOGGER.warning(logF.f("Formato no soportado: ") + frmt); //$NON-NLS-1$
-    			if (stopOnError) {
-    				stopOperation = true;
-				}
-        		doc.setBatchResult(BatchResult.PRESIGN_ERROR);
-        		doc.setErrorMessage(e.getMessage());
-    			continue;
-            }
-
-        	// Expandimos la configuracion teniendo en cuenta que puede variar
-        	// el resultado segun los datos a los que aplica
-        	Properties expandedParams = null;
-        	if (params != null) {
-        		try {
-        			expandedParams = ExtraParamsProcessor.expandProperties((Properties) params.clone(), doc.getData(), frmt);
-        		} catch (final Exception e) {
-        			LOGGER.warning(logF.f("No se ha podido expandir la politica de firma: ") + e); //$NON-NLS-1$
-        			expandedParams = new Properties();
-        		}
-        	}
-        	else {
-        		expandedParams = new Properties();
-        	}
-
-        	// Agregamos a la configuracion el parametro que hace que las firmas trifasicas
-        	// establezcan un ID concreto para todas las prefirmas que las compongan
-        	if (doc.getId() != null) {
-        		expandedParams.setProperty(AFIRMA_EXTRAPARAM_DOC_ID, doc.getId());
-        	}
-
-        	TriphaseData preRes;
-        	if (SignOperation.SIGN.toString().equalsIgnoreCase(cop)) {
-        		try {
-        			preRes = prep.preProcessPreSign(
-        					doc.getData(),
-        					algorithm,
-        					new X509Certificate[] { signerCert },
-        					expandedParams,
-        					false
-        					);
-        		}
-        		catch (final Throwable e) {
-                    LOGGER.warning(logF.f("Error en la prefirma: ") + e); //$NON-NLS-1$
-            		if (stopOnError) {
-            			stopOperation = true;
-					}
-            		doc.setBatchResult(BatchResult.PRESIGN_ERROR);
-            		doc.setErrorMessage(e.getMessage());
-        			continue;
-        		}
-        	}
-        	else if (SignOperation.COSIGN.toString().equalsIgnoreCase(cop)) {
-
-        		try {
-                	// TODO: Comprobamos que no se permitan multifirmas para FacturaE o firmas ASiC.
-                	// Eliminar esta comprobacion cuando se publique la version 1.8 de AutoFirma
-                	checkMultiSignatureCompatibility(frmt, cop);
-
-        			preRes = prep.preProcessPreCoSign(
-        					doc.getData(),
-        					algorithm,
-        					new X509Certificate[] { signerCert },
-        					expandedParams,
-        					false
-        					);
-        		}
-        		catch (final Throwable e) {
-                    LOGGER.warning(logF.f("Error en la prefirma al cofirmar: ") + e); //$NON-NLS-1$
-        			if (stopOnError) {
-        				stopOperation = true;
-					}
-            		doc.setBatchResult(BatchResult.PRESIGN_ERROR);
-            		doc.setErrorMessage(e.getMessage());
-        			continue;
-        		}
-        	}
-        	else if (SignOperation.COUNTERSIGN.toString().equalsIgnoreCase(cop)) {
-
-        		CounterSignTarget target = CounterSignTarget.LEAFS;
-        		if (expandedParams.containsKey(PARAM_NAME_TARGET_TYPE)) {
-        			final String targetValue = expandedParams.getProperty(PARAM_NAME_TARGET_TYPE).trim();
-        			if (CounterSignTarget.TREE.toString().equalsIgnoreCase(targetValue)) {
-        				target = CounterSignTarget.TREE;
-        			}
-        		}
-
-        		try {
-                	// TODO: Comprobamos que no se permitan multifirmas para FacturaE o firmas ASiC.
-                	// Eliminar esta comprobacion cuando se publique la version 1.8 de AutoFirma
-                	checkMultiSignatureCompatibility(frmt, cop);
-
-        			preRes = prep.preProcessPreCounterSign(
-        					doc.getData(),
-        					algorithm,
-        					new X509Certificate[] { signerCert },
-        					expandedParams,
-        					target,
-        					false
-        					);
-        		}
-        		catch (final Throwable e) {
-                    LOGGER.warning(logF.f("Error en la prefirma al contrafirmar: ") + e); //$NON-NLS-1$
-        			if (stopOnError) {
-        				stopOperation = true;
-					}
-            		doc.setBatchResult(BatchResult.PRESIGN_ERROR);
-            		doc.setErrorMessage(e.getMessage());
-        			continue;
-        		}
-
-        		// El core del cliente @firma devuelve todas las firmas de una contrafirma con el mismo
-                // ID para despues poder asociarlas. Como esto no esta permitido por algunos proveedores,
-                // modificaremos los ID para garantizar que son distintos y, antes de ejecutar la postfirma,
-                // desharemos el cambio
-        		preRes = FIReTriSignIdProcessor.make(preRes);
-        	}
-        	else {
-                LOGGER.warning(logF.f("Operacion no soportada")); //$NON-NLS-1$
+        	final TriphaseData preRes = getPreSign(criptoOperation, format, algorithm,
+        			extraParams, signerCert, doc, logF);
+        	if (preRes == null) {
         		if (stopOnError) {
         			stopOperation = true;
         		}
-        		doc.setBatchResult(BatchResult.INVALID_SIGNATURE_OPERATION);
-        		doc.setErrorMessage("Operacion no soportada");
-    			continue;
+        		continue;
         	}
 
-        	// Agregamos todas las firmas individuales al lote global.
-        	// Le agregamos la informacion del documento, a su primera prefirma
-        	boolean first = true;
+        	// Agregamos todas las firmas individuales al lote global
         	for (final TriSign triSign : preRes.getTriSigns()) {
-        		// Le agregamos la informacion del documento, a su primera prefirma
-        		if (first && doc.getDocInfo() != null) {
-        			DocInfo.addDocInfoToSign(triSign, doc.getDocInfo());
-        		}
-        		first = false;
         		batchTriPhaseData.addSignOperation(triSign);
         	}
         }
@@ -402,6 +267,157 @@ public final class FIReTriHelper {
         return batchTriPhaseData;
     }
 
+    /**
+     * Ejecuta la prefirma de uno de los documentos de un lote. Si no se puede
+     * prefirmar el documento, se registra en &eacute;l el error.
+     * @param criptoOperation Operaci&oacute;n de firma a realizar ("sign", "cosign" o "countersign") por defecto.
+     * @param format Formato de firma por defecto.
+     * @param algorithm Algoritmo de firma por defecto.
+     * @param extraParams Configuraci&oacute;n de firma por defecto.
+     * @param signerCert Certificado con el que se debe firmar.
+     * @param doc Documento que se firma/multifirma.
+     * @param logF Objeto para el formateo del log.
+     * @return Informaci&oacute;n de prefirma del documento o {@code null} si no se
+     * pudo generar, en cuyo caso se habr&aacute; registrado el error en el documento.
+     */
+    public static TriphaseData getPreSign(final String criptoOperation,
+                                         final String format,
+                                         final String algorithm,
+                                         final Properties extraParams,
+                                         final X509Certificate signerCert,
+                                         final BatchDocument doc,
+                                         final LogTransactionFormatter logF) {
+
+		final SignBatchConfig signConfig = doc.getConfig();
+		final String cop = signConfig != null ? signConfig.getCryptoOperation() : criptoOperation;
+		final String frmt = signConfig != null ? signConfig.getFormat() : format;
+		final Properties params = signConfig != null ? signConfig.getExtraParams() : extraParams;
+
+		// Instanciamos el preprocesador adecuado
+		final TriPhasePreProcessor prep;
+		try {
+			prep = getTriPhasePreProcessor(frmt);
+		}
+		catch (final FIReSignatureException e) {
+			LOGGER.warning(logF.f("Formato no soportado: ") + frmt); //$NON-NLS-1$
+			doc.setBatchResult(BatchResult.PRESIGN_ERROR);
+			doc.setErrorMessage(e.getMessage());
+			return null;
+		}
+
+		// Expandimos la configuracion teniendo en cuenta que puede variar
+		// el resultado segun los datos a los que aplica
+		Properties expandedParams = null;
+		if (params != null) {
+			try {
+				expandedParams = ExtraParamsProcessor.expandProperties((Properties) params.clone(), doc.getData(), frmt);
+			} catch (final Exception e) {
+				LOGGER.warning(logF.f("No se ha podido expandir la politica de firma: ") + e); //$NON-NLS-1$
+				expandedParams = new Properties();
+			}
+		}
+		else {
+			expandedParams = new Properties();
+		}
+
+		// Agregamos a la configuracion el parametro que hace que las firmas trifasicas
+		// establezcan un ID concreto para todas las prefirmas que las compongan
+		if (doc.getId() != null) {
+			expandedParams.setProperty(AFIRMA_EXTRAPARAM_DOC_ID, doc.getId());
+		}
+
+		TriphaseData preRes;
+		if (SignOperation.SIGN.toString().equalsIgnoreCase(cop)) {
+			try {
+				preRes = prep.preProcessPreSign(
+						doc.getData(),
+						algorithm,
+						new X509Certificate[] { signerCert },
+						expandedParams,
+						false
+						);
+			}
+			catch (final Throwable e) {
+				LOGGER.warning(logF.f("Error en la prefirma: ") + e); //$NON-NLS-1$
+				doc.setBatchResult(BatchResult.PRESIGN_ERROR);
+				doc.setErrorMessage(e.getMessage());
+				return null;
+			}
+		}
+		else if (SignOperation.COSIGN.toString().equalsIgnoreCase(cop)) {
+
+			try {
+				// TODO: Comprobamos que no se permitan multifirmas para FacturaE o firmas ASiC.
+				// Eliminar esta comprobacion cuando se publique la version 1.8 de AutoFirma
+				checkMultiSignatureCompatibility(frmt, cop);
+
+				preRes = prep.preProcessPreCoSign(
+						doc.getData(),
+						algorithm,
+						new X509Certificate[] { signerCert },
+						expandedParams,
+						false
+						);
+			}
+			catch (final Throwable e) {
+				LOGGER.warning(logF.f("Error en la prefirma al cofirmar: ") + e); //$NON-NLS-1$
+				doc.setBatchResult(BatchResult.PRESIGN_ERROR);
+				doc.setErrorMessage(e.getMessage());
+				return null;
+			}
+		}
+		else if (SignOperation.COUNTERSIGN.toString().equalsIgnoreCase(cop)) {
+
+			CounterSignTarget target = CounterSignTarget.LEAFS;
+			if (expandedParams.containsKey(PARAM_NAME_TARGET_TYPE)) {
+				final String targetValue = expandedParams.getProperty(PARAM_NAME_TARGET_TYPE).trim();
+				if (CounterSignTarget.TREE.toString().equalsIgnoreCase(targetValue)) {
+					target = CounterSignTarget.TREE;
+				}
+			}
+
+			try {
+				// TODO: Comprobamos que no se permitan multifirmas para FacturaE o firmas ASiC.
+				// Eliminar esta comprobacion cuando se publique la version 1.8 de AutoFirma
+				checkMultiSignatureCompatibility(frmt, cop);
+
+				preRes = prep.preProcessPreCounterSign(
+						doc.getData(),
+						algorithm,
+						new X509Certificate[] { signerCert },
+						expandedParams,
+						target,
+						false
+						);
+			}
+			catch (final Throwable e) {
+				LOGGER.warning(logF.f("Error en la prefirma al contrafirmar: ") + e); //$NON-NLS-1$
+				doc.setBatchResult(BatchResult.PRESIGN_ERROR);
+				doc.setErrorMessage(e.getMessage());
+				return null;
+			}
+
+			// El core del cliente @firma devuelve todas las firmas de una contrafirma con el mismo
+			// ID para despues poder asociarlas. Como esto no esta permitido por algunos proveedores,
+			// modificaremos los ID para garantizar que son distintos y, antes de ejecutar la postfirma,
+			// desharemos el cambio
+			preRes = FIReTriSignIdProcessor.make(preRes);
+		}
+		else {
+			LOGGER.warning(logF.f("Operacion no soportada")); //$NON-NLS-1$
+			doc.setBatchResult(BatchResult.INVALID_SIGNATURE_OPERATION);
+			doc.setErrorMessage("Operacion no soportada");
+			return null;
+		}
+
+		// Le agregamos la informacion del documento a su primera prefirma
+		if (doc.getDocInfo() != null && !preRes.getTriSigns().isEmpty()) {
+			DocInfo.addDocInfoToSign(preRes.getSign(0), doc.getDocInfo());
+		}
+
+		return preRes;
+    }
+
 	/**
 	 * Valida que la operaci&oacute;n de cofirma o contrafirma se permita y sea compatible con el formato.
 	 * @param format formato con el que cofirmar o contrafirmar
@@ -286,6 +286,9 @@ public final class LoadService extends HttpServlet {
                 "Error en la carga de datos"); //$NON-NLS-1$
             return;
         }
+        finally {
+        	ProviderManager.releaseProviderConnector(providerName, connector);
+        }
 
         response.setContentType("application/json"); //$NON-NLS-1$
         Responser.sendResult(response, lr.encodeResult(StandardCharsets.UTF_8));
@@ -9,14 +9,18 @@
  */
 package es.gob.fire.server.services;
 
-import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.Map;
 
 import javax.servlet.http.HttpServletRequest;
 
+import es.gob.afirma.core.misc.Base64;
 import es.gob.fire.signature.ConfigManager;
 
 /**
@@ -27,6 +31,19 @@ public class RequestParameters extends HashMap<String, String> {
 	/** Serial Id. */
 	private static final long serialVersionUID = 2008278392123140503L;
 
+	/** Tama&ntilde;o del bloque de lectura del cuerpo de la petici&oacute;n. */
+	private static final int READ_BLOCK_SIZE = 8192;
+
+	/** Tama&ntilde;o m&aacute;ximo con el que se reserva inicialmente el buffer en el que
+	 * se decodifica un par&aacute;metro. A partir de ah&iacute;, crece seg&uacute;n se leen
+	 * los datos, de forma que un tama&ntilde;o declarado elevado no reserve memoria
+	 * por adelantado. */
+	private static final int MAX_INITIAL_DECODE_BUFFER_SIZE = 1024 * 1024;
+
+	/** Par&aacute;metros que se recibieron en Base64 y se decodificaron durante la lectura.
+	 * Un valor nulo indica que el par&aacute;metro no estaba correctamente codificado. */
+	private final Map<String, byte[]> decodedParams = new HashMap<>();
+
 	private RequestParameters() {
 		super();
 	}
@@ -47,7 +64,45 @@ public class RequestParameters extends HashMap<String, String> {
 	 * {@code false} en caso contrario.
 	 */
 	public boolean containsParameter(final String name) {
-		return containsKey(name);
+		return containsKey(name) || this.decodedParams.containsKey(name);
+	}
+
+	/**
+	 * Indica si se especific&oacute; un par&aacute;metro con un valor no vac&iacute;o. Los
+	 * par&aacute;metros decodificados que no estaban bien codificados se consideran
+	 * no vac&iacute;os.
+	 * @param name Nombre del par&aacute;metro.
+	 * @return {@code true} si se indic&oacute; un valor para el par&aacute;metro,
+	 * {@code false} en caso contrario.
+	 */
+	public boolean hasParameterValue(final String name) {
+		if (this.decodedParams.containsKey(name)) {
+			final byte[] value = this.decodedParams.get(name);
+			return value == null || value.length > 0;
+		}
+		final String value = get(name);
+		return value != null && !value.isEmpty();
+	}
+
+	/**
+	 * Recupera un par&aacute;metro que se recibi&oacute; en Base64 y que se
+	 * decodific&oacute; durante la lectura de la petici&oacute;n. Los par&aacute;metros
+	 * se decodifican as&iacute; cuando se indican en la llamada a
+	 * {@link #extractParameters(HttpServletRequest, String...)}.
+	 * @param name Nombre del par&aacute;metro.
+	 * @return Valor decodificado del par&aacute;metro o {@code null} si no existe.
+	 * @throws IllegalArgumentException Cuando el par&aacute;metro no estaba
+	 * correctamente codificado en Base64.
+	 */
+	public byte[] getDecodedParameter(final String name) {
+		if (!this.decodedParams.containsKey(name)) {
+			return null;
+		}
+		final byte[] value = this.decodedParams.get(name);
+		if (value == null) {
+			throw new IllegalArgumentException("El parametro " + name + " no esta correctamente codificado en Base64"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		return value;
 	}
 
 	/**
@@ -59,8 +114,26 @@ public class RequestParameters extends HashMap<String, String> {
 	 * @throws IllegalArgumentException Si la peticion no esta bien formada.
 	 */
 	public static RequestParameters extractParameters(final HttpServletRequest request) throws IOException {
+		return extractParameters(request, new String[0]);
+	}
 
-		final RequestParameters params = new RequestParameters();
+	/**
+	 * Parsea una petici&oacute;n al servicio decodificando directamente los
+	 * par&aacute;metros indicados, que deben estar codificados en Base64. Estos
+	 * par&aacute;metros no se cargan como texto y se deben recuperar mediante
+	 * {@link #getDecodedParameter(String)}.
+	 * @param request Petici&oacute;n al servicio.
+	 * @param base64Params Nombres de los par&aacute;metros en Base64 que se deben
+	 * decodificar durante la lectura, normalmente los de mayor tama&ntilde;o.
+	 * @return Objetos extra&iacute;dos de la petici&oacute;n.
+	 * @throws IOException Cuando ocurre un error en la lectura de la petici&oacute;n
+	 * o uno de sus par&aacute;metros.
+	 * @throws IllegalArgumentException Si la peticion no esta bien formada.
+	 */
+	public static RequestParameters extractParameters(final HttpServletRequest request,
+			final String... base64Params) throws IOException {
+
+		RequestParameters params;
 
 		final long requestMaxSize = ConfigManager.getRequestMaxSize();
 		if (requestMaxSize != ConfigManager.UNLIMITED_MAX_SIZE && request.getContentLengthLong() > requestMaxSize) {
@@ -68,71 +141,156 @@ public class RequestParameters extends HashMap<String, String> {
 		}
 
 		if ("GET".equals(request.getMethod())) { //$NON-NLS-1$
-			extractParametersFromUrl(request, params);
+			params = new RequestParameters();
+			extractParametersFromUrl(request, params, base64Params);
 		}
 		else {
-			extractParametersFromBody(request, params, ConfigManager.getParamMaxSize(), requestMaxSize);
+			try (final InputStream is = request.getInputStream()) {
+				params = extractParametersFromBody(is, request.getContentLengthLong(),
+						ConfigManager.getParamMaxSize(), requestMaxSize, base64Params);
+			}
 		}
 
 		return params;
 	}
 
 
-	private static void extractParametersFromUrl(final HttpServletRequest request, final RequestParameters params) {
+	private static void extractParametersFromUrl(final HttpServletRequest request, final RequestParameters params,
+			final String[] base64Params) {
 
 		final Enumeration<String> names = request.getParameterNames();
 		while (names.hasMoreElements()) {
 			final String name = names.nextElement();
-			params.put(name, request.getParameter(name));
+			if (isBase64Param(name, base64Params)) {
+				byte[] value;
+				try {
+					value = Base64.decode(request.getParameter(name), true);
+				}
+				catch (final Exception e) {
+					value = null;
+				}
+				params.decodedParams.put(name, value);
+			}
+			else {
+				params.put(name, request.getParameter(name));
+			}
+		}
+	}
+
+	private static boolean isBase64Param(final String name, final String[] base64Params) {
+		for (final String base64Param : base64Params) {
+			if (base64Param.equals(name)) {
+				return true;
+			}
 		}
+		return false;
 	}
 
-	private static void extractParametersFromBody(final HttpServletRequest request, final RequestParameters params, final int paramsMaxSize, final long requestMaxSize) throws IOException {
-		final char[] block = new char[1048576];
-		final StringBuilder buffer = new StringBuilder(1048576);
+	/**
+	 * Lee los par&aacute;metros del cuerpo de una petici&oacute;n por bloques. Los
+	 * par&aacute;metros de texto se guardan en el mapa y los indicados como Base64 se
+	 * decodifican a medida que se leen, sin llegar a cargar su texto en memoria.
+	 * @param is Flujo con el cuerpo de la petici&oacute;n.
+	 * @param contentLength Tama&ntilde;o declarado de la petici&oacute;n o -1 si no se conoce.
+	 * @param paramsMaxSize Tama&ntilde;o m&aacute;ximo de un par&aacute;metro.
+	 * @param requestMaxSize Tama&ntilde;o m&aacute;ximo de la petici&oacute;n.
+	 * @param base64Params Nombres de los par&aacute;metros que se deben decodificar.
+	 * @return Par&aacute;metros de la petici&oacute;n.
+	 * @throws IOException Cuando falla la lectura o se exceden los tama&ntilde;os m&aacute;ximos.
+	 * @throws IllegalArgumentException Si la peticion no esta bien formada.
+	 */
+	static RequestParameters extractParametersFromBody(final InputStream is, final long contentLength,
+			final int paramsMaxSize, final long requestMaxSize, final String[] base64Params)
+					throws IOException {
 
+		final RequestParameters params = new RequestParameters();
+		final byte[] block = new byte[READ_BLOCK_SIZE];
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+		String paramName = null;
+		Base64StreamDecoder decoder = null;
+		long paramSize = 0;
 		long totalSize = 0;
 
-		int n = 0;
-		request.setCharacterEncoding("utf-8"); //$NON-NLS-1$
-		try (final BufferedReader reader = request.getReader(); ) {
-			while ((n = reader.read(block, 0, block.length)) > 0) {
+		int n;
+		while ((n = is.read(block, 0, block.length)) > 0) {
 
-				// Comprobamos que la peticion en conjunto no exceda el tamano maximo configurado
-				totalSize += n;
-				if (requestMaxSize != ConfigManager.UNLIMITED_MAX_SIZE && checkLimit(totalSize, requestMaxSize)) {
-					throw new IOException("La peticion excede el tamano maximo configurado. Tamano leido: " + totalSize); //$NON-NLS-1$
-				}
+			// Comprobamos que la peticion en conjunto no exceda el tamano maximo configurado
+			totalSize += n;
+			if (requestMaxSize != ConfigManager.UNLIMITED_MAX_SIZE && checkLimit(totalSize, requestMaxSize)) {
+				throw new IOException("La peticion excede el tamano maximo configurado. Tamano leido: " + totalSize); //$NON-NLS-1$
+			}
 
-				int startParamsIdx = 0;
-				for (int i = 0; i < n; i++) {
-					if (block[i] == '&') {
-						if (i > 0) {
-
-							// Comprobamos que el tamano no exceda el maximo configurado
-							if (paramsMaxSize != ConfigManager.UNLIMITED_MAX_SIZE && checkLimit((long)i - startParamsIdx, paramsMaxSize)) {
-								throw new IOException("Se envio un parametro al servicio que excedia el tamano maximo permitido: " + paramsMaxSize); //$NON-NLS-1$
-							}
-							// Agregamos al buffer el parametro que ya tenemos leido
-							buffer.append(Arrays.copyOfRange(block, startParamsIdx, i));
-						}
+			int start = 0;
+			for (int i = 0; i < n; i++) {
+				final byte b = block[i];
+				if (b == '&' || b == '=' && paramName == null) {
 
-						saveParam(params, buffer);
-						startParamsIdx = i + 1;
+					// Comprobamos que el tamano del parametro no exceda el maximo configurado
+					paramSize += i - start;
+					if (paramsMaxSize != ConfigManager.UNLIMITED_MAX_SIZE && checkLimit(paramSize, paramsMaxSize)) {
+						throw new IOException("Se envio un parametro al servicio que excedia el tamano maximo permitido: " + paramsMaxSize); //$NON-NLS-1$
 					}
-				}
 
-				// Comprobamos que el parametro almacenado en el buffer mas lo nuevo no exceda el
-				// tamano maximo configurado
+					if (decoder != null) {
+						decoder.decode(block, start, i);
+					}
+					else {
+						buffer.write(block, start, i - start);
+					}
 
-				if (paramsMaxSize != ConfigManager.UNLIMITED_MAX_SIZE && checkLimit((long)buffer.length() + n - startParamsIdx, paramsMaxSize)) {
-					throw new IOException("Se envio un parametro al servicio que excedia el tamano maximo permitido: " + paramsMaxSize); //$NON-NLS-1$
+					// Si termina el nombre, se prepara la lectura del valor
+					if (b == '=') {
+						paramName = buffer.toString(StandardCharsets.UTF_8.name());
+						buffer.reset();
+						if (isBase64Param(paramName, base64Params)) {
+							final int maxDecodedSize = estimateDecodedSize(contentLength, paramsMaxSize);
+							decoder = new Base64StreamDecoder(
+									Math.min(maxDecodedSize, MAX_INITIAL_DECODE_BUFFER_SIZE), maxDecodedSize);
+						}
+					}
+					// Si termina el parametro, se guarda
+					else {
+						saveParam(params, paramName, buffer, decoder);
+						paramName = null;
+						decoder = null;
+						paramSize = 0;
+					}
+					start = i + 1;
 				}
-				// Agregamos al buffer el inicio de parametro que ya tenemos leido
-				buffer.append(Arrays.copyOfRange(block, startParamsIdx, n));
 			}
-			saveParam(params, buffer);
+
+			// Agregamos el inicio de parametro que ya tenemos leido
+			paramSize += n - start;
+			if (paramsMaxSize != ConfigManager.UNLIMITED_MAX_SIZE && checkLimit(paramSize, paramsMaxSize)) {
+				throw new IOException("Se envio un parametro al servicio que excedia el tamano maximo permitido: " + paramsMaxSize); //$NON-NLS-1$
+			}
+			if (decoder != null) {
+				decoder.decode(block, start, n);
+			}
+			else {
+				buffer.write(block, start, n - start);
+			}
 		}
+		saveParam(params, paramName, buffer, decoder);
+
+		return params;
+	}
+
+	/**
+	 * Calcula el tama&ntilde;o m&aacute;ximo que se espera que tenga un par&aacute;metro
+	 * decodificado seg&uacute;n el tama&ntilde;o declarado de la petici&oacute;n y el
+	 * tama&ntilde;o m&aacute;ximo de los par&aacute;metros.
+	 * @param contentLength Tama&ntilde;o declarado de la petici&oacute;n o -1 si no se conoce.
+	 * @param paramsMaxSize Tama&ntilde;o m&aacute;ximo de un par&aacute;metro.
+	 * @return Tama&ntilde;o m&aacute;ximo esperado del par&aacute;metro decodificado.
+	 */
+	private static int estimateDecodedSize(final long contentLength, final int paramsMaxSize) {
+		long size = contentLength > 0 ? contentLength * 3 / 4 + 3 : READ_BLOCK_SIZE;
+		if (paramsMaxSize != ConfigManager.UNLIMITED_MAX_SIZE) {
+			size = Math.min(size, paramsMaxSize + 3L);
+		}
+		return (int) Math.min(size, Integer.MAX_VALUE - 8);
 	}
 
 	/**
@@ -148,22 +306,171 @@ public class RequestParameters extends HashMap<String, String> {
 	}
 
 	/**
-	 * Guarda en el mapa de par&aacute;metros aquel que se encuentra en {@code param} y luego vacia este buffer.
+	 * Guarda en el mapa de par&aacute;metros el que se acaba de leer y luego vacia el buffer.
 	 * @param params Mapa en el que almacenar el nuevo parm&aacute;metro.
-	 * @param param Buffer con el nuevo par&aacute;metro.
+	 * @param name Nombre del par&aacute;metro o {@code null} si no se encontr&oacute; el
+	 * separador del valor.
+	 * @param value Buffer con el valor del par&aacute;metro de texto.
+	 * @param decoder Decodificador del valor si el par&aacute;metro se recibe en Base64.
+	 * @throws IOException Cuando no se puede interpretar el par&aacute;metro.
 	 */
-	private static void saveParam(final HashMap<String, String> params, final StringBuilder param) {
+	private static void saveParam(final RequestParameters params, final String name,
+			final ByteArrayOutputStream value, final Base64StreamDecoder decoder) throws IOException {
 
-		if (param.length() == 0) {
-			return;
+		if (name == null) {
+			if (value.size() == 0) {
+				return;
+			}
+			throw new IllegalArgumentException("La peticion no esta bien formada"); //$NON-NLS-1$
 		}
 
-		final int sep = param.indexOf("="); //$NON-NLS-1$
-		if (sep == -1) {
-			throw new IllegalArgumentException("La peticion no esta bien formada"); //$NON-NLS-1$
+		if (decoder != null) {
+			params.decodedParams.put(name, decoder.finish());
+		}
+		else {
+			params.put(name, value.toString(StandardCharsets.UTF_8.name()));
+			value.reset();
+		}
+	}
+
+	/**
+	 * Decodificador de Base64 que procesa los datos a medida que se leen. Admite
+	 * tanto el alfabeto normal como el seguro para URL, ignora los espacios y saltos
+	 * de l&iacute;nea e interpreta los caracteres escapados con '%'. El buffer de datos
+	 * crece a medida que se decodifican, sin superar el tama&ntilde;o esperado salvo que
+	 * los datos lo excedan, y al terminar se ajusta a su tama&ntilde;o real.
+	 */
+	private static final class Base64StreamDecoder {
+
+		private byte[] data;
+
+		/** Tama&ntilde;o m&aacute;ximo esperado de los datos decodificados. */
+		private final int expectedMaxSize;
+
+		private int length = 0;
+
+		/** Bits acumulados de los caracteres pendientes de decodificar. */
+		private int bits = 0;
+
+		/** N&uacute;mero de caracteres pendientes de decodificar. */
+		private int count = 0;
+
+		/** N&uacute;mero de d&iacute;gitos hexadecimales le&iacute;dos de un car&aacute;cter
+		 * escapado o -1 si no se est&aacute; leyendo ninguno. */
+		private int escaped = -1;
+
+		private int escapedValue = 0;
+
+		private boolean padding = false;
+
+		private boolean valid = true;
+
+		Base64StreamDecoder(final int initialSize, final int expectedMaxSize) {
+			this.data = new byte[Math.max(16, initialSize)];
+			this.expectedMaxSize = expectedMaxSize;
+		}
+
+		void decode(final byte[] src, final int from, final int to) {
+			for (int i = from; i < to && this.valid; i++) {
+				decodeChar(src[i]);
+			}
+		}
+
+		private void decodeChar(final int c) {
+
+			if (this.escaped >= 0) {
+				final int digit = Character.digit(c, 16);
+				if (digit < 0) {
+					this.valid = false;
+					return;
+				}
+				this.escapedValue = this.escapedValue << 4 | digit;
+				if (++this.escaped == 2) {
+					this.escaped = -1;
+					decodeChar(this.escapedValue);
+				}
+				return;
+			}
+
+			final int value = toSextet(c);
+			if (value >= 0) {
+				// Tras el relleno no pueden venir mas datos
+				if (this.padding) {
+					this.valid = false;
+					return;
+				}
+				this.bits = this.bits << 6 | value;
+				if (++this.count == 4) {
+					ensureCapacity(3);
+					this.data[this.length++] = (byte) (this.bits >> 16);
+					this.data[this.length++] = (byte) (this.bits >> 8);
+					this.data[this.length++] = (byte) this.bits;
+					this.bits = 0;
+					this.count = 0;
+				}
+			}
+			else if (c == '=') {
+				this.padding = true;
+			}
+			else if (c == '%') {
+				this.escaped = 0;
+				this.escapedValue = 0;
+			}
+			else if (c != '\r' && c != '\n' && c != ' ' && c != '\t') {
+				this.valid = false;
+			}
+		}
+
+		private static int toSextet(final int c) {
+			if (c >= 'A' && c <= 'Z') {
+				return c - 'A';
+			}
+			if (c >= 'a' && c <= 'z') {
+				return c - 'a' + 26;
+			}
+			if (c >= '0' && c <= '9') {
+				return c - '0' + 52;
+			}
+			if (c == '+' || c == '-') {
+				return 62;
+			}
+			if (c == '/' || c == '_') {
+				return 63;
+			}
+			return -1;
+		}
+
+		private void ensureCapacity(final int extra) {
+			final int required = this.length + extra;
+			if (required > this.data.length) {
+				// Duplicamos el buffer sin pasar del tamano esperado, si los datos caben en el
+				int newSize = (int) Math.min(Math.max(required, this.data.length * 2L), Integer.MAX_VALUE - 8);
+				if (newSize > this.expectedMaxSize && required <= this.expectedMaxSize) {
+					newSize = this.expectedMaxSize;
+				}
+				this.data = Arrays.copyOf(this.data, newSize);
+			}
+		}
+
+		/**
+		 * Termina la decodificaci&oacute;n.
+		 * @return Datos decodificados o {@code null} si el texto no era Base64 v&aacute;lido.
+		 */
+		byte[] finish() {
+			if (!this.valid || this.escaped >= 0 || this.count == 1) {
+				return null;
+			}
+			if (this.count == 2) {
+				ensureCapacity(1);
+				this.data[this.length++] = (byte) (this.bits >> 4);
+			}
+			else if (this.count == 3) {
+				ensureCapacity(2);
+				this.data[this.length++] = (byte) (this.bits >> 10);
+				this.data[this.length++] = (byte) (this.bits >> 2);
+			}
+			return this.length == this.data.length ? this.data : Arrays.copyOf(this.data, this.length);
 		}
-		params.put(param.substring(0, sep), param.substring(sep + 1));
-		param.setLength(0);
 	}
 
 	/**
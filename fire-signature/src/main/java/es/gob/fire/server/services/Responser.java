@@ -1,5 +1,6 @@
 package es.gob.fire.server.services;
 
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
@@ -51,6 +52,28 @@ public class Responser {
 		}
 	}
 
+	/**
+	 * Env&iacute;a una respuesta al cliente de un servicio copiando al flujo de
+	 * salida el contenido le&iacute;do de un flujo de entrada, sin cargarlo por
+	 * completo en memoria. El flujo de entrada no se cierra.
+	 * @param response Respuesta a la que inscribir el mensaje.
+	 * @param content Flujo del que leer el mensaje.
+	 */
+	public static void sendResult(final HttpServletResponse response, final InputStream content) {
+		response.setStatus(HttpServletResponse.SC_OK);
+		try (OutputStream os = response.getOutputStream()) {
+			int n;
+			final byte[] buffer = new byte[8192];
+			while ((n = content.read(buffer)) > 0) {
+				os.write(buffer, 0, n);
+			}
+			os.flush();
+		}
+		catch (final Exception e) {
+			LOGGER.log(Level.WARNING, "No se pudo devolver una respuesta por un error en el flujo de salida", e); //$NON-NLS-1$
+		}
+	}
+
 	/**
 	 * Env&iacute;a al cliente la respuesta con el resultado de la operaci&oacute;n.
 	 * @param response Respuesta a la que inscribir el mensaje.
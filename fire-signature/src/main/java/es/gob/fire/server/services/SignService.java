@@ -226,6 +226,10 @@ public final class SignService extends HttpServlet {
         final Map<String, byte[]> ret;
         try {
             ret = connector.sign(transactId);
+
+            // Notificamos al conector que ha terminado la operacion para que libere recursos y
+            // cierre la transaccion
+            connector.endSign(transactId);
         }
         catch (final FIReConnectorNetworkException e) {
             LOGGER.log(Level.SEVERE, logF.f("No se ha podido conectar con el proveedor de firma en la nube"), e); //$NON-NLS-1$
@@ -242,6 +246,9 @@ public final class SignService extends HttpServlet {
                 "No se ha podido obtener el resultado de la transaccion de firma"); //$NON-NLS-1$
             return;
         }
+        finally {
+        	ProviderManager.releaseProviderConnector(providerName, connector);
+        }
 
         // Insertamos los PKCS#1 en la sesion trifasica
         final Set<String> keys = ret.keySet();
@@ -319,8 +326,6 @@ public final class SignService extends HttpServlet {
         	}
         }
 
-        connector.endSign(transactId);
-
         // El servicio devuelve el resultado de la operacion de firma.
         Responser.sendResult(response, signResult);
     }
@@ -81,7 +81,7 @@ public final class BatchPostsigner extends HttpServlet {
 		final SignBatch batch;
 		try {
 			final byte[] jsonBatch = Base64.decode(json, true);
-			batch = new SignBatchSerial(jsonBatch);
+			batch = BatchServerUtil.createSignBatch(jsonBatch);
 		}
 		catch(final Exception e) {
 			LOGGER.severe("La definicion de lote es invalida: " + e); //$NON-NLS-1$
@@ -150,4 +150,10 @@ public final class BatchPostsigner extends HttpServlet {
 		Responser.sendResult(response, ret.getBytes(StandardCharsets.UTF_8));
 	}
 
+	@Override
+	public void destroy() {
+		SignBatchConcurrent.release();
+		super.destroy();
+	}
+
 }
@@ -65,7 +65,7 @@ public final class BatchPresigner extends HttpServlet {
 		final SignBatch batch;
 		try {
 			final byte[] batchConfig = BatchServerUtil.getSignBatchConfig(json);
-			batch = new SignBatchSerial(batchConfig);
+			batch = BatchServerUtil.createSignBatch(batchConfig);
 		}
 		catch(final Exception e) {
 			LOGGER.severe("La definicion de lote es invalida: " + e); //$NON-NLS-1$
@@ -113,4 +113,10 @@ public final class BatchPresigner extends HttpServlet {
 		Responser.sendResult(response, pre.toString().getBytes(StandardCharsets.UTF_8));
 	}
 
+	@Override
+	public void destroy() {
+		SignBatchConcurrent.release();
+		super.destroy();
+	}
+
 }
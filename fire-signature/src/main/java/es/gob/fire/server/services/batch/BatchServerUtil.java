@@ -19,6 +19,7 @@ import java.util.List;
 
 import es.gob.afirma.core.misc.Base64;
 import es.gob.afirma.core.signers.TriphaseData;
+import es.gob.fire.signature.ConfigManager;
 
 final class BatchServerUtil {
 
@@ -45,6 +46,20 @@ final class BatchServerUtil {
 		return json;
 	}
 
+	/**
+	 * Crea el lote de firmas a partir de su definici&oacute;n JSON. Seg&uacute;n se
+	 * configure, las firmas del lote se procesar&aacute;n secuencialmente o en paralelo.
+	 * @param json JSON de definici&oacute;n de lote.
+	 * @return Lote de firmas.
+	 * @throws IOException Si hay problemas en la creaci&oacute;n del lote.
+	 * @throws SecurityException Si se sobrepasa alguna de las limitaciones establecidas
+	 * para el lote.
+	 */
+	static SignBatch createSignBatch(final byte[] json) throws IOException, SecurityException {
+		return ConfigManager.getBatchClientThreads() > 1 ?
+				new SignBatchConcurrent(json) : new SignBatchSerial(json);
+	}
+
 	static X509Certificate[] getCertificates(final String certListUrlSafeBase64) throws CertificateException,
 	                                                                                    IOException {
 		if (certListUrlSafeBase64 == null) {
@@ -28,6 +28,7 @@ import javax.json.JsonReader;
 import es.gob.afirma.core.misc.AOUtil;
 import es.gob.afirma.core.signers.TriphaseData;
 import es.gob.fire.server.services.batch.ProcessResult.Result;
+import es.gob.fire.server.services.internal.TempDocumentsManager;
 
 /** Lote de firmas electr&oacute;nicas */
 public abstract class SignBatch {
@@ -224,13 +225,17 @@ public abstract class SignBatch {
 
 
 	protected static JsonObject buildSignResult(final String id, final Result result, final Throwable error) {
+		return buildSignResult(id, result, error != null ? error.getMessage() : null);
+	}
+
+	protected static JsonObject buildSignResult(final String id, final Result result, final String description) {
 		final JsonObjectBuilder jsonResultBuilder = Json.createObjectBuilder();
 
 		jsonResultBuilder.add(JSELEM_ID, id);
 		jsonResultBuilder.add(JSELEM_RESULT, result.name());
 
-		if (error != null) {
-			jsonResultBuilder.add(JSELEM_DESCRIPTION, error.getMessage());
+		if (description != null) {
+			jsonResultBuilder.add(JSELEM_DESCRIPTION, description);
 		}
 
 		return jsonResultBuilder.build();
@@ -313,6 +318,19 @@ public abstract class SignBatch {
 		return jsonText;
 	}
 
+	/**
+	 * Elimina los ficheros temporales con las firmas generadas en el lote.
+	 */
+	protected void deleteAllTemps() {
+		for (final SingleSign ss : this.signs) {
+			try {
+				TempDocumentsManager.deleteDocument(ss.getName(getId()));
+			} catch (final IOException e) {
+				LOGGER.warning("No se pudo eliminar el fichero: " + ss.getName(getId())); //$NON-NLS-1$
+			}
+		}
+	}
+
 	private static String scapeText(final String text) {
 		return text == null ? null :
 			text.replace("\\", "\\\\").replace("\"", "\\\""); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
@@ -0,0 +1,377 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.server.services.batch;
+
+import java.io.IOException;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+
+import es.gob.afirma.core.misc.LoggerUtil;
+import es.gob.afirma.core.signers.TriphaseData;
+import es.gob.fire.server.services.batch.ProcessResult.Result;
+import es.gob.fire.signature.ConfigManager;
+
+/**
+ * Lote de firmas electr&oacute;nicas cuyas firmas se procesan en paralelo. Las firmas
+ * se ejecutan en un pool de hilos compartido por todos los lotes y cada lote
+ * s&oacute;lo mantiene en ejecuci&oacute;n un n&uacute;mero limitado de ellas. Los
+ * resultados se devuelven en el mismo orden en el que se declararon las firmas y,
+ * si se indica que se detenga el proceso ante un error, se obtiene el mismo resultado
+ * que con el procesado secuencial: se procesan las firmas anteriores a la primera que
+ * falla y se omiten las posteriores.
+ */
+public final class SignBatchConcurrent extends SignBatch {
+
+	/** Tiempo en segundos que puede permanecer inactivo un hilo del pool antes de liberarse. */
+	private static final long THREADS_KEEP_ALIVE = 60;
+
+	private static ExecutorService executorService = null;
+
+	/**
+	 * Crea un lote de firmas que se ejecuta en paralelo.
+	 *
+	 * @param json JSON de definici&oacute;n de lote.
+	 * @throws IOException       Si hay problemas en la creaci&oacute;n del lote.
+	 * @throws SecurityException Si se sobrepasa alguna de las limitaciones
+	 *                           establecidas para el lote (n&ueacute;mero de
+	 *                           documentos, tama&ntilde;o de las referencias,
+	 *                           tama&ntilde;o de documento, etc.)
+	 */
+	public SignBatchConcurrent(final byte[] json) throws IOException, SecurityException {
+		super(json);
+	}
+
+	@Override
+	public JsonObject doPreBatch(final X509Certificate[] certChain) throws BatchException {
+
+		final List<Callable<PreProcessResult>> tasks = new ArrayList<>(this.signs.size());
+		for (final SingleSign ss : this.signs) {
+			tasks.add(ss.getPreProcessCallable(certChain, this.algorithm));
+		}
+
+		final List<PreProcessResult> results = executeTasks(tasks, new FailureChecker<PreProcessResult>() {
+			@Override
+			public boolean isFailed(final PreProcessResult result) {
+				return result.getSignResult() != null;
+			}
+		}, this.stopOnError, ConfigManager.getBatchClientThreads());
+
+		final JsonArrayBuilder errorsArrayBuilder = Json.createArrayBuilder();
+		final JsonArrayBuilder trisignsArrayBuilder = Json.createArrayBuilder();
+
+		boolean ignoreRemaining = false;
+		for (int i = 0; i < this.signs.size(); i++) {
+			final SingleSign ss = this.signs.get(i);
+			final PreProcessResult result = results.get(i);
+			if (ignoreRemaining || result == null) {
+				errorsArrayBuilder.add(buildSignResult(ss.getId(), Result.SKIPPED, (String) null));
+				continue;
+			}
+
+			if (result.getSignResult() != null) {
+				errorsArrayBuilder.add(buildSignResult(ss.getId(), Result.ERROR_PRE,
+						result.getSignResult().getResult().getDescription()));
+				if (this.stopOnError) {
+					ignoreRemaining = true;
+					LOGGER.warning(String.format(
+							"Error en una de las firmas del lote (%1s), se ignoraran el resto de elementos", //$NON-NLS-1$
+							LoggerUtil.getTrimStr(ss.getDataRef())));
+				}
+				continue;
+			}
+
+			trisignsArrayBuilder.add(TriphaseDataParser.triphaseDataToJson(result.getPresign()));
+		}
+
+		return buildPreBatch(this.format.toString(), trisignsArrayBuilder.build(), errorsArrayBuilder.build());
+	}
+
+	@Override
+	public String doPostBatch(final X509Certificate[] certChain, final TriphaseData td) {
+
+		if (td == null) {
+			throw new IllegalArgumentException("Los datos de sesion trifasica no pueden ser nulos"); //$NON-NLS-1$
+		}
+
+		final int maxConcurrentSigns = ConfigManager.getBatchClientThreads();
+
+		// Si hay que parar ante un error, no es necesario postfirmar nada a partir de la
+		// primera firma que ya fallo en la prefirma
+		int lastSign = this.signs.size();
+		if (this.stopOnError) {
+			for (int i = 0; i < this.signs.size() && lastSign == this.signs.size(); i++) {
+				if (td.getTriSigns(this.signs.get(i).getId()) == null) {
+					lastSign = i;
+				}
+			}
+		}
+
+		final List<Callable<ResultSingleSign>> tasks = new ArrayList<>();
+		for (int i = 0; i < lastSign; i++) {
+			final SingleSign ss = this.signs.get(i);
+			if (td.getTriSigns(ss.getId()) != null) {
+				tasks.add(ss.getPostProcessCallable(certChain, td, this.algorithm, getId()));
+			}
+		}
+
+		final FailureChecker<ResultSingleSign> checker = new FailureChecker<ResultSingleSign>() {
+			@Override
+			public boolean isFailed(final ResultSingleSign result) {
+				return !result.isCorrect();
+			}
+		};
+
+		final List<ResultSingleSign> results = executeTasks(tasks, checker, this.stopOnError, maxConcurrentSigns);
+
+		boolean ignoreRemaining = false;
+		boolean error = false;
+		int taskIdx = 0;
+		for (final SingleSign ss : this.signs) {
+
+			// Si se ha detectado un error y no deben procesarse el resto de firmas, se
+			// marcan como tal
+			if (ignoreRemaining) {
+				ss.setProcessResult(ProcessResult.PROCESS_RESULT_SKIPPED);
+				continue;
+			}
+
+			// Si no se encuentran firmas con ese identificador, es que fallaron en la
+			// prefirma
+			if (td.getTriSigns(ss.getId()) == null) {
+				error = true;
+				if (this.stopOnError) {
+					LOGGER.warning(String.format(
+							"Se detecto un error previo en la firma %1s, se ignoraran el resto de elementos", //$NON-NLS-1$
+							LoggerUtil.getTrimStr(ss.getDataRef())));
+					ignoreRemaining = true;
+				}
+				String errorMessage = ss.getProcessResult().getDescription();
+				if (errorMessage == null) {
+					errorMessage = "Error en la prefirma"; //$NON-NLS-1$
+				}
+				ss.setProcessResult(new ProcessResult(Result.ERROR_PRE, errorMessage));
+				continue;
+			}
+
+			final ResultSingleSign result = results.get(taskIdx++);
+			if (result == null) {
+				ss.setProcessResult(ProcessResult.PROCESS_RESULT_SKIPPED);
+			}
+			else if (!result.isCorrect()) {
+				error = true;
+				ss.setProcessResult(result.getResult());
+				if (this.stopOnError) {
+					LOGGER.severe(String.format(
+							"Error al postfirmar una de las firmas del lote (%1s), se parara el proceso", //$NON-NLS-1$
+							LoggerUtil.getTrimStr(ss.getDataRef())));
+					ignoreRemaining = true;
+				}
+			}
+			else {
+				ss.setProcessResult(ProcessResult.PROCESS_RESULT_OK_UNSAVED);
+			}
+		}
+
+		// Si hubo errores y se indico parar en error no hacemos los guardados de datos,
+		// borramos los temporales y enviamos el log
+		if (error && this.stopOnError) {
+			deleteAllTemps();
+			return getResultLog();
+		}
+
+		// En otro caso procedemos al guardado de las firmas
+		final List<SingleSign> signsToSave = new ArrayList<>();
+		final List<Callable<ResultSingleSign>> saveTasks = new ArrayList<>();
+		for (final SingleSign ss : this.signs) {
+			if (ss.getProcessResult() == null || ss.getProcessResult().getResult() == Result.DONE_BUT_NOT_SAVED_YET) {
+				signsToSave.add(ss);
+				saveTasks.add(ss.getSaveCallableJSON(getId()));
+			}
+		}
+
+		final List<ResultSingleSign> saveResults = executeTasks(saveTasks, checker, this.stopOnError, maxConcurrentSigns);
+		for (int i = 0; i < signsToSave.size(); i++) {
+			if (saveResults.get(i) != null) {
+				signsToSave.get(i).setProcessResult(saveResults.get(i).getResult());
+			}
+		}
+
+		deleteAllTemps();
+
+		return getResultLog();
+	}
+
+	/**
+	 * Ejecuta un listado de tareas en el pool compartido, manteniendo en ejecuci&oacute;n
+	 * como m&aacute;ximo el n&uacute;mero de tareas indicado, y devuelve sus resultados en
+	 * el mismo orden que las tareas. Si se indica que se debe detener el proceso ante un
+	 * error, cuando falla una tarea se cancelan las posteriores a ella en el listado, pero
+	 * se completan las anteriores, tal como ocurrir&iacute;a si se ejecutasen en orden.
+	 * @param tasks Tareas a ejecutar.
+	 * @param checker Objeto para comprobar si el resultado de una tarea es un error.
+	 * @param stopOnError Indica si se deben cancelar las tareas posteriores a una err&oacute;nea.
+	 * @param maxConcurrentTasks N&uacute;mero m&aacute;ximo de tareas en ejecuci&oacute;n a la vez.
+	 * @param <T> Tipo del resultado de las tareas.
+	 * @return Listado con el resultado de cada tarea o {@code null} para las tareas que no se
+	 * ejecutaron o no terminaron correctamente.
+	 */
+	static <T> List<T> executeTasks(final List<Callable<T>> tasks, final FailureChecker<T> checker,
+			final boolean stopOnError, final int maxConcurrentTasks) {
+		return executeTasks(tasks, checker, stopOnError, maxConcurrentTasks, getExecutorService());
+	}
+
+	/**
+	 * Ejecuta un listado de tareas en un pool de hilos, manteniendo en ejecuci&oacute;n
+	 * como m&aacute;ximo el n&uacute;mero de tareas indicado, y devuelve sus resultados en
+	 * el mismo orden que las tareas.
+	 * @param tasks Tareas a ejecutar.
+	 * @param checker Objeto para comprobar si el resultado de una tarea es un error.
+	 * @param stopOnError Indica si se deben cancelar las tareas posteriores a una err&oacute;nea.
+	 * @param maxConcurrentTasks N&uacute;mero m&aacute;ximo de tareas en ejecuci&oacute;n a la vez.
+	 * @param executor Pool de hilos en el que ejecutar las tareas.
+	 * @param <T> Tipo del resultado de las tareas.
+	 * @return Listado con el resultado de cada tarea o {@code null} para las tareas que no se
+	 * ejecutaron o no terminaron correctamente.
+	 */
+	static <T> List<T> executeTasks(final List<Callable<T>> tasks, final FailureChecker<T> checker,
+			final boolean stopOnError, final int maxConcurrentTasks, final ExecutorService executor) {
+
+		final List<T> results = new ArrayList<>(tasks.size());
+		for (int i = 0; i < tasks.size(); i++) {
+			results.add(null);
+		}
+
+		final CompletionService<T> completionService = new ExecutorCompletionService<>(executor);
+		final Map<Future<T>, Integer> running = new HashMap<>();
+
+		// Posicion de la primera tarea que ha fallado. Las posteriores a ella no se ejecutaran
+		int firstError = tasks.size();
+		int next = 0;
+		while (next < tasks.size() && running.size() < Math.max(1, maxConcurrentTasks)) {
+			running.put(completionService.submit(tasks.get(next)), Integer.valueOf(next));
+			next++;
+		}
+
+		while (!running.isEmpty()) {
+			final Future<T> task;
+			try {
+				task = completionService.take();
+			}
+			catch (final InterruptedException e) {
+				LOGGER.log(Level.WARNING, "Se interrumpio la espera de las firmas del lote. Se cancelaran las pendientes", e); //$NON-NLS-1$
+				for (final Future<T> t : running.keySet()) {
+					t.cancel(true);
+				}
+				Thread.currentThread().interrupt();
+				break;
+			}
+
+			final int idx = running.remove(task).intValue();
+			boolean failed;
+			try {
+				results.set(idx, task.get());
+				failed = checker.isFailed(results.get(idx));
+			}
+			catch (final Exception e) {
+				failed = true;
+			}
+
+			// Si hay que detenerse ante un error, cancelamos las tareas posteriores a la que fallo
+			if (failed && stopOnError && idx < firstError) {
+				firstError = idx;
+				for (final Map.Entry<Future<T>, Integer> t : running.entrySet()) {
+					if (t.getValue().intValue() > idx) {
+						t.getKey().cancel(true);
+					}
+				}
+			}
+
+			if (next < tasks.size() && next < firstError) {
+				running.put(completionService.submit(tasks.get(next)), Integer.valueOf(next));
+				next++;
+			}
+		}
+
+		return results;
+	}
+
+	/**
+	 * Obtiene el pool de hilos compartido por todos los lotes, cre&aacute;ndolo si es necesario.
+	 * @return Pool de hilos.
+	 */
+	private static synchronized ExecutorService getExecutorService() {
+		if (executorService == null) {
+			final int maxThreads = ConfigManager.getBatchClientThreads();
+			final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+					maxThreads, maxThreads, THREADS_KEEP_ALIVE, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+						private final AtomicInteger count = new AtomicInteger();
+						@Override
+						public Thread newThread(final Runnable r) {
+							final Thread thread = new Thread(r, "FIRe-ClientBatchSign-" + this.count.incrementAndGet()); //$NON-NLS-1$
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+			executor.allowCoreThreadTimeOut(true);
+			executorService = executor;
+		}
+		return executorService;
+	}
+
+	/**
+	 * Libera el pool de hilos compartido por los lotes.
+	 */
+	public static synchronized void release() {
+		if (executorService != null) {
+			executorService.shutdown();
+			try {
+				if (!executorService.awaitTermination(2000, TimeUnit.MILLISECONDS)) {
+					executorService.shutdownNow();
+				}
+			} catch (final InterruptedException e) {
+				executorService.shutdownNow();
+			}
+			executorService = null;
+		}
+	}
+
+	/**
+	 * Comprobador del resultado de una tarea.
+	 * @param <T> Tipo del resultado de la tarea.
+	 */
+	interface FailureChecker<T> {
+
+		/**
+		 * Indica si el resultado de una tarea representa un error.
+		 * @param result Resultado de la tarea.
+		 * @return {@code true} si la tarea fall&oacute;, {@code false} en caso contrario.
+		 */
+		boolean isFailed(T result);
+	}
+}
@@ -184,14 +184,4 @@ public final class SignBatchSerial extends SignBatch {
 		return getResultLog();
 
 	}
-
-	protected void deleteAllTemps() {
-		for (final SingleSign ss : this.signs) {
-			try {
-				TempDocumentsManager.deleteDocument(ss.getName(getId()));
-			} catch (final IOException e) {
-				LOGGER.warning("No se pudo eliminar el fichero: " + ss.getName(getId())); //$NON-NLS-1$
-			}
-		}
-	}
 }
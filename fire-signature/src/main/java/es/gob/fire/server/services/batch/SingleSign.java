@@ -310,7 +310,12 @@ public final class SingleSign {
 	}
 
 	public String getName(final String batchId) {
-		return AOUtil.hexify(MD.digest(this.id.getBytes(DEFAULT_CHARSET)), false) + "." + batchId; //$NON-NLS-1$
+		// El motor de huellas se comparte entre todas las firmas y estas se pueden procesar en paralelo
+		final byte[] digest;
+		synchronized (MD) {
+			digest = MD.digest(this.id.getBytes(DEFAULT_CHARSET));
+		}
+		return AOUtil.hexify(digest, false) + "." + batchId; //$NON-NLS-1$
 	}
 
 	/**
@@ -18,7 +18,6 @@ import java.util.logging.Logger;
 import javax.servlet.http.HttpServletResponse;
 
 import es.gob.afirma.core.misc.AOUtil;
-import es.gob.afirma.core.misc.Base64;
 import es.gob.fire.alarms.Alarm;
 import es.gob.fire.server.document.FIReDocumentManager;
 import es.gob.fire.server.document.FireDocumentManagerBase;
@@ -52,7 +51,6 @@ public class AddDocumentBatchManager {
     	final String transactionId	= params.getParameter(ServiceParams.HTTP_PARAM_TRANSACTION_ID);
     	final String subjectId		= params.getParameter(ServiceParams.HTTP_PARAM_SUBJECT_ID);
     	final String docId			= params.getParameter(ServiceParams.HTTP_PARAM_DOCUMENT_ID);
-    	final String dataB64		= params.getParameter(ServiceParams.HTTP_PARAM_DATA);
 
 		final LogTransactionFormatter logF = trAux.getLogFormatter();
 
@@ -107,7 +105,7 @@ public class AddDocumentBatchManager {
 
         // Si se definio un DocumentManager, lo usaremos
         final FIReDocumentManager documentManager = (FIReDocumentManager) session.getObject(ServiceParams.SESSION_PARAM_DOCUMENT_MANAGER);
-    	if (FIReDocumentManagerFactory.isDefaultDocumentManager(documentManager) && (dataB64 == null || dataB64.isEmpty())) {
+    	if (FIReDocumentManagerFactory.isDefaultDocumentManager(documentManager) && !params.hasParameterValue(ServiceParams.HTTP_PARAM_DATA)) {
     		LOGGER.warning(logF.f("No se ha proporcionado el documento a firmar ni un gestor de documentos del que recuperarlo")); //$NON-NLS-1$
     		Responser.sendError(response, FIReError.PARAMETER_DATA_TO_SIGN_NEEDED);
     		return;
@@ -119,9 +117,9 @@ public class AddDocumentBatchManager {
     		(Properties) session.getObject(ServiceParams.SESSION_PARAM_EXTRA_PARAM);
 
     	byte[] docReferenceId;
-        if (dataB64 != null && !dataB64.isEmpty()) {
+        if (params.hasParameterValue(ServiceParams.HTTP_PARAM_DATA)) {
         	try {
-        		docReferenceId = Base64.decode(dataB64, true);
+        		docReferenceId = params.getDecodedParameter(ServiceParams.HTTP_PARAM_DATA);
         	}
         	catch (final Exception e) {
         		LOGGER.warning(logF.f("El documento enviado a firmar no esta bien codificado: " + e)); //$NON-NLS-1$
@@ -0,0 +1,351 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.server.services.internal;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import es.gob.fire.alarms.Alarm;
+import es.gob.fire.alarms.AlarmLevel;
+import es.gob.fire.alarms.AlarmNotifier;
+
+/**
+ * Distribuidor as&iacute;ncrono de alarmas. Las alarmas se env&iacute;an al
+ * notificador desde un &uacute;nico hilo en segundo plano, de forma que las
+ * peticiones no esperan a la conexi&oacute;n con el sistema de alarmas. Las
+ * repeticiones de una misma alarma sobre un mismo recurso dentro de un periodo
+ * de tiempo no se notifican individualmente, sino que, al terminar el periodo,
+ * se env&iacute;a una &uacute;nica notificaci&oacute;n con el n&uacute;mero de
+ * veces que se produjo.
+ */
+public final class AlarmDispatcher {
+
+	private static final Logger LOGGER = Logger.getLogger(AlarmDispatcher.class.getName());
+
+	/** Milisegundos que se espera a que se env&iacute;en las alarmas pendientes al detener el distribuidor. */
+	private static final long STOP_TIMEOUT = 2000;
+
+	/** Separador de los elementos de la clave de una alarma. */
+	private static final char KEY_SEPARATOR = '\u0000';
+
+	/**
+	 * Periodo en el que se agrupan las repeticiones de una alarma.
+	 */
+	private static final class Window {
+
+		final AlarmLevel level;
+		final Alarm alarm;
+		final String[] resource;
+		final long start;
+		final AtomicInteger occurrences = new AtomicInteger(1);
+
+		Window(final AlarmLevel level, final Alarm alarm, final String[] resource, final long start) {
+			this.level = level;
+			this.alarm = alarm;
+			this.resource = resource;
+			this.start = start;
+		}
+	}
+
+	private final AlarmNotifier notifier;
+
+	private final int capacity;
+
+	private final long windowMillis;
+
+	private final ScheduledThreadPoolExecutor executor;
+
+	private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+	private final AtomicInteger pending = new AtomicInteger(0);
+
+	private final AtomicLong receivedAlarms = new AtomicLong(0);
+
+	private final AtomicLong sentNotifications = new AtomicLong(0);
+
+	private final AtomicLong coalescedAlarms = new AtomicLong(0);
+
+	private final AtomicLong droppedAlarms = new AtomicLong(0);
+
+	private final AtomicLong failedNotifications = new AtomicLong(0);
+
+	/** Alarmas descartadas de las que ya se ha avisado en el log. S&oacute;lo lo usa el hilo de env&iacute;o. */
+	private long reportedDroppedAlarms = 0;
+
+	/**
+	 * Construye el distribuidor de alarmas e inicia su hilo.
+	 * @param notifier Notificador al que se env&iacute;an las alarmas.
+	 * @param capacity N&uacute;mero m&aacute;ximo de notificaciones pendientes de enviar.
+	 * @param windowMillis Milisegundos durante los que se agrupan las repeticiones
+	 * de una alarma. Si es 0, se notifican todas las alarmas.
+	 */
+	AlarmDispatcher(final AlarmNotifier notifier, final int capacity, final long windowMillis) {
+
+		this.notifier = notifier;
+		this.capacity = Math.max(1, capacity);
+		this.windowMillis = Math.max(0, windowMillis);
+
+		this.executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+			@Override
+			public Thread newThread(final Runnable r) {
+				final Thread thread = new Thread(r, "FIRe-AlarmDispatcher"); //$NON-NLS-1$
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		this.executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+
+		// Cerramos periodicamente los periodos vencidos para notificar sus repeticiones
+		if (this.windowMillis > 0) {
+			this.executor.scheduleWithFixedDelay(new Runnable() {
+				@Override
+				public void run() {
+					closeWindows(false);
+				}
+			}, this.windowMillis, this.windowMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Registra una alarma para su notificaci&oacute;n. Si ya se notific&oacute;
+	 * la misma alarma sobre el mismo recurso dentro del periodo configurado,
+	 * s&oacute;lo se contabiliza.
+	 * @param level Nivel de la alarma.
+	 * @param alarm Tipo de alarma.
+	 * @param resource Recursos a los que se refiere la alarma. Puede ser nulo.
+	 */
+	public void dispatch(final AlarmLevel level, final Alarm alarm, final String... resource) {
+
+		this.receivedAlarms.incrementAndGet();
+
+		if (this.windowMillis <= 0) {
+			submit(new Window(level, alarm, resource, System.currentTimeMillis()), false);
+			return;
+		}
+
+		final String key = buildKey(level, alarm, resource);
+		final long now = System.currentTimeMillis();
+		for (;;) {
+			final Window window = this.windows.get(key);
+			if (window == null) {
+				final Window newWindow = new Window(level, alarm, resource, now);
+				if (this.windows.putIfAbsent(key, newWindow) == null) {
+					submit(newWindow, false);
+					return;
+				}
+			}
+			else if (now - window.start < this.windowMillis) {
+				window.occurrences.incrementAndGet();
+				this.coalescedAlarms.incrementAndGet();
+				return;
+			}
+			else {
+				// El periodo ya vencio, asi que notificamos sus repeticiones y empezamos otro
+				final Window newWindow = new Window(level, alarm, resource, now);
+				if (this.windows.replace(key, window, newWindow)) {
+					submitRepeated(window);
+					submit(newWindow, false);
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Cierra los periodos de agrupaci&oacute;n de alarmas y notifica aquellas
+	 * que se repitieron.
+	 * @param all {@code true} para cerrar todos los periodos, {@code false} para
+	 * cerrar s&oacute;lo los vencidos.
+	 */
+	void closeWindows(final boolean all) {
+		final long now = System.currentTimeMillis();
+		final Iterator<Map.Entry<String, Window>> it = this.windows.entrySet().iterator();
+		while (it.hasNext()) {
+			final Map.Entry<String, Window> entry = it.next();
+			final Window window = entry.getValue();
+			if ((all || now - window.start >= this.windowMillis)
+					&& this.windows.remove(entry.getKey(), window)) {
+				submitRepeated(window);
+			}
+		}
+	}
+
+	/**
+	 * Programa la notificaci&oacute;n de las repeticiones de una alarma, si las hubo.
+	 * @param window Periodo en el que se agruparon las repeticiones.
+	 */
+	private void submitRepeated(final Window window) {
+		if (window.occurrences.get() > 1) {
+			submit(window, true);
+		}
+	}
+
+	/**
+	 * Programa el env&iacute;o de una notificaci&oacute;n. Si hay demasiadas
+	 * notificaciones pendientes, se descarta.
+	 * @param window Alarma a notificar.
+	 * @param repeated {@code true} si se debe notificar el n&uacute;mero de
+	 * repeticiones de la alarma, {@code false} si se notifica la alarma.
+	 */
+	private void submit(final Window window, final boolean repeated) {
+
+		if (this.pending.incrementAndGet() > this.capacity) {
+			this.pending.decrementAndGet();
+			this.droppedAlarms.incrementAndGet();
+			return;
+		}
+
+		try {
+			this.executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						send(window, repeated);
+						reportDroppedAlarms();
+					}
+					finally {
+						AlarmDispatcher.this.pending.decrementAndGet();
+					}
+				}
+			});
+		}
+		catch (final RejectedExecutionException e) {
+			// El distribuidor esta detenido, asi que la notificamos directamente
+			this.pending.decrementAndGet();
+			send(window, repeated);
+		}
+	}
+
+	/**
+	 * Env&iacute;a una notificaci&oacute;n al notificador.
+	 * @param window Alarma a notificar.
+	 * @param repeated {@code true} si se debe notificar el n&uacute;mero de
+	 * repeticiones de la alarma, {@code false} si se notifica la alarma.
+	 */
+	private void send(final Window window, final boolean repeated) {
+		try {
+			if (repeated) {
+				final long seconds = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - window.start);
+				this.notifier.notifyRepeated(window.level, window.alarm, window.occurrences.get(),
+						seconds, window.resource);
+			}
+			else {
+				this.notifier.notify(window.level, window.alarm, window.resource);
+			}
+			this.sentNotifications.incrementAndGet();
+		}
+		catch (final Throwable e) {
+			this.failedNotifications.incrementAndGet();
+			LOGGER.log(Level.WARNING, "No se ha podido enviar el error al gestor de notificaciones", e); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Avisa en el log de las alarmas descartadas desde el &uacute;ltimo aviso.
+	 */
+	private void reportDroppedAlarms() {
+		final long dropped = this.droppedAlarms.get();
+		if (dropped > this.reportedDroppedAlarms) {
+			LOGGER.warning(String.format(
+					"Se han descartado %d alarmas por haber mas de %d pendientes de notificar", //$NON-NLS-1$
+					Long.valueOf(dropped - this.reportedDroppedAlarms), Integer.valueOf(this.capacity)));
+			this.reportedDroppedAlarms = dropped;
+		}
+	}
+
+	private static String buildKey(final AlarmLevel level, final Alarm alarm, final String[] resource) {
+		final StringBuilder key = new StringBuilder(alarm.name()).append(KEY_SEPARATOR).append(level);
+		if (resource != null) {
+			for (final String res : resource) {
+				key.append(KEY_SEPARATOR).append(res);
+			}
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Detiene el distribuidor tras notificar las repeticiones pendientes y enviar
+	 * las notificaciones en cola. Las alarmas que se registren a partir de este
+	 * momento se notificar&aacute;n directamente.
+	 */
+	void stop() {
+		closeWindows(true);
+		this.executor.shutdown();
+		try {
+			if (!this.executor.awaitTermination(STOP_TIMEOUT, TimeUnit.MILLISECONDS)) {
+				LOGGER.warning("No se pudieron enviar todas las alarmas pendientes"); //$NON-NLS-1$
+				this.executor.shutdownNow();
+			}
+		}
+		catch (final InterruptedException e) {
+			this.executor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Obtiene el n&uacute;mero de alarmas registradas.
+	 * @return N&uacute;mero de alarmas.
+	 */
+	public long getReceivedAlarms() {
+		return this.receivedAlarms.get();
+	}
+
+	/**
+	 * Obtiene el n&uacute;mero de notificaciones enviadas correctamente.
+	 * @return N&uacute;mero de notificaciones enviadas.
+	 */
+	public long getSentNotifications() {
+		return this.sentNotifications.get();
+	}
+
+	/**
+	 * Obtiene el n&uacute;mero de alarmas que no se notificaron individualmente
+	 * por agruparse con otras iguales.
+	 * @return N&uacute;mero de alarmas agrupadas.
+	 */
+	public long getCoalescedAlarms() {
+		return this.coalescedAlarms.get();
+	}
+
+	/**
+	 * Obtiene el n&uacute;mero de notificaciones descartadas por haber demasiadas
+	 * pendientes de enviar.
+	 * @return N&uacute;mero de notificaciones descartadas.
+	 */
+	public long getDroppedAlarms() {
+		return this.droppedAlarms.get();
+	}
+
+	/**
+	 * Obtiene el n&uacute;mero de notificaciones que no se pudieron enviar.
+	 * @return N&uacute;mero de notificaciones fallidas.
+	 */
+	public long getFailedNotifications() {
+		return this.failedNotifications.get();
+	}
+
+	/**
+	 * Obtiene el n&uacute;mero de notificaciones pendientes de enviar.
+	 * @return N&uacute;mero de notificaciones pendientes.
+	 */
+	public int getPendingNotifications() {
+		return this.pending.get();
+	}
+}
@@ -2,6 +2,7 @@ package es.gob.fire.server.services.internal;
 
 import java.io.IOException;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -10,9 +11,11 @@ import es.gob.fire.alarms.AlarmLevel;
 import es.gob.fire.alarms.AlarmNotifier;
 import es.gob.fire.alarms.InitializationException;
 import es.gob.fire.signature.ConfigFileLoader;
+import es.gob.fire.signature.ConfigManager;
 
 /**
- * Gestor para la notificaci&oacute;n de alarmas.
+ * Gestor para la notificaci&oacute;n de alarmas. Las alarmas se notifican en
+ * segundo plano a trav&eacute;s de un {@link AlarmDispatcher}.
  */
 public class AlarmsManager {
 
@@ -20,7 +23,7 @@ public class AlarmsManager {
 
 	private static final String CONFIG_FILE = "alarms_config.properties"; //$NON-NLS-1$
 
-	private static AlarmNotifier notifier;
+	private static AlarmDispatcher dispatcher;
 
 	private static boolean initialized = false;
 
@@ -41,28 +44,31 @@ public class AlarmsManager {
 			// Inicializamos y configuramos el administrador
 			try {
 				final Class<?> notifierClass = Class.forName(notifierClassname);
-				notifier = (AlarmNotifier) notifierClass.getConstructor().newInstance();
+				final AlarmNotifier notifier = (AlarmNotifier) notifierClass.getConstructor().newInstance();
 
 				final Properties config = ConfigFileLoader.loadConfigFile(CONFIG_FILE);
 				notifier.init(config);
 				notifier.setModule(moduleName);
+
+				dispatcher = new AlarmDispatcher(notifier, ConfigManager.getAlarmsQueueSize(),
+						TimeUnit.SECONDS.toMillis(ConfigManager.getAlarmsWindow()));
 			}
 			catch (final IOException e) {
 				LOGGER.log(Level.WARNING, "No se pudo cargar el fichero " + CONFIG_FILE //$NON-NLS-1$
 						+ " con la configuracion para la notificacion de alarmas. " //$NON-NLS-1$
 						+ "Debe agregar al directorio de ficheros de configuracion el fichero " //$NON-NLS-1$
 						+ CONFIG_FILE, e);
-				notifier = null;
+				dispatcher = null;
 			}
 			catch (final InitializationException e) {
 				LOGGER.log(Level.WARNING,
 						"Ocurrio un error durante la inicializacion del notificador de errores" //$NON-NLS-1$
 						+ CONFIG_FILE, e);
-				notifier = null;
+				dispatcher = null;
 			}
 			catch (final Throwable e) {
 				LOGGER.log(Level.WARNING, "No se ha podido cargar el gestor de alarmas configurado", e); //$NON-NLS-1$
-				notifier = null;
+				dispatcher = null;
 			}
 		}
 
@@ -98,18 +104,37 @@ public class AlarmsManager {
 	}
 
 	/**
-	 * Notifica una alarma.
+	 * Notifica una alarma. La notificaci&oacute;n se realiza en segundo plano y
+	 * las repeticiones de la alarma se agrupan seg&uacute;n la configuraci&oacute;n.
 	 * @param alarm Tipo de alarma que se desea notificar.
 	 * @param level Nivel de alarma.
 	 * @param resource Recursos a los que se refiere la alarma. Puede ser nulo.
 	 */
 	public static void notify(final Alarm alarm, final AlarmLevel level, final String... resource) {
-		if (notifier != null) {
-			try {
-				notifier.notify(level, alarm, resource);
-			} catch (final IOException e) {
-				LOGGER.log(Level.WARNING, "No se ha podido enviar el error al gestor de notificaciones", e); //$NON-NLS-1$
-			}
+		final AlarmDispatcher currentDispatcher = dispatcher;
+		if (currentDispatcher != null) {
+			currentDispatcher.dispatch(level, alarm, resource);
+		}
+	}
+
+	/**
+	 * Obtiene el distribuidor de alarmas con el que consultar sus contadores.
+	 * @return Distribuidor de alarmas o {@code null} si no se ha configurado
+	 * la notificaci&oacute;n de alarmas.
+	 */
+	public static AlarmDispatcher getDispatcher() {
+		return dispatcher;
+	}
+
+	/**
+	 * Env&iacute;a las notificaciones de alarmas pendientes y detiene el hilo
+	 * con el que se env&iacute;an. Las alarmas posteriores se notificar&aacute;n
+	 * directamente.
+	 */
+	public static void release() {
+		final AlarmDispatcher currentDispatcher = dispatcher;
+		if (currentDispatcher != null) {
+			currentDispatcher.stop();
 		}
 	}
 }
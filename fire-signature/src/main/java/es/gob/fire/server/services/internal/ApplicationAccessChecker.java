@@ -11,9 +11,6 @@ package es.gob.fire.server.services.internal;
 
 import java.security.MessageDigest;
 import java.security.cert.X509Certificate;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
 
 import es.gob.fire.server.services.CertificateValidationException;
 import es.gob.fire.server.services.FIReError;
@@ -64,22 +61,19 @@ public class ApplicationAccessChecker {
 			throw new IllegalAccessException("La aplicacion no tiene habilitados certificados de acceso"); //$NON-NLS-1$
 		}
 
-		final Map<String, byte[]> certDigests = new HashMap<>();
-
-		for (final DigestInfo digestInfo : digestInfos) {
-			byte[] certDigest = certDigests.get(digestInfo.getAlgorihtm());
-			if (certDigest == null) {
-				try {
-					final MessageDigest md = MessageDigest.getInstance(digestInfo.getAlgorihtm());
-					certDigest = md.digest(certificates[0].getEncoded());
-					certDigests.put(digestInfo.getAlgorihtm(), certDigest);
-				}
-				catch (final Exception e) {
-					throw new CertificateValidationException(FIReError.INTERNAL_ERROR, "Error al comprobar la validez del certificado", e); //$NON-NLS-1$
-				}
+		// Calculamos una unica vez la huella del certificado con cada algoritmo y
+		// la buscamos entre las registradas
+		for (final String algorithm : registeredAppInfo.getDigestAlgorithms()) {
+			final byte[] certDigest;
+			try {
+				final MessageDigest md = MessageDigest.getInstance(algorithm);
+				certDigest = md.digest(certificates[0].getEncoded());
+			}
+			catch (final Exception e) {
+				throw new CertificateValidationException(FIReError.INTERNAL_ERROR, "Error al comprobar la validez del certificado", e); //$NON-NLS-1$
 			}
 			// Si la huella del certificado coincide con la registrada, se da por bueno
-			if (Arrays.equals(certDigest, digestInfo.getHash())) {
+			if (registeredAppInfo.isRegisteredDigest(algorithm, certDigest)) {
 				return;
 			}
 		}
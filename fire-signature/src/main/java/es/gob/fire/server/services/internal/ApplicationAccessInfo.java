@@ -1,5 +1,12 @@
 package es.gob.fire.server.services.internal;
 
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Estado de una aplicaci&oacute;n.
  */
@@ -10,6 +17,9 @@ public class ApplicationAccessInfo {
 	private final boolean enabled;
 	private final DigestInfo[] certDigests;
 
+	/** Huellas de los certificados agrupadas por algoritmo para su b&uacute;squeda directa. */
+	private final Map<String, Set<ByteBuffer>> digestsByAlgorithm;
+
 	/**
 	 * Identifica el estado de una aplicaci&oacute;n.
 	 * @param id Identificador de la aplicaci&oacute;n.
@@ -22,6 +32,19 @@ public class ApplicationAccessInfo {
 		this.name = name;
 		this.enabled = enabled;
 		this.certDigests = certDigests;
+
+		final Map<String, Set<ByteBuffer>> digests = new HashMap<>();
+		if (certDigests != null) {
+			for (final DigestInfo digestInfo : certDigests) {
+				Set<ByteBuffer> hashes = digests.get(digestInfo.getAlgorihtm());
+				if (hashes == null) {
+					hashes = new HashSet<>();
+					digests.put(digestInfo.getAlgorihtm(), hashes);
+				}
+				hashes.add(ByteBuffer.wrap(digestInfo.getHash().clone()));
+			}
+		}
+		this.digestsByAlgorithm = digests;
 	}
 
 	/**
@@ -56,4 +79,25 @@ public class ApplicationAccessInfo {
 	public DigestInfo[] getCertDigests() {
 		return this.certDigests;
 	}
+
+	/**
+	 * Recupera los algoritmos con los que se generaron las huellas de los certificados
+	 * dados de alta para la aplicaci&oacute;n.
+	 * @return Conjunto de algoritmos de huella.
+	 */
+	public Set<String> getDigestAlgorithms() {
+		return Collections.unmodifiableSet(this.digestsByAlgorithm.keySet());
+	}
+
+	/**
+	 * Comprueba si una huella se corresponde con la de alguno de los certificados
+	 * dados de alta para la aplicaci&oacute;n.
+	 * @param algorithm Algoritmo con el que se gener&oacute; la huella.
+	 * @param hash Huella del certificado.
+	 * @return {@code true} si la huella est&aacute; registrada, {@code false} en caso contrario.
+	 */
+	public boolean isRegisteredDigest(final String algorithm, final byte[] hash) {
+		final Set<ByteBuffer> hashes = this.digestsByAlgorithm.get(algorithm);
+		return hashes != null && hash != null && hashes.contains(ByteBuffer.wrap(hash));
+	}
 }
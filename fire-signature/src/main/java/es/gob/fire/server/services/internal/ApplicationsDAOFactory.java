@@ -24,6 +24,11 @@ public class ApplicationsDAOFactory {
 
 	private static ApplicationsDAO loadDAOInstance() {
 		if (ConfigManager.getDataBaseConnectionString() != null && !ConfigManager.getDataBaseConnectionString().isEmpty()) {
+			final long timeout = ConfigManager.getApplicationsCacheTimeout() * 1000L;
+			final long negativeTimeout = ConfigManager.getApplicationsCacheNegativeTimeout() * 1000L;
+			if (timeout > 0 || negativeTimeout > 0) {
+				return new CachedApplicationsDAO(new DBApplicationsDAO(), timeout, negativeTimeout);
+			}
 			return new DBApplicationsDAO();
 		}
 		return new ConfigFileApplicationsDAO();
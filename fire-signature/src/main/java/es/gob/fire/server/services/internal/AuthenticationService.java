@@ -153,6 +153,9 @@ public class AuthenticationService extends HttpServlet {
 	            Responser.redirectToExternalUrl(redirectErrorUrl, request, response, trAux);
 	        	return;
 			}
+			finally {
+				ProviderManager.releaseProviderConnector(origin, connector);
+			}
 		} else {
 			LOGGER.warning(logF.f("El conector no puede ser nulo")); //$NON-NLS-1$
 			Responser.redirectToExternalUrl(redirectErrorUrl, request, response, trAux);
@@ -9,14 +9,20 @@
  */
 package es.gob.fire.server.services.internal;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.Serializable;
 import java.io.Writer;
 import java.nio.charset.Charset;
 import java.security.cert.CertificateEncodingException;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -31,6 +37,7 @@ import javax.json.JsonWriter;
 import es.gob.afirma.core.misc.Base64;
 import es.gob.fire.server.connector.OperationResult;
 import es.gob.fire.server.services.DocInfo;
+import es.gob.fire.server.services.internal.sessions.CompactDataUtils;
 import es.gob.fire.upgrade.GracePeriodInfo;
 
 /**
@@ -372,6 +379,121 @@ public class BatchResult extends OperationResult implements Serializable {
 		return result;
 	}
 
+	/**
+	 * Escribe el resultado del lote en el formato binario compacto usado para el
+	 * guardado de sesiones.
+	 * @param out Flujo de salida.
+	 * @throws IOException Cuando no se puede escribir el resultado.
+	 */
+	public synchronized void writeCompact(final DataOutput out) throws IOException {
+
+		CompactDataUtils.writeString(out, this.providerName);
+		try {
+			CompactDataUtils.writeBytes(out, this.signingCertificate != null ? this.signingCertificate.getEncoded() : null);
+		}
+		catch (final CertificateEncodingException e) {
+			throw new IOException("No se pudo codificar el certificado de firma del lote", e); //$NON-NLS-1$
+		}
+
+		CompactDataUtils.writeVarInt(out, this.results.size());
+		for (final Map.Entry<String, BatchDocumentReference> entry : this.results.entrySet()) {
+			final BatchDocumentReference docRef = entry.getValue();
+			CompactDataUtils.writeString(out, entry.getKey());
+			CompactDataUtils.writeString(out, docRef.getDataReference());
+			out.writeBoolean(docRef.isSigned());
+			CompactDataUtils.writeString(out, docRef.getDetails());
+			CompactDataUtils.writeString(out, docRef.getErrorMessage());
+
+			final SignBatchConfig config = docRef.getSignConfig();
+			out.writeBoolean(config != null);
+			if (config != null) {
+				CompactDataUtils.writeString(out, config.getCryptoOperation());
+				CompactDataUtils.writeString(out, config.getFormat());
+				CompactDataUtils.writeProperties(out, config.getExtraParams());
+				CompactDataUtils.writeString(out, config.getUpgrade());
+				CompactDataUtils.writeProperties(out, config.getUpgradeConfig());
+			}
+
+			final DocInfo docInfo = docRef.getDocInfo();
+			out.writeBoolean(docInfo != null);
+			if (docInfo != null) {
+				CompactDataUtils.writeString(out, docInfo.getTitle());
+				CompactDataUtils.writeString(out, docInfo.getName());
+				out.writeLong(docInfo.getSize());
+			}
+
+			final GracePeriodInfo gracePeriod = docRef.getGracePeriod();
+			out.writeBoolean(gracePeriod != null);
+			if (gracePeriod != null) {
+				CompactDataUtils.writeString(out, gracePeriod.getResponseId());
+				out.writeLong(gracePeriod.getResolutionDate() != null ? gracePeriod.getResolutionDate().getTime() : -1);
+			}
+		}
+	}
+
+	/**
+	 * Lee un resultado de lote escrito con {@link #writeCompact(DataOutput)}.
+	 * @param in Flujo de entrada.
+	 * @return Resultado del lote.
+	 * @throws IOException Cuando no se puede leer el resultado.
+	 */
+	public static BatchResult readCompact(final DataInput in) throws IOException {
+
+		final BatchResult batchResult = new BatchResult();
+		batchResult.providerName = CompactDataUtils.readString(in);
+		final byte[] encodedCert = CompactDataUtils.readBytes(in);
+		if (encodedCert != null) {
+			try {
+				batchResult.signingCertificate = (X509Certificate) CertificateFactory.getInstance("X.509") //$NON-NLS-1$
+						.generateCertificate(new ByteArrayInputStream(encodedCert));
+			}
+			catch (final CertificateException e) {
+				throw new IOException("No se pudo decodificar el certificado de firma del lote", e); //$NON-NLS-1$
+			}
+		}
+
+		final int count = CompactDataUtils.readVarInt(in);
+		for (int i = 0; i < count; i++) {
+			final String docId = CompactDataUtils.readString(in);
+			final String dataReference = CompactDataUtils.readString(in);
+			final boolean signed = in.readBoolean();
+			final String details = CompactDataUtils.readString(in);
+			final String errorMessage = CompactDataUtils.readString(in);
+
+			SignBatchConfig config = null;
+			if (in.readBoolean()) {
+				config = new SignBatchConfig();
+				config.setCryptoOperation(CompactDataUtils.readString(in));
+				config.setFormat(CompactDataUtils.readString(in));
+				config.setExtraParams(CompactDataUtils.readProperties(in));
+				config.setUpgrade(CompactDataUtils.readString(in));
+				config.setUpgradeConfig(CompactDataUtils.readProperties(in));
+			}
+
+			DocInfo docInfo = null;
+			if (in.readBoolean()) {
+				docInfo = new DocInfo(CompactDataUtils.readString(in), CompactDataUtils.readString(in));
+				docInfo.setSize(in.readLong());
+			}
+
+			GracePeriodInfo gracePeriod = null;
+			if (in.readBoolean()) {
+				final String responseId = CompactDataUtils.readString(in);
+				final long resolutionTime = in.readLong();
+				gracePeriod = new GracePeriodInfo(responseId, resolutionTime != -1 ? new Date(resolutionTime) : null);
+			}
+
+			final BatchDocumentReference docRef = new BatchDocumentReference(dataReference, config, docInfo);
+			docRef.signed = signed;
+			docRef.details = details;
+			docRef.errorMessage = errorMessage;
+			docRef.gracePeriod = gracePeriod;
+			batchResult.results.put(docId, docRef);
+		}
+
+		return batchResult;
+	}
+
 	private static class BatchDocumentReference implements Serializable {
 
 		/** Serial Id. */
@@ -0,0 +1,115 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.server.services.internal;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * DAO que mantiene en memoria durante un tiempo la informaci&oacute;n de acceso de
+ * las aplicaciones obtenida de otro DAO, para no consultarla en cada petici&oacute;n.
+ * Tambi&eacute;n recuerda durante un tiempo las aplicaciones que no se encontraron.
+ */
+public class CachedApplicationsDAO implements ApplicationsDAO {
+
+	/** N&uacute;mero de entradas a partir del cual no se recuerdan m&aacute;s aplicaciones
+	 * no encontradas, para evitar que identificadores arbitrarios llenen la memoria. */
+	private static final int MAX_ENTRIES = 1000;
+
+	private final ApplicationsDAO dao;
+
+	private final long timeout;
+
+	private final long negativeTimeout;
+
+	private final Map<String, CacheEntry> cache = new ConcurrentHashMap<>();
+
+	/**
+	 * Construye el DAO.
+	 * @param dao DAO del que obtener la informaci&oacute;n de acceso.
+	 * @param timeout Milisegundos durante los que se reutiliza la informaci&oacute;n
+	 * de acceso de una aplicaci&oacute;n.
+	 * @param negativeTimeout Milisegundos durante los que se recuerda que una
+	 * aplicaci&oacute;n no existe.
+	 */
+	public CachedApplicationsDAO(final ApplicationsDAO dao, final long timeout, final long negativeTimeout) {
+		this.dao = dao;
+		this.timeout = timeout;
+		this.negativeTimeout = negativeTimeout;
+	}
+
+	@Override
+	public ApplicationAccessInfo getApplicationAccessInfo(final String appId, final TransactionAuxParams trAux)
+			throws IOException {
+
+		if (appId == null) {
+			return this.dao.getApplicationAccessInfo(appId, trAux);
+		}
+
+		final long now = System.currentTimeMillis();
+		final CacheEntry entry = this.cache.get(appId);
+		if (entry != null && entry.expirationTime > now) {
+			return entry.accessInfo;
+		}
+
+		// Los errores en la consulta no se guardan, se volvera a consultar en la
+		// siguiente peticion
+		final ApplicationAccessInfo accessInfo = this.dao.getApplicationAccessInfo(appId, trAux);
+
+		if (accessInfo != null) {
+			if (this.timeout > 0) {
+				this.cache.put(appId, new CacheEntry(accessInfo, now + this.timeout));
+			}
+		}
+		else if (this.negativeTimeout > 0) {
+			if (this.cache.size() >= MAX_ENTRIES) {
+				removeExpired(now);
+			}
+			if (this.cache.size() < MAX_ENTRIES) {
+				this.cache.put(appId, new CacheEntry(null, now + this.negativeTimeout));
+			}
+		}
+		else {
+			this.cache.remove(appId);
+		}
+
+		return accessInfo;
+	}
+
+	/**
+	 * Elimina las entradas caducadas.
+	 * @param now Instante actual en milisegundos.
+	 */
+	private void removeExpired(final long now) {
+		final Iterator<CacheEntry> it = this.cache.values().iterator();
+		while (it.hasNext()) {
+			if (it.next().expirationTime <= now) {
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * Informaci&oacute;n de acceso de una aplicaci&oacute;n junto con su caducidad.
+	 */
+	private static final class CacheEntry {
+
+		final ApplicationAccessInfo accessInfo;
+
+		final long expirationTime;
+
+		CacheEntry(final ApplicationAccessInfo accessInfo, final long expirationTime) {
+			this.accessInfo = accessInfo;
+			this.expirationTime = expirationTime;
+		}
+	}
+}
@@ -230,9 +230,10 @@ public class ChooseCertificateOriginService extends HttpServlet {
 
 		// Listamos los certificados del usuario
 		X509Certificate[] certificates = null;
+		FIReConnector connector = null;
 		try {
 			LOGGER.info(logF.f("Se ha seleccionado el proveedor " + providerName.replaceAll("[\r\n]",""))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-			final FIReConnector connector = ProviderManager.getProviderConnector(
+			connector = ProviderManager.getProviderConnector(
 					providerName,
 					connConfig.getProperties()
 			);
@@ -308,6 +309,9 @@ public class ChooseCertificateOriginService extends HttpServlet {
 			redirectToErrorPage(originForced, connConfig, request, response, trAux);
 			return;
 		}
+		finally {
+			ProviderManager.releaseProviderConnector(providerName, connector);
+		}
 
 		// Adjuntamos los certificados a la sesion para que los reciba el JSP
 		session.setAttribute(trId + "-certs", certificates); //$NON-NLS-1$
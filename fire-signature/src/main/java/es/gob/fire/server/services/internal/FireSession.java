@@ -9,12 +9,21 @@
  */
 package es.gob.fire.server.services.internal;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import javax.servlet.http.HttpSession;
 
+import es.gob.fire.server.services.internal.sessions.BinarySessionCodec;
 import es.gob.fire.signature.ConfigManager;
 
 /**
@@ -36,6 +45,20 @@ public class FireSession implements Serializable {
 	private final Map<String, Object> ssData;
 	private long expirationTime;
 
+	/**
+	 * Atributos modificados o eliminados desde la &uacute;ltima vez que se
+	 * guard&oacute; la sesi&oacute;n. No se serializa, ya que s&oacute;lo tiene
+	 * sentido respecto a la copia guardada por el gestor de sesiones.
+	 */
+	private transient Set<String> modifiedAttributes;
+
+	/**
+	 * Huellas digitales de los valores mutables de los atributos tal como estaban la
+	 * &uacute;ltima vez que se guard&oacute; la sesi&oacute;n. Permiten detectar los
+	 * valores que se han modificado sin volver a establecerlos en la sesi&oacute;n.
+	 */
+	private transient Map<String, byte[]> fingerprints;
+
 	private FireSession(final String trId, final Map<String, Object> fireSessionData) {
     	this.transactionId = trId;
 		this.ssData = fireSessionData;
@@ -73,6 +96,8 @@ public class FireSession implements Serializable {
 
 	/**
 	 * Crea una nueva sesi&oacute;n de FIRe en la que se va a procesar una transacci&oacute;n.
+	 * Si los datos proceden de una copia guardada, se deber&aacute; llamar a
+	 * {@link #getAndResetModifiedAttributes()} para tomarlos como los ya guardados.
 	 * @param id Identificador de transacci&oacute;n.
 	 * @param sessionData Datos de la sesi&oacute;n.
 	 * @param expirationTime Momento del tiempo en el que expirara la sesi&oacute;n.
@@ -147,6 +172,7 @@ public class FireSession implements Serializable {
 	 */
 	public void setAttribute(final String name, final Object value) {
 		this.ssData.put(name, value);
+		markModified(name);
 	}
 
 	/**
@@ -180,6 +206,96 @@ public class FireSession implements Serializable {
 	 */
 	public void removeAttribute(final String attr) {
 		this.ssData.remove(attr);
+		markModified(attr);
+	}
+
+	/**
+	 * Registra que un atributo se ha modificado o eliminado.
+	 * @param attr Nombre del atributo.
+	 */
+	private synchronized void markModified(final String attr) {
+		if (this.modifiedAttributes == null) {
+			this.modifiedAttributes = new HashSet<>();
+		}
+		this.modifiedAttributes.add(attr);
+	}
+
+	/**
+	 * Obtiene el listado de atributos que han cambiado desde la &uacute;ltima
+	 * vez que se consult&oacute; y reinicia el registro de cambios. Adem&aacute;s
+	 * de los atributos establecidos o eliminados expl&iacute;citamente, se
+	 * consideran modificados aquellos cuyo valor sea un objeto mutable cuya huella
+	 * digital haya cambiado, ya que este puede haberse modificado sin volver a
+	 * establecerlo en la sesi&oacute;n. Los valores de los que no se puede obtener
+	 * la huella se consideran siempre modificados.
+	 * @return Nombres de los atributos modificados o eliminados.
+	 */
+	public synchronized Set<String> getAndResetModifiedAttributes() {
+		final Set<String> modified = this.modifiedAttributes != null
+				? this.modifiedAttributes : new HashSet<String>();
+		this.modifiedAttributes = null;
+
+		final Map<String, byte[]> newFingerprints = new HashMap<>();
+		for (final Map.Entry<String, Object> attr : this.ssData.entrySet()) {
+			if (!isImmutable(attr.getValue())) {
+				final byte[] fingerprint = fingerprint(attr.getValue());
+				final byte[] previous = this.fingerprints != null ? this.fingerprints.get(attr.getKey()) : null;
+				if (fingerprint == null || previous == null || !Arrays.equals(fingerprint, previous)) {
+					modified.add(attr.getKey());
+				}
+				if (fingerprint != null) {
+					newFingerprints.put(attr.getKey(), fingerprint);
+				}
+			}
+		}
+		this.fingerprints = newFingerprints.isEmpty() ? null : newFingerprints;
+
+		return modified;
+	}
+
+	/**
+	 * Calcula la huella digital de un valor codificado con el mismo formato con el
+	 * que se guarda en la sesi&oacute;n compartida.
+	 * @param value Valor del que calcular la huella.
+	 * @return Huella digital del valor o {@code null} si no se puede calcular.
+	 */
+	private static byte[] fingerprint(final Object value) {
+		final MessageDigest md;
+		try {
+			md = MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+		}
+		catch (final NoSuchAlgorithmException e) {
+			return null;
+		}
+		// Solo nos interesa la huella, asi que descartamos los datos codificados
+		final OutputStream discard = new OutputStream() {
+			@Override
+			public void write(final int b) {
+				// No se conservan los datos
+			}
+			@Override
+			public void write(final byte[] b, final int off, final int len) {
+				// No se conservan los datos
+			}
+		};
+		try {
+			BinarySessionCodec.encodeValue(value, new DigestOutputStream(discard, md));
+		}
+		catch (final IOException | RuntimeException e) {
+			return null;
+		}
+		return md.digest();
+	}
+
+	/**
+	 * Indica si un valor de atributo no puede modificarse sin sustituirlo.
+	 * @param value Valor del atributo.
+	 * @return {@code true} si el valor es inmutable, {@code false} en caso contrario.
+	 */
+	private static boolean isImmutable(final Object value) {
+		return value == null || value instanceof String || value instanceof Boolean
+				|| value instanceof Number && value.getClass().getName().startsWith("java.lang.") //$NON-NLS-1$
+				|| value instanceof Enum;
 	}
 
 	/**
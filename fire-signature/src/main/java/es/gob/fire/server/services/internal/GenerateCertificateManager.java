@@ -54,7 +54,11 @@ public class GenerateCertificateManager {
 
     	// Obtenemos el conector con el backend ya configurado
     	final FIReConnector connector = ProviderManager.getProviderConnector(providerName, config);
-
-        return connector.generateCertificate(subjectId);
+    	try {
+    		return connector.generateCertificate(subjectId);
+    	}
+    	finally {
+    		ProviderManager.releaseProviderConnector(providerName, connector);
+    	}
 	}
 }
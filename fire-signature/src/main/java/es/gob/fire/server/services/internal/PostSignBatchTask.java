@@ -18,6 +18,7 @@ import java.util.logging.Logger;
 import es.gob.fire.alarms.Alarm;
 import es.gob.fire.server.document.FIReDocumentManager;
 import es.gob.fire.server.document.FireDocumentManagerBase;
+import es.gob.fire.upgrade.BatchItemResult;
 import es.gob.fire.upgrade.ConnectionException;
 import es.gob.fire.upgrade.SignatureValidator;
 import es.gob.fire.upgrade.UpgradeException;
@@ -28,7 +29,9 @@ import es.gob.fire.upgrade.VerifyResult;
 
 /**
  * Hilo que finaliza que realiza una postfirma dentro de una operaci&oacute;n de firma
- * de lote.
+ * de lote. Si se indica que la validaci&oacute;n o actualizaci&oacute;n de la firma se
+ * haga en lote, la tarea se detiene tras componer la firma y, una vez que
+ * {@link PostSignBatchUpgrader} la procesa, se vuelve a ejecutar para almacenarla.
  *
  */
 class PostSignBatchTask implements Callable<String> {
@@ -51,6 +54,14 @@ class PostSignBatchTask implements Callable<String> {
 
 	private final PostSignBatchRecover signRecover;
 
+	private final boolean deferUpgrade;
+
+	/** Firma compuesta pendiente de validar o actualizar en lote. */
+	private byte[] pendingSignature = null;
+
+	/** Resultado de la validaci&oacute;n o actualizaci&oacute;n en lote de la firma. */
+	private PostProcessResult batchProcessResult = null;
+
 	/**
 	 * Construye un hilo que se encargar&aacute; de componer la firma electr&oacute;nica
 	 * realizada con el certificado en la nube y, si se configura, de validarla o actualizarla
@@ -65,11 +76,14 @@ class PostSignBatchTask implements Callable<String> {
 	 * @param docManager Gestor de documentos que realizar&aacute; el tratamiento de la firma.
 	 * del hilo en caso de detectar un error en alguna de las firmas del lote.
 	 * @param signRecover Objeto para la composici&oacute;n y recuperaci&oacute;n de la firma.
+	 * @param deferUpgrade {@code true} si la validaci&oacute;n o actualizaci&oacute;n de la
+	 * firma se har&aacute; en lote junto con las del resto de documentos mediante
+	 * {@link PostSignBatchUpgrader}, {@code false} si la har&aacute; la propia tarea.
 	 */
 	public PostSignBatchTask(final String appId, final String trId,
 			final String docId, final BatchResult batchResult, final SignBatchConfig signConfig,
 			final boolean needValidation, final FIReDocumentManager docManager,
-			final PostSignBatchRecover signRecover) {
+			final PostSignBatchRecover signRecover, final boolean deferUpgrade) {
 
 		this.appId = appId;
 		this.trId = trId;
@@ -79,6 +93,7 @@ class PostSignBatchTask implements Callable<String> {
 		this.needValidation = needValidation;
 		this.docManager = docManager;
 		this.signRecover = signRecover;
+		this.deferUpgrade = deferUpgrade;
 	}
 
 	@Override
@@ -100,6 +115,13 @@ class PostSignBatchTask implements Callable<String> {
     		return null;
     	}
 
+    	// Si ya se valido o actualizo la firma en lote, solo queda almacenarla
+    	if (this.batchProcessResult != null) {
+    		final PostProcessResult processResult = this.batchProcessResult;
+    		this.batchProcessResult = null;
+    		return storeResult(processResult, logF);
+    	}
+
     	byte[] signature;
     	try {
     		signature = this.signRecover.recoverSign();
@@ -122,6 +144,12 @@ class PostSignBatchTask implements Callable<String> {
     	final String upgradeLevel = this.signConfig.getUpgrade();
     	if (upgradeLevel != null && !upgradeLevel.isEmpty()) {
 
+    		// Si la firma se valida o actualiza en lote, la dejamos pendiente
+    		if (this.deferUpgrade && needPlatform(upgradeLevel)) {
+    			this.pendingSignature = signature;
+    			return this.docId;
+    		}
+
 			// La configuracion de mejora/validacion de firma
 			final Properties upgradeConfig = this.signConfig.getUpgradeConfig();
     		try {
@@ -130,12 +158,7 @@ class PostSignBatchTask implements Callable<String> {
     				if (this.needValidation) {
     					LOGGER.info(logF.f("Validamos la firma: " + this.docId)); //$NON-NLS-1$
     					final VerifyResult verifyResult = validator.validateSignature(signature, upgradeConfig);
-    					if (!verifyResult.isOk()) {
-    		    			LOGGER.log(Level.WARNING, logF.f("La firma del document %1s no es valida: %2s", this.docId, verifyResult.getDescription())); //$NON-NLS-1$
-    		    			this.batchResult.setErrorResult(this.docId, BatchResult.INVALID_SIGNATURE);
-    		    			this.batchResult.setErrorMessage(this.docId, "La firma del documento no es valida"); //$NON-NLS-1$
-    		    			throw new VerifyException("La firma del documento no es valida"); //$NON-NLS-1$
-    					}
+    					checkVerifyResult(verifyResult, logF);
     				}
     				else {
     					LOGGER.info(logF.f("El proveedor es seguro y no es necesario validar la firma: " + this.docId)); //$NON-NLS-1$
@@ -149,47 +172,18 @@ class PostSignBatchTask implements Callable<String> {
     					upgradeResult = validator.upgradeSignature(signature, upgradeLevel, upgradeConfig);
     				}
     				catch (final VerifyException e) {
-    	    			LOGGER.log(Level.WARNING, logF.f("Se ha intentado actualizar una firma invalida con el docId: " + this.docId), e); //$NON-NLS-1$
-    	    			this.batchResult.setErrorResult(this.docId, BatchResult.INVALID_SIGNATURE);
-    	    			this.batchResult.setErrorMessage(this.docId, "La firma del documento no es valida"); //$NON-NLS-1$
+    					registerInvalidSignature(e, logF);
     	    			throw e;
     	    		}
-
-    				boolean allowPartialUpgrade = false;
-    				if (upgradeConfig != null) {
-    					allowPartialUpgrade = Boolean.parseBoolean(upgradeConfig.getProperty(UpgradeParams.ALLOW_PARTIAL_UPGRADE));
-    				}
-
-    		        // Comprobamos si era necesario recuperar la firma totalmente actualizada y si se ha hecho asi
-    		        if (!allowPartialUpgrade && upgradeResult.getState() == UpgradeResult.State.PARTIAL) {
-    	    			LOGGER.log(Level.WARNING, logF.f("No se pudo actualizar hasta el formato solicitado la firma del documento: " + this.docId)); //$NON-NLS-1$
-    	    			this.batchResult.setErrorResult(this.docId, BatchResult.UPGRADE_ERROR);
-    	    			this.batchResult.setErrorMessage(this.docId, "No se pudo actualizar hasta el formato solicitado la firma del documento"); //$NON-NLS-1$
-    	    			throw new UpgradeException("No se pudo actualizar hasta el formato solicitado la firma del documento"); //$NON-NLS-1$
-    		        }
-
-    				if (upgradeResult.getState() == UpgradeResult.State.PENDING) {
-    					processResult = new PostProcessResult(upgradeResult.getGracePeriodInfo());
-    				}
-    				else {
-    					processResult = new PostProcessResult(upgradeResult.getResult());
-    				}
-    				if (this.batchResult.getSignConfig(this.docId) != null) {
-    					this.batchResult.getSignConfig(this.docId).setUpgrade(upgradeResult.getFormat());
-    				}
+    				processResult = processUpgradeResult(upgradeResult, logF);
     			}
     		}
     		catch (final ConnectionException e) {
-    			LOGGER.log(Level.SEVERE, logF.f("No se pudo conectar con el servicio de validacion y mejora de firmas"), e); //$NON-NLS-1$
-    			AlarmsManager.notify(Alarm.CONNECTION_VALIDATION_PLATFORM);
-    			this.batchResult.setErrorResult(this.docId, BatchResult.UPGRADE_ERROR);
-    			this.batchResult.setErrorMessage(this.docId, "No se pudo conectar con el servicio de validacion y mejora de firmas."); //$NON-NLS-1$
+    			registerConnectionError(e, logF);
     			throw e;
     		}
     		catch (final Exception e) {
-    			LOGGER.log(Level.SEVERE, logF.f("Error al validar/actualizar la firma con docId: " + this.docId), e); //$NON-NLS-1$
-    			this.batchResult.setErrorResult(this.docId, BatchResult.UPGRADE_ERROR);
-    			this.batchResult.setErrorMessage(this.docId, "Error al validar/actualizar la firma."); //$NON-NLS-1$
+    			registerUpgradeError(e, logF);
     			throw e;
     		}
 
@@ -203,6 +197,22 @@ class PostSignBatchTask implements Callable<String> {
     		processResult = new PostProcessResult(signature);
     	}
 
+    	return storeResult(processResult, logF);
+	}
+
+	/**
+	 * Procesa con el gestor de documentos, si lo hay, la firma validada o actualizada y
+	 * la almacena como resultado de la operaci&oacute;n.
+	 * @param processResult Resultado de la validaci&oacute;n o actualizaci&oacute;n de la firma.
+	 * @param logF Objeto para el formateo de logs.
+	 * @return Identificador del documento o {@code null} si se interrumpi&oacute; la operaci&oacute;n.
+	 * @throws Exception Cuando no se puede procesar o almacenar la firma.
+	 */
+	private String storeResult(final PostProcessResult processResult, final LogTransactionFormatter logF)
+			throws Exception {
+
+		final Thread currentThread = Thread.currentThread();
+
     	// Si la firma generada requiere un periodo de gracia para la actualizacion,
     	// se registra que la firma ha terminado bien
     	if (processResult.getGracePeriodInfo() != null) {
@@ -268,4 +278,199 @@ class PostSignBatchTask implements Callable<String> {
     	this.batchResult.setSuccessResult(this.docId);
     	return this.docId;
 	}
+
+	/**
+	 * Indica si es necesario acceder a la plataforma de validaci&oacute;n y mejora para
+	 * procesar la firma.
+	 * @param upgradeLevel Formato de actualizaci&oacute;n o validaci&oacute;n.
+	 * @return {@code true} si hay que validar o actualizar la firma, {@code false} en caso contrario.
+	 */
+	private boolean needPlatform(final String upgradeLevel) {
+		return !ServiceParams.UPGRADE_VERIFY.equalsIgnoreCase(upgradeLevel) || this.needValidation;
+	}
+
+	/**
+	 * Comprueba el resultado de la validaci&oacute;n de la firma y registra el error si no es v&aacute;lida.
+	 * @param verifyResult Resultado de la validaci&oacute;n.
+	 * @param logF Objeto para el formateo de logs.
+	 * @throws VerifyException Cuando la firma no es v&aacute;lida.
+	 */
+	private void checkVerifyResult(final VerifyResult verifyResult, final LogTransactionFormatter logF)
+			throws VerifyException {
+		if (!verifyResult.isOk()) {
+			LOGGER.log(Level.WARNING, logF.f("La firma del document %1s no es valida: %2s", this.docId, verifyResult.getDescription())); //$NON-NLS-1$
+			this.batchResult.setErrorResult(this.docId, BatchResult.INVALID_SIGNATURE);
+			this.batchResult.setErrorMessage(this.docId, "La firma del documento no es valida"); //$NON-NLS-1$
+			throw new VerifyException("La firma del documento no es valida"); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Comprueba el resultado de la actualizaci&oacute;n de la firma y obtiene el resultado
+	 * del postproceso.
+	 * @param upgradeResult Resultado de la actualizaci&oacute;n.
+	 * @param logF Objeto para el formateo de logs.
+	 * @return Resultado del postproceso de la firma.
+	 * @throws UpgradeException Cuando no se actualiz&oacute; la firma al formato solicitado
+	 * y no se admiten actualizaciones parciales.
+	 */
+	private PostProcessResult processUpgradeResult(final UpgradeResult upgradeResult,
+			final LogTransactionFormatter logF) throws UpgradeException {
+
+		final Properties upgradeConfig = this.signConfig.getUpgradeConfig();
+
+		boolean allowPartialUpgrade = false;
+		if (upgradeConfig != null) {
+			allowPartialUpgrade = Boolean.parseBoolean(upgradeConfig.getProperty(UpgradeParams.ALLOW_PARTIAL_UPGRADE));
+		}
+
+		// Comprobamos si era necesario recuperar la firma totalmente actualizada y si se ha hecho asi
+		if (!allowPartialUpgrade && upgradeResult.getState() == UpgradeResult.State.PARTIAL) {
+			LOGGER.log(Level.WARNING, logF.f("No se pudo actualizar hasta el formato solicitado la firma del documento: " + this.docId)); //$NON-NLS-1$
+			this.batchResult.setErrorResult(this.docId, BatchResult.UPGRADE_ERROR);
+			this.batchResult.setErrorMessage(this.docId, "No se pudo actualizar hasta el formato solicitado la firma del documento"); //$NON-NLS-1$
+			throw new UpgradeException("No se pudo actualizar hasta el formato solicitado la firma del documento"); //$NON-NLS-1$
+		}
+
+		PostProcessResult processResult;
+		if (upgradeResult.getState() == UpgradeResult.State.PENDING) {
+			processResult = new PostProcessResult(upgradeResult.getGracePeriodInfo());
+		}
+		else {
+			processResult = new PostProcessResult(upgradeResult.getResult());
+		}
+		if (this.batchResult.getSignConfig(this.docId) != null) {
+			this.batchResult.getSignConfig(this.docId).setUpgrade(upgradeResult.getFormat());
+		}
+		return processResult;
+	}
+
+	private void registerInvalidSignature(final VerifyException e, final LogTransactionFormatter logF) {
+		LOGGER.log(Level.WARNING, logF.f("Se ha intentado actualizar una firma invalida con el docId: " + this.docId), e); //$NON-NLS-1$
+		this.batchResult.setErrorResult(this.docId, BatchResult.INVALID_SIGNATURE);
+		this.batchResult.setErrorMessage(this.docId, "La firma del documento no es valida"); //$NON-NLS-1$
+	}
+
+	private void registerConnectionError(final ConnectionException e, final LogTransactionFormatter logF) {
+		LOGGER.log(Level.SEVERE, logF.f("No se pudo conectar con el servicio de validacion y mejora de firmas"), e); //$NON-NLS-1$
+		AlarmsManager.notify(Alarm.CONNECTION_VALIDATION_PLATFORM);
+		this.batchResult.setErrorResult(this.docId, BatchResult.UPGRADE_ERROR);
+		this.batchResult.setErrorMessage(this.docId, "No se pudo conectar con el servicio de validacion y mejora de firmas."); //$NON-NLS-1$
+	}
+
+	private void registerUpgradeError(final Exception e, final LogTransactionFormatter logF) {
+		LOGGER.log(Level.SEVERE, logF.f("Error al validar/actualizar la firma con docId: " + this.docId), e); //$NON-NLS-1$
+		this.batchResult.setErrorResult(this.docId, BatchResult.UPGRADE_ERROR);
+		this.batchResult.setErrorMessage(this.docId, "Error al validar/actualizar la firma."); //$NON-NLS-1$
+	}
+
+	/**
+	 * Indica si la firma est&aacute; pendiente de validarse o actualizarse en lote.
+	 * @return {@code true} si la firma est&aacute; pendiente, {@code false} en caso contrario.
+	 */
+	boolean isUpgradePending() {
+		return this.pendingSignature != null;
+	}
+
+	/**
+	 * Obtiene la firma compuesta pendiente de validarse o actualizarse en lote.
+	 * @return Firma pendiente o {@code null} si no la hay.
+	 */
+	byte[] getPendingSignature() {
+		return this.pendingSignature;
+	}
+
+	/**
+	 * Obtiene el identificador del documento.
+	 * @return Identificador del documento.
+	 */
+	String getDocId() {
+		return this.docId;
+	}
+
+	/**
+	 * Obtiene la configuraci&oacute;n de firma del documento.
+	 * @return Configuraci&oacute;n de firma.
+	 */
+	SignBatchConfig getSignConfig() {
+		return this.signConfig;
+	}
+
+	/**
+	 * Establece el resultado de la validaci&oacute;n en lote de la firma pendiente. Si la
+	 * firma es v&aacute;lida, la siguiente ejecuci&oacute;n de la tarea la almacenar&aacute;.
+	 * En caso contrario, se registra el error en el resultado del lote.
+	 * @param result Resultado de la validaci&oacute;n.
+	 * @param logF Objeto para el formateo de logs.
+	 * @return {@code true} si la firma es v&aacute;lida, {@code false} en caso contrario.
+	 */
+	boolean setVerifyResult(final BatchItemResult<VerifyResult> result, final LogTransactionFormatter logF) {
+		final byte[] signature = this.pendingSignature;
+		this.pendingSignature = null;
+		try {
+			if (result.isFailed()) {
+				throw result.getError();
+			}
+			checkVerifyResult(result.getResult(), logF);
+			this.batchProcessResult = new PostProcessResult(signature);
+			return true;
+		}
+		catch (final ConnectionException e) {
+			registerConnectionError(e, logF);
+		}
+		catch (final Exception e) {
+			registerUpgradeError(e, logF);
+		}
+		return false;
+	}
+
+	/**
+	 * Establece el resultado de la actualizaci&oacute;n en lote de la firma pendiente. Si se
+	 * actualiz&oacute; correctamente, la siguiente ejecuci&oacute;n de la tarea almacenar&aacute;
+	 * el resultado. En caso contrario, se registra el error en el resultado del lote.
+	 * @param result Resultado de la actualizaci&oacute;n.
+	 * @param logF Objeto para el formateo de logs.
+	 * @return {@code true} si se actualiz&oacute; la firma, {@code false} en caso contrario.
+	 */
+	boolean setUpgradeResult(final BatchItemResult<UpgradeResult> result, final LogTransactionFormatter logF) {
+		this.pendingSignature = null;
+		try {
+			if (result.isFailed()) {
+				if (result.getError() instanceof VerifyException) {
+					registerInvalidSignature((VerifyException) result.getError(), logF);
+				}
+				throw result.getError();
+			}
+			this.batchProcessResult = processUpgradeResult(result.getResult(), logF);
+			return true;
+		}
+		catch (final ConnectionException e) {
+			registerConnectionError(e, logF);
+		}
+		catch (final Exception e) {
+			registerUpgradeError(e, logF);
+		}
+		return false;
+	}
+
+	/**
+	 * Registra un error en la validaci&oacute;n o actualizaci&oacute;n en lote de la firma
+	 * pendiente.
+	 * @param e Error producido.
+	 * @param logF Objeto para el formateo de logs.
+	 */
+	void setUpgradeError(final Exception e, final LogTransactionFormatter logF) {
+		this.pendingSignature = null;
+		registerUpgradeError(e, logF);
+	}
+
+	/**
+	 * Descarta la firma pendiente de validar o actualizar al haberse interrumpido el lote.
+	 */
+	void setNotProcessed() {
+		this.pendingSignature = null;
+		this.batchProcessResult = null;
+		this.batchResult.setErrorResult(this.docId, BatchResult.NO_PROCESSED);
+		this.batchResult.setErrorMessage(this.docId, "Se ha interrumpido la operacion."); //$NON-NLS-1$
+	}
 }
\ No newline at end of file
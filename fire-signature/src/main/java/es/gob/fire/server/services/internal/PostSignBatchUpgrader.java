@@ -0,0 +1,273 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.server.services.internal;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import es.gob.fire.upgrade.BatchItemResult;
+import es.gob.fire.upgrade.SignatureValidator;
+import es.gob.fire.upgrade.UpgradeResult;
+import es.gob.fire.upgrade.ValidatorException;
+import es.gob.fire.upgrade.VerifyResult;
+
+/**
+ * Valida o actualiza en lote las firmas que las tareas de postfirma dejaron pendientes,
+ * de forma que el validador pueda agrupar y paralelizar las peticiones a la plataforma
+ * en lugar de recibirlas de una en una.
+ */
+final class PostSignBatchUpgrader {
+
+	private static final Logger LOGGER = Logger.getLogger(PostSignBatchUpgrader.class.getName());
+
+	/** N&uacute;mero m&aacute;ximo de tareas cuyas firmas se mantienen a la vez en memoria
+	 * a la espera de validarse o actualizarse en lote. */
+	private static final int MAX_PENDING_TASKS = 100;
+
+	private PostSignBatchUpgrader() {
+		// No instanciable
+	}
+
+	/**
+	 * Indica si el validador configurado declara que procesa las firmas en lote de forma
+	 * m&aacute;s eficiente que hacerlo una a una. Si no es as&iacute;, es preferible que cada tarea de postfirma
+	 * valide o actualice su firma, ya que las tareas se ejecutan en paralelo.
+	 * @param logF Objeto para el formateo de logs.
+	 * @return {@code true} si el validador implementa el procesado en lote, {@code false}
+	 * en caso contrario o si no se puede cargar el validador.
+	 */
+	static boolean isBatchSupported(final LogTransactionFormatter logF) {
+		try {
+			final SignatureValidator validator = SignatureValidatorBuilder.getSignatureValidator(logF);
+			return validator.supportsBatch();
+		}
+		catch (final Exception e) {
+			LOGGER.log(Level.FINE, logF.f("No se pudo comprobar si el validador admite el procesado en lote"), e); //$NON-NLS-1$
+			return false;
+		}
+	}
+
+	/**
+	 * Ejecuta las tareas de postfirma de un lote y espera a que terminen. Si las firmas se
+	 * validan o actualizan en lote, las tareas se procesan en bloques de tama&ntilde;o
+	 * limitado: se componen las firmas del bloque, se validan o actualizan en lote y se
+	 * almacenan antes de pasar al siguiente bloque, de forma que no se mantienen en memoria
+	 * a la vez las firmas de todo el lote. Las firmas de cada bloque se cuentan como
+	 * pendientes en la sesi&oacute;n hasta que se almacenan.
+	 * @param tasks Tareas de postfirma.
+	 * @param batchUpgrade {@code true} si las tareas dejan pendiente la validaci&oacute;n o
+	 * actualizaci&oacute;n de sus firmas, {@code false} si la realizan ellas mismas.
+	 * @param batchResult Resultado de las firmas del lote.
+	 * @param stopOnError {@code true} si debe detenerse el lote tras encontrar un error,
+	 * {@code false} en caso contrario.
+	 * @param session Sesi&oacute;n en la que se almacena el n&uacute;mero de firmas pendientes.
+	 * @param logF Objeto para el formateo de logs.
+	 */
+	static void executeTasks(final List<PostSignBatchTask> tasks, final boolean batchUpgrade,
+			final BatchResult batchResult, final boolean stopOnError, final FireSession session,
+			final LogTransactionFormatter logF) {
+
+		final String attrName = ServiceParams.SESSION_PARAM_BATCH_PENDING_SIGNS;
+
+		if (!batchUpgrade) {
+			TasksPoolManager.executeTasks(tasks, stopOnError, session, attrName);
+			return;
+		}
+
+		for (int start = 0; start < tasks.size(); start += MAX_PENDING_TASKS) {
+
+			final int end = Math.min(start + MAX_PENDING_TASKS, tasks.size());
+			final int pendingAfter = tasks.size() - end;
+			final List<PostSignBatchTask> chunk = tasks.subList(start, end);
+
+			// Si fallo alguna firma y no se admiten errores parciales, no procesamos mas bloques
+			if (stopOnError && hasFailedSigns(batchResult)) {
+				break;
+			}
+
+			// Las firmas del bloque siguen pendientes mientras se componen, ya que aun
+			// queda validarlas o actualizarlas y almacenarlas
+			TasksPoolManager.updatePendingTasks(session, attrName, chunk.size() + pendingAfter);
+			TasksPoolManager.executeTasks(chunk, stopOnError, null, null);
+
+			// Validamos o actualizamos en lote las firmas que quedaron pendientes y
+			// volvemos a ejecutar sus tareas para almacenar el resultado
+			final List<PostSignBatchTask> upgradedTasks = upgradeSignatures(
+					chunk, batchResult, stopOnError, logF);
+			TasksPoolManager.executeTasks(upgradedTasks, stopOnError, session, attrName, pendingAfter);
+		}
+
+		TasksPoolManager.updatePendingTasks(session, attrName, 0);
+	}
+
+	/**
+	 * Valida o actualiza las firmas pendientes de las tareas, agrup&aacute;ndolas por
+	 * formato y configuraci&oacute;n de actualizaci&oacute;n, y registra los errores en el
+	 * resultado del lote.
+	 * @param tasks Tareas de postfirma ya ejecutadas.
+	 * @param batchResult Resultado de las firmas del lote.
+	 * @param stopOnError {@code true} si debe detenerse el lote tras encontrar un error,
+	 * {@code false} en caso contrario.
+	 * @param logF Objeto para el formateo de logs.
+	 * @return Tareas cuyas firmas se validaron o actualizaron correctamente y que deben
+	 * volver a ejecutarse para almacenar el resultado.
+	 */
+	private static List<PostSignBatchTask> upgradeSignatures(final List<PostSignBatchTask> tasks,
+			final BatchResult batchResult, final boolean stopOnError, final LogTransactionFormatter logF) {
+
+		final List<PostSignBatchTask> upgradedTasks = new ArrayList<>();
+
+		// Agrupamos las firmas pendientes segun el formato al que actualizarlas y la
+		// configuracion de la plataforma, que puede establecerse para cada documento
+		final Map<UpgradeGroupKey, List<PostSignBatchTask>> groups = new LinkedHashMap<>();
+		for (final PostSignBatchTask task : tasks) {
+			if (task.isUpgradePending()) {
+				final UpgradeGroupKey key = new UpgradeGroupKey(
+						task.getSignConfig().getUpgrade(), task.getSignConfig().getUpgradeConfig());
+				List<PostSignBatchTask> group = groups.get(key);
+				if (group == null) {
+					group = new ArrayList<>();
+					groups.put(key, group);
+				}
+				group.add(task);
+			}
+		}
+		if (groups.isEmpty()) {
+			return upgradedTasks;
+		}
+
+		// Si fallo alguna firma y no se admiten errores parciales, no continuamos
+		if (stopOnError && hasFailedSigns(batchResult)) {
+			setNotProcessed(groups);
+			return upgradedTasks;
+		}
+
+		final SignatureValidator validator;
+		try {
+			validator = SignatureValidatorBuilder.getSignatureValidator(logF);
+		}
+		catch (final ValidatorException e) {
+			LOGGER.log(Level.SEVERE, logF.f("No se pudo cargar el validador de firmas"), e); //$NON-NLS-1$
+			for (final List<PostSignBatchTask> group : groups.values()) {
+				for (final PostSignBatchTask task : group) {
+					task.setUpgradeError(e, logF);
+				}
+			}
+			return upgradedTasks;
+		}
+
+		boolean failed = false;
+		for (final Map.Entry<UpgradeGroupKey, List<PostSignBatchTask>> groupEntry : groups.entrySet()) {
+
+			final String upgradeLevel = groupEntry.getKey().upgradeLevel;
+			final Properties upgradeConfig = groupEntry.getKey().upgradeConfig;
+			final List<PostSignBatchTask> group = groupEntry.getValue();
+
+			final List<byte[]> signatures = new ArrayList<>(group.size());
+			for (final PostSignBatchTask task : group) {
+				signatures.add(task.getPendingSignature());
+			}
+
+			if (ServiceParams.UPGRADE_VERIFY.equalsIgnoreCase(upgradeLevel)) {
+				LOGGER.info(logF.f("Validamos en lote %1s firmas", Integer.valueOf(group.size()))); //$NON-NLS-1$
+				final List<BatchItemResult<VerifyResult>> results =
+						validator.validateSignatures(signatures, upgradeConfig);
+				for (int i = 0; i < group.size(); i++) {
+					if (group.get(i).setVerifyResult(results.get(i), logF)) {
+						upgradedTasks.add(group.get(i));
+					}
+					else {
+						failed = true;
+					}
+				}
+			}
+			else {
+				LOGGER.info(logF.f("Actualizamos en lote %1s firmas a: %2s", Integer.valueOf(group.size()), upgradeLevel)); //$NON-NLS-1$
+				final List<BatchItemResult<UpgradeResult>> results =
+						validator.upgradeSignatures(signatures, upgradeLevel, upgradeConfig);
+				for (int i = 0; i < group.size(); i++) {
+					if (group.get(i).setUpgradeResult(results.get(i), logF)) {
+						upgradedTasks.add(group.get(i));
+					}
+					else {
+						failed = true;
+					}
+				}
+			}
+		}
+
+		// Si fallo alguna firma y no se admiten errores parciales, no se almacena ninguna
+		if (stopOnError && failed) {
+			for (final PostSignBatchTask task : upgradedTasks) {
+				task.setNotProcessed();
+			}
+			upgradedTasks.clear();
+		}
+
+		return upgradedTasks;
+	}
+
+	private static boolean hasFailedSigns(final BatchResult batchResult) {
+		final Iterator<String> it = batchResult.iterator();
+		while (it.hasNext()) {
+			if (batchResult.isSignFailed(it.next())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static void setNotProcessed(final Map<UpgradeGroupKey, List<PostSignBatchTask>> groups) {
+		for (final List<PostSignBatchTask> group : groups.values()) {
+			for (final PostSignBatchTask task : group) {
+				task.setNotProcessed();
+			}
+		}
+	}
+
+	/**
+	 * Clave con la que se agrupan las firmas que se validan o actualizan en la misma
+	 * petici&oacute;n: el formato de actualizaci&oacute;n y la configuraci&oacute;n de la
+	 * plataforma.
+	 */
+	private static final class UpgradeGroupKey {
+
+		final String upgradeLevel;
+
+		final Properties upgradeConfig;
+
+		UpgradeGroupKey(final String upgradeLevel, final Properties upgradeConfig) {
+			this.upgradeLevel = upgradeLevel;
+			this.upgradeConfig = upgradeConfig;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (!(obj instanceof UpgradeGroupKey)) {
+				return false;
+			}
+			final UpgradeGroupKey other = (UpgradeGroupKey) obj;
+			return Objects.equals(this.upgradeLevel, other.upgradeLevel)
+					&& Objects.equals(this.upgradeConfig, other.upgradeConfig);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(this.upgradeLevel, this.upgradeConfig);
+		}
+	}
+}
@@ -0,0 +1,168 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.server.services.internal;
+
+import java.security.cert.X509Certificate;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import es.gob.afirma.core.signers.TriphaseData;
+import es.gob.fire.server.services.FIReTriHelper;
+
+/**
+ * Tarea que carga uno de los documentos de un lote del almacenamiento temporal y
+ * calcula su prefirma. Cada tarea s&oacute;lo mantiene en memoria su documento
+ * mientras se ejecuta, de forma que el n&uacute;mero de documentos cargados a la
+ * vez est&aacute; limitado por el n&uacute;mero de tareas en ejecuci&oacute;n.
+ */
+class PreSignBatchTask implements Callable<String> {
+
+	private static final Logger LOGGER = Logger.getLogger(PreSignBatchTask.class.getName());
+
+	private final String docId;
+
+	private final String docReference;
+
+	private final BatchResult batchResult;
+
+	private final String criptoOperation;
+
+	private final String format;
+
+	private final String algorithm;
+
+	private final Properties extraParams;
+
+	private final X509Certificate signerCert;
+
+	private final LogTransactionFormatter logF;
+
+	private volatile TriphaseData triphaseData = null;
+
+	private volatile String result = null;
+
+	private volatile String errorMessage = null;
+
+	private volatile boolean dataNotFound = false;
+
+	/**
+	 * Construye la tarea de prefirma de un documento del lote.
+	 * @param docId Identificador del documento.
+	 * @param batchResult Objeto con la informaci&oacute;n de cada firma del lote.
+	 * @param criptoOperation Operaci&oacute;n de firma por defecto.
+	 * @param format Formato de firma por defecto.
+	 * @param algorithm Algoritmo de firma.
+	 * @param extraParams Configuraci&oacute;n de firma por defecto.
+	 * @param signerCert Certificado con el que se firma.
+	 * @param logF Objeto para el formateo del log.
+	 */
+	PreSignBatchTask(final String docId, final BatchResult batchResult, final String criptoOperation,
+			final String format, final String algorithm, final Properties extraParams,
+			final X509Certificate signerCert, final LogTransactionFormatter logF) {
+
+		this.docId = docId;
+		this.docReference = batchResult.getDocumentReference(docId);
+		this.batchResult = batchResult;
+		this.criptoOperation = criptoOperation;
+		this.format = format;
+		this.algorithm = algorithm;
+		this.extraParams = extraParams;
+		this.signerCert = signerCert;
+		this.logF = logF;
+	}
+
+	@Override
+	public String call() {
+
+		if (Thread.currentThread().isInterrupted()) {
+			return null;
+		}
+
+		final byte[] data;
+		try {
+			data = TempDocumentsManager.retrieveDocument(this.docReference);
+		}
+		catch (final Exception e) {
+			LOGGER.log(Level.WARNING, this.logF.f("No se pudo recuperar uno de los datos agregados al lote: " + e)); //$NON-NLS-1$
+			this.dataNotFound = true;
+			return null;
+		}
+
+		// Comprobamos si nos han interrumpido antes de la operacion pesada
+		if (Thread.currentThread().isInterrupted()) {
+			return null;
+		}
+
+		final BatchDocument doc = new BatchDocument(this.docId, data,
+				this.batchResult.getSignConfig(this.docId), this.batchResult.getDocInfo(this.docId));
+
+		final TriphaseData td;
+		try {
+			td = FIReTriHelper.getPreSign(this.criptoOperation, this.format,
+					this.algorithm, this.extraParams, this.signerCert, doc, this.logF);
+		}
+		catch (final RuntimeException e) {
+			LOGGER.log(Level.SEVERE, this.logF.f("Error inesperado al prefirmar uno de los documentos del lote"), e); //$NON-NLS-1$
+			this.errorMessage = e.getMessage() != null ? e.getMessage() : e.toString();
+			this.result = BatchResult.PRESIGN_ERROR;
+			return null;
+		}
+		if (td == null) {
+			this.errorMessage = doc.getErrorMessage();
+			this.result = doc.getResult();
+			return null;
+		}
+
+		this.triphaseData = td;
+		return this.docId;
+	}
+
+	/**
+	 * Obtiene el identificador del documento.
+	 * @return Identificador del documento.
+	 */
+	String getDocId() {
+		return this.docId;
+	}
+
+	/**
+	 * Obtiene la prefirma calculada para el documento.
+	 * @return Prefirma o {@code null} si no se calcul&oacute;.
+	 */
+	TriphaseData getTriphaseData() {
+		return this.triphaseData;
+	}
+
+	/**
+	 * Obtiene el resultado de error de la prefirma del documento.
+	 * @return Resultado de error o {@code null} si no se produjo un error al prefirmar.
+	 */
+	String getResult() {
+		return this.result;
+	}
+
+	/**
+	 * Obtiene el mensaje de error de la prefirma del documento.
+	 * @return Mensaje de error o {@code null} si no se produjo un error al prefirmar.
+	 */
+	String getErrorMessage() {
+		return this.errorMessage;
+	}
+
+	/**
+	 * Indica si no se pudo recuperar el documento del almacenamiento temporal.
+	 * @return {@code true} si no se pudo recuperar el documento, {@code false} en caso contrario.
+	 */
+	boolean isDataNotFound() {
+		return this.dataNotFound;
+	}
+}
@@ -27,6 +27,7 @@ import javax.servlet.http.HttpServletResponse;
 
 import es.gob.afirma.core.misc.Base64;
 import es.gob.afirma.core.signers.TriphaseData;
+import es.gob.afirma.core.signers.TriphaseData.TriSign;
 import es.gob.afirma.signers.xml.XmlDSigProviderHelper;
 import es.gob.fire.alarms.Alarm;
 import es.gob.fire.server.connector.DocInfo;
@@ -252,7 +253,10 @@ public final class PreSignService extends HttpServlet {
         		return;
 			}
 
-            final List<BatchDocument> documents = new ArrayList<>();
+            // Cada documento se carga y prefirma en una tarea del pool de hilos compartido,
+            // de forma que solo se mantienen en memoria a la vez los documentos de las
+            // tareas en ejecucion
+            final List<PreSignBatchTask> tasks = new ArrayList<>();
         	final Iterator<String> it = batchResult.iterator();
         	while (it.hasNext()) {
 
@@ -267,58 +271,49 @@ public final class PreSignService extends HttpServlet {
         			continue;
         		}
 
-        		byte[] data;
-        		try {
-        			data = TempDocumentsManager.retrieveDocument(batchResult.getDocumentReference(docId));
-            	}
-            	catch (final Exception e) {
-            		LOGGER.log(Level.WARNING, logF.f("No se pudo recuperar uno de los datos agregados al lote: " + e)); //$NON-NLS-1$
-            		if (stopOnError) {
-            			ErrorManager.setErrorToSession(session, FIReError.INVALID_TRANSACTION, trAux);
-            			Responser.redirectToExternalUrl(redirectErrorUrl, request, response, trAux);
-	            		return;
-					}
-            		data = null;
-            	}
-        		documents.add(new BatchDocument(docId, data, batchResult.getSignConfig(docId), batchResult.getDocInfo(docId)));
+        		tasks.add(new PreSignBatchTask(docId, batchResult, subOperation, format,
+        				algorithm, extraParams, signerCert, logF));
         	}
 
-            if (documents.size() == 0) {
+            if (tasks.size() == 0) {
             	LOGGER.log(Level.WARNING, logF.f("No se han podido recuperar los datos a firmar")); //$NON-NLS-1$
             	ErrorManager.setErrorToSession(session, FIReError.INTERNAL_ERROR, trAux);
             	Responser.redirectToExternalUrl(redirectErrorUrl, request, response, trAux);
                 return;
             }
 
-            try {
-                td = FIReTriHelper.getPreSign(
-                    subOperation,
-                    format,
-                    algorithm,
-                    extraParams,
-        			signerCert,
-                    documents,
-                    stopOnError,
-                    logF
-        		);
-            }
-            catch (final Throwable e) {
-                LOGGER.log(Level.SEVERE, logF.f("No se ha podido obtener la prefirma"), e); //$NON-NLS-1$
-                ErrorManager.setErrorToSession(session, FIReError.BATCH_SIGNING, trAux);
-                Responser.redirectToExternalUrl(redirectErrorUrl, request, response, trAux);
-                return;
-            }
+            TasksPoolManager.executeTasks(tasks, stopOnError, null, null);
 
-            // Actualizamos el resultado de las firmas en caso de haber detectado algun error
-            // al procesar su documento asociado
+            // Componemos la prefirma del lote en el orden de los documentos y actualizamos el
+            // resultado de las firmas en caso de haber detectado algun error al procesarlos
+            td = new TriphaseData();
             boolean failed = false;
-            for (final BatchDocument doc : documents) {
-        		if (doc.getResult() != null) {
-        			batchResult.setErrorResult(doc.getId(), doc.getResult());
-        			batchResult.setErrorMessage(doc.getId(), doc.getErrorMessage());
-        			failed = true;
-        		}
-        	}
+            for (final PreSignBatchTask task : tasks) {
+            	final TriphaseData docTd = task.getTriphaseData();
+            	if (docTd != null) {
+            		for (final TriSign triSign : docTd.getTriSigns()) {
+            			td.addSignOperation(triSign);
+            		}
+            	}
+            	else if (task.isDataNotFound()) {
+            		if (stopOnError) {
+            			ErrorManager.setErrorToSession(session, FIReError.INVALID_TRANSACTION, trAux);
+            			Responser.redirectToExternalUrl(redirectErrorUrl, request, response, trAux);
+            			return;
+            		}
+            	}
+            	else if (task.getResult() != null) {
+            		batchResult.setErrorResult(task.getDocId(), task.getResult());
+            		batchResult.setErrorMessage(task.getDocId(), task.getErrorMessage());
+            		failed = true;
+            	}
+            	else {
+            		// La tarea no llego a ejecutarse o se interrumpio por un error en otra
+            		batchResult.setErrorResult(task.getDocId(), BatchResult.NO_PROCESSED);
+            		batchResult.setErrorMessage(task.getDocId(), "Se ha interrumpido la operacion."); //$NON-NLS-1$
+            		failed = true;
+            	}
+            }
 
             if (failed && stopOnError) {
             	final String errorMessage = "Se encontraron errores en las prefirmas del lote y se aborta la operacion"; //$NON-NLS-1$
@@ -377,6 +372,9 @@ public final class PreSignService extends HttpServlet {
             redirectToErrorPage(originForced, redirectErrorUrl, request, response, trAux);
         	return;
         }
+        finally {
+        	ProviderManager.releaseProviderConnector(providerName, connector);
+        }
 
         // Guardamos en la sesion de FIRe:
         // - El resultado de la prefirma de los datos.
@@ -10,6 +10,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -42,12 +46,18 @@ public class ProviderManager {
 	/** Informaci&oacute;n para la presentaci&oacute;n y comportamiento del conector de un proveedor */
 	private static Map<String, ProviderInfo> providersInfo = new HashMap<>();
 
-	/** Configuraci&oacute;n de un conector para el acceso a su servicio. */
-	private static Map<String, Properties> providersConfig = new HashMap<>();
+	/** N&uacute;mero m&aacute;ximo de conectores reutilizables inicializados que se
+	 * mantienen disponibles por proveedor. */
+	private static final int MAX_POOLED_CONNECTORS = 20;
+
+	/** Cargadores de los conectores de cada proveedor, con su clase y configuraci&oacute;n. */
+	private static final Map<String, ConnectorLoader> connectorLoaders = new ConcurrentHashMap<>();
 
 
 	/**
 	 * Obtenemos el conector necesario para operar con un proveedor de firma en la nube.
+	 * Si el conector es reutilizable, se recomienda devolverlo mediante
+	 * {@link #releaseProviderConnector(String, FIReConnector)} al terminar de usarlo.
 	 * @param providerName Nombre del proveedor.
 	 * @param transactionConfig Configuraci&oacute;n a aplicar al conector.
 	 * @return Conector con el proveedor ya configurado para realizar cualquier transacci&oacute;n.
@@ -56,6 +66,58 @@ public class ProviderManager {
 	public static FIReConnector getProviderConnector(final String providerName, final Properties transactionConfig)
 			throws FIReConnectorFactoryException {
 
+		final ConnectorLoader loader = getConnectorLoader(providerName);
+
+		// Reutilizamos un conector ya inicializado o creamos uno nuevo
+		FIReConnector connector = loader.pollConnector();
+		if (connector == null) {
+			connector = loader.newConnector();
+		}
+
+		// Inicializamos la transaccion
+		try {
+			connector.initOperation(transactionConfig);
+		}
+		catch (final Throwable e) {
+			AlarmsManager.notify(Alarm.CONNECTION_SIGNATURE_PROVIDER, providerName);
+			throw new FIReConnectorFactoryException("No se pudo inicializar la transaccion con el conector", e); //$NON-NLS-1$
+		}
+
+		return connector;
+	}
+
+	/**
+	 * Devuelve un conector que ya no se va a usar para que pueda reutilizarse en
+	 * otras operaciones. Si el conector no es reutilizable o ya hay suficientes
+	 * conectores disponibles, se descarta.
+	 * @param providerName Nombre del proveedor del que se obtuvo el conector.
+	 * @param connector Conector que se devuelve.
+	 */
+	public static void releaseProviderConnector(final String providerName, final FIReConnector connector) {
+		if (providerName == null || connector == null) {
+			return;
+		}
+		final ConnectorLoader loader = connectorLoaders.get(providerName);
+		if (loader != null) {
+			loader.offerConnector(connector);
+		}
+	}
+
+	/**
+	 * Obtiene el cargador de conectores de un proveedor, cre&aacute;ndolo si es la
+	 * primera vez que se solicita.
+	 * @param providerName Nombre del proveedor.
+	 * @return Cargador de conectores.
+	 * @throws FIReConnectorFactoryException Cuando no se puede cargar la clase conectora.
+	 */
+	private static ConnectorLoader getConnectorLoader(final String providerName)
+			throws FIReConnectorFactoryException {
+
+		ConnectorLoader loader = connectorLoaders.get(providerName);
+		if (loader != null) {
+			return loader;
+		}
+
 		// Obtenemos la clase del connector
 		final String providerClass = ConfigManager.getProviderClass(providerName);
 		if (providerClass == null) {
@@ -63,51 +125,34 @@ public class ProviderManager {
 					"No se ha encontrado el nombre de la clase conectora del proveedor " + providerName); //$NON-NLS-1$
 		}
 
-		// Obtenemos el fichero de configuracion del proveedor
-		final Properties providerConfig = loadProviderConfig(providerName);
-
-		// Si se ha definido una clase para el descifrado de constrasenas, actualizamos
-		// el objeto con los valores descifrados de cada una de ellas
-		if (ConfigManager.hasDecipher()) {
-			for (final String key : providerConfig.keySet().toArray(new String[providerConfig.size()])) {
-				providerConfig.setProperty(key, ConfigManager.getDecipheredProperty(providerConfig, key, null));
-			}
-		}
-
-		// Cargamos el conector
-		FIReConnector connector;
+		// Cargamos la clase del conector
+		Class<? extends FIReConnector> connectorClass;
 		try {
-			connector = FIReConnectorFactory.getConnector(providerClass);
+			connectorClass = FIReConnectorFactory.getConnectorClass(providerClass);
 		}
 		catch (final FIReConnectorFactoryException e) {
 			AlarmsManager.notify(Alarm.LIBRARY_NOT_FOUND, providerClass);
 			throw e;
-	    }
+		}
 		catch (final Throwable e) {
 			AlarmsManager.notify(Alarm.LIBRARY_NOT_FOUND, providerClass);
 			throw new FIReConnectorFactoryException("Error grave al cargar el conector", e); //$NON-NLS-1$
 		}
 
-		// Inicializamos el conector
-		try {
-			connector.init(providerConfig);
-		}
-		catch (final Throwable e) {
-			AlarmsManager.notify(Alarm.CONNECTION_SIGNATURE_PROVIDER, providerName);
-			throw new FIReConnectorFactoryException("No se pudo inicializar el conector", e); //$NON-NLS-1$
-		}
-
+		// Obtenemos el fichero de configuracion del proveedor
+		final Properties providerConfig = loadProviderConfigFromFile(providerName);
 
-		// Inicializamos la transaccion
-		try {
-			connector.initOperation(transactionConfig);
-		}
-		catch (final Throwable e) {
-			AlarmsManager.notify(Alarm.CONNECTION_SIGNATURE_PROVIDER, providerName);
-			throw new FIReConnectorFactoryException("No se pudo inicializar la transaccion con el conector", e); //$NON-NLS-1$
+		// Si se ha definido una clase para el descifrado de constrasenas, actualizamos
+		// el objeto con los valores descifrados de cada una de ellas
+		if (ConfigManager.hasDecipher()) {
+			for (final String key : providerConfig.keySet().toArray(new String[providerConfig.size()])) {
+				providerConfig.setProperty(key, ConfigManager.getDecipheredProperty(providerConfig, key, null));
+			}
 		}
 
-		return connector;
+		loader = new ConnectorLoader(providerName, connectorClass, providerConfig);
+		final ConnectorLoader previousLoader = connectorLoaders.putIfAbsent(providerName, loader);
+		return previousLoader != null ? previousLoader : loader;
 	}
 
 	/**
@@ -173,25 +218,6 @@ public class ProviderManager {
 		return providerInfo;
 	}
 
-	/**
-	 * Carga la configuraci&oacute;n de un proveedor, de cache si ya la hab&iacute;a
-	 * cargado anteriormente o de fichero si no.
-	 * @param providerName Nombre el proveedor.
-	 * @return Configuraci&oacute;n cargada.
-	 */
-	private static Properties loadProviderConfig(final String providerName) {
-
-		Properties providerConfig;
-		if (providersConfig.containsKey(providerName)) {
-			providerConfig = providersConfig.get(providerName);
-		} else {
-			providerConfig = loadProviderConfigFromFile(providerName);
-			providersConfig.put(providerName, providerConfig);
-		}
-
-		return providerConfig;
-	}
-
 	/**
 	 * Carga el fichero de configuraci&oacute;n de un proveedor.
 	 * @param providerName Nombre el proveedor.
@@ -360,4 +386,90 @@ public class ProviderManager {
 		}
 		return filteredProviders.toArray(new String[filteredProviders.size()]);
 	}
+
+	/**
+	 * Cargador de los conectores de un proveedor. Mantiene la clase conectora y la
+	 * configuraci&oacute;n ya descifrada del proveedor para no tener que resolverlas
+	 * en cada operaci&oacute;n, y los conectores reutilizables ya inicializados.
+	 */
+	private static final class ConnectorLoader {
+
+		private final String providerName;
+
+		private final Class<? extends FIReConnector> connectorClass;
+
+		private final Properties providerConfig;
+
+		private final Queue<FIReConnector> pool = new ConcurrentLinkedQueue<>();
+
+		private final AtomicInteger poolSize = new AtomicInteger(0);
+
+		ConnectorLoader(final String providerName, final Class<? extends FIReConnector> connectorClass,
+				final Properties providerConfig) {
+			this.providerName = providerName;
+			this.connectorClass = connectorClass;
+			this.providerConfig = providerConfig;
+		}
+
+		/**
+		 * Crea e inicializa un nuevo conector.
+		 * @return Conector inicializado.
+		 * @throws FIReConnectorFactoryException Cuando no se puede crear o inicializar el conector.
+		 */
+		FIReConnector newConnector() throws FIReConnectorFactoryException {
+
+			FIReConnector connector;
+			try {
+				connector = this.connectorClass.getConstructor().newInstance();
+			}
+			catch (final Throwable e) {
+				AlarmsManager.notify(Alarm.LIBRARY_NOT_FOUND, this.connectorClass.getName());
+				throw new FIReConnectorFactoryException("No se ha podido cargar el conector definido", e); //$NON-NLS-1$
+			}
+
+			// Cada conector recibe su propia copia de la configuracion para que no
+			// pueda alterar la del resto
+			final Properties config = new Properties();
+			config.putAll(this.providerConfig);
+
+			// Inicializamos el conector
+			try {
+				connector.init(config);
+			}
+			catch (final Throwable e) {
+				AlarmsManager.notify(Alarm.CONNECTION_SIGNATURE_PROVIDER, this.providerName);
+				throw new FIReConnectorFactoryException("No se pudo inicializar el conector", e); //$NON-NLS-1$
+			}
+
+			return connector;
+		}
+
+		/**
+		 * Recupera un conector inicializado que se haya devuelto anteriormente.
+		 * @return Conector o {@code null} si no hay ninguno disponible.
+		 */
+		FIReConnector pollConnector() {
+			final FIReConnector connector = this.pool.poll();
+			if (connector != null) {
+				this.poolSize.decrementAndGet();
+			}
+			return connector;
+		}
+
+		/**
+		 * Almacena un conector para su reutilizaci&oacute;n si es reutilizable y
+		 * no se ha alcanzado el m&aacute;ximo de conectores disponibles.
+		 * @param connector Conector.
+		 */
+		void offerConnector(final FIReConnector connector) {
+			if (!this.connectorClass.isInstance(connector) || !connector.isReusable()) {
+				return;
+			}
+			if (this.poolSize.incrementAndGet() > MAX_POOLED_CONNECTORS) {
+				this.poolSize.decrementAndGet();
+				return;
+			}
+			this.pool.offer(connector);
+		}
+	}
 }
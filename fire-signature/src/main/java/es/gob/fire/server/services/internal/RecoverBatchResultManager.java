@@ -19,10 +19,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -61,8 +57,6 @@ public class RecoverBatchResultManager {
 	private static final AuditTransactionRecorder AUDITTRANSLOGGER = AuditTransactionRecorder.getInstance();
 	private static final Logger LOGGER = Logger.getLogger(RecoverBatchResultManager.class.getName());
 
-	private static final int NUM_SIMUTANEOUS_THREADS = 10;
-
 	/**
 	 * Finaliza un proceso de firma y devuelve el resultado del mismo.
 	 * @param params Par&aacute;metros extra&iacute;dos de la petici&oacute;n.
@@ -314,6 +308,9 @@ public class RecoverBatchResultManager {
         		Responser.sendError(response, FIReError.PROVIDER_ERROR);
         		return;
         	}
+        	finally {
+        		ProviderManager.releaseProviderConnector(providerName, connector);
+        	}
 
         	// Verificamos cada uno de los PKCS#1 generados
     		final Set<String> keys = ret.keySet();
@@ -370,12 +367,14 @@ public class RecoverBatchResultManager {
     		// Obtenemos si se ha usado un proveedor seguro de firma
         	final boolean secureProvider = ConfigManager.isSecureProvider(providerName);
 
+        	// Si el validador lo admite, validaremos o actualizaremos todas las firmas en lote
+        	final boolean batchUpgrade = PostSignBatchUpgrader.isBatchSupported(logF);
+
         	// Para cada uno de los documentos del lote, cargamos el propio documento,
         	// obtenemos la informacion de firma trifasica y realizamos la postfirma.
         	// La firma generada se almacena en lugar del documento y se compone un JSON
         	// con la informacion del resultado de cada firma.
-        	final List<Future<String>> results = new ArrayList<>();
-        	final ExecutorService executorService = Executors.newFixedThreadPool(Math.min(batchResult.documentsCount(), NUM_SIMUTANEOUS_THREADS));
+        	final List<PostSignBatchTask> tasks = new ArrayList<>();
         	final Iterator<String> it = batchResult.iterator();
         	while (it.hasNext()) {
 
@@ -405,21 +404,17 @@ public class RecoverBatchResultManager {
     			final PostSignBatchRecover signRecover = new CloudPostSignBatchRecover(
     					docId, algorithm, signConfig, ret, td, batchResult, logF);
     			// Ejecutamos un hilo encargado de componer las firmas y actualizarlas
-    			final PostSignBatchTask t = new PostSignBatchTask(
+    			tasks.add(new PostSignBatchTask(
     					appId, transactionId, docId, batchResult, signConfig,
-    					signValidationNeeded, docManager, signRecover);
-
-    			results.add(executorService.submit(t));
+    					signValidationNeeded, docManager, signRecover, batchUpgrade));
         	}
 
-        	// Esperamos a que terminen todos los hilos y los
-        	// interrumpimos todos si detectamos que alguno de
-        	// ellos fue interrumpido y no se admiten errores parciales
-        	TasksPoolManager.waitTasks(results, stopOnError,
-        			session, ServiceParams.SESSION_PARAM_BATCH_PENDING_SIGNS);
-
-        	// Liberamos el pool de hilos
-        	shutdownExecutorService(executorService);
+        	// Ejecutamos las tareas en el pool compartido y esperamos a que terminen,
+        	// interrumpiendolas todas si detectamos que alguna de ellas fallo y no
+        	// se admiten errores parciales. Las firmas que queden pendientes se
+        	// validan o actualizan en lote antes de almacenarlas
+        	PostSignBatchUpgrader.executeTasks(tasks, batchUpgrade, batchResult,
+        			stopOnError, session, logF);
         }
 
     	LOGGER.info(logF.f("Devolvemos el resultado del lote")); //$NON-NLS-1$
@@ -448,21 +443,6 @@ public class RecoverBatchResultManager {
         Responser.sendResult(response, batchResult);
 	}
 
-	/**
-	 * Libera los recursos de un pool de hilos.
-	 * @param executorService Pool de hilos.
-	 */
-	private static void shutdownExecutorService(final ExecutorService executorService) {
-    	executorService.shutdown();
-    	try {
-    		if (!executorService.awaitTermination(2000, TimeUnit.MILLISECONDS)) {
-    			executorService.shutdownNow();
-    		}
-    	} catch (final InterruptedException e) {
-    		executorService.shutdownNow();
-    	}
-	}
-
 	/**
 	 * Elimina los temporales que no se necesiten ya, se registra el exito de la transaci&oacute;n
 	 * y los errores en las firmas para las estad&iacute;sticas.
@@ -514,8 +494,12 @@ public class RecoverBatchResultManager {
 			final FIReDocumentManager docManager, final FireSession session,
 			final boolean stopOnError) {
 
-		final List<Future<String>> results = new ArrayList<>();
-		final ExecutorService executorService = Executors.newFixedThreadPool(Math.min(batchResult.documentsCount(), NUM_SIMUTANEOUS_THREADS));
+		final LogTransactionFormatter logF = new LogTransactionFormatter(appId, trId);
+
+    	// Si el validador lo admite, validaremos o actualizaremos todas las firmas en lote
+    	final boolean batchUpgrade = PostSignBatchUpgrader.isBatchSupported(logF);
+
+		final List<PostSignBatchTask> tasks = new ArrayList<>();
     	final Iterator<String> it = batchResult.iterator();
     	while (it.hasNext()) {
 
@@ -535,22 +519,18 @@ public class RecoverBatchResultManager {
     					docId, batchResult);
 
     			// Ejecutamos la tarea
-    			final PostSignBatchTask t = new PostSignBatchTask(
+    			tasks.add(new PostSignBatchTask(
     					appId, trId, docId, batchResult, signConfig, true,
-    					docManager, signRecover);
-
-    			results.add(executorService.submit(t));
+    					docManager, signRecover, batchUpgrade));
     		}
     	}
 
-        // Esperamos a que terminen todos los hilos y los
-        // interrumpimos todos si detectamos que alguno de
-        // ellos fue interrumpido y no se admiten errores parciales
-        TasksPoolManager.waitTasks(results, stopOnError,
-        		session, ServiceParams.SESSION_PARAM_BATCH_PENDING_SIGNS);
-
-    	// Liberamos el pool de hilos
-        shutdownExecutorService(executorService);
+        // Ejecutamos las tareas en el pool compartido y esperamos a que terminen,
+        // interrumpiendolas todas si detectamos que alguna de ellas fallo y no
+        // se admiten errores parciales. Las firmas que queden pendientes se
+        // validan o actualizan en lote antes de almacenarlas
+        PostSignBatchUpgrader.executeTasks(tasks, batchUpgrade, batchResult,
+        		stopOnError, session, logF);
 	}
 
 	/**
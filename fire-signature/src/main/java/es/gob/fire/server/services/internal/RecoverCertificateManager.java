@@ -45,6 +45,11 @@ public class RecoverCertificateManager {
 		final FIReConnector connector = ProviderManager.getProviderConnector(providerName, config);
 
 		// Recuperamos el certificado
-		return connector.recoverCertificate(transactionId);
+		try {
+			return connector.recoverCertificate(transactionId);
+		}
+		finally {
+			ProviderManager.releaseProviderConnector(providerName, connector);
+		}
 	}
 }
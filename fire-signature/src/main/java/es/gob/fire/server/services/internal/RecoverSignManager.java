@@ -514,11 +514,16 @@ public class RecoverSignManager {
 		final FIReConnector connector = ProviderManager.getProviderConnector(providerName, trConfig.getProperties());
 
 		final Map<String, byte[]> ret;
-		ret = connector.sign(remoteTrId);
+		try {
+			ret = connector.sign(remoteTrId);
 
-		// Notificamos al conector que ha terminado la operacion para que libere recursos y
-		// cierre la transaccion
-		connector.endSign(remoteTrId);
+			// Notificamos al conector que ha terminado la operacion para que libere recursos y
+			// cierre la transaccion
+			connector.endSign(remoteTrId);
+		}
+		finally {
+			ProviderManager.releaseProviderConnector(providerName, connector);
+		}
 
 		// Insertamos los PKCS#1 en la sesion trifasica
 		final Set<String> keys = ret.keySet();
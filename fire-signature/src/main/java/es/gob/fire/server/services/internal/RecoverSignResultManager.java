@@ -10,6 +10,8 @@
 package es.gob.fire.server.services.internal;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.servlet.http.HttpServletResponse;
@@ -91,9 +93,9 @@ public class RecoverSignResultManager {
 
         // Recuperamos el resultado de la firma
 		LOGGER.info(logF.f("Se carga el resultado de la operacion del almacen temporal")); //$NON-NLS-1$
-        byte[] signResult;
+        final InputStream signResult;
         try {
-        	signResult = TempDocumentsManager.retrieveDocument(transactionId);
+        	signResult = TempDocumentsManager.openDocument(transactionId);
         }
         catch (final Exception e) {
 			final String errorMessage = "No se encuentra el resultado de la operacion. Puede haber caducado la sesion: " + e; //$NON-NLS-1$
@@ -113,12 +115,20 @@ public class RecoverSignResultManager {
         AUDITSIGNLOGGER.register(session, true, null);
         AUDITTRANSLOGGER.register(session, true);
 
-        // Ya no necesitaremos la sesion, asi que la eliminamos del pool
-        SessionCollector.removeSession(session, trAux);
-
         LOGGER.info(logF.f("Se devuelve el resultado de la operacion")); //$NON-NLS-1$
 
-        // Enviamos la firma electronica como resultado
-        Responser.sendResult(response, signResult);
+        // Enviamos la firma electronica como resultado sin cargarla en memoria.
+        // Hasta haberla enviado no eliminamos la sesion, ya que con ella se
+        // eliminaria tambien el documento que estamos leyendo
+        try (InputStream is = signResult) {
+        	Responser.sendResult(response, is);
+        }
+        catch (final IOException e) {
+        	LOGGER.log(Level.WARNING, logF.f("No se pudo cerrar el resultado de la operacion"), e); //$NON-NLS-1$
+        }
+        finally {
+        	// Ya no necesitaremos la sesion, asi que la eliminamos del pool
+        	SessionCollector.removeSession(session, trAux);
+        }
 	}
 }
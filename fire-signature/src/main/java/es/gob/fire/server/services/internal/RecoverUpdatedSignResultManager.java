@@ -10,6 +10,8 @@
 package es.gob.fire.server.services.internal;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.servlet.http.HttpServletResponse;
@@ -52,9 +54,9 @@ public class RecoverUpdatedSignResultManager {
 
 		// Recuperamos el resultado de la firma
 		LOGGER.fine(logF.f("Se carga el resultado de la operacion del almacen temporal")); //$NON-NLS-1$
-		byte[] signResult;
+		final InputStream signResult;
 		try {
-			signResult = TempDocumentsManager.retrieveAndDeleteDocument(docId);
+			signResult = TempDocumentsManager.openDocument(docId);
 		}
 		catch (final Exception e) {
 			LOGGER.warning(logF.f("No se encuentra la firma actualizada en el almacen temporal. Puede hacer caducado la sesion: " + e)); //$NON-NLS-1$
@@ -64,7 +66,19 @@ public class RecoverUpdatedSignResultManager {
 
 		LOGGER.info(logF.f("Se devuelve la firma actualizada")); //$NON-NLS-1$
 
-		// Enviamos la firma electronica como resultado
-		Responser.sendResult(response, signResult);
+		// Enviamos la firma electronica como resultado sin cargarla en memoria
+		// y despues la eliminamos
+		try (InputStream is = signResult) {
+			Responser.sendResult(response, is);
+		}
+		catch (final IOException e) {
+			LOGGER.log(Level.WARNING, logF.f("No se pudo cerrar la firma actualizada"), e); //$NON-NLS-1$
+		}
+		try {
+			TempDocumentsManager.deleteDocument(docId);
+		}
+		catch (final IOException e) {
+			LOGGER.log(Level.WARNING, logF.f("No se pudo eliminar la firma actualizada del almacen temporal"), e); //$NON-NLS-1$
+		}
 	}
 }
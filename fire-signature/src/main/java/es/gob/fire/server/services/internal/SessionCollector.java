@@ -14,13 +14,12 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -31,7 +30,9 @@ import es.gob.fire.server.services.LogUtils;
 import es.gob.fire.server.services.internal.sessions.SessionException;
 import es.gob.fire.server.services.internal.sessions.SessionsDAO;
 import es.gob.fire.server.services.internal.sessions.SessionsDAOFactory;
+import es.gob.fire.server.services.internal.sessions.ShardedTransactionsStore;
 import es.gob.fire.server.services.internal.sessions.TempDocumentsDAO;
+import es.gob.fire.server.services.internal.sessions.TransactionsStore;
 import es.gob.fire.server.services.statistics.AuditTransactionRecorder;
 import es.gob.fire.server.services.statistics.TransactionRecorder;
 import es.gob.fire.signature.ConfigManager;
@@ -50,31 +51,41 @@ public final class SessionCollector {
 
 	private static final Logger LOGGER = Logger.getLogger(SessionCollector.class.getName());
 
-	private static Map<String, FireSession> sessions = null;
+	private static TransactionsStore sessions = null;
 
 	/**
-	 * &Uacute;timo proceso de limpieza que se ejecut&oacute;.
+	 * Planificador del proceso de eliminaci&oacute;n de sesiones caducadas. Se ejecuta en
+	 * un &uacute;nico hilo demonio durante toda la vida de la aplicaci&oacute;n.
 	 */
-	private static Future<?> cleaningProcess = null;
+	private static ScheduledExecutorService expirationScheduler = null;
 
 	/**
-	 * N&uacute;mero de veces que se puden guardar sesiones antes ejecutar el proceso para
-	 * eliminar aquellas que estan caducadas.
+	 * Milisegundos entre cada comprobaci&oacute;n de las sesiones caducadas en memoria.
 	 */
-	private static final int MAX_USE_TO_CLEANING = 250;
+	private static final long EXPIRATION_CHECK_PERIOD = 5000;
+
+	/**
+	 * Milisegundos m&iacute;nimos entre cada limpieza de las sesiones caducadas del
+	 * espacio compartido.
+	 */
+	private static final long SHARED_CLEANING_PERIOD = 60000;
+
+	/**
+	 * N&uacute;mero m&aacute;ximo de identificadores de transacci&oacute;n que se
+	 * intentan reservar antes de crear la sesi&oacute;n s&oacute;lo en local.
+	 */
+	private static final int MAX_ID_GENERATION_ATTEMPTS = 10;
 
 	/** Cadena de caracteres usados en la codificaci&oacute;n hexadecimal. */
 	private static final char[] HEX_ARRAY = "0123456789ABCDEF".toCharArray(); //$NON-NLS-1$
 
-	private static int uses = 0;
-
     private static SessionsDAO dao = null;
 
     private static SecureRandom random = null;
 
     static {
 
-    	sessions = new HashMap<>();
+    	sessions = new ShardedTransactionsStore();
 
     	// Cargamos el DAO de sesiones compartidas
     	final String daoType = ConfigManager.getSessionsDao();
@@ -93,9 +104,9 @@ public final class SessionCollector {
     		}
     	}
 
-    	// Ejecutamos el proceso de borrado de sesiones caducadas (que no habra ninguna)
-    	// y temporales
-    	deleteExpiredSessions(new TransactionAuxParams());
+    	// Programamos el proceso de borrado de sesiones caducadas y temporales. La
+    	// primera ejecucion se hace de inmediato para limpiar el espacio compartido
+    	startExpirationScheduler(new TransactionAuxParams());
 
     	// Inicializamos el generador de aleatorios
     	random = new SecureRandom();
@@ -372,6 +383,10 @@ public final class SessionCollector {
 				dao.deleteSession(id);
 				return null;
 			}
+			// Los datos se acaban de cargar, asi que tomamos sus valores como los ya guardados
+			if (fireSession != null) {
+				fireSession.getAndResetModifiedAttributes();
+			}
 		}
 		return fireSession;
 	}
@@ -393,9 +408,7 @@ public final class SessionCollector {
     	if (fireSession != null) {
     		removeAssociattedTempFiles(fireSession, trAux);
     		fireSession.invalidate();
-    		synchronized (sessions) {
-    			sessions.remove(id);
-			}
+    		sessions.remove(id);
     	}
     	try {
 			TempDocumentsManager.deleteDocument(id);
@@ -431,9 +444,7 @@ public final class SessionCollector {
 		}
 
    		// Eliminamos la sesion de la memoria
-   		synchronized (sessions) {
-   			sessions.remove(fireSession.getTransactionId());
-   		}
+   		sessions.remove(fireSession.getTransactionId());
 
     	// Eliminamos la sesion del espacio compartido con el resto de nodos
 		if (dao != null) {
@@ -509,6 +520,9 @@ public final class SessionCollector {
 
 	/**
 	 * Crea un ID de transaccion que no se encuentra registrado en la sesi&oacute;n.
+	 * Si no se consigue reservar ninguno tras varios intentos, se devuelve un
+	 * identificador con el que la sesi&oacute;n s&oacute;lo estar&aacute; disponible
+	 * en local.
 	 * @return ID de transacci&oacute;n.
 	 */
 	private static String generateTransactionId() {
@@ -516,9 +530,18 @@ public final class SessionCollector {
 		// Definimos un identificador de sesion externo para usar como ID de transaccion
     	String transactionId = null;
     	try {
-    		do {
+    		for (int attempts = 0; attempts < MAX_ID_GENERATION_ATTEMPTS; attempts++) {
     			transactionId = UUID.randomUUID().toString();
-    		} while (existTransaction(transactionId));
+    			if (reserveTransactionId(transactionId)) {
+    				return transactionId;
+    			}
+    		}
+
+    		// No reutilizamos el ultimo identificador, ya que estaba en uso
+    		transactionId = UUID.randomUUID().toString();
+    		LOGGER.warning(String.format(
+    				"No se pudo reservar un ID de transaccion tras %1d intentos. La sesion solo estara disponible en local con el ID: %2s", //$NON-NLS-1$
+    				Integer.valueOf(MAX_ID_GENERATION_ATTEMPTS), transactionId));
     	}
     	catch (final Exception e) {
     		LOGGER.warning(
@@ -580,14 +603,16 @@ public final class SessionCollector {
     }
 
 	/**
-	 * Indica si existe una transacci&oacute;n con un identificador concreto.
-	 * @param trId Identificador del que se quiere comprobar la existencia.
-	 * @return {@code true} si ya existe una transacci&oacute;n con ese identificador,
-	 * {@code false} en caso contrario.
-	 * @throws SessionException
+	 * Reserva un identificador de transacci&oacute;n si no est&aacute; en uso. Si se
+	 * configur&oacute; un gestor de sesiones compartidas, la comprobaci&oacute;n y la
+	 * reserva se delegan en &eacute;l para que se realicen en una &uacute;nica operaci&oacute;n.
+	 * @param trId Identificador que se quiere reservar.
+	 * @return {@code true} si se reserv&oacute; el identificador, {@code false} si ya
+	 * existe una transacci&oacute;n con ese identificador.
+	 * @throws SessionException Cuando no se puede reservar el identificador.
 	 */
-	private static boolean existTransaction(final String trId) throws SessionException {
-		return sessions.containsKey(trId) || dao != null && dao.existsSession(trId);
+	private static boolean reserveTransactionId(final String trId) throws SessionException {
+		return !sessions.contains(trId) && (dao == null || dao.reserveSession(trId));
 	}
 
 	/**
@@ -617,21 +642,18 @@ public final class SessionCollector {
 
 		// Actualizamos la informacion de la sesion, que ya existira, de la relacion que se
 		// guarda en memoria
-		synchronized (sessions) {
-			sessions.put(session.getTransactionId(), session);
-		}
+		sessions.put(session);
 
-		// Actualizamos, si procede, la informacion de la sesion de la memoria compartida
+		// Actualizamos, si procede, la informacion de la sesion de la memoria compartida.
+		// Si la sesion ya existia, solo se guardan los atributos que hayan cambiado. Sin
+		// memoria compartida no es necesario comprobar que atributos han cambiado
 		if (dao != null) {
-			dao.saveSession(session, creation);
-		}
-
-		// Si hemos llegado al limite establecido de peticiones entre las cuales limpiar,
-		// ejecutamos la limpieza
-		synchronized (sessions) {
-			if (++uses > MAX_USE_TO_CLEANING && (cleaningProcess == null || cleaningProcess.isDone())) {
-				deleteExpiredSessions(trAux);
-				uses = 0;
+			final Set<String> modifiedAttributes = session.getAndResetModifiedAttributes();
+			if (creation) {
+				dao.saveSession(session, true);
+			}
+			else {
+				dao.saveSessionChanges(session, modifiedAttributes);
 			}
 		}
 	}
@@ -648,51 +670,56 @@ public final class SessionCollector {
 
 
     /**
-     * Recorre el listado de sesiones registradas y elimina las que han sobrepasado
-     * el periodo de validez.
+     * Inicia el hilo demonio que, peri&oacute;dicamente, elimina las sesiones que han
+     * sobrepasado el periodo de validez, junto con sus datos temporales. Las peticiones
+     * de los usuarios nunca esperan a este proceso.
 	 * @param trAux Informaci&oacute;n auxiliar de la transacci&oacute;n.
      */
-	private static void deleteExpiredSessions(final TransactionAuxParams trAux) {
-		ExecutorService executorService = Executors.newSingleThreadExecutor();
-
-		String[] sessionsIds;
-		synchronized (sessions) {
-			sessionsIds = sessions.keySet().toArray(new String[sessions.size()]);
-		}
+	private static void startExpirationScheduler(final TransactionAuxParams trAux) {
+
+		expirationScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(final Runnable r) {
+				final Thread thread = new Thread(r, "FIRe-ExpiredSessionCleaner"); //$NON-NLS-1$
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
 
 		try {
-			cleaningProcess = executorService.submit(new ExpiredSessionCleanerThread(
-					sessionsIds,
-					sessions,
-					dao,
-					ConfigManager.getTempsTimeout(),
-					trAux));
+			expirationScheduler.scheduleWithFixedDelay(
+					new ExpiredSessionCleanerThread(
+							sessions,
+							dao,
+							ConfigManager.getTempsTimeout(),
+							trAux),
+					0,
+					EXPIRATION_CHECK_PERIOD,
+					TimeUnit.MILLISECONDS);
 		}
 		catch (final Exception e) {
 			LOGGER.log(Level.WARNING,
-					"Error en la ejecucion del proceso de borrado de seiones expiradas", //$NON-NLS-1$
+					"Error al programar el proceso de borrado de sesiones expiradas", //$NON-NLS-1$
 					e);
 		}
-		finally {
-			// Al destruir el servicio liberamos el pool de hilos
-			executorService.shutdown();
+	}
+
+	/**
+	 * Libera los recursos del gestor de sesiones.
+	 */
+	public static void release() {
+		if (expirationScheduler != null) {
+			expirationScheduler.shutdown();
 			try {
-				if (!executorService.awaitTermination(2000, TimeUnit.MILLISECONDS)) {
-					executorService.shutdownNow();
+				if (!expirationScheduler.awaitTermination(2000, TimeUnit.MILLISECONDS)) {
+					expirationScheduler.shutdownNow();
 				}
 			} catch (final InterruptedException e) {
-				executorService.shutdownNow();
+				expirationScheduler.shutdownNow();
 			}
-			executorService = null;
-		}
-	}
-
-	public static void release() {
-		cleaningProcess.cancel(true);
-		cleaningProcess = null;
-		synchronized (sessions) {
-			sessions.clear();
+			expirationScheduler = null;
 		}
+		sessions.clear();
 		sessions = null;
 
 	    random = null;
@@ -708,27 +735,24 @@ public final class SessionCollector {
     	private static final TransactionRecorder TRANSLOGGER = TransactionRecorder.getInstance();
     	private static final AuditTransactionRecorder AUDITTRANSLOGGER = AuditTransactionRecorder.getInstance();
 
-    	private final String[] ids;
-    	private final Map<String, FireSession> sessionsMap;
+    	private final TransactionsStore sessionsStore;
     	private final SessionsDAO sessionsDao;
     	private final long timeout;
     	private final TransactionAuxParams trAux;
+    	private long nextSharedCleaning = 0;
 
     	/**
     	 * Construye el objeto para la eliminaci&oacute;n de sesiones caducadas.
-    	 * @param ids Identificadores de las sesiones que se tienen que evaluar.
-    	 * @param sessions Mapa con todas las sesiones.
+    	 * @param sessions Almac&eacute;n con todas las sesiones.
     	 * @param dao Objeto para la carga de sesiones.
     	 * @param tempTimeout Tiempo de caducidad en milisegundos de los ficheros temporales.
 	 * @param trAux Informaci&oacute;n auxiliar de la transacci&oacute;n.
     	 */
-    	public ExpiredSessionCleanerThread(final String[] ids,
-    			final Map<String, FireSession> sessions,
+    	public ExpiredSessionCleanerThread(final TransactionsStore sessions,
     			final SessionsDAO dao,
     			final long tempTimeout,
         		final TransactionAuxParams trAux) {
-    		this.ids = ids;
-    		this.sessionsMap = sessions;
+    		this.sessionsStore = sessions;
     		this.sessionsDao = dao;
     		this.timeout = tempTimeout;
     		this.trAux = trAux;
@@ -737,13 +761,13 @@ public final class SessionCollector {
     	@Override
     	public void run() {
 
-    		FireSession session;
     		final long currentTime = new Date().getTime();
 
-    		// Eliminamos la sesiones caducadas y sus datos asociados
-        	for (final String id : this.ids) {
-        		session = this.sessionsMap.get(id);
-        		if (session != null && currentTime > session.getExpirationTime()) {
+    		// Eliminamos la sesiones caducadas y sus datos asociados. El almacen ya nos
+    		// devuelve unicamente las sesiones caducadas, retiradas de la memoria.
+    		// Capturamos cualquier error para no cancelar las siguientes ejecuciones
+        	for (final FireSession session : this.sessionsStore.expire(currentTime)) {
+        		try {
         			// Registramos la transaccion como erronea
         			final String errorMessage = "La sesion ha caducado"; //$NON-NLS-1$
         			TRANSLOGGER.register(session, false);
@@ -752,10 +776,15 @@ public final class SessionCollector {
         			// Borramos la sesion
         			SessionCollector.removeSession(session, this.trAux);
         		}
+        		catch (final Exception e) {
+        			THREAD_LOGGER.log(Level.WARNING, "Error al eliminar la sesion caducada " + session.getTransactionId(), e); //$NON-NLS-1$
+        		}
         	}
 
-        	// Eliminamos las sesiones caducadas en almacenamiento persistente
-        	if (this.sessionsDao != null) {
+        	// Eliminamos las sesiones caducadas en almacenamiento persistente. Esta
+        	// limpieza es mas costosa, asi que se realiza con menor frecuencia
+        	if (this.sessionsDao != null && currentTime >= this.nextSharedCleaning) {
+        		this.nextSharedCleaning = currentTime + SHARED_CLEANING_PERIOD;
         		try {
         			this.sessionsDao.deleteExpiredSessions(this.timeout);
         		}
@@ -18,7 +18,6 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import es.gob.afirma.core.misc.AOUtil;
-import es.gob.afirma.core.misc.Base64;
 import es.gob.fire.alarms.Alarm;
 import es.gob.fire.server.connector.DocInfo;
 import es.gob.fire.server.document.FIReDocumentManager;
@@ -57,7 +56,6 @@ public class SignOperationManager {
         final String cop			= params.getParameter(ServiceParams.HTTP_PARAM_CRYPTO_OPERATION);
         final String format         = params.getParameter(ServiceParams.HTTP_PARAM_FORMAT);
         final String improvedFormat = params.getParameter(ServiceParams.HTTP_PARAM_UPGRADE);
-        final String dataB64        = params.getParameter(ServiceParams.HTTP_PARAM_DATA);
         final String extraParamsB64 = params.getParameter(ServiceParams.HTTP_PARAM_EXTRA_PARAM);
 
 		final LogTransactionFormatter logF = trAux.getLogFormatter();
@@ -86,7 +84,7 @@ public class SignOperationManager {
             return;
         }
 
-        if (dataB64 == null || dataB64.isEmpty()) {
+        if (!params.hasParameterValue(ServiceParams.HTTP_PARAM_DATA)) {
 			LOGGER.warning(logF.f("No se han proporcionado los datos a firmar")); //$NON-NLS-1$
 			Responser.sendError(response, FIReError.PARAMETER_DATA_TO_SIGN_NEEDED);
             return;
@@ -190,7 +188,7 @@ public class SignOperationManager {
         // Obtenemos el identificador del documento (que puede ser el propio documento)
         final byte[] docId;
         try {
-        	docId = Base64.decode(dataB64, true);
+        	docId = params.getDecodedParameter(ServiceParams.HTTP_PARAM_DATA);
         }
         catch (final Exception e) {
         	final String errorMessage = "El documento enviado a firmar no esta bien codificado"; //$NON-NLS-1$
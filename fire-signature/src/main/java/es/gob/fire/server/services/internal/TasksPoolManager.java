@@ -9,69 +9,243 @@
  */
 package es.gob.fire.server.services.internal;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import es.gob.fire.signature.ConfigManager;
 
 /**
- * Gestor con los m&eacute;todos para la espera de un pool de tareas.
+ * Gestor del pool de hilos compartido con el que se ejecutan las tareas de los lotes de firma.
+ * El pool tiene un n&uacute;mero m&aacute;ximo de hilos com&uacute;n a todas las transacciones
+ * y cada transacci&oacute;n s&oacute;lo puede tener en ejecuci&oacute;n o en cola un n&uacute;mero
+ * limitado de tareas, de forma que las tareas de distintos lotes se van intercalando en la cola
+ * y un lote grande no bloquea al resto.
  */
 public class TasksPoolManager {
-	
+
+	private static final Logger LOGGER = Logger.getLogger(TasksPoolManager.class.getName());
+
+	/** Tiempo en segundos que puede permanecer inactivo un hilo del pool antes de liberarse. */
+	private static final long THREADS_KEEP_ALIVE = 60;
+
 	//Objeto usado para la sincronizacion del uso de session, sin tener que utilizar el propio objeto session para ello
 	private static final Object sessionLock = new Object();
 
+	private static ExecutorService executorService = null;
+
+	/**
+	 * Obtiene el pool de hilos compartido, cre&aacute;ndolo si es necesario.
+	 * @return Pool de hilos.
+	 */
+	private static synchronized ExecutorService getExecutorService() {
+		if (executorService == null) {
+			final int maxThreads = ConfigManager.getBatchMaxThreads();
+			final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+					maxThreads, maxThreads, THREADS_KEEP_ALIVE, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+						private final AtomicInteger count = new AtomicInteger();
+						@Override
+						public Thread newThread(final Runnable r) {
+							final Thread thread = new Thread(r, "FIRe-BatchTask-" + this.count.incrementAndGet()); //$NON-NLS-1$
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+			executor.allowCoreThreadTimeOut(true);
+			executorService = executor;
+		}
+		return executorService;
+	}
+
+	/**
+	 * Ejecuta en el pool compartido un listado de tareas y espera a que finalicen todas ellas.
+	 * Si se indica que se debe detener el proceso en caso de error, se interrumpen las tareas
+	 * en ejecuci&oacute;n y no se inician las pendientes en cuanto falle alguna de ellas.
+	 * @param tasks Listado de tareas a ejecutar.
+	 * @param stopOnError Si es {@code true} se detendr&aacute;n todas las tareas si una
+	 * de ellas falla. {@code false} en caso contrario.
+	 * @param session Sesi&oacute;n en la que guardar el n&uacute;mero de tareas que
+	 * a&uacute;n no han terminado.
+	 * @param attrName Nombre del atributo de sesi&oacute;n con el que se guardar&aacute;.
+	 */
+	public static void executeTasks(final List<? extends Callable<String>> tasks, final boolean stopOnError,
+			final FireSession session, final String attrName) {
+		executeTasks(tasks, stopOnError, session, attrName, 0);
+	}
+
 	/**
-	 * Espera indefinidamente a que finalicen todos las tareas de un listado. Si se indica
-	 * que se deben detener el proceso en caso de error, interrumpe todas las tareas.
-	 * @param tasks Listado de tareas en ejecuci&oacute;n a las que hay que esperar.
+	 * Ejecuta en el pool compartido un listado de tareas y espera a que finalicen todas ellas,
+	 * contando como pendientes en la sesi&oacute;n, adem&aacute;s de las tareas que a&uacute;n
+	 * no han terminado, un n&uacute;mero de tareas que se ejecutar&aacute;n despu&eacute;s.
+	 * @param tasks Listado de tareas a ejecutar.
 	 * @param stopOnError Si es {@code true} se detendr&aacute;n todas las tareas si una
-	 * de ellas se interrumpe. {@code false} en caso contrario.
-	 * @param session Sesi&oacute;n en la que guardar el n&uacute;mero de hilos que
+	 * de ellas falla. {@code false} en caso contrario.
+	 * @param session Sesi&oacute;n en la que guardar el n&uacute;mero de tareas que
 	 * a&uacute;n no han terminado.
 	 * @param attrName Nombre del atributo de sesi&oacute;n con el que se guardar&aacute;.
+	 * @param pendingAfter N&uacute;mero de tareas que quedar&aacute;n pendientes tras
+	 * ejecutar las del listado.
+	 */
+	public static void executeTasks(final List<? extends Callable<String>> tasks, final boolean stopOnError,
+			final FireSession session, final String attrName, final int pendingAfter) {
+		executeTasks(tasks, stopOnError, session, attrName, pendingAfter,
+				getExecutorService(), ConfigManager.getBatchTransactionThreads());
+	}
+
+	/**
+	 * Ejecuta en un pool de hilos un listado de tareas, manteniendo como m&aacute;ximo un
+	 * n&uacute;mero de ellas enviadas al pool al mismo tiempo, y espera a que finalicen. Cada
+	 * vez que termina una tarea se env&iacute;a la siguiente y se actualiza en la sesi&oacute;n
+	 * el n&uacute;mero de tareas pendientes.
+	 * @param tasks Listado de tareas a ejecutar.
+	 * @param stopOnError Si es {@code true} se detendr&aacute;n todas las tareas si una
+	 * de ellas falla. {@code false} en caso contrario.
+	 * @param session Sesi&oacute;n en la que guardar el n&uacute;mero de tareas que
+	 * a&uacute;n no han terminado.
+	 * @param attrName Nombre del atributo de sesi&oacute;n con el que se guardar&aacute;.
+	 * @param executor Pool de hilos en el que ejecutar las tareas.
+	 * @param maxConcurrentTasks N&uacute;mero m&aacute;ximo de tareas enviadas al pool a la vez.
+	 */
+	static void executeTasks(final List<? extends Callable<String>> tasks, final boolean stopOnError,
+			final FireSession session, final String attrName, final ExecutorService executor,
+			final int maxConcurrentTasks) {
+		executeTasks(tasks, stopOnError, session, attrName, 0, executor, maxConcurrentTasks);
+	}
+
+	/**
+	 * Ejecuta en un pool de hilos un listado de tareas, manteniendo como m&aacute;ximo un
+	 * n&uacute;mero de ellas enviadas al pool al mismo tiempo, y espera a que finalicen. Cada
+	 * vez que termina una tarea se env&iacute;a la siguiente y se actualiza en la sesi&oacute;n
+	 * el n&uacute;mero de tareas pendientes, al que se suman las que se ejecutar&aacute;n despu&eacute;s.
+	 * @param tasks Listado de tareas a ejecutar.
+	 * @param stopOnError Si es {@code true} se detendr&aacute;n todas las tareas si una
+	 * de ellas falla. {@code false} en caso contrario.
+	 * @param session Sesi&oacute;n en la que guardar el n&uacute;mero de tareas que
+	 * a&uacute;n no han terminado.
+	 * @param attrName Nombre del atributo de sesi&oacute;n con el que se guardar&aacute;.
+	 * @param pendingAfter N&uacute;mero de tareas que quedar&aacute;n pendientes tras
+	 * ejecutar las del listado.
+	 * @param executor Pool de hilos en el que ejecutar las tareas.
+	 * @param maxConcurrentTasks N&uacute;mero m&aacute;ximo de tareas enviadas al pool a la vez.
+	 */
+	static void executeTasks(final List<? extends Callable<String>> tasks, final boolean stopOnError,
+			final FireSession session, final String attrName, final int pendingAfter,
+			final ExecutorService executor, final int maxConcurrentTasks) {
+
+		final CompletionService<String> completionService = new ExecutorCompletionService<>(executor);
+		final List<Future<String>> running = new ArrayList<>();
+		final Iterator<? extends Callable<String>> pendingTasks = tasks.iterator();
+		int notSubmitted = tasks.size();
+
+		updatePendingTasks(session, attrName, notSubmitted + pendingAfter);
+
+		boolean stopTasks = false;
+		while (running.size() < Math.max(1, maxConcurrentTasks) && pendingTasks.hasNext()) {
+			running.add(completionService.submit(pendingTasks.next()));
+			notSubmitted--;
+		}
+
+		while (!running.isEmpty()) {
+
+			final Future<String> task;
+			try {
+				task = completionService.take();
+			}
+			catch (final InterruptedException e) {
+				LOGGER.log(Level.WARNING, "Se interrumpio la espera de las tareas del lote. Se cancelaran las pendientes", e); //$NON-NLS-1$
+				for (final Future<String> t : running) {
+					t.cancel(true);
+				}
+				Thread.currentThread().interrupt();
+				break;
+			}
+			running.remove(task);
+
+			// Si hay que detener el proceso en caso de error, comprobamos si fallo
+			// la tarea, en cuyo caso interrumpimos el resto
+			if (stopOnError && !stopTasks && isFailed(task)) {
+				stopTasks = true;
+				for (final Future<String> t : running) {
+					t.cancel(true);
+				}
+			}
+
+			// Enviamos la siguiente tarea en sustitucion de la que ha terminado
+			if (!stopTasks && pendingTasks.hasNext()) {
+				try {
+					running.add(completionService.submit(pendingTasks.next()));
+					notSubmitted--;
+				}
+				catch (final RejectedExecutionException e) {
+					LOGGER.log(Level.WARNING, "No se pudo enviar a ejecutar una tarea del lote", e); //$NON-NLS-1$
+					stopTasks = true;
+				}
+			}
+
+			// Actualizamos en la sesion el numero de tareas que faltan por terminar
+			updatePendingTasks(session, attrName, running.size() + (stopTasks ? 0 : notSubmitted) + pendingAfter);
+		}
+
+		updatePendingTasks(session, attrName, pendingAfter);
+	}
+
+	/**
+	 * Comprueba si una tarea ya terminada fue cancelada o fall&oacute;.
+	 * @param task Tarea terminada.
+	 * @return {@code true} si la tarea no termin&oacute; correctamente, {@code false}
+	 * en caso contrario.
+	 */
+	private static boolean isFailed(final Future<String> task) {
+		try {
+			return task.isCancelled() || task.get() == null;
+		}
+		catch (final Exception e) {
+			return true;
+		}
+	}
+
+	/**
+	 * Guarda en la sesi&oacute;n el n&uacute;mero de tareas pendientes.
+	 * @param session Sesi&oacute;n en la que guardar el valor.
+	 * @param attrName Nombre del atributo de sesi&oacute;n.
+	 * @param pending N&uacute;mero de tareas pendientes.
+	 */
+	static void updatePendingTasks(final FireSession session, final String attrName, final int pending) {
+		if (session != null && attrName != null) {
+			synchronized (sessionLock) {
+				session.setAttribute(attrName, Integer.valueOf(pending));
+			}
+		}
+	}
+
+	/**
+	 * Libera el pool de hilos compartido.
 	 */
-	public static void waitTasks(final List<Future<String>> tasks, final boolean stopOnError, final FireSession session, final String attrName) {
-
-        boolean stopTasks = false;
-        int lives;
-        do {
-        	lives = 0;
-        	for (final Future<String> t : tasks) {
-        		// Si no termino, lo contamos como tarea viva
-        		if (!t.isDone()) {
-        			lives++;
-        			if (stopTasks) {
-        				t.cancel(true);
-        			}
-        		}
-        		// Si termino, comprobamos si debemos para en caso de error,
-        		// en cuyo caso comprobamos si fallo
-        		else if (stopOnError) {
-        			try {
-        				stopTasks = t.isCancelled() || t.get() == null;
-        			}
-        			catch (final Exception e) {
-        				stopTasks = true;
-					}
-        		}
-        	}
-
-        	// Actualizamos en la sesion el numero de hilos que faltan por terminar
-        	if (session != null && attrName != null) {
-        		synchronized (sessionLock) {
-        			session.setAttribute(attrName, Integer.valueOf(lives));
-        		}
-        	}
-
-        	// Si aun quedan tareas vivas, esperamos un poco antes
-        	// de volver a consultarlas
-        	if (lives > 0) {
-        		try {
-					Thread.sleep(2000);
-        		} catch (final InterruptedException e) {
-        			// No hacemos nada
-        		}
-        	}
-        } while (lives > 0);
+	public static synchronized void release() {
+		if (executorService != null) {
+			executorService.shutdown();
+			try {
+				if (!executorService.awaitTermination(2000, TimeUnit.MILLISECONDS)) {
+					executorService.shutdownNow();
+				}
+			} catch (final InterruptedException e) {
+				executorService.shutdownNow();
+			}
+			executorService = null;
+		}
 	}
 }
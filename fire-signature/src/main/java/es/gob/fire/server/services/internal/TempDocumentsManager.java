@@ -1,6 +1,8 @@
 package es.gob.fire.server.services.internal;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -68,7 +70,29 @@ public class TempDocumentsManager {
 
 	public static void storeDocument(final String id, final byte[] data, final boolean newDocument) throws IOException {
 		documentsDao.storeDocument(id, data, newDocument);
+		registerStore();
+	}
+
+	/**
+	 * Almacena un documento leyendo su contenido de un flujo de datos, sin
+	 * necesidad de cargarlo por completo en memoria si el gestor de documentos
+	 * temporales lo permite. El flujo no se cierra.
+	 * @param id Identificador del documento.
+	 * @param data Flujo del que leer el contenido del documento.
+	 * @param newDocument {@code true} si el documento no exist&iacute;a previamente,
+	 * {@code false} si s&iacute; exist&iacute;a.
+	 * @throws IOException Cuando no se puede almacenar el documento.
+	 */
+	public static void storeDocument(final String id, final InputStream data, final boolean newDocument) throws IOException {
+		documentsDao.storeDocument(id, Channels.newChannel(data), newDocument);
+		registerStore();
+	}
 
+	/**
+	 * Registra que se ha almacenado un documento y, cada cierto n&uacute;mero de usos,
+	 * lanza el proceso de limpieza de documentos caducados.
+	 */
+	private static void registerStore() {
 		synchronized (documentsDao) {
 			if (++uses >= MAX_USE_TO_CLEANING && (cleaningProcess == null || cleaningProcess.isDone())) {
 				deleteExpiredDocuments();
@@ -83,6 +107,16 @@ public class TempDocumentsManager {
 
 	}
 
+	/**
+	 * Abre un flujo de lectura de un documento guardado. El flujo debe cerrarse tras su uso.
+	 * @param id Identificador del documento.
+	 * @return Flujo de lectura del contenido del documento.
+	 * @throws IOException Cuando no se encuentra el documento o no puede leerse.
+	 */
+	public static InputStream openDocument(final String id) throws IOException {
+		return documentsDao.openDocument(id);
+	}
+
 	public static void deleteDocument(final String id) throws IOException {
 		documentsDao.deleteDocument(id);
 	}
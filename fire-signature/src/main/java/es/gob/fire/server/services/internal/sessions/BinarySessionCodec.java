@@ -0,0 +1,305 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.server.services.internal.sessions;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import es.gob.fire.server.services.internal.BatchResult;
+import es.gob.fire.server.services.internal.ServiceParams;
+import es.gob.fire.server.services.internal.SessionFlags;
+import es.gob.fire.server.services.internal.TransactionConfig;
+import es.gob.fire.server.services.statistics.TransactionType;
+
+/**
+ * Codificador de sesiones en un formato binario compacto y versionado. Las claves
+ * conocidas de sesi&oacute;n se codifican con un &uacute;nico byte y los tipos de
+ * datos habituales se escriben directamente. Los valores de tipos desconocidos se
+ * guardan mediante la serializaci&oacute;n de Java.<br>
+ * Al decodificar se aceptan tambi&eacute;n las sesiones guardadas con
+ * {@link JavaSerializationSessionCodec}, de forma que se pueden recuperar las
+ * sesiones guardadas antes de cambiar de formato.
+ */
+public class BinarySessionCodec implements SessionCodec {
+
+	/** Cabecera que identifica el formato. */
+	private static final byte[] MAGIC = new byte[] { 'F', 'S' };
+
+	/** Versi&oacute;n actual del formato. */
+	private static final int VERSION = 1;
+
+	/** Primeros bytes de un flujo de serializaci&oacute;n de Java. */
+	private static final int JAVA_SERIALIZATION_MAGIC = 0xACED;
+
+	/**
+	 * Claves de sesi&oacute;n conocidas. El c&oacute;digo de cada clave es su
+	 * posici&oacute;n m&aacute;s uno, por lo que solo se pueden agregar nuevas
+	 * claves al final del listado.
+	 */
+	private static final String[] KNOWN_KEYS = new String[] {
+		ServiceParams.SESSION_PARAM_APPLICATION_ID,
+		ServiceParams.SESSION_PARAM_APPLICATION_NAME,
+		ServiceParams.SESSION_PARAM_APPLICATION_TITLE,
+		ServiceParams.SESSION_PARAM_SUBJECT_ID,
+		ServiceParams.SESSION_PARAM_SUBJECT_REF,
+		ServiceParams.SESSION_PARAM_TRANSACTION_ID,
+		ServiceParams.SESSION_PARAM_TRANSACTION_TYPE,
+		ServiceParams.SESSION_PARAM_CERT,
+		ServiceParams.SESSION_PARAM_PROVIDERS,
+		ServiceParams.SESSION_PARAM_CERT_ORIGIN,
+		ServiceParams.SESSION_PARAM_CERT_ORIGIN_FORCED,
+		ServiceParams.SESSION_PARAM_CRYPTO_OPERATION,
+		ServiceParams.SESSION_PARAM_ALGORITHM,
+		ServiceParams.SESSION_PARAM_FORMAT,
+		ServiceParams.SESSION_PARAM_EXTRA_PARAM,
+		ServiceParams.SESSION_PARAM_FILTERS,
+		ServiceParams.SESSION_PARAM_UPGRADE,
+		ServiceParams.SESSION_PARAM_UPGRADE_CONFIG,
+		ServiceParams.SESSION_PARAM_FORMAT_CONFIG,
+		ServiceParams.SESSION_PARAM_CONNECTION_CONFIG,
+		ServiceParams.SESSION_PARAM_TRIPHASE_DATA,
+		ServiceParams.SESSION_PARAM_REMOTE_TRANSACTION_ID,
+		ServiceParams.SESSION_PARAM_BATCH_STOP_ON_ERROR,
+		ServiceParams.SESSION_PARAM_BATCH_RESULT,
+		ServiceParams.SESSION_PARAM_BATCH_SIGNED,
+		ServiceParams.SESSION_PARAM_BATCH_RECOVERED,
+		ServiceParams.SESSION_PARAM_BATCH_PENDING_SIGNS,
+		ServiceParams.SESSION_PARAM_GENERATE_TRANSACTION_ID,
+		ServiceParams.SESSION_PARAM_TIMEOUT,
+		ServiceParams.SESSION_PARAM_DOC_ID,
+		ServiceParams.SESSION_PARAM_DOCUMENT_MANAGER,
+		ServiceParams.SESSION_PARAM_REDIRECTED_SIGN,
+		ServiceParams.SESSION_PARAM_REDIRECTED_LOGIN,
+		ServiceParams.SESSION_PARAM_PREVIOUS_OPERATION,
+		ServiceParams.SESSION_PARAM_ERROR_TYPE,
+		ServiceParams.SESSION_PARAM_ERROR_MESSAGE,
+		ServiceParams.SESSION_PARAM_BROWSER,
+		ServiceParams.SESSION_PARAM_DOCSIZE,
+		ServiceParams.SESSION_PARAM_TRANSACTION_SIZE
+	};
+
+	private static final Map<String, Integer> KNOWN_KEYS_CODES = new HashMap<>();
+
+	static {
+		for (int i = 0; i < KNOWN_KEYS.length; i++) {
+			KNOWN_KEYS_CODES.put(KNOWN_KEYS[i], Integer.valueOf(i + 1));
+		}
+	}
+
+	/** C&oacute;digo de clave que indica que la clave se escribe a continuaci&oacute;n. */
+	private static final int KEY_LITERAL = 0;
+
+	private static final int TYPE_NULL = 0;
+	private static final int TYPE_STRING = 1;
+	private static final int TYPE_TRUE = 2;
+	private static final int TYPE_FALSE = 3;
+	private static final int TYPE_INTEGER = 4;
+	private static final int TYPE_LONG = 5;
+	private static final int TYPE_BYTES = 6;
+	private static final int TYPE_STRING_ARRAY = 7;
+	private static final int TYPE_PROPERTIES = 8;
+	private static final int TYPE_TRANSACTION_TYPE = 9;
+	private static final int TYPE_SESSION_FLAG = 10;
+	private static final int TYPE_TRANSACTION_CONFIG = 11;
+	private static final int TYPE_BATCH_RESULT = 12;
+	private static final int TYPE_SERIALIZED = 13;
+
+	private final SessionCodec legacyCodec = new JavaSerializationSessionCodec();
+
+	@Override
+	public void encode(final Map<String, Object> sessionData, final OutputStream os) throws IOException {
+
+		final DataOutputStream out = new DataOutputStream(os);
+		out.write(MAGIC);
+		out.writeByte(VERSION);
+		CompactDataUtils.writeVarInt(out, sessionData.size());
+		for (final Map.Entry<String, Object> attr : sessionData.entrySet()) {
+			writeKey(out, attr.getKey());
+			writeValue(out, attr.getValue());
+		}
+		out.flush();
+	}
+
+	@Override
+	public Map<String, Object> decode(final InputStream is) throws IOException {
+
+		final InputStream bis = is.markSupported() ? is : new BufferedInputStream(is);
+		bis.mark(MAGIC.length + 1);
+		final int header = bis.read() << 8 | bis.read();
+		if (header == JAVA_SERIALIZATION_MAGIC) {
+			bis.reset();
+			return this.legacyCodec.decode(bis);
+		}
+		if (header != (MAGIC[0] << 8 | MAGIC[1])) {
+			throw new IOException("Los datos no se corresponden con una sesion codificada"); //$NON-NLS-1$
+		}
+
+		final DataInputStream in = new DataInputStream(bis);
+		final int version = in.readUnsignedByte();
+		if (version != VERSION) {
+			throw new IOException("Version no soportada del formato de sesion: " + version); //$NON-NLS-1$
+		}
+
+		final int count = CompactDataUtils.readVarInt(in);
+		final Map<String, Object> sessionData = new HashMap<>(Math.max(16, count * 2));
+		for (int i = 0; i < count; i++) {
+			final String key = readKey(in);
+			sessionData.put(key, readValue(in));
+		}
+		return sessionData;
+	}
+
+	/**
+	 * Codifica el valor de un atributo de sesi&oacute;n con el mismo formato con el
+	 * que se codifica dentro de una sesi&oacute;n.
+	 * @param value Valor del atributo.
+	 * @param os Flujo en el que escribir el valor codificado.
+	 * @throws IOException Cuando no se puede codificar el valor.
+	 */
+	public static void encodeValue(final Object value, final OutputStream os) throws IOException {
+		final DataOutputStream out = new DataOutputStream(os);
+		writeValue(out, value);
+		out.flush();
+	}
+
+	private static void writeKey(final DataOutputStream out, final String key) throws IOException {
+		final Integer code = KNOWN_KEYS_CODES.get(key);
+		if (code != null) {
+			CompactDataUtils.writeVarInt(out, code.intValue());
+		}
+		else {
+			CompactDataUtils.writeVarInt(out, KEY_LITERAL);
+			CompactDataUtils.writeString(out, key);
+		}
+	}
+
+	private static String readKey(final DataInputStream in) throws IOException {
+		final int code = CompactDataUtils.readVarInt(in);
+		if (code == KEY_LITERAL) {
+			return CompactDataUtils.readString(in);
+		}
+		if (code > KNOWN_KEYS.length) {
+			throw new IOException("Clave de sesion desconocida: " + code); //$NON-NLS-1$
+		}
+		return KNOWN_KEYS[code - 1];
+	}
+
+	private static void writeValue(final DataOutputStream out, final Object value) throws IOException {
+
+		if (value == null) {
+			out.writeByte(TYPE_NULL);
+		}
+		else if (value instanceof String) {
+			out.writeByte(TYPE_STRING);
+			CompactDataUtils.writeString(out, (String) value);
+		}
+		else if (value instanceof Boolean) {
+			out.writeByte(((Boolean) value).booleanValue() ? TYPE_TRUE : TYPE_FALSE);
+		}
+		else if (value instanceof Integer) {
+			out.writeByte(TYPE_INTEGER);
+			out.writeInt(((Integer) value).intValue());
+		}
+		else if (value instanceof Long) {
+			out.writeByte(TYPE_LONG);
+			out.writeLong(((Long) value).longValue());
+		}
+		else if (value instanceof byte[]) {
+			out.writeByte(TYPE_BYTES);
+			CompactDataUtils.writeBytes(out, (byte[]) value);
+		}
+		else if (value instanceof String[]) {
+			out.writeByte(TYPE_STRING_ARRAY);
+			CompactDataUtils.writeStringArray(out, (String[]) value);
+		}
+		else if (value.getClass() == Properties.class) {
+			out.writeByte(TYPE_PROPERTIES);
+			CompactDataUtils.writeProperties(out, (Properties) value);
+		}
+		else if (value instanceof TransactionType) {
+			out.writeByte(TYPE_TRANSACTION_TYPE);
+			CompactDataUtils.writeString(out, ((TransactionType) value).name());
+		}
+		else if (value instanceof SessionFlags) {
+			out.writeByte(TYPE_SESSION_FLAG);
+			CompactDataUtils.writeString(out, ((SessionFlags) value).name());
+		}
+		else if (value.getClass() == TransactionConfig.class) {
+			out.writeByte(TYPE_TRANSACTION_CONFIG);
+			CompactDataUtils.writeProperties(out, ((TransactionConfig) value).getProperties());
+		}
+		else if (value.getClass() == BatchResult.class) {
+			out.writeByte(TYPE_BATCH_RESULT);
+			((BatchResult) value).writeCompact(out);
+		}
+		else {
+			out.writeByte(TYPE_SERIALIZED);
+			final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+				oos.writeObject(value);
+			}
+			CompactDataUtils.writeBytes(out, baos.toByteArray());
+		}
+	}
+
+	private static Object readValue(final DataInputStream in) throws IOException {
+
+		final int type = in.readUnsignedByte();
+		switch (type) {
+		case TYPE_NULL:
+			return null;
+		case TYPE_STRING:
+			return CompactDataUtils.readString(in);
+		case TYPE_TRUE:
+			return Boolean.TRUE;
+		case TYPE_FALSE:
+			return Boolean.FALSE;
+		case TYPE_INTEGER:
+			return Integer.valueOf(in.readInt());
+		case TYPE_LONG:
+			return Long.valueOf(in.readLong());
+		case TYPE_BYTES:
+			return CompactDataUtils.readBytes(in);
+		case TYPE_STRING_ARRAY:
+			return CompactDataUtils.readStringArray(in);
+		case TYPE_PROPERTIES:
+			return CompactDataUtils.readProperties(in);
+		case TYPE_TRANSACTION_TYPE:
+			return TransactionType.valueOf(CompactDataUtils.readString(in));
+		case TYPE_SESSION_FLAG:
+			return SessionFlags.valueOf(CompactDataUtils.readString(in));
+		case TYPE_TRANSACTION_CONFIG:
+			return new TransactionConfig(CompactDataUtils.readProperties(in));
+		case TYPE_BATCH_RESULT:
+			return BatchResult.readCompact(in);
+		case TYPE_SERIALIZED:
+			final byte[] serialized = CompactDataUtils.readBytes(in);
+			try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+				return ois.readObject();
+			}
+			catch (final ClassNotFoundException e) {
+				throw new IOException("No se encontro la clase de un atributo de sesion", e); //$NON-NLS-1$
+			}
+		default:
+			throw new IOException("Tipo de dato de sesion desconocido: " + type); //$NON-NLS-1$
+		}
+	}
+}
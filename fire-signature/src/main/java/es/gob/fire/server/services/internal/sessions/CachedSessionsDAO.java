@@ -0,0 +1,236 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.server.services.internal.sessions;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.servlet.http.HttpSession;
+
+import es.gob.fire.server.services.internal.FireSession;
+
+/**
+ * Gestor de sesiones que mantiene en memoria una cach&eacute; local con las
+ * &uacute;ltimas sesiones usadas en el nodo por delante del gestor de sesiones
+ * compartidas. Antes de devolver una sesi&oacute;n de la cach&eacute;, se consulta
+ * al gestor compartido su versi&oacute;n, de tal forma que s&oacute;lo se vuelve a
+ * cargar completa si se modific&oacute; desde otro nodo.<br>
+ * La cach&eacute; guarda los atributos de las sesiones codificados, de tal forma
+ * que cada recuperaci&oacute;n obtiene su propia copia de los valores mutables y no
+ * se ve afectada por los cambios que se hagan sobre otras copias sin guardarlos.
+ */
+public class CachedSessionsDAO implements SessionsDAO {
+
+	private static final Logger LOGGER = Logger.getLogger(CachedSessionsDAO.class.getName());
+
+	/** Gestor de sesiones compartidas. */
+	private final VersionedSessionsDAO dao;
+
+	/** Sesiones en cach&eacute; ordenadas de la menos a la m&aacute;s recientemente usada. */
+	private final Map<String, CachedSession> cache;
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	/** Codificador con el que se copian los atributos de las sesiones en cach&eacute;. */
+	private final SessionCodec codec = new BinarySessionCodec();
+
+	/**
+	 * Construye el gestor de sesiones con cach&eacute;.
+	 * @param dao Gestor de sesiones compartidas.
+	 * @param maxSize N&uacute;mero m&aacute;ximo de sesiones en cach&eacute;.
+	 */
+	public CachedSessionsDAO(final VersionedSessionsDAO dao, final int maxSize) {
+		this.dao = dao;
+		this.cache = Collections.synchronizedMap(new LinkedHashMap<String, CachedSession>(16, 0.75f, true) {
+			/** Serial Id. */
+			private static final long serialVersionUID = -2464556185330316925L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, CachedSession> eldest) {
+				return size() > maxSize;
+			}
+		});
+	}
+
+	@Override
+	public boolean existsSession(final String id) throws SessionException {
+		return this.dao.existsSession(id);
+	}
+
+	@Override
+	public boolean reserveSession(final String id) throws SessionException {
+		return this.dao.reserveSession(id);
+	}
+
+	@Override
+	public FireSession recoverSession(final String id, final HttpSession session) {
+
+		final CachedSession cached = this.cache.get(id);
+		if (cached != null) {
+			try {
+				final long version = this.dao.getSessionVersion(id);
+				if (version == cached.getVersion()) {
+					final FireSession fireSession = cached.newSession(id, this.codec);
+					if (fireSession != null) {
+						this.hits.incrementAndGet();
+						return fireSession;
+					}
+				}
+				this.cache.remove(id);
+				if (version < 0) {
+					return null;
+				}
+			}
+			catch (final SessionException e) {
+				LOGGER.log(Level.WARNING, "No se pudo comprobar la version de la sesion con ID: " + id, e); //$NON-NLS-1$
+				this.cache.remove(id);
+			}
+		}
+		this.misses.incrementAndGet();
+
+		// Consultamos la version antes de cargar la sesion. Si se modificase entretanto,
+		// la version guardada en cache sera anterior y la sesion se volvera a cargar
+		long version;
+		try {
+			version = this.dao.getSessionVersion(id);
+		}
+		catch (final SessionException e) {
+			LOGGER.log(Level.WARNING, "No se pudo consultar la version de la sesion con ID: " + id, e); //$NON-NLS-1$
+			version = -1;
+		}
+
+		final FireSession fireSession = this.dao.recoverSession(id, session);
+		if (fireSession != null) {
+			updateCache(fireSession, version);
+		}
+		return fireSession;
+	}
+
+	@Override
+	public void saveSession(final FireSession session, final boolean firstSave) {
+		updateCache(session, this.dao.saveVersionedSession(session, firstSave));
+	}
+
+	@Override
+	public void saveSessionChanges(final FireSession session, final Set<String> modifiedAttributes) {
+		updateCache(session, this.dao.saveVersionedSessionChanges(session, modifiedAttributes));
+	}
+
+	/**
+	 * Guarda en cach&eacute; una copia de una sesi&oacute;n junto con la versi&oacute;n
+	 * con la que se guard&oacute; en el gestor de sesiones compartidas. Si no se
+	 * conoce la versi&oacute;n o no se puede copiar la sesi&oacute;n, se elimina de
+	 * la cach&eacute;.
+	 * @param session Sesi&oacute;n guardada.
+	 * @param version Versi&oacute;n de la sesi&oacute;n o -1 si no se conoce.
+	 */
+	private void updateCache(final FireSession session, final long version) {
+		final String id = session.getTransactionId();
+		if (version < 0) {
+			this.cache.remove(id);
+			return;
+		}
+
+		final byte[] encoded;
+		try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+			this.codec.encode(session.getAttributtes(), baos);
+			encoded = baos.toByteArray();
+		}
+		catch (final Exception e) {
+			LOGGER.log(Level.FINE, "No se pudo copiar en cache la sesion con ID: " + id, e); //$NON-NLS-1$
+			this.cache.remove(id);
+			return;
+		}
+		this.cache.put(id, new CachedSession(encoded, version, session.getExpirationTime()));
+	}
+
+	@Override
+	public void deleteSession(final String id) {
+		this.cache.remove(id);
+		this.dao.deleteSession(id);
+	}
+
+	@Override
+	public void deleteExpiredSessions(final long expirationTime) throws IOException {
+		this.dao.deleteExpiredSessions(expirationTime);
+	}
+
+	@Override
+	public TempDocumentsDAO getAssociatedDocumentsDAO() {
+		return this.dao.getAssociatedDocumentsDAO();
+	}
+
+	/**
+	 * Recupera el n&uacute;mero de sesiones obtenidas de la cach&eacute;.
+	 * @return N&uacute;mero de aciertos de la cach&eacute;.
+	 */
+	public long getHits() {
+		return this.hits.get();
+	}
+
+	/**
+	 * Recupera el n&uacute;mero de sesiones que hubo que cargar del gestor de
+	 * sesiones compartidas.
+	 * @return N&uacute;mero de fallos de la cach&eacute;.
+	 */
+	public long getMisses() {
+		return this.misses.get();
+	}
+
+	/**
+	 * Sesi&oacute;n guardada en cach&eacute;.
+	 */
+	private static class CachedSession {
+
+		private final byte[] sessionData;
+
+		private final long version;
+
+		private final long expirationTime;
+
+		CachedSession(final byte[] sessionData, final long version, final long expirationTime) {
+			this.sessionData = sessionData;
+			this.version = version;
+			this.expirationTime = expirationTime;
+		}
+
+		long getVersion() {
+			return this.version;
+		}
+
+		/**
+		 * Crea una sesi&oacute;n con una copia de los datos de la cach&eacute;.
+		 * @param id Identificador de la sesi&oacute;n.
+		 * @param codec Codificador con el que se guardaron los datos.
+		 * @return Sesi&oacute;n o {@code null} si no se pudieron decodificar los datos.
+		 */
+		FireSession newSession(final String id, final SessionCodec codec) {
+			final Map<String, Object> data;
+			try {
+				data = codec.decode(new ByteArrayInputStream(this.sessionData));
+			}
+			catch (final IOException e) {
+				LOGGER.log(Level.WARNING, "No se pudo copiar de cache la sesion con ID: " + id, e); //$NON-NLS-1$
+				return null;
+			}
+			return FireSession.newSession(id, data, this.expirationTime);
+		}
+	}
+}
@@ -0,0 +1,191 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.server.services.internal.sessions;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+/**
+ * Funciones para la escritura y lectura de datos en el formato binario compacto
+ * usado para el guardado de sesiones. Los tama&ntilde;os se codifican como enteros
+ * de longitud variable y los valores nulos se indican mediante un tama&ntilde;o 0,
+ * de forma que el resto de tama&ntilde;os se guardan incrementados en una unidad.
+ */
+public final class CompactDataUtils {
+
+	private CompactDataUtils() {
+		// No se permite la instanciacion
+	}
+
+	/**
+	 * Escribe un entero no negativo con una longitud variable de entre 1 y 5 bytes.
+	 * @param out Flujo de salida.
+	 * @param value Valor a escribir.
+	 * @throws IOException Cuando falla la escritura.
+	 */
+	public static void writeVarInt(final DataOutput out, final int value) throws IOException {
+		int v = value;
+		while ((v & ~0x7F) != 0) {
+			out.writeByte(v & 0x7F | 0x80);
+			v >>>= 7;
+		}
+		out.writeByte(v);
+	}
+
+	/**
+	 * Lee un entero escrito con {@link #writeVarInt(DataOutput, int)}.
+	 * @param in Flujo de entrada.
+	 * @return Valor le&iacute;do.
+	 * @throws IOException Cuando falla la lectura o el valor no es v&aacute;lido.
+	 */
+	public static int readVarInt(final DataInput in) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			final int b = in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Entero de longitud variable mal formado"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Escribe una cadena de texto codificada en UTF-8, que puede ser nula.
+	 * @param out Flujo de salida.
+	 * @param value Cadena a escribir.
+	 * @throws IOException Cuando falla la escritura.
+	 */
+	public static void writeString(final DataOutput out, final String value) throws IOException {
+		writeBytes(out, value != null ? value.getBytes(StandardCharsets.UTF_8) : null);
+	}
+
+	/**
+	 * Lee una cadena escrita con {@link #writeString(DataOutput, String)}.
+	 * @param in Flujo de entrada.
+	 * @return Cadena le&iacute;da o {@code null}.
+	 * @throws IOException Cuando falla la lectura.
+	 */
+	public static String readString(final DataInput in) throws IOException {
+		final byte[] encoded = readBytes(in);
+		return encoded != null ? new String(encoded, StandardCharsets.UTF_8) : null;
+	}
+
+	/**
+	 * Escribe un array de bytes, que puede ser nulo.
+	 * @param out Flujo de salida.
+	 * @param value Datos a escribir.
+	 * @throws IOException Cuando falla la escritura.
+	 */
+	public static void writeBytes(final DataOutput out, final byte[] value) throws IOException {
+		if (value == null) {
+			writeVarInt(out, 0);
+			return;
+		}
+		writeVarInt(out, value.length + 1);
+		out.write(value);
+	}
+
+	/**
+	 * Lee un array de bytes escrito con {@link #writeBytes(DataOutput, byte[])}.
+	 * @param in Flujo de entrada.
+	 * @return Datos le&iacute;dos o {@code null}.
+	 * @throws IOException Cuando falla la lectura.
+	 */
+	public static byte[] readBytes(final DataInput in) throws IOException {
+		final int size = readVarInt(in);
+		if (size == 0) {
+			return null;
+		}
+		final byte[] value = new byte[size - 1];
+		in.readFully(value);
+		return value;
+	}
+
+	/**
+	 * Escribe un listado de cadenas, que puede ser nulo.
+	 * @param out Flujo de salida.
+	 * @param values Cadenas a escribir.
+	 * @throws IOException Cuando falla la escritura.
+	 */
+	public static void writeStringArray(final DataOutput out, final String[] values) throws IOException {
+		if (values == null) {
+			writeVarInt(out, 0);
+			return;
+		}
+		writeVarInt(out, values.length + 1);
+		for (final String value : values) {
+			writeString(out, value);
+		}
+	}
+
+	/**
+	 * Lee un listado de cadenas escrito con {@link #writeStringArray(DataOutput, String[])}.
+	 * @param in Flujo de entrada.
+	 * @return Listado de cadenas o {@code null}.
+	 * @throws IOException Cuando falla la lectura.
+	 */
+	public static String[] readStringArray(final DataInput in) throws IOException {
+		final int size = readVarInt(in);
+		if (size == 0) {
+			return null;
+		}
+		final String[] values = new String[size - 1];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = readString(in);
+		}
+		return values;
+	}
+
+	/**
+	 * Escribe un conjunto de propiedades, que puede ser nulo. S&oacute;lo se
+	 * guardan las propiedades cuyas claves y valores sean cadenas de texto.
+	 * @param out Flujo de salida.
+	 * @param properties Propiedades a escribir.
+	 * @throws IOException Cuando falla la escritura.
+	 */
+	public static void writeProperties(final DataOutput out, final Properties properties) throws IOException {
+		if (properties == null) {
+			writeVarInt(out, 0);
+			return;
+		}
+		final String[] names = properties.stringPropertyNames().toArray(new String[0]);
+		writeVarInt(out, names.length + 1);
+		for (final String name : names) {
+			writeString(out, name);
+			writeString(out, properties.getProperty(name));
+		}
+	}
+
+	/**
+	 * Lee un conjunto de propiedades escrito con {@link #writeProperties(DataOutput, Properties)}.
+	 * @param in Flujo de entrada.
+	 * @return Propiedades le&iacute;das o {@code null}.
+	 * @throws IOException Cuando falla la lectura.
+	 */
+	public static Properties readProperties(final DataInput in) throws IOException {
+		final int size = readVarInt(in);
+		if (size == 0) {
+			return null;
+		}
+		final Properties properties = new Properties();
+		for (int i = 0; i < size - 1; i++) {
+			final String name = readString(in);
+			final String value = readString(in);
+			if (name != null && value != null) {
+				properties.setProperty(name, value);
+			}
+		}
+		return properties;
+	}
+}
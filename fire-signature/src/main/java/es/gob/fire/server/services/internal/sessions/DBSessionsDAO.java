@@ -4,14 +4,17 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.sql.Blob;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -22,9 +25,19 @@ import es.gob.fire.signature.ConfigManager;
 import es.gob.fire.signature.DbManager;
 
 /**
- * DAO para la gesti&oacute;n de sesiones en base de datos.
+ * DAO para la gesti&oacute;n de sesiones en base de datos.<br>
+ * Al crear una sesi&oacute;n, se guardan todos sus datos en la tabla de sesiones.
+ * Las posteriores modificaciones se guardan como filas clave/valor de la tabla de
+ * atributos, una por atributo modificado, de tal forma que no sea necesario volver
+ * a escribir la sesi&oacute;n completa. Los atributos eliminados se registran con
+ * valor nulo. Al recuperar la sesi&oacute;n, los atributos de esta tabla prevalecen
+ * sobre los guardados en la tabla de sesiones. Cuando el n&uacute;mero de atributos
+ * modificados es elevado, se vuelve a guardar la sesi&oacute;n completa y se
+ * eliminan sus filas de atributos.<br>
+ * Cada guardado incrementa el contador de versi&oacute;n de la sesi&oacute;n, que
+ * permite comprobar si esta ha cambiado sin necesidad de cargarla.
  */
-public class DBSessionsDAO implements SessionsDAO, Serializable {
+public class DBSessionsDAO implements VersionedSessionsDAO, Serializable {
 
 	/** Serial Id. */
 	private static final long serialVersionUID = 2795967166266934274L;
@@ -33,7 +46,9 @@ public class DBSessionsDAO implements SessionsDAO, Serializable {
 
 	private static final String DB_STATEMENT_CHECK_SESSION = "SELECT id FROM tb_comp_sesiones WHERE id = ?"; //$NON-NLS-1$
 
-	private static final String DB_STATEMENT_UPDATE_SESSION = "UPDATE tb_comp_sesiones SET sesion=?, f_modificacion=? WHERE id = ?"; //$NON-NLS-1$
+	private static final String DB_STATEMENT_SESSION_VERSION = "SELECT version FROM tb_comp_sesiones WHERE id = ?"; //$NON-NLS-1$
+
+	private static final String DB_STATEMENT_UPDATE_SESSION = "UPDATE tb_comp_sesiones SET sesion=?, f_modificacion=?, version=version+1 WHERE id = ?"; //$NON-NLS-1$
 
 	private static final String DB_STATEMENT_INSERT_SESSION = "INSERT INTO tb_comp_sesiones(id, sesion, f_modificacion) VALUES (?, ?, ?)"; //$NON-NLS-1$
 
@@ -43,10 +58,31 @@ public class DBSessionsDAO implements SessionsDAO, Serializable {
 
 	private static final String DB_STATEMENT_REMOVE_EXPIRED_SESSIONS = "DELETE FROM tb_comp_sesiones WHERE f_modificacion < ?"; //$NON-NLS-1$
 
+	private static final String DB_STATEMENT_TOUCH_SESSION = "UPDATE tb_comp_sesiones SET f_modificacion=?, version=version+1 WHERE id = ?"; //$NON-NLS-1$
+
+	private static final String DB_STATEMENT_UPDATE_ATTRIBUTE = "UPDATE tb_comp_sesiones_atributos SET valor=? WHERE id_sesion = ? AND nombre = ?"; //$NON-NLS-1$
+
+	private static final String DB_STATEMENT_INSERT_ATTRIBUTE = "INSERT INTO tb_comp_sesiones_atributos(id_sesion, nombre, valor) VALUES (?, ?, ?)"; //$NON-NLS-1$
+
+	private static final String DB_STATEMENT_RECOVER_ATTRIBUTES = "SELECT nombre, valor FROM tb_comp_sesiones_atributos WHERE id_sesion = ?"; //$NON-NLS-1$
+
+	private static final String DB_STATEMENT_REMOVE_ATTRIBUTES = "DELETE FROM tb_comp_sesiones_atributos WHERE id_sesion = ?"; //$NON-NLS-1$
+
+	private static final String DB_STATEMENT_REMOVE_EXPIRED_ATTRIBUTES = "DELETE FROM tb_comp_sesiones_atributos WHERE id_sesion IN (SELECT id FROM tb_comp_sesiones WHERE f_modificacion < ?)"; //$NON-NLS-1$
+
+	/**
+	 * Proporci&oacute;n m&aacute;xima de atributos modificados a partir de la cual
+	 * se guarda la sesi&oacute;n completa en lugar de s&oacute;lo sus cambios.
+	 */
+	private static final float MAX_MODIFIED_RATIO = 0.5f;
+
 	private final TempDocumentsDAO documentsDAO;
 
+	private final SessionCodec codec;
+
 	public DBSessionsDAO() {
 		this.documentsDAO = new DBTempDocumentsDAO();
+		this.codec = SessionCodecFactory.getInstance();
 	}
 
 	@Override
@@ -68,50 +104,271 @@ public class DBSessionsDAO implements SessionsDAO, Serializable {
 	}
 
 	@Override
-	public void saveSession(final FireSession session, final boolean firstSave) {
+	public long getSessionVersion(final String id) throws SessionException {
+
+		long version;
+		try (Connection conn = DbManager.getConnection()) {
+			version = readVersion(conn, id);
+		}
+		catch (final Exception e) {
+			throw new SessionException("Error al consultar la version de la session con ID: " + id, e); //$NON-NLS-1$
+		}
+
+		return version;
+	}
+
+	/**
+	 * Lee la versi&oacute;n de una sesi&oacute;n. Si se consulta dentro de la
+	 * transacci&oacute;n en la que se modific&oacute; la sesi&oacute;n, se obtiene la
+	 * versi&oacute;n escrita en ella, ya que la fila permanece bloqueada hasta
+	 * completar la transacci&oacute;n.
+	 * @param conn Conexi&oacute;n con la base de datos.
+	 * @param id Identificador de la sesi&oacute;n.
+	 * @return Versi&oacute;n de la sesi&oacute;n o -1 si no existe.
+	 * @throws SQLException Cuando falla la consulta.
+	 */
+	private static long readVersion(final Connection conn, final String id) throws SQLException {
+		try (PreparedStatement st = conn.prepareStatement(DB_STATEMENT_SESSION_VERSION)) {
+			st.setString(1, id);
+			try (ResultSet result = st.executeQuery()) {
+				return result.next() ? result.getLong(1) : -1;
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}<br>
+	 * La reserva se realiza insertando una entrada sin datos de sesi&oacute;n, de tal
+	 * forma que sea la propia clave primaria de la tabla la que impida que se use
+	 * un identificador ya existente. Si no llegase a guardarse la sesi&oacute;n, la
+	 * entrada se eliminar&aacute; junto con el resto de sesiones caducadas.
+	 */
+	@Override
+	public boolean reserveSession(final String id) throws SessionException {
+
+		try (Connection conn = DbManager.getConnection(true);
+				PreparedStatement st = conn.prepareStatement(DB_STATEMENT_INSERT_SESSION)) {
+			st.setString(1, id);
+			st.setNull(2, Types.BLOB);
+			st.setLong(3, new Date().getTime());
+			st.executeUpdate();
+		}
+		catch (final SQLException e) {
+			if (DbManager.isIntegrityConstraintViolation(e)) {
+				return false;
+			}
+			throw new SessionException("Error al reservar el ID de sesion: " + id, e); //$NON-NLS-1$
+		}
+		catch (final Exception e) {
+			throw new SessionException("Error al reservar el ID de sesion: " + id, e); //$NON-NLS-1$
+		}
+		return true;
+	}
+
+	@Override
+	public long saveVersionedSession(final FireSession session, final boolean firstSave) {
 
 		byte[] serializedSession;
-		try (final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-				ObjectOutputStream oos = new ObjectOutputStream(baos);) {
-			oos.writeObject(session.getAttributtes());
+		try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+			this.codec.encode(session.getAttributtes(), baos);
 			serializedSession = baos.toByteArray();
 		}
 		catch (final Exception e) {
 			LOGGER.log(Level.WARNING, "Error al preparar para el guardado la sesion con ID: " + session.getTransactionId(), e); //$NON-NLS-1$
-			return;
+			return -1;
 		}
 
 		final String sessionId = session.getTransactionId();
 
-		// Creamos o actualizamos la sesion segun se indique
+		// Creamos o actualizamos la sesion segun se indique. Al crearla, lo normal
+		// sera que ya se haya reservado su entrada, asi que basta con actualizarla.
+		// La version se lee en la misma transaccion para obtener la que se escribio
+		long version = -1;
 		if (firstSave) {
-			try (Connection conn = DbManager.getConnection(true);
-					PreparedStatement st = conn.prepareStatement(DB_STATEMENT_INSERT_SESSION)) {
-				st.setString(1, sessionId);
-				st.setBlob(2, new ByteArrayInputStream(serializedSession));
-				st.setLong(3, new Date().getTime());
-				if (st.executeUpdate() < 1) {
-					LOGGER.log(Level.WARNING, "No se pudo insertar en base de datos la sesion con ID: " + sessionId); //$NON-NLS-1$
+			try (Connection conn = DbManager.getConnection(false)) {
+				try (PreparedStatement stUpdate = conn.prepareStatement(DB_STATEMENT_UPDATE_SESSION)) {
+					stUpdate.setBlob(1, new ByteArrayInputStream(serializedSession));
+					stUpdate.setLong(2, new Date().getTime());
+					stUpdate.setString(3, sessionId);
+					if (stUpdate.executeUpdate() < 1) {
+						try (PreparedStatement st = conn.prepareStatement(DB_STATEMENT_INSERT_SESSION)) {
+							st.setString(1, sessionId);
+							st.setBlob(2, new ByteArrayInputStream(serializedSession));
+							st.setLong(3, new Date().getTime());
+							if (st.executeUpdate() < 1) {
+								LOGGER.log(Level.WARNING, "No se pudo insertar en base de datos la sesion con ID: " + sessionId); //$NON-NLS-1$
+							}
+						}
+					}
+					version = readVersion(conn, sessionId);
+					conn.commit();
+				}
+				catch (final Exception e) {
+					conn.rollback();
+					throw e;
 				}
 			}
 			catch (final Exception e) {
 				LOGGER.log(Level.WARNING, "Error al crear la sesion con ID: " + sessionId, e); //$NON-NLS-1$
+				version = -1;
 			}
 		}
 		else {
-			try (Connection conn = DbManager.getConnection(true);
-					PreparedStatement st = conn.prepareStatement(DB_STATEMENT_UPDATE_SESSION)) {
-				st.setBlob(1, new ByteArrayInputStream(serializedSession));
-				st.setLong(2, new Date().getTime());
-				st.setString(3, sessionId);
-				if (st.executeUpdate() < 1) {
-					LOGGER.log(Level.WARNING, "No se pudo actualizar en base de datos la sesion con ID: " + sessionId); //$NON-NLS-1$
+			// Al guardar la sesion completa, los atributos modificados guardados por
+			// separado dejan de ser necesarios
+			try (Connection conn = DbManager.getConnection(false)) {
+				try (PreparedStatement st = conn.prepareStatement(DB_STATEMENT_UPDATE_SESSION);
+						PreparedStatement stAttrs = conn.prepareStatement(DB_STATEMENT_REMOVE_ATTRIBUTES)) {
+					st.setBlob(1, new ByteArrayInputStream(serializedSession));
+					st.setLong(2, new Date().getTime());
+					st.setString(3, sessionId);
+					if (st.executeUpdate() < 1) {
+						LOGGER.log(Level.WARNING, "No se pudo actualizar en base de datos la sesion con ID: " + sessionId); //$NON-NLS-1$
+					}
+					stAttrs.setString(1, sessionId);
+					stAttrs.executeUpdate();
+					version = readVersion(conn, sessionId);
+					conn.commit();
+				}
+				catch (final Exception e) {
+					conn.rollback();
+					throw e;
 				}
 			}
 			catch (final Exception e) {
 				LOGGER.log(Level.WARNING, "Error al actualizar la sesion con ID: " + sessionId, e); //$NON-NLS-1$
+				version = -1;
+			}
+		}
+		return version;
+	}
+
+	@Override
+	public long saveVersionedSessionChanges(final FireSession session, final Set<String> modifiedAttributes) {
+
+		final Map<String, Object> sessionData = session.getAttributtes();
+		if (modifiedAttributes.size() > sessionData.size() * MAX_MODIFIED_RATIO) {
+			return saveVersionedSession(session, false);
+		}
+
+		final String sessionId = session.getTransactionId();
+
+		long version = -1;
+		boolean saved;
+		try (Connection conn = DbManager.getConnection(false)) {
+			try {
+				saved = updateModifiedAttributes(conn, sessionId, sessionData, modifiedAttributes);
+				if (saved) {
+					version = readVersion(conn, sessionId);
+					conn.commit();
+				}
+				else {
+					conn.rollback();
+				}
+			}
+			catch (final Exception e) {
+				conn.rollback();
+				throw e;
+			}
+		}
+		catch (final Exception e) {
+			LOGGER.log(Level.WARNING, "Error al guardar los cambios de la sesion con ID: " + sessionId //$NON-NLS-1$
+					+ ". Se guardara la sesion completa", e); //$NON-NLS-1$
+			saved = false;
+		}
+
+		// Si no se encontro la sesion o no se pudieron guardar los cambios,
+		// guardamos la sesion completa
+		if (!saved) {
+			try {
+				version = saveVersionedSession(session, !existsSession(sessionId));
+			}
+			catch (final SessionException e) {
+				LOGGER.log(Level.WARNING, "No se pudo guardar la sesion con ID: " + sessionId, e); //$NON-NLS-1$
+				version = -1;
 			}
 		}
+		return version;
+	}
+
+	/**
+	 * Actualiza la fecha de modificaci&oacute;n de una sesi&oacute;n y guarda los
+	 * valores de sus atributos modificados.
+	 * @param conn Conexi&oacute;n con la base de datos.
+	 * @param sessionId Identificador de la sesi&oacute;n.
+	 * @param sessionData Atributos de la sesi&oacute;n.
+	 * @param modifiedAttributes Nombres de los atributos modificados o eliminados.
+	 * @return {@code true} si se guardaron los cambios, {@code false} si no se
+	 * encontr&oacute; la sesi&oacute;n.
+	 * @throws SQLException Cuando falla alguna de las operaciones de base de datos.
+	 * @throws IOException Cuando no se puede codificar alguno de los atributos.
+	 */
+	private boolean updateModifiedAttributes(final Connection conn, final String sessionId,
+			final Map<String, Object> sessionData, final Set<String> modifiedAttributes)
+					throws SQLException, IOException {
+
+		try (PreparedStatement st = conn.prepareStatement(DB_STATEMENT_TOUCH_SESSION)) {
+			st.setLong(1, new Date().getTime());
+			st.setString(2, sessionId);
+			if (st.executeUpdate() < 1) {
+				return false;
+			}
+		}
+
+		if (modifiedAttributes.isEmpty()) {
+			return true;
+		}
+
+		try (PreparedStatement stUpdate = conn.prepareStatement(DB_STATEMENT_UPDATE_ATTRIBUTE);
+				PreparedStatement stInsert = conn.prepareStatement(DB_STATEMENT_INSERT_ATTRIBUTE)) {
+			for (final String name : modifiedAttributes) {
+				final byte[] value = sessionData.containsKey(name)
+						? encodeAttribute(name, sessionData.get(name))
+						: null;
+				setAttributeValue(stUpdate, 1, value);
+				stUpdate.setString(2, sessionId);
+				stUpdate.setString(3, name);
+				if (stUpdate.executeUpdate() < 1) {
+					stInsert.setString(1, sessionId);
+					stInsert.setString(2, name);
+					setAttributeValue(stInsert, 3, value);
+					stInsert.executeUpdate();
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Establece el valor codificado de un atributo o nulo si el atributo se elimin&oacute;.
+	 * @param st Sentencia en la que establecer el valor.
+	 * @param index &Iacute;ndice del par&aacute;metro.
+	 * @param value Valor codificado del atributo o {@code null}.
+	 * @throws SQLException Cuando no se puede establecer el valor.
+	 */
+	private static void setAttributeValue(final PreparedStatement st, final int index, final byte[] value)
+			throws SQLException {
+		if (value != null) {
+			st.setBlob(index, new ByteArrayInputStream(value));
+		}
+		else {
+			st.setNull(index, Types.BLOB);
+		}
+	}
+
+	/**
+	 * Codifica un atributo de la sesi&oacute;n con el mismo codificador usado
+	 * para la sesi&oacute;n completa.
+	 * @param name Nombre del atributo.
+	 * @param value Valor del atributo.
+	 * @return Atributo codificado.
+	 * @throws IOException Cuando no se puede codificar el atributo.
+	 */
+	private byte[] encodeAttribute(final String name, final Object value) throws IOException {
+		try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+			this.codec.encode(Collections.singletonMap(name, value), baos);
+			return baos.toByteArray();
+		}
 	}
 
 	@Override
@@ -126,12 +383,17 @@ public class DBSessionsDAO implements SessionsDAO, Serializable {
 			try (final ResultSet dbResult = st.executeQuery()) {
 				InputStream sessionIs = null;
 				if (dbResult.next()) {
-					sessionIs = dbResult.getBlob(1).getBinaryStream();
-					lastModification = dbResult.getLong(2);
+					// Las sesiones reservadas que aun no se han guardado no tienen datos
+					final Blob sessionBlob = dbResult.getBlob(1);
+					if (sessionBlob != null) {
+						sessionIs = sessionBlob.getBinaryStream();
+						lastModification = dbResult.getLong(2);
+					}
 				}
 				if (sessionIs != null) {
-					try (ObjectInputStream ois = new ObjectInputStream(sessionIs)) {
-						final Map<String, Object> sessionData = (Map<String, Object>) ois.readObject();
+					try (InputStream is = sessionIs) {
+						final Map<String, Object> sessionData = this.codec.decode(is);
+						loadModifiedAttributes(conn, id, sessionData);
 						fireSession = FireSession.newSession(
 								id, sessionData, lastModification + ConfigManager.getTempsTimeout());
 					}
@@ -155,11 +417,45 @@ public class DBSessionsDAO implements SessionsDAO, Serializable {
 		return fireSession;
 	}
 
+	/**
+	 * Carga sobre los datos de una sesi&oacute;n los atributos que se modificaron
+	 * despu&eacute;s de guardarla completa.
+	 * @param conn Conexi&oacute;n con la base de datos.
+	 * @param id Identificador de la sesi&oacute;n.
+	 * @param sessionData Datos de la sesi&oacute;n que se actualizar&aacute;n.
+	 * @throws SQLException Cuando falla la consulta de los atributos.
+	 * @throws IOException Cuando no se puede decodificar alguno de los atributos.
+	 */
+	private void loadModifiedAttributes(final Connection conn, final String id,
+			final Map<String, Object> sessionData) throws SQLException, IOException {
+
+		try (PreparedStatement st = conn.prepareStatement(DB_STATEMENT_RECOVER_ATTRIBUTES)) {
+			st.setString(1, id);
+			try (final ResultSet dbResult = st.executeQuery()) {
+				while (dbResult.next()) {
+					final String name = dbResult.getString(1);
+					final Blob value = dbResult.getBlob(2);
+					if (value == null) {
+						sessionData.remove(name);
+					}
+					else {
+						try (InputStream is = value.getBinaryStream()) {
+							sessionData.putAll(this.codec.decode(is));
+						}
+					}
+				}
+			}
+		}
+	}
+
 	@Override
 	public void deleteSession(final String id) {
 
 		try (Connection conn = DbManager.getConnection(true);
+				PreparedStatement stAttrs = conn.prepareStatement(DB_STATEMENT_REMOVE_ATTRIBUTES);
 				PreparedStatement st = conn.prepareStatement(DB_STATEMENT_REMOVE_SESSION)) {
+			stAttrs.setString(1, id);
+			stAttrs.execute();
 			st.setString(1, id);
 			st.execute();
 		}
@@ -174,7 +470,10 @@ public class DBSessionsDAO implements SessionsDAO, Serializable {
 		final long maxTime = new Date().getTime() - expirationTime;
 
 		try (Connection conn = DbManager.getConnection(true);
+				PreparedStatement stAttrs = conn.prepareStatement(DB_STATEMENT_REMOVE_EXPIRED_ATTRIBUTES);
 				PreparedStatement st = conn.prepareStatement(DB_STATEMENT_REMOVE_EXPIRED_SESSIONS)) {
+			stAttrs.setLong(1, maxTime);
+			stAttrs.execute();
 			st.setLong(1, maxTime);
 			st.execute();
 		}
@@ -2,12 +2,16 @@ package es.gob.fire.server.services.internal.sessions;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.sql.Blob;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.Date;
 import java.util.UUID;
 import java.util.logging.Level;
@@ -16,7 +20,9 @@ import java.util.logging.Logger;
 import es.gob.fire.signature.DbManager;
 
 /**
- * DAO para la gesti&oacute;n de datos temporales a traves de base de datos.
+ * DAO para la gesti&oacute;n de datos temporales a traves de base de datos.<br>
+ * A diferencia de {@link FileSystemDedupTempDocumentsDAO}, no se comparten los
+ * contenidos repetidos, sino que cada documento se guarda completo en su propia fila.
  */
 public class DBTempDocumentsDAO implements TempDocumentsDAO {
 
@@ -32,6 +38,9 @@ public class DBTempDocumentsDAO implements TempDocumentsDAO {
 
 	private static final String DB_STATEMENT_REMOVE_EXPIRED_DOCUMENTS = "DELETE FROM tb_comp_documentos WHERE f_modificacion < ?"; //$NON-NLS-1$
 
+	/** N&uacute;mero m&aacute;ximo de identificadores aleatorios que se prueban al insertar un documento. */
+	private static final int MAX_ID_GENERATION_ATTEMPTS = 10;
+
 	private static final Logger LOGGER = Logger.getLogger(DBTempDocumentsDAO.class.getName());
 
 
@@ -56,25 +65,21 @@ public class DBTempDocumentsDAO implements TempDocumentsDAO {
 
 		// Insertamos o actualizamos los datos segun corresponda
 		String docId = id;
-		if (newDocument || docId == null) {
-			// Si no se nos ha pasado un identificador de documento, generamos uno que no exista
-			if (docId == null) {
-				do {
-					docId = UUID.randomUUID().toString();
-				} while (existDocument(docId));
-			}
-
-			try (Connection conn = DbManager.getConnection(true);
-					PreparedStatement st = conn.prepareStatement(DB_STATEMENT_INSERT_DOCUMENT)) {
-				st.setString(1, docId);
-				st.setBlob(2, new ByteArrayInputStream(data));
-				st.setLong(3, new Date().getTime());
-				if (st.executeUpdate() < 1) {
-					LOGGER.log(Level.WARNING, "No se pudo insertar en base de datos el documento temporal con ID: " + docId); //$NON-NLS-1$
+		if (docId == null) {
+			// Si no se nos ha pasado un identificador de documento, generamos uno y
+			// tratamos de insertarlo directamente. Si ya existiese, la clave primaria
+			// lo impedira y se probara con otro
+			int attempts = 0;
+			do {
+				if (attempts++ >= MAX_ID_GENERATION_ATTEMPTS) {
+					throw new IOException("No se pudo generar un identificador libre para el documento"); //$NON-NLS-1$
 				}
-			}
-			catch (final Exception e) {
-				throw new IOException("Error al insertar en base de datos el documento con ID: " + docId, e); //$NON-NLS-1$
+				docId = UUID.randomUUID().toString();
+			} while (!insertDocument(docId, data));
+		}
+		else if (newDocument) {
+			if (!insertDocument(docId, data)) {
+				throw new IOException("Ya existe en base de datos un documento con ID: " + docId); //$NON-NLS-1$
 			}
 		}
 		else {
@@ -94,6 +99,137 @@ public class DBTempDocumentsDAO implements TempDocumentsDAO {
 		return docId;
 	}
 
+	/**
+	 * {@inheritDoc}<br>
+	 * Los datos se transfieren a la base de datos seg&uacute;n se leen del canal. Como
+	 * no pueden volver a leerse, si no se indica un identificador se genera uno
+	 * aleatorio y no se reintenta la inserci&oacute;n en caso de que ya existiese.
+	 */
+	@Override
+	public String storeDocument(final String id, final ReadableByteChannel data, final boolean newDocument)
+			throws IOException {
+
+		final String docId = id != null ? id : UUID.randomUUID().toString();
+		final boolean insert = newDocument || id == null;
+
+		try (Connection conn = DbManager.getConnection(true);
+				PreparedStatement st = conn.prepareStatement(insert ? DB_STATEMENT_INSERT_DOCUMENT : DB_STATEMENT_UPDATE_DOCUMENT)) {
+			if (insert) {
+				st.setString(1, docId);
+				st.setBlob(2, Channels.newInputStream(data));
+				st.setLong(3, new Date().getTime());
+			}
+			else {
+				st.setBlob(1, Channels.newInputStream(data));
+				st.setLong(2, new Date().getTime());
+				st.setString(3, docId);
+			}
+			if (st.executeUpdate() < 1) {
+				LOGGER.log(Level.WARNING, "No se pudo guardar en base de datos el documento temporal con ID: " + docId); //$NON-NLS-1$
+			}
+		}
+		catch (final Exception e) {
+			throw new IOException("Error al guardar en base de datos el documento con ID: " + docId, e); //$NON-NLS-1$
+		}
+		return docId;
+	}
+
+	/**
+	 * {@inheritDoc}<br>
+	 * La conexi&oacute;n con la base de datos se mantiene abierta mientras se lee
+	 * el documento y se libera al cerrar el flujo.
+	 */
+	@Override
+	public InputStream openDocument(final String id) throws IOException {
+
+		Connection conn = null;
+		PreparedStatement st = null;
+		ResultSet dbResult = null;
+		try {
+			conn = DbManager.getConnection();
+			st = conn.prepareStatement(DB_STATEMENT_RECOVER_DOCUMENT);
+			st.setString(1, id);
+			dbResult = st.executeQuery();
+			final Blob dataBlob = dbResult.next() ? dbResult.getBlob(1) : null;
+			if (dataBlob == null) {
+				throw new IOException("No se encontro el documento con ID: " + id); //$NON-NLS-1$
+			}
+			return new DbResourcesInputStream(dataBlob.getBinaryStream(), dbResult, st, conn);
+		}
+		catch (final Exception e) {
+			closeQuietly(dbResult, st, conn);
+			if (e instanceof IOException) {
+				throw (IOException) e;
+			}
+			throw new IOException("Error al recuperar el documento con ID: " + id, e); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Cierra los recursos de base de datos indicados ignorando los errores.
+	 * @param resources Recursos a cerrar. Se ignoran los nulos.
+	 */
+	private static void closeQuietly(final AutoCloseable... resources) {
+		for (final AutoCloseable resource : resources) {
+			if (resource != null) {
+				try {
+					resource.close();
+				}
+				catch (final Exception e) {
+					LOGGER.log(Level.FINE, "No se pudo cerrar un recurso de base de datos", e); //$NON-NLS-1$
+				}
+			}
+		}
+	}
+
+	/**
+	 * Flujo de lectura de un documento de base de datos que libera los recursos
+	 * de la consulta al cerrarse.
+	 */
+	private static final class DbResourcesInputStream extends FilterInputStream {
+
+		private final AutoCloseable[] resources;
+
+		DbResourcesInputStream(final InputStream is, final AutoCloseable... resources) {
+			super(is);
+			this.resources = resources;
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				super.close();
+			}
+			finally {
+				closeQuietly(this.resources);
+			}
+		}
+	}
+
+	@Override
+	public boolean insertDocument(final String id, final byte[] data) throws IOException {
+
+		try (Connection conn = DbManager.getConnection(true);
+				PreparedStatement st = conn.prepareStatement(DB_STATEMENT_INSERT_DOCUMENT)) {
+			st.setString(1, id);
+			st.setBlob(2, new ByteArrayInputStream(data));
+			st.setLong(3, new Date().getTime());
+			if (st.executeUpdate() < 1) {
+				LOGGER.log(Level.WARNING, "No se pudo insertar en base de datos el documento temporal con ID: " + id); //$NON-NLS-1$
+			}
+		}
+		catch (final SQLException e) {
+			if (DbManager.isIntegrityConstraintViolation(e)) {
+				return false;
+			}
+			throw new IOException("Error al insertar en base de datos el documento con ID: " + id, e); //$NON-NLS-1$
+		}
+		catch (final Exception e) {
+			throw new IOException("Error al insertar en base de datos el documento con ID: " + id, e); //$NON-NLS-1$
+		}
+		return true;
+	}
+
 	@Override
 	public byte[] retrieveDocument(final String id) throws IOException {
 
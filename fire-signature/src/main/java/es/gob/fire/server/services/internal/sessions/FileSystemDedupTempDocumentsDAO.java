@@ -0,0 +1,485 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.server.services.internal.sessions;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import es.gob.fire.signature.ConfigManager;
+
+/**
+ * Gestor de documentos temporales en disco que guarda una &uacute;nica copia de
+ * cada contenido distinto. Los contenidos se guardan en ficheros cuyo nombre es
+ * su huella digital SHA-256 y cada documento es una referencia a uno de ellos.
+ * As&iacute;, cuando se env&iacute;a el mismo documento en varias transacciones o
+ * lotes, s&oacute;lo se escribe en disco la primera vez.<br>
+ * Al eliminar un documento s&oacute;lo se elimina su referencia. Los contenidos se
+ * eliminan durante la limpieza de documentos caducados, cuando no quede ninguna
+ * referencia a ellos y haya pasado el tiempo de caducidad desde su &uacute;ltimo uso.<br>
+ * El uso de un contenido por parte de un nuevo documento y su eliminaci&oacute;n se
+ * sincronizan mediante un bloqueo sobre un fichero del directorio de guardado, de tal
+ * forma que no se pueda eliminar un contenido al que se est&eacute; creando una referencia
+ * aunque los documentos se guarden desde varios nodos.
+ */
+public class FileSystemDedupTempDocumentsDAO implements TempDocumentsDAO {
+
+	private static final Logger LOGGER = Logger.getLogger(FileSystemDedupTempDocumentsDAO.class.getName());
+
+	private static final String DOCUMENTS_DIR = "documents"; //$NON-NLS-1$
+
+	private static final String CONTENTS_DIR = "contents"; //$NON-NLS-1$
+
+	private static final String REFERENCES_DIR = "references"; //$NON-NLS-1$
+
+	private static final String TEMP_PREFIX = "tmp-"; //$NON-NLS-1$
+
+	private static final String LOCK_FILENAME = "contents.lock"; //$NON-NLS-1$
+
+	private static final String DIGEST_ALGORITHM = "SHA-256"; //$NON-NLS-1$
+
+	/** Tama&ntilde;o m&aacute;ximo de cada bloque transferido entre canales. */
+	private static final long TRANSFER_CHUNK_SIZE = 8 * 1024 * 1024;
+
+	private static final char[] HEX_ARRAY = "0123456789abcdef".toCharArray(); //$NON-NLS-1$
+
+	/** Directorio con los contenidos de los documentos. */
+	private final File contentsDir;
+
+	/** Directorio con las referencias de los documentos a sus contenidos. */
+	private final File referencesDir;
+
+	/** Fichero sobre el que se bloquea el uso y la eliminaci&oacute;n de contenidos. */
+	private final File lockFile;
+
+	/**
+	 * Bloqueo entre los hilos de este nodo. El bloqueo del fichero s&oacute;lo
+	 * sincroniza procesos distintos.
+	 */
+	private final ReentrantLock localLock = new ReentrantLock();
+
+	/**
+	 * Construye el gestor y crea los directorios para el guardado.
+	 */
+	public FileSystemDedupTempDocumentsDAO() {
+
+		final String tempDir = ConfigManager.getTempDir();
+		final File baseDir = new File(tempDir != null && !tempDir.trim().isEmpty()
+				? tempDir.trim()
+				: System.getProperty("java.io.tmpdir"), DOCUMENTS_DIR); //$NON-NLS-1$
+
+		this.contentsDir = new File(baseDir, CONTENTS_DIR);
+		this.referencesDir = new File(baseDir, REFERENCES_DIR);
+		this.lockFile = new File(baseDir, LOCK_FILENAME);
+
+		if (!this.contentsDir.isDirectory() && !this.contentsDir.mkdirs()
+				|| !this.referencesDir.isDirectory() && !this.referencesDir.mkdirs()) {
+			LOGGER.severe("No se pudo crear el directorio de guardado de temporales: " + baseDir.getAbsolutePath()); //$NON-NLS-1$
+		}
+	}
+
+	@Override
+	public boolean existDocument(final String id) throws IOException {
+		return getReferenceFile(id).isFile();
+	}
+
+	@Override
+	public String storeDocument(final String id, final byte[] data, final boolean newDocument) throws IOException {
+
+		if (data == null || data.length < 1) {
+			throw new IOException("Los datos a guardar no pueden ser nulos ni vacios"); //$NON-NLS-1$
+		}
+
+		final String digest = toHex(newDigest().digest(data));
+		final File contentFile = new File(this.contentsDir, digest);
+
+		// Si no tenemos el contenido, lo escribimos antes de bloquear el directorio
+		File tempFile = null;
+		try {
+			if (!contentFile.isFile()) {
+				tempFile = writeTempContent(data);
+			}
+
+			// Si ya tenemos el contenido, lo marcamos como usado para que no se
+			// elimine mientras se guarda la referencia. Si no, lo guardamos
+			try (ContentsLock lock = lockContents()) {
+				if (!contentFile.setLastModified(System.currentTimeMillis())) {
+					if (tempFile == null) {
+						tempFile = writeTempContent(data);
+					}
+					moveContent(tempFile, contentFile);
+				}
+				return storeReference(id, digest);
+			}
+		}
+		finally {
+			if (tempFile != null) {
+				Files.deleteIfExists(tempFile.toPath());
+			}
+		}
+	}
+
+	@Override
+	public String storeDocument(final String id, final ReadableByteChannel data, final boolean newDocument)
+			throws IOException {
+
+		if (data == null) {
+			throw new IOException("Los datos a guardar no pueden ser nulos ni vacios"); //$NON-NLS-1$
+		}
+
+		// No conocemos la huella de los datos hasta haberlos leido, asi que los
+		// guardamos en un fichero temporal mientras la calculamos
+		final MessageDigest md = newDigest();
+		final File tempFile = File.createTempFile(TEMP_PREFIX, null, this.contentsDir);
+		try {
+			final long size = writeContent(new DigestChannel(data, md), tempFile);
+			if (size < 1) {
+				throw new IOException("Los datos a guardar no pueden ser nulos ni vacios"); //$NON-NLS-1$
+			}
+			final String digest = toHex(md.digest());
+			final File contentFile = new File(this.contentsDir, digest);
+			try (ContentsLock lock = lockContents()) {
+				if (!contentFile.setLastModified(System.currentTimeMillis())) {
+					moveContent(tempFile, contentFile);
+				}
+				return storeReference(id, digest);
+			}
+		}
+		finally {
+			Files.deleteIfExists(tempFile.toPath());
+		}
+	}
+
+	@Override
+	public byte[] retrieveDocument(final String id) throws IOException {
+		return Files.readAllBytes(getContentFile(id).toPath());
+	}
+
+	@Override
+	public InputStream openDocument(final String id) throws IOException {
+		return new BufferedInputStream(Files.newInputStream(getContentFile(id).toPath()));
+	}
+
+	@Override
+	public void deleteDocument(final String id) throws IOException {
+		Files.deleteIfExists(getReferenceFile(id).toPath());
+	}
+
+	@Override
+	public byte[] retrieveAndDeleteDocument(final String id) throws IOException {
+		final byte[] data = retrieveDocument(id);
+		deleteDocument(id);
+		return data;
+	}
+
+	/**
+	 * Elimina las referencias caducadas y, despu&eacute;s, los contenidos que no
+	 * tengan ninguna referencia y lleven sin usarse el tiempo de caducidad.
+	 * @param timeout Tiempo en milisegundos que debe haber transcurrido desde la
+	 * &uacute;ltima modificaci&oacute;n para considerarse caducado.
+	 */
+	@Override
+	public void deleteExpiredDocuments(final long timeout) throws IOException {
+
+		final File[] expiredReferences = this.referencesDir.listFiles(new ExpiredFileFilter(timeout));
+		if (expiredReferences != null) {
+			for (final File reference : expiredReferences) {
+				deleteQuietly(reference);
+			}
+		}
+
+		// Recopilamos los contenidos referenciados antes de comprobar cuales han
+		// caducado. Los contenidos que se reutilicen a partir de este momento se
+		// marcan como usados, por lo que no se consideraran caducados
+		final Set<String> referencedDigests = new HashSet<>();
+		final File[] references = this.referencesDir.listFiles();
+		if (references != null) {
+			for (final File reference : references) {
+				try {
+					referencedDigests.add(readReference(reference));
+				}
+				catch (final NoSuchFileException e) {
+					// Se elimino entretanto
+				}
+				catch (final IOException e) {
+					LOGGER.warning("No se pudo leer la referencia al documento " + reference.getName() + ": " + e); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+			}
+		}
+
+		final ExpiredFileFilter expiredFilter = new ExpiredFileFilter(timeout);
+		final File[] expiredContents = this.contentsDir.listFiles(expiredFilter);
+		if (expiredContents == null || expiredContents.length == 0) {
+			return;
+		}
+
+		// Antes de eliminar cada contenido volvemos a comprobar, con el mismo bloqueo
+		// con el que se guardan las referencias, que no se ha usado desde que se
+		// recopilaron las referencias. Como el contenido se marca como usado antes de
+		// guardar cada referencia, si sigue caducado no se ha referenciado entretanto
+		try (ContentsLock lock = lockContents()) {
+			for (final File content : expiredContents) {
+				if (!referencedDigests.contains(content.getName()) && expiredFilter.accept(content)) {
+					deleteQuietly(content);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Bloquea el uso y la eliminaci&oacute;n de contenidos por parte de otros hilos
+	 * y nodos.
+	 * @return Bloqueo que debe cerrarse para liberarlo.
+	 * @throws IOException Cuando no se puede bloquear el fichero de bloqueo.
+	 */
+	private ContentsLock lockContents() throws IOException {
+		this.localLock.lock();
+		FileChannel channel = null;
+		try {
+			channel = FileChannel.open(this.lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+			return new ContentsLock(channel, channel.lock(), this.localLock);
+		}
+		catch (final IOException | RuntimeException e) {
+			if (channel != null) {
+				channel.close();
+			}
+			this.localLock.unlock();
+			throw e;
+		}
+	}
+
+	/**
+	 * Escribe un contenido en un fichero temporal del directorio de contenidos.
+	 * @param data Contenido.
+	 * @return Fichero temporal.
+	 * @throws IOException Cuando no se puede escribir el fichero.
+	 */
+	private File writeTempContent(final byte[] data) throws IOException {
+		final File tempFile = File.createTempFile(TEMP_PREFIX, null, this.contentsDir);
+		try {
+			Files.write(tempFile.toPath(), data);
+		}
+		catch (final IOException e) {
+			Files.deleteIfExists(tempFile.toPath());
+			throw e;
+		}
+		return tempFile;
+	}
+
+	/**
+	 * Guarda la referencia de un documento a su contenido.
+	 * @param id Identificador del documento o {@code null} para generar uno aleatorio.
+	 * @param digest Huella del contenido.
+	 * @return Identificador del documento.
+	 * @throws IOException Cuando no se puede guardar la referencia.
+	 */
+	private String storeReference(final String id, final String digest) throws IOException {
+
+		final String docId = id != null ? id : UUID.randomUUID().toString();
+		final File referenceFile = getReferenceFile(docId);
+
+		// Escribimos la referencia en un temporal y la movemos para que nunca
+		// pueda leerse a medio escribir
+		final File tempFile = File.createTempFile(TEMP_PREFIX, null, this.referencesDir);
+		try {
+			Files.write(tempFile.toPath(), digest.getBytes(StandardCharsets.US_ASCII));
+			Files.move(tempFile.toPath(), referenceFile.toPath(),
+					StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally {
+			Files.deleteIfExists(tempFile.toPath());
+		}
+
+		LOGGER.fine("Almacenado temporal de datos " + docId + " con el contenido " + digest); //$NON-NLS-1$ //$NON-NLS-2$
+
+		return docId;
+	}
+
+	/**
+	 * Obtiene el fichero con el contenido de un documento.
+	 * @param id Identificador del documento.
+	 * @return Fichero con el contenido.
+	 * @throws IOException Cuando no se encuentra el documento o no puede leerse su referencia.
+	 */
+	private File getContentFile(final String id) throws IOException {
+		return new File(this.contentsDir, readReference(getReferenceFile(id)));
+	}
+
+	/**
+	 * Lee la huella del contenido al que apunta una referencia.
+	 * @param referenceFile Fichero de referencia.
+	 * @return Huella del contenido.
+	 * @throws IOException Cuando no se puede leer la referencia.
+	 */
+	private static String readReference(final File referenceFile) throws IOException {
+		return new String(Files.readAllBytes(referenceFile.toPath()), StandardCharsets.US_ASCII).trim();
+	}
+
+	/**
+	 * Obtiene el fichero de referencia de un documento comprobando que el
+	 * identificador sea v&aacute;lido.
+	 * @param id Identificador del documento.
+	 * @return Fichero de referencia.
+	 * @throws IOException Cuando el identificador no es v&aacute;lido.
+	 */
+	private File getReferenceFile(final String id) throws IOException {
+		if (id == null || id.isEmpty()) {
+			throw new IOException("El identificador del documento no puede ser nulo"); //$NON-NLS-1$
+		}
+		if (id.contains("..") || id.contains(File.separator) || id.contains(File.pathSeparator) //$NON-NLS-1$
+				|| id.contains("/") || id.startsWith(TEMP_PREFIX)) { //$NON-NLS-1$
+			throw new IOException("El identificador del documento no es valido: " + id); //$NON-NLS-1$
+		}
+		return new File(this.referencesDir, id);
+	}
+
+	/**
+	 * Escribe en un fichero los datos le&iacute;dos de un canal.
+	 * @param src Canal de lectura.
+	 * @param file Fichero de destino.
+	 * @return N&uacute;mero de bytes escritos.
+	 * @throws IOException Cuando falla la lectura o la escritura.
+	 */
+	private static long writeContent(final ReadableByteChannel src, final File file) throws IOException {
+		long position = 0;
+		try (final FileChannel fc = FileChannel.open(file.toPath(), StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			long n;
+			while ((n = fc.transferFrom(src, position, TRANSFER_CHUNK_SIZE)) > 0) {
+				position += n;
+			}
+		}
+		return position;
+	}
+
+	/**
+	 * Mueve un contenido reci&eacute;n escrito a su ubicaci&oacute;n definitiva. Si
+	 * otro nodo guardase entretanto el mismo contenido, se sustituye, ya que es id&eacute;ntico.
+	 * @param tempFile Fichero temporal con el contenido.
+	 * @param contentFile Fichero definitivo.
+	 * @throws IOException Cuando no se puede mover el fichero.
+	 */
+	private static void moveContent(final File tempFile, final File contentFile) throws IOException {
+		Files.move(tempFile.toPath(), contentFile.toPath(),
+				StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private static void deleteQuietly(final File file) {
+		try {
+			Files.deleteIfExists(file.toPath());
+		}
+		catch (final Exception e) {
+			LOGGER.log(Level.WARNING, "No se pudo eliminar el fichero caducado " + file.getAbsolutePath(), e); //$NON-NLS-1$
+		}
+	}
+
+	private static MessageDigest newDigest() throws IOException {
+		try {
+			return MessageDigest.getInstance(DIGEST_ALGORITHM);
+		}
+		catch (final NoSuchAlgorithmException e) {
+			throw new IOException("No se pudo calcular la huella de los datos", e); //$NON-NLS-1$
+		}
+	}
+
+	private static String toHex(final byte[] bytes) {
+		final char[] hexChars = new char[bytes.length * 2];
+		for (int j = 0; j < bytes.length; j++) {
+			final int v = bytes[j] & 0xFF;
+			hexChars[j * 2] = HEX_ARRAY[v >>> 4];
+			hexChars[j * 2 + 1] = HEX_ARRAY[v & 0x0F];
+		}
+		return new String(hexChars);
+	}
+
+	/**
+	 * Bloqueo del directorio de contenidos.
+	 */
+	private static final class ContentsLock implements AutoCloseable {
+
+		private final FileChannel channel;
+
+		private final FileLock fileLock;
+
+		private final ReentrantLock localLock;
+
+		ContentsLock(final FileChannel channel, final FileLock fileLock, final ReentrantLock localLock) {
+			this.channel = channel;
+			this.fileLock = fileLock;
+			this.localLock = localLock;
+		}
+
+		@Override
+		public void close() throws IOException {
+			try (FileChannel fc = this.channel) {
+				this.fileLock.release();
+			}
+			finally {
+				this.localLock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Canal de lectura que actualiza una huella digital con los datos que se leen.
+	 */
+	private static final class DigestChannel implements ReadableByteChannel {
+
+		private final ReadableByteChannel channel;
+
+		private final MessageDigest md;
+
+		DigestChannel(final ReadableByteChannel channel, final MessageDigest md) {
+			this.channel = channel;
+			this.md = md;
+		}
+
+		@Override
+		public int read(final ByteBuffer dst) throws IOException {
+			final int start = dst.position();
+			final int n = this.channel.read(dst);
+			if (n > 0) {
+				final ByteBuffer read = dst.duplicate();
+				read.flip();
+				read.position(start);
+				this.md.update(read);
+			}
+			return n;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return this.channel.isOpen();
+		}
+
+		@Override
+		public void close() throws IOException {
+			// El canal lo cierra quien lo abrio
+		}
+	}
+}
@@ -9,18 +9,28 @@
  */
 package es.gob.fire.server.services.internal.sessions;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.attribute.FileAttribute;
 import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
@@ -40,7 +50,11 @@ import es.gob.fire.signature.ConfigManager;
  * El borrado de sesiones de disco caducadas debe llevarse a cabo a trav&eacute;s
  * del proceso de gesti&oacute;n de sesiones pero esta clase incluye su propia
  * l&oacute;gica para el borrado de sesiones hu&eacute;rfanas que no se borraron en
- * su momento. Al instanciar el DAO se inicia el proceso de borrado de sesiones caducadas.
+ * su momento. Al instanciar el DAO se inicia el proceso de borrado de sesiones caducadas.<br>
+ * Al crear una sesi&oacute;n se guarda completa en un fichero. Los cambios posteriores se
+ * a&ntilde;aden a un fichero diario asociado, de tal forma que s&oacute;lo se escriben los
+ * atributos modificados. Cuando el diario supera el tama&ntilde;o de la propia sesi&oacute;n,
+ * se compacta volviendo a guardar la sesi&oacute;n completa y eliminando el diario.
  */
 public class FileSystemSessionsDAO implements SessionsDAO {
 
@@ -48,12 +62,21 @@ public class FileSystemSessionsDAO implements SessionsDAO {
 
 	private static final String SESSIONS_TEMP_DIR = "sessions"; //$NON-NLS-1$
 
+	/** Sufijo de los ficheros diario con los cambios de las sesiones. */
+	private static final String JOURNAL_SUFFIX = ".journal"; //$NON-NLS-1$
+
+	/** Tama&ntilde;o m&iacute;nimo del diario a partir del cual se compacta la sesi&oacute;n. */
+	private static final long MIN_JOURNAL_SIZE_TO_COMPACT = 8 * 1024;
+
 	/** Directorio de sesiones. */
 	private final File dir;
 
 	/** Gestor asociado para el guardado de ficheros temporales. */
 	private final TempDocumentsDAO documentsDAO;
 
+	/** Codificador de los datos de sesi&oacute;n. */
+	private final SessionCodec codec;
+
 	/**
 	 * Construye el gestor y crea el directorio para el guardado.
 	 */
@@ -74,6 +97,7 @@ public class FileSystemSessionsDAO implements SessionsDAO {
 			LOGGER.warning("No se encontro el directorio de guardado de sesiones y se tratara de crear: " + this.dir.getAbsolutePath()); //$NON-NLS-1$
 		}
 		this.documentsDAO = new FileSystemTempDocumentsDAO();
+		this.codec = SessionCodecFactory.getInstance();
 	}
 
 	@Override
@@ -85,10 +109,14 @@ public class FileSystemSessionsDAO implements SessionsDAO {
 	public FireSession recoverSession(final String id, final HttpSession session) {
 
 		final File sessionFile = new File(this.dir, id);
+		final File journalFile = getJournalFile(id);
 
 		final Map<String, Object> sessionData;
 		try {
 			sessionData = loadSessionData(sessionFile);
+			if (journalFile.isFile()) {
+				applyJournal(journalFile, sessionData);
+			}
 		}
 		catch (final FileNotFoundException e) {
 			LOGGER.warning("No se encontro en disco la sesion: " + id); //$NON-NLS-1$
@@ -102,8 +130,55 @@ public class FileSystemSessionsDAO implements SessionsDAO {
 		// Ya que la fecha del fichero es la fecha en la que se guardo y este tambien sera el momento
 		// en el que se actualizo la fecha de expiracion, podemos recoger esa fecha y sumarle el tiempo
 		// de vigencia para obtener la misma fecha de caducidad
+		final long lastModified = Math.max(sessionFile.lastModified(), journalFile.lastModified());
 		return FireSession.newSession(id, sessionData,
-				sessionFile.lastModified() + ConfigManager.getTempsTimeout());
+				lastModified + ConfigManager.getTempsTimeout());
+	}
+
+	/**
+	 * Obtiene el fichero diario con los cambios de una sesi&oacute;n.
+	 * @param id Identificador de la sesi&oacute;n.
+	 * @return Fichero diario.
+	 */
+	private File getJournalFile(final String id) {
+		return new File(this.dir, id + JOURNAL_SUFFIX);
+	}
+
+	/**
+	 * Aplica sobre los datos de una sesi&oacute;n los cambios registrados en su diario.
+	 * Si la &uacute;ltima entrada del diario est&aacute; incompleta, se ignora.
+	 * @param journalFile Fichero diario.
+	 * @param sessionData Datos de la sesi&oacute;n que se actualizar&aacute;n.
+	 * @throws IOException Cuando no se puede leer el diario.
+	 */
+	private void applyJournal(final File journalFile, final Map<String, Object> sessionData) throws IOException {
+
+		try (final DataInputStream dis = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(journalFile)))) {
+			while (true) {
+				final byte[] entry;
+				try {
+					final int entryLength = dis.readInt();
+					if (entryLength < 0) {
+						throw new IOException("Entrada mal formada en el diario de la sesion"); //$NON-NLS-1$
+					}
+					entry = new byte[entryLength];
+					dis.readFully(entry);
+				}
+				catch (final EOFException e) {
+					break;
+				}
+				try (final DataInputStream entryIs = new DataInputStream(new ByteArrayInputStream(entry))) {
+					final String[] removed = CompactDataUtils.readStringArray(entryIs);
+					if (removed != null) {
+						for (final String name : removed) {
+							sessionData.remove(name);
+						}
+					}
+					sessionData.putAll(this.codec.decode(entryIs));
+				}
+			}
+		}
 	}
 
 	/**
@@ -113,25 +188,108 @@ public class FileSystemSessionsDAO implements SessionsDAO {
 	 * @throws FileNotFoundException Cuando no se encuentra el fichero.
 	 * @throws Exception Cuando ocurre un error durante la carga de la sesi&oacute;n.
 	 */
-	private static Map<String, Object> loadSessionData(final File sessionFile) throws FileNotFoundException, Exception {
+	private Map<String, Object> loadSessionData(final File sessionFile) throws FileNotFoundException, Exception {
 
 		final Map<String, Object> sessionData;
-		try (final FileInputStream fis = new FileInputStream(sessionFile);
-				final ObjectInputStream ois = new ObjectInputStream(fis)) {
-			sessionData = (Map<String, Object>) ois.readObject();
+		try (final InputStream fis = new BufferedInputStream(new FileInputStream(sessionFile))) {
+			sessionData = this.codec.decode(fis);
 		}
 		return sessionData;
 	}
 
 	@Override
 	public void saveSession(final FireSession session, final boolean firstSave) {
-		try (final FileOutputStream fos = new FileOutputStream(new File(this.dir, session.getTransactionId()));) {
-			try (ObjectOutputStream oos = new ObjectOutputStream(fos)) {
-				oos.writeObject(session.getAttributtes());
-			}
+		try (final OutputStream fos = new BufferedOutputStream(
+				new FileOutputStream(new File(this.dir, session.getTransactionId())))) {
+			this.codec.encode(session.getAttributtes(), fos);
 		}
 		catch (final Exception e) {
 			LOGGER.log(Level.SEVERE, "Error al guardar en disco la sesion: " + session.getTransactionId(), e); //$NON-NLS-1$
+			return;
+		}
+
+		// La sesion guardada ya incluye todos los cambios del diario
+		deleteJournal(session.getTransactionId());
+	}
+
+	@Override
+	public void saveSessionChanges(final FireSession session, final Set<String> modifiedAttributes) {
+
+		final String id = session.getTransactionId();
+		final File sessionFile = new File(this.dir, id);
+		if (!sessionFile.isFile()) {
+			saveSession(session, true);
+			return;
+		}
+
+		final File journalFile = getJournalFile(id);
+		if (!modifiedAttributes.isEmpty()) {
+			final Map<String, Object> sessionData = session.getAttributtes();
+			final List<String> removed = new ArrayList<>();
+			final Map<String, Object> changed = new HashMap<>();
+			for (final String name : modifiedAttributes) {
+				if (sessionData.containsKey(name)) {
+					changed.put(name, sessionData.get(name));
+				}
+				else {
+					removed.add(name);
+				}
+			}
+
+			// Componemos la entrada completa antes de escribirla para que se agregue
+			// al diario con una unica escritura
+			final byte[] entry;
+			try (final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+					final DataOutputStream dos = new DataOutputStream(baos)) {
+				dos.writeInt(0);
+				CompactDataUtils.writeStringArray(dos, removed.toArray(new String[removed.size()]));
+				dos.flush();
+				this.codec.encode(changed, baos);
+				entry = baos.toByteArray();
+			}
+			catch (final Exception e) {
+				LOGGER.log(Level.SEVERE, "Error al preparar los cambios de la sesion: " + id, e); //$NON-NLS-1$
+				saveSession(session, false);
+				return;
+			}
+			final int entryLength = entry.length - 4;
+			entry[0] = (byte) (entryLength >>> 24);
+			entry[1] = (byte) (entryLength >>> 16);
+			entry[2] = (byte) (entryLength >>> 8);
+			entry[3] = (byte) entryLength;
+
+			try (final OutputStream fos = new FileOutputStream(journalFile, true)) {
+				fos.write(entry);
+			}
+			catch (final Exception e) {
+				LOGGER.log(Level.SEVERE, "Error al guardar en disco los cambios de la sesion: " + id, e); //$NON-NLS-1$
+				saveSession(session, false);
+				return;
+			}
+
+			// Si el diario ya ocupa mas que la propia sesion, la compactamos
+			final long journalLength = journalFile.length();
+			if (journalLength > MIN_JOURNAL_SIZE_TO_COMPACT && journalLength > sessionFile.length()) {
+				saveSession(session, false);
+				return;
+			}
+		}
+
+		// Renovamos la fecha de modificacion de la sesion para que no se considere caducada
+		if (!sessionFile.setLastModified(System.currentTimeMillis())) {
+			LOGGER.warning("No se pudo actualizar la fecha de modificacion de la sesion: " + id); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Elimina el diario de cambios de una sesi&oacute;n.
+	 * @param id Identificador de la sesi&oacute;n.
+	 */
+	private void deleteJournal(final String id) {
+		try {
+			Files.deleteIfExists(getJournalFile(id).toPath());
+		} catch (final IOException e) {
+			LOGGER.warning("No se pudo eliminar de disco el diario de la sesion " + id); //$NON-NLS-1$
 		}
 	}
 
@@ -144,6 +302,7 @@ public class FileSystemSessionsDAO implements SessionsDAO {
 		} catch (final IOException e) {
 			LOGGER.warning("No se pudo eliminar de disco la sesion " + id); //$NON-NLS-1$
 		}
+		deleteJournal(id);
 	}
 
 	@Override
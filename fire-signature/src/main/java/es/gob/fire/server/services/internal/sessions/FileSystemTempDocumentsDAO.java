@@ -8,7 +8,10 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.FileAttribute;
 import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.PosixFilePermissions;
@@ -25,6 +28,9 @@ public class FileSystemTempDocumentsDAO implements TempDocumentsDAO {
 
     private static final String DEFAULT_PREFIX = "fire-"; //$NON-NLS-1$
 
+    /** Tama&ntilde;o m&aacute;ximo de cada bloque transferido entre canales. */
+    private static final long TRANSFER_CHUNK_SIZE = 8 * 1024 * 1024;
+
     private static File TMPDIR;
 
     static {
@@ -111,6 +117,62 @@ public class FileSystemTempDocumentsDAO implements TempDocumentsDAO {
         return f.getName();
     }
 
+    /**
+     * Almacena en el directorio temporal los datos le&iacute;dos de un canal,
+     * transfiri&eacute;ndolos directamente al fichero.
+     * @param filename Nombre del fichero en el que se almacenar&aacute;n los datos.
+     * 			Si se indica null, se generar&aacute; un nombre aleatorio
+     * @param data Canal del que leer los datos a almacenar.
+     * @return Nombre final del fichero almacenado.
+     * @throws IOException Cuando ocurre un error durante el guardado.
+     */
+    @Override
+    public String storeDocument(final String filename, final ReadableByteChannel data, final boolean newDocument)
+    		throws IOException {
+
+        if (data == null) {
+            throw new IOException(
+                    "Los datos a guardar no pueden ser nulos ni vacios" //$NON-NLS-1$
+            );
+        }
+
+        final File f = filename != null ?
+        		checkFile(filename) :
+        		File.createTempFile(DEFAULT_PREFIX, null, TMPDIR);
+
+        long position = 0;
+        try (final FileChannel fc = FileChannel.open(f.toPath(), StandardOpenOption.CREATE,
+        		StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+        	long n;
+        	while ((n = fc.transferFrom(data, position, TRANSFER_CHUNK_SIZE)) > 0) {
+        		position += n;
+        	}
+        }
+
+        if (position < 1) {
+        	Files.deleteIfExists(f.toPath());
+            throw new IOException(
+                    "Los datos a guardar no pueden ser nulos ni vacios" //$NON-NLS-1$
+            );
+        }
+
+        LOGGER.fine("Almacenado temporal de datos en: " + f.getAbsolutePath()); //$NON-NLS-1$
+
+        return f.getName();
+    }
+
+    /**
+     * Abre un flujo de lectura del contenido de un fichero situado en un directorio
+     * concreto.
+     * @param filename Nombre del fichero.
+     * @return Flujo de lectura del fichero.
+     * @throws IOException Cuando no se encuentra el fichero o no puede leerse.
+     */
+    @Override
+    public InputStream openDocument(final String filename) throws IOException {
+    	return new BufferedInputStream(Files.newInputStream(checkFile(filename).toPath()));
+    }
+
     /**
      * Lee el contenido de un documento guardado en un fichero situado en un directorio
      * concreto.
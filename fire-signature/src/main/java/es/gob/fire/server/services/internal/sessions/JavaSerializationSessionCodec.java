@@ -0,0 +1,42 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.server.services.internal.sessions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Codificador de sesiones basado en la serializaci&oacute;n de Java. Es el formato
+ * con el que se guardaban las sesiones en versiones anteriores.
+ */
+public class JavaSerializationSessionCodec implements SessionCodec {
+
+	@Override
+	public void encode(final Map<String, Object> sessionData, final OutputStream os) throws IOException {
+		final ObjectOutputStream oos = new ObjectOutputStream(os);
+		oos.writeObject(sessionData);
+		oos.flush();
+	}
+
+	@Override
+	public Map<String, Object> decode(final InputStream is) throws IOException {
+		final ObjectInputStream ois = new ObjectInputStream(is);
+		try {
+			return (Map<String, Object>) ois.readObject();
+		}
+		catch (final ClassNotFoundException | ClassCastException e) {
+			throw new IOException("Los datos no se corresponden con una sesion serializada", e); //$NON-NLS-1$
+		}
+	}
+}
@@ -0,0 +1,38 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.server.services.internal.sessions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Codificador de los datos de sesi&oacute;n que los gestores de sesiones
+ * compartidas utilizan para su guardado y recuperaci&oacute;n.
+ */
+public interface SessionCodec {
+
+	/**
+	 * Codifica los atributos de una sesi&oacute;n.
+	 * @param sessionData Atributos de la sesi&oacute;n.
+	 * @param os Flujo de salida en el que escribir la sesi&oacute;n codificada.
+	 * @throws IOException Cuando no se pueden codificar los datos.
+	 */
+	void encode(Map<String, Object> sessionData, OutputStream os) throws IOException;
+
+	/**
+	 * Decodifica los atributos de una sesi&oacute;n.
+	 * @param is Flujo de entrada con la sesi&oacute;n codificada.
+	 * @return Atributos de la sesi&oacute;n.
+	 * @throws IOException Cuando no se pueden decodificar los datos.
+	 */
+	Map<String, Object> decode(InputStream is) throws IOException;
+}
@@ -0,0 +1,59 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.server.services.internal.sessions;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import es.gob.fire.signature.ConfigManager;
+
+/**
+ * Factor&iacute;a para la obtenci&oacute;n del codificador de sesiones configurado.
+ */
+public class SessionCodecFactory {
+
+	private static final Logger LOGGER = Logger.getLogger(SessionCodecFactory.class.getName());
+
+	private static final String CODEC_BINARY = "binary"; //$NON-NLS-1$
+
+	private static final String CODEC_JAVA = "java"; //$NON-NLS-1$
+
+	/**
+	 * Recupera el codificador de sesiones configurado. Si no se configur&oacute;
+	 * ninguno o no se puede cargar, se devuelve el codificador binario.
+	 * @return Codificador de sesiones.
+	 */
+	public static SessionCodec getInstance() {
+		return getInstance(ConfigManager.getSessionsCodec());
+	}
+
+	/**
+	 * Recupera un codificador de sesiones.
+	 * @param codecName Identificador o nombre de clase del codificador.
+	 * @return Codificador de sesiones.
+	 */
+	public static SessionCodec getInstance(final String codecName) {
+
+		if (codecName == null || codecName.trim().isEmpty() || CODEC_BINARY.equalsIgnoreCase(codecName.trim())) {
+			return new BinarySessionCodec();
+		}
+		if (CODEC_JAVA.equalsIgnoreCase(codecName.trim())) {
+			return new JavaSerializationSessionCodec();
+		}
+
+		try {
+			return (SessionCodec) Class.forName(codecName.trim()).getConstructor().newInstance();
+		} catch (final Throwable e) {
+			LOGGER.log(Level.SEVERE, "Error al cargar el codificador de sesiones " + codecName //$NON-NLS-1$
+					+ ". Se usara el codificador binario", e); //$NON-NLS-1$
+			return new BinarySessionCodec();
+		}
+	}
+}
@@ -10,6 +10,7 @@
 package es.gob.fire.server.services.internal.sessions;
 
 import java.io.IOException;
+import java.util.Set;
 
 import javax.servlet.http.HttpSession;
 
@@ -29,6 +30,34 @@ public interface SessionsDAO {
 	 */
 	void saveSession(FireSession session, boolean firstSave);
 
+	/**
+	 * Guarda los cambios realizados sobre una sesi&oacute;n ya guardada. Las
+	 * implementaciones que lo permitan s&oacute;lo deber&iacute;an escribir los
+	 * atributos indicados y renovar la fecha de modificaci&oacute;n de la
+	 * sesi&oacute;n, aunque no haya cambiado ninguno. Por defecto, se guarda
+	 * la sesi&oacute;n completa.
+	 * @param session Sesi&oacute;n a guardar.
+	 * @param modifiedAttributes Nombres de los atributos modificados o eliminados
+	 * desde el &uacute;ltimo guardado.
+	 */
+	default void saveSessionChanges(final FireSession session, final Set<String> modifiedAttributes) {
+		saveSession(session, false);
+	}
+
+	/**
+	 * Reserva un identificador para una nueva sesi&oacute;n. Las implementaciones
+	 * deber&iacute;an comprobar y reservar el identificador en una &uacute;nica
+	 * operaci&oacute;n at&oacute;mica. Por defecto, s&oacute;lo se comprueba que no
+	 * exista una sesi&oacute;n con ese identificador.
+	 * @param id Identificador de la sesi&oacute;n.
+	 * @return {@code true} si se reserv&oacute; el identificador, {@code false} si ya
+	 * estaba en uso.
+	 * @throws SessionException Cuando no se pudo reservar el identificador.
+	 */
+	default boolean reserveSession(final String id) throws SessionException {
+		return !existsSession(id);
+	}
+
 	/**
 	 * Comprueba la existencia de una sesi&oacute;n.
 	 * @param id Identificador de la sesi&oacute;n.
@@ -14,6 +14,7 @@ import java.util.logging.Logger;
 
 import es.gob.fire.alarms.Alarm;
 import es.gob.fire.server.services.internal.AlarmsManager;
+import es.gob.fire.signature.ConfigManager;
 
 /**
  * Factor&iacute;a para la obtenci&oacute;n de gestores de sesiones que
@@ -32,6 +33,9 @@ public class SessionsDAOFactory {
 	/**
 	 * Recupera una instancia de un gestor de sesiones para que se compartan entre
 	 * los distintos nodos en los que se despliegue el componente central de FIRe.
+	 * Si se configur&oacute; una cach&eacute; local de sesiones y el gestor permite
+	 * consultar la versi&oacute;n de las sesiones, se devolver&aacute; el gestor
+	 * envuelto por la cach&eacute;.
 	 * @param classname Nombre de la clase gestora.
 	 * @return Gestor de sesiones.
 	 */
@@ -52,6 +56,18 @@ public class SessionsDAOFactory {
 		} catch (final Throwable e) {
 			LOGGER.log(Level.SEVERE, "Error al cargar el gestor para la comparticion de sesiones entre nodos", e); //$NON-NLS-1$
 			AlarmsManager.notify(Alarm.LIBRARY_NOT_FOUND, daoClassname);
+			return null;
+		}
+
+		final int cacheSize = ConfigManager.getSessionsCacheSize();
+		if (cacheSize > 0) {
+			if (daoInstance instanceof VersionedSessionsDAO) {
+				LOGGER.info("Se usara una cache local de " + cacheSize + " sesiones"); //$NON-NLS-1$ //$NON-NLS-2$
+				daoInstance = new CachedSessionsDAO((VersionedSessionsDAO) daoInstance, cacheSize);
+			}
+			else {
+				LOGGER.warning("El gestor de sesiones configurado no permite el uso de una cache local de sesiones"); //$NON-NLS-1$
+			}
 		}
 		return daoInstance;
 	}
@@ -0,0 +1,201 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.server.services.internal.sessions;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import es.gob.fire.server.services.internal.FireSession;
+
+/**
+ * Almac&eacute;n de sesiones en memoria dividido en fragmentos independientes.
+ * Cada fragmento mantiene un mapa concurrente con las sesiones y un &iacute;ndice
+ * ordenado por fecha de expiraci&oacute;n, de forma que las consultas y
+ * actualizaciones no requieren bloqueos y la b&uacute;squeda de sesiones
+ * caducadas no necesita recorrer todas las sesiones.
+ */
+public class ShardedTransactionsStore implements TransactionsStore {
+
+	/** N&uacute;mero m&aacute;ximo de fragmentos en los que se divide el almac&eacute;n. */
+	private static final int MAX_SHARDS = 64;
+
+	private final Shard[] shards;
+
+	private final int mask;
+
+	/**
+	 * Construye el almac&eacute;n con un n&uacute;mero de fragmentos acorde al
+	 * n&uacute;mero de procesadores disponibles.
+	 */
+	public ShardedTransactionsStore() {
+		this(Runtime.getRuntime().availableProcessors() * 4);
+	}
+
+	/**
+	 * Construye el almac&eacute;n con el n&uacute;mero de fragmentos indicado.
+	 * Este n&uacute;mero se redondear&aacute; a la potencia de dos superior.
+	 * @param numShards N&uacute;mero m&iacute;nimo de fragmentos.
+	 */
+	public ShardedTransactionsStore(final int numShards) {
+		int size = 1;
+		while (size < numShards && size < MAX_SHARDS) {
+			size <<= 1;
+		}
+		this.shards = new Shard[size];
+		for (int i = 0; i < size; i++) {
+			this.shards[i] = new Shard();
+		}
+		this.mask = size - 1;
+	}
+
+	@Override
+	public FireSession get(final String id) {
+		final Entry entry = shardFor(id).sessions.get(id);
+		return entry != null ? entry.session : null;
+	}
+
+	@Override
+	public boolean contains(final String id) {
+		return shardFor(id).sessions.containsKey(id);
+	}
+
+	@Override
+	public void put(final FireSession session) {
+		final Shard shard = shardFor(session.getTransactionId());
+		final Entry entry = shard.newEntry(session, session.getExpirationTime());
+		final Entry previous = shard.sessions.put(session.getTransactionId(), entry);
+		shard.expirations.add(entry);
+		if (previous != null) {
+			shard.expirations.remove(previous);
+		}
+	}
+
+	@Override
+	public FireSession remove(final String id) {
+		final Shard shard = shardFor(id);
+		final Entry entry = shard.sessions.remove(id);
+		if (entry == null) {
+			return null;
+		}
+		shard.expirations.remove(entry);
+		return entry.session;
+	}
+
+	@Override
+	public List<FireSession> expire(final long currentTime) {
+		final List<FireSession> expired = new ArrayList<>();
+		for (final Shard shard : this.shards) {
+			shard.expire(currentTime, expired);
+		}
+		return expired;
+	}
+
+	@Override
+	public int size() {
+		int size = 0;
+		for (final Shard shard : this.shards) {
+			size += shard.sessions.size();
+		}
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		for (final Shard shard : this.shards) {
+			shard.sessions.clear();
+			shard.expirations.clear();
+		}
+	}
+
+	/**
+	 * Obtiene el fragmento en el que se almacena una transacci&oacute;n.
+	 * @param id Identificador de la transacci&oacute;n.
+	 * @return Fragmento del almac&eacute;n.
+	 */
+	private Shard shardFor(final String id) {
+		final int h = id.hashCode();
+		return this.shards[(h ^ h >>> 16) & this.mask];
+	}
+
+	/**
+	 * Fragmento del almac&eacute;n de sesiones.
+	 */
+	private static final class Shard {
+
+		private final ConcurrentHashMap<String, Entry> sessions = new ConcurrentHashMap<>();
+
+		private final ConcurrentSkipListSet<Entry> expirations = new ConcurrentSkipListSet<>(EXPIRATION_ORDER);
+
+		private final AtomicLong sequence = new AtomicLong();
+
+		Entry newEntry(final FireSession session, final long expiration) {
+			return new Entry(session, expiration, this.sequence.incrementAndGet());
+		}
+
+		/**
+		 * Extrae de este fragmento las sesiones caducadas. Las entradas del &iacute;ndice
+		 * que ya no se corresponden con la sesi&oacute;n almacenada se descartan y las
+		 * sesiones cuya expiraci&oacute;n se haya extendido se vuelven a indexar.
+		 * @param currentTime Momento actual en milisegundos.
+		 * @param expired Listado al que agregar las sesiones caducadas.
+		 */
+		void expire(final long currentTime, final List<FireSession> expired) {
+			for (final Entry entry : this.expirations) {
+				if (entry.expiration >= currentTime) {
+					break;
+				}
+				if (!this.expirations.remove(entry)) {
+					continue;
+				}
+				final String id = entry.session.getTransactionId();
+				final long actualExpiration = entry.session.getExpirationTime();
+				if (actualExpiration >= currentTime) {
+					final Entry renewed = newEntry(entry.session, actualExpiration);
+					if (this.sessions.replace(id, entry, renewed)) {
+						this.expirations.add(renewed);
+					}
+				}
+				else if (this.sessions.remove(id, entry)) {
+					expired.add(entry.session);
+				}
+			}
+		}
+	}
+
+	/** Orden de las entradas del &iacute;ndice de expiraci&oacute;n. */
+	static final Comparator<Entry> EXPIRATION_ORDER = new Comparator<Entry>() {
+		@Override
+		public int compare(final Entry e1, final Entry e2) {
+			final int result = Long.compare(e1.expiration, e2.expiration);
+			return result != 0 ? result : Long.compare(e1.seq, e2.seq);
+		}
+	};
+
+	/**
+	 * Entrada del almac&eacute;n con la sesi&oacute;n y la fecha de expiraci&oacute;n
+	 * con la que se index&oacute;.
+	 */
+	static final class Entry {
+
+		final FireSession session;
+		final long expiration;
+		final long seq;
+
+		Entry(final FireSession session, final long expiration, final long seq) {
+			this.session = session;
+			this.expiration = expiration;
+			this.seq = seq;
+		}
+	}
+}
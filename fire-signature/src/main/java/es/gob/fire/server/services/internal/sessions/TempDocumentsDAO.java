@@ -1,6 +1,12 @@
 package es.gob.fire.server.services.internal.sessions;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+
+import es.gob.afirma.core.misc.AOUtil;
 
 /**
  * DAO para la gesti&oacute;n de los documentos temporales procesados como
@@ -28,6 +34,57 @@ public interface TempDocumentsDAO {
 	 */
 	String storeDocument(String id, byte[] data, boolean newDocument) throws IOException;
 
+	/**
+	 * Almacena un documento a partir de un canal de lectura de datos. Las
+	 * implementaciones que lo permitan deber&iacute;an transferir los datos a su
+	 * destino sin cargarlos por completo en memoria. Por defecto, se leen los
+	 * datos y se almacenan con {@link #storeDocument(String, byte[], boolean)}.
+	 * El canal no se cierra.
+	 * @param id Identificador del documento o {@code null} si el propio DAO debe
+	 * asign&aacute;rselo.
+	 * @param data Canal del que leer el contenido del documento.
+	 * @param newDocument {@code true} si el documento no exist&iacute;a previamente,
+	 * {@code false} si s&iacute; exist&iacute;a.
+	 * @return Identificador del documento almacenado.
+	 * @throws IOException Cuando ocurre un error que hace fallar la operaci&oacute;n.
+	 */
+	default String storeDocument(final String id, final ReadableByteChannel data, final boolean newDocument)
+			throws IOException {
+		return storeDocument(id, AOUtil.getDataFromInputStream(Channels.newInputStream(data)), newDocument);
+	}
+
+	/**
+	 * Abre un flujo de lectura del contenido de un documento. Las implementaciones
+	 * que lo permitan deber&iacute;an leer los datos de su origen seg&uacute;n se
+	 * consuman. Por defecto, se carga el documento completo en memoria. El flujo
+	 * debe cerrarse tras su uso.
+	 * @param id Identificador del documento.
+	 * @return Flujo de lectura del contenido del documento.
+	 * @throws IOException Cuando no se encuentra el documento o no puede leerse.
+	 */
+	default InputStream openDocument(final String id) throws IOException {
+		return new ByteArrayInputStream(retrieveDocument(id));
+	}
+
+	/**
+	 * Almacena un documento nuevo s&oacute;lo si no existe ya otro con el mismo
+	 * identificador. Las implementaciones deber&iacute;an comprobarlo y almacenar
+	 * el documento en una &uacute;nica operaci&oacute;n at&oacute;mica. Por defecto,
+	 * se comprueba la existencia del documento antes de almacenarlo.
+	 * @param id Identificador del documento.
+	 * @param data Contenido del documento.
+	 * @return {@code true} si se almacen&oacute; el documento, {@code false} si ya
+	 * exist&iacute;a un documento con ese identificador.
+	 * @throws IOException Cuando ocurre un error que hace fallar la operaci&oacute;n.
+	 */
+	default boolean insertDocument(final String id, final byte[] data) throws IOException {
+		if (existDocument(id)) {
+			return false;
+		}
+		storeDocument(id, data, true);
+		return true;
+	}
+
 	/**
 	 * Recupera un documento.
 	 * @param id Identificador del documento.
@@ -0,0 +1,73 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.server.services.internal.sessions;
+
+import java.util.List;
+
+import es.gob.fire.server.services.internal.FireSession;
+
+/**
+ * Almac&eacute;n en memoria de las sesiones con los datos de las transacciones
+ * activas en el nodo. Las implementaciones deben permitir el acceso concurrente
+ * desde varios hilos sin necesidad de sincronizaci&oacute;n externa.
+ */
+public interface TransactionsStore {
+
+	/**
+	 * Recupera una sesi&oacute;n del almac&eacute;n.
+	 * @param id Identificador de la transacci&oacute;n.
+	 * @return Sesi&oacute;n con los datos de la transacci&oacute;n o {@code null}
+	 * si no se encuentra.
+	 */
+	FireSession get(String id);
+
+	/**
+	 * Indica si el almac&eacute;n contiene una transacci&oacute;n.
+	 * @param id Identificador de la transacci&oacute;n.
+	 * @return {@code true} si se encuentra la transacci&oacute;n, {@code false}
+	 * en caso contrario.
+	 */
+	boolean contains(String id);
+
+	/**
+	 * Guarda o actualiza una sesi&oacute;n en el almac&eacute;n. La sesi&oacute;n
+	 * se indexar&aacute; seg&uacute;n su fecha de expiraci&oacute;n actual.
+	 * @param session Sesi&oacute;n que se desea guardar.
+	 */
+	void put(FireSession session);
+
+	/**
+	 * Elimina una sesi&oacute;n del almac&eacute;n.
+	 * @param id Identificador de la transacci&oacute;n.
+	 * @return Sesi&oacute;n eliminada o {@code null} si no se encontraba en el
+	 * almac&eacute;n.
+	 */
+	FireSession remove(String id);
+
+	/**
+	 * Extrae del almac&eacute;n todas las sesiones que hayan expirado en el
+	 * momento indicado.
+	 * @param currentTime Momento del tiempo en milisegundos con el que comparar
+	 * la fecha de expiraci&oacute;n de las sesiones.
+	 * @return Listado de sesiones expiradas que se han eliminado del almac&eacute;n.
+	 */
+	List<FireSession> expire(long currentTime);
+
+	/**
+	 * Recupera el n&uacute;mero de sesiones almacenadas.
+	 * @return N&uacute;mero de sesiones.
+	 */
+	int size();
+
+	/**
+	 * Elimina todas las sesiones del almac&eacute;n.
+	 */
+	void clear();
+}
@@ -0,0 +1,60 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.server.services.internal.sessions;
+
+import java.util.Set;
+
+import es.gob.fire.server.services.internal.FireSession;
+
+/**
+ * Gestor de sesiones compartidas que permite consultar de forma ligera la
+ * versi&oacute;n de una sesi&oacute;n guardada, de tal forma que se pueda
+ * comprobar si ha cambiado sin necesidad de cargarla.
+ */
+public interface VersionedSessionsDAO extends SessionsDAO {
+
+	/**
+	 * Recupera la versi&oacute;n de la sesi&oacute;n guardada. La versi&oacute;n
+	 * es un contador que se incrementa cada vez que se guarda la sesi&oacute;n.
+	 * @param id Identificador de la sesi&oacute;n.
+	 * @return Versi&oacute;n de la sesi&oacute;n o -1 si no existe.
+	 * @throws SessionException Cuando no se pudo consultar la versi&oacute;n de la sesi&oacute;n.
+	 */
+	long getSessionVersion(String id) throws SessionException;
+
+	/**
+	 * Guarda una sesi&oacute;n y devuelve la versi&oacute;n con la que se guard&oacute;.
+	 * @param session Sesi&oacute;n a guardar.
+	 * @param firstSave Indica si la sesi&oacute;n se est&aacute; creando ({@code true})
+	 * o si ya lo estaba ({@code false}).
+	 * @return Versi&oacute;n escrita de la sesi&oacute;n o -1 si no se pudo guardar.
+	 */
+	long saveVersionedSession(FireSession session, boolean firstSave);
+
+	/**
+	 * Guarda los cambios realizados sobre una sesi&oacute;n ya guardada y devuelve
+	 * la versi&oacute;n con la que se guard&oacute;.
+	 * @param session Sesi&oacute;n a guardar.
+	 * @param modifiedAttributes Nombres de los atributos modificados o eliminados
+	 * desde el &uacute;ltimo guardado.
+	 * @return Versi&oacute;n escrita de la sesi&oacute;n o -1 si no se pudo guardar.
+	 */
+	long saveVersionedSessionChanges(FireSession session, Set<String> modifiedAttributes);
+
+	@Override
+	default void saveSession(final FireSession session, final boolean firstSave) {
+		saveVersionedSession(session, firstSave);
+	}
+
+	@Override
+	default void saveSessionChanges(final FireSession session, final Set<String> modifiedAttributes) {
+		saveVersionedSessionChanges(session, modifiedAttributes);
+	}
+}
@@ -0,0 +1,387 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.server.services.statistics;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import es.gob.fire.signature.ConfigManager;
+
+/**
+ * Escritor as&iacute;ncrono de los registros de estad&iacute;sticas y auditor&iacute;a.
+ * Los hilos de las peticiones publican los registros en un buffer circular acotado
+ * sin bloqueos y un &uacute;nico hilo los escribe por lotes, volcando los ficheros
+ * una sola vez por lote. As&iacute;, el tiempo de respuesta de las peticiones no
+ * depende del acceso a disco ni a base de datos.
+ */
+public final class AsyncRecordWriter {
+
+	private static final Logger LOGGER = Logger.getLogger(AsyncRecordWriter.class.getName());
+
+	/** N&uacute;mero m&aacute;ximo de registros que se escriben antes de volcar los ficheros. */
+	private static final int MAX_BATCH_SIZE = 256;
+
+	/** Tiempo m&aacute;ximo que espera el hilo escritor cuando no hay registros. */
+	private static final long IDLE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+	/** Tiempo que espera un hilo para volver a intentar publicar en un buffer lleno. */
+	private static final long BLOCK_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+	/** Milisegundos que se espera a que se escriban los registros pendientes al detener el escritor. */
+	private static final long STOP_TIMEOUT = 2000;
+
+	/**
+	 * Comportamiento cuando se publica un registro y el buffer est&aacute; lleno.
+	 */
+	public enum OverflowPolicy {
+		/** Se espera a que haya hueco en el buffer. */
+		BLOCK,
+		/** Se descarta el registro, se contabiliza y se avisa en el log. */
+		DROP,
+		/** Se descarta el registro y s&oacute;lo se contabiliza. */
+		COUNT;
+
+		/**
+		 * Obtiene la pol&iacute;tica a partir de su nombre.
+		 * @param name Nombre de la pol&iacute;tica.
+		 * @return Pol&iacute;tica o {@link #BLOCK} si no se reconoce el nombre.
+		 */
+		static OverflowPolicy parse(final String name) {
+			for (final OverflowPolicy policy : values()) {
+				if (policy.name().equalsIgnoreCase(name != null ? name.trim() : null)) {
+					return policy;
+				}
+			}
+			LOGGER.warning("Politica de desbordamiento no reconocida. Se usara la politica " + BLOCK); //$NON-NLS-1$
+			return BLOCK;
+		}
+	}
+
+	/**
+	 * Registro pendiente de escribir.
+	 */
+	interface Record {
+
+		/**
+		 * Escribe el registro. Se ejecuta siempre desde el hilo escritor.
+		 */
+		void write();
+	}
+
+	private static AsyncRecordWriter instance = null;
+
+	private final AtomicReferenceArray<Record> buffer;
+
+	private final int mask;
+
+	/** Posici&oacute;n en la que se publicar&aacute; el siguiente registro. */
+	private final AtomicLong tail = new AtomicLong(0);
+
+	/** Posici&oacute;n del siguiente registro a escribir. S&oacute;lo la modifica el hilo escritor. */
+	private volatile long head = 0;
+
+	private final OverflowPolicy policy;
+
+	private final List<Handler> handlers = new CopyOnWriteArrayList<>();
+
+	private final AtomicLong maxDepth = new AtomicLong(0);
+
+	private final AtomicLong droppedRecords = new AtomicLong(0);
+
+	private final AtomicLong writtenRecords = new AtomicLong(0);
+
+	private long reportedDroppedRecords = 0;
+
+	private final Thread writerThread;
+
+	private volatile boolean running = true;
+
+	private volatile boolean waiting = false;
+
+	/**
+	 * Obtiene el escritor de registros configurado.
+	 * @return Escritor de registros.
+	 */
+	public static synchronized AsyncRecordWriter getInstance() {
+		if (instance == null) {
+			instance = new AsyncRecordWriter(
+					ConfigManager.getStatisticsQueueSize(),
+					OverflowPolicy.parse(ConfigManager.getStatisticsQueueOverflow()));
+		}
+		return instance;
+	}
+
+	/**
+	 * Detiene el escritor de registros tras escribir los registros pendientes. Los
+	 * registros que se publiquen a partir de este momento se escribir&aacute;n
+	 * directamente.
+	 */
+	public static synchronized void release() {
+		if (instance != null) {
+			instance.stop();
+		}
+	}
+
+	/**
+	 * Construye el escritor e inicia su hilo.
+	 * @param capacity N&uacute;mero m&aacute;ximo de registros pendientes. Se
+	 * redondea a la siguiente potencia de 2.
+	 * @param policy Comportamiento cuando se llena el buffer.
+	 */
+	AsyncRecordWriter(final int capacity, final OverflowPolicy policy) {
+
+		int size = 1;
+		while (size < capacity && size < 1 << 30) {
+			size <<= 1;
+		}
+		this.buffer = new AtomicReferenceArray<>(size);
+		this.mask = size - 1;
+		this.policy = policy;
+
+		this.writerThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				writeLoop();
+			}
+		}, "FIRe-RecordWriter"); //$NON-NLS-1$
+		this.writerThread.setDaemon(true);
+		this.writerThread.start();
+	}
+
+	/**
+	 * Registra un manejador de fichero para volcarlo tras escribir cada lote de
+	 * registros en lugar de tras cada registro.
+	 * @param handler Manejador en el que se escriben los registros.
+	 */
+	void registerHandler(final Handler handler) {
+		this.handlers.add(handler);
+	}
+
+	/**
+	 * Publica un registro para su escritura.
+	 * @param record Registro.
+	 * @return {@code true} si se public&oacute; el registro, {@code false} si se
+	 * descart&oacute; por estar lleno el buffer.
+	 */
+	boolean publish(final Record record) {
+
+		// Si ya se detuvo el escritor, se escribe directamente
+		if (!this.running) {
+			writeRecord(record);
+			flushHandlers();
+			return true;
+		}
+
+		for (;;) {
+			final long currentTail = this.tail.get();
+			final long depth = currentTail - this.head;
+			if (depth >= this.buffer.length()) {
+				if (this.policy == OverflowPolicy.BLOCK && this.running) {
+					LockSupport.unpark(this.writerThread);
+					LockSupport.parkNanos(this, BLOCK_WAIT_NANOS);
+					continue;
+				}
+				this.droppedRecords.incrementAndGet();
+				return false;
+			}
+			if (this.tail.compareAndSet(currentTail, currentTail + 1)) {
+				final int index = (int) (currentTail & this.mask);
+				this.buffer.set(index, record);
+				updateMaxDepth(depth + 1);
+				if (this.waiting) {
+					LockSupport.unpark(this.writerThread);
+				}
+				// Si el escritor se detuvo mientras se publicaba el registro, puede
+				// que haya terminado sin llegar a escribirlo
+				if (!this.running) {
+					writeIfPending(index, record);
+				}
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Escribe directamente un registro publicado despu&eacute;s de que se detuviese
+	 * el escritor si el hilo escritor termin&oacute; sin escribirlo. Mientras el hilo
+	 * escritor siga activo, ser&aacute; &eacute;l quien lo escriba.
+	 * @param index Posici&oacute;n del buffer en la que se public&oacute; el registro.
+	 * @param record Registro.
+	 */
+	private void writeIfPending(final int index, final Record record) {
+		try {
+			this.writerThread.join(STOP_TIMEOUT);
+		}
+		catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (!this.writerThread.isAlive() && this.buffer.compareAndSet(index, record, null)) {
+			writeRecord(record);
+			flushHandlers();
+		}
+	}
+
+	/**
+	 * Bucle del hilo escritor. Termina cuando se detiene el escritor y no quedan
+	 * registros pendientes.
+	 */
+	void writeLoop() {
+		while (this.running || this.head != this.tail.get()) {
+			if (drain() == 0) {
+				this.waiting = true;
+				if (this.running && this.head == this.tail.get()) {
+					LockSupport.parkNanos(this, IDLE_WAIT_NANOS);
+				}
+				this.waiting = false;
+			}
+		}
+	}
+
+	/**
+	 * Escribe un lote de registros y vuelca los ficheros.
+	 * @return N&uacute;mero de registros escritos.
+	 */
+	private int drain() {
+
+		int count = 0;
+		long currentHead = this.head;
+		while (count < MAX_BATCH_SIZE) {
+			final int index = (int) (currentHead & this.mask);
+			final Record record = this.buffer.get(index);
+			if (record == null) {
+				// No hay registros o aun no se ha terminado de publicar el siguiente
+				break;
+			}
+			this.buffer.set(index, null);
+			this.head = ++currentHead;
+			writeRecord(record);
+			count++;
+		}
+
+		if (count > 0) {
+			flushHandlers();
+			this.writtenRecords.addAndGet(count);
+		}
+
+		if (this.policy == OverflowPolicy.DROP) {
+			final long dropped = this.droppedRecords.get();
+			if (dropped > this.reportedDroppedRecords) {
+				LOGGER.warning(String.format(
+						"Se han descartado %d registros de estadisticas y auditoria por estar lleno el buffer de %d registros", //$NON-NLS-1$
+						Long.valueOf(dropped - this.reportedDroppedRecords), Integer.valueOf(this.buffer.length())));
+				this.reportedDroppedRecords = dropped;
+			}
+		}
+
+		return count;
+	}
+
+	private static void writeRecord(final Record record) {
+		try {
+			record.write();
+		}
+		catch (final Throwable e) {
+			LOGGER.log(Level.WARNING, "No se pudo escribir un registro de estadisticas o auditoria", e); //$NON-NLS-1$
+		}
+	}
+
+	private void flushHandlers() {
+		for (final Handler handler : this.handlers) {
+			handler.flush();
+		}
+	}
+
+	private void updateMaxDepth(final long depth) {
+		long current = this.maxDepth.get();
+		while (depth > current && !this.maxDepth.compareAndSet(current, depth)) {
+			current = this.maxDepth.get();
+		}
+	}
+
+	/**
+	 * Detiene el hilo escritor esperando a que escriba los registros pendientes.
+	 */
+	void stop() {
+		this.running = false;
+		LockSupport.unpark(this.writerThread);
+		try {
+			this.writerThread.join(STOP_TIMEOUT);
+		}
+		catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (this.writerThread.isAlive()) {
+			LOGGER.warning("No se pudieron escribir todos los registros de estadisticas y auditoria pendientes"); //$NON-NLS-1$
+		}
+		flushHandlers();
+	}
+
+	/**
+	 * Escribe en un log un mensaje con la fecha indicada, de forma que se guarde en
+	 * el fichero diario correspondiente al momento en el que se gener&oacute;.
+	 * @param logger Log en el que escribir.
+	 * @param message Mensaje.
+	 * @param millis Momento en el que se gener&oacute; el mensaje.
+	 */
+	static void log(final Logger logger, final String message, final long millis) {
+		final LogRecord logRecord = new LogRecord(Level.FINEST, message);
+		logRecord.setMillis(millis);
+		logRecord.setLoggerName(logger.getName());
+		logger.log(logRecord);
+	}
+
+	/**
+	 * Obtiene el n&uacute;mero de registros pendientes de escribir.
+	 * @return N&uacute;mero de registros pendientes.
+	 */
+	public long getQueueDepth() {
+		return Math.max(0, this.tail.get() - this.head);
+	}
+
+	/**
+	 * Obtiene el mayor n&uacute;mero de registros que han estado pendientes a la vez.
+	 * @return N&uacute;mero m&aacute;ximo de registros pendientes.
+	 */
+	public long getMaxQueueDepth() {
+		return this.maxDepth.get();
+	}
+
+	/**
+	 * Obtiene el n&uacute;mero de registros que caben en el buffer.
+	 * @return Capacidad del buffer.
+	 */
+	public int getCapacity() {
+		return this.buffer.length();
+	}
+
+	/**
+	 * Obtiene el n&uacute;mero de registros descartados por estar lleno el buffer.
+	 * @return N&uacute;mero de registros descartados.
+	 */
+	public long getDroppedRecords() {
+		return this.droppedRecords.get();
+	}
+
+	/**
+	 * Obtiene el n&uacute;mero de registros escritos por el hilo escritor.
+	 * @return N&uacute;mero de registros escritos.
+	 */
+	public long getWrittenRecords() {
+		return this.writtenRecords.get();
+	}
+}
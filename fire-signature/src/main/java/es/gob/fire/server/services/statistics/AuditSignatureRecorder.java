@@ -85,7 +85,7 @@ public class AuditSignatureRecorder {
 		}
 
 		// Instalamos el manejador para la impresion en el fichero de estadisticas
-		Handler logHandler = null;
+		DailyFileHandler logHandler = null;
 		try {
 			logHandler = new DailyFileHandler(new File(logsPath, LOG_FILENAME).getAbsolutePath());
 			logHandler.setEncoding(LOG_CHARSET);
@@ -97,6 +97,11 @@ public class AuditSignatureRecorder {
 			});
 
 			fileLogger.addHandler(logHandler);
+
+			// Los registros se escriben por lotes desde un unico hilo, que vuelca el
+			// fichero tras cada lote
+			logHandler.setAutoFlush(false);
+			AsyncRecordWriter.getInstance().registerHandler(logHandler);
 		}
 		catch (final Exception e) {
 			LOGGER.log(Level.WARNING, "No se ha podido crear el fichero de datos para la auditoria de transaccion", e); //$NON-NLS-1$
@@ -202,11 +207,18 @@ public class AuditSignatureRecorder {
 			signatureCube.setErrorDetail(null);
 		}
 
-		this.dataLogger.finest(signatureCube.toString());
-
-		if (this.enableDB) {
-			AuditSignaturesDAO.insertAuditSignature(signatureCube);
-		}
+		final Logger logger = this.dataLogger;
+		final boolean saveToDB = this.enableDB;
+		final long millis = System.currentTimeMillis();
+		AsyncRecordWriter.getInstance().publish(new AsyncRecordWriter.Record() {
+			@Override
+			public void write() {
+				AsyncRecordWriter.log(logger, signatureCube.toString(), millis);
+				if (saveToDB) {
+					AuditSignaturesDAO.insertAuditSignature(signatureCube);
+				}
+			}
+		});
 	}
 
 	public Logger getDataLogger() {
@@ -86,7 +86,7 @@ public class AuditTransactionRecorder {
 		}
 
 		// Instalamos el manejador para la impresion en el fichero
-		Handler logHandler = null;
+		DailyFileHandler logHandler = null;
 		try {
 			logHandler = new DailyFileHandler(new File(logsPath, LOG_FILENAME).getAbsolutePath());
 			logHandler.setEncoding(LOG_CHARSET);
@@ -98,6 +98,11 @@ public class AuditTransactionRecorder {
 			});
 
 			fileLogger.addHandler(logHandler);
+
+			// Los registros se escriben por lotes desde un unico hilo, que vuelca el
+			// fichero tras cada lote
+			logHandler.setAutoFlush(false);
+			AsyncRecordWriter.getInstance().registerHandler(logHandler);
 		}
 		catch (final Exception e) {
 			LOGGER.log(Level.WARNING, "No se ha podido crear el fichero para la auditoria de transacciones", e); //$NON-NLS-1$
@@ -238,13 +243,19 @@ public class AuditTransactionRecorder {
 		}
 		auditTransactionCube.setNode(this.nodeName);
 
-		// Registramos el cubo en fichero
-		this.dataLogger.finest(auditTransactionCube.toString());
-
-		// Registramos el cubo en base de datos
-		if (this.enableDB) {
-			AuditTransactionsDAO.insertAuditTransaction(auditTransactionCube);
-		}
+		// Registramos el cubo en fichero y en base de datos desde el hilo escritor
+		final Logger logger = this.dataLogger;
+		final boolean saveToDB = this.enableDB;
+		final long millis = System.currentTimeMillis();
+		AsyncRecordWriter.getInstance().publish(new AsyncRecordWriter.Record() {
+			@Override
+			public void write() {
+				AsyncRecordWriter.log(logger, auditTransactionCube.toString(), millis);
+				if (saveToDB) {
+					AuditTransactionsDAO.insertAuditTransaction(auditTransactionCube);
+				}
+			}
+		});
 	}
 
 	public Logger getDataLogger() {
@@ -94,7 +94,7 @@ public class SignatureRecorder {
 		}
 
 		// Instalamos el manejador para la impresion en el fichero de estadisticas
-		Handler logHandler = null;
+		DailyFileHandler logHandler = null;
 		try {
 			logHandler = new DailyFileHandler(new File(logsPath, LOG_FILENAME).getAbsolutePath());
 			logHandler.setEncoding(LOG_CHARSET);
@@ -106,15 +106,16 @@ public class SignatureRecorder {
 			});
 
 			fileLogger.addHandler(logHandler);
+
+			// Los registros se escriben por lotes desde un unico hilo, que vuelca el
+			// fichero tras cada lote
+			logHandler.setAutoFlush(false);
+			AsyncRecordWriter.getInstance().registerHandler(logHandler);
 		}
 		catch (final Exception e) {
 			LOGGER.log(Level.WARNING, "No se ha podido crear el fichero de datos para las estadisticas de firma", e); //$NON-NLS-1$
 			this.enable = false;
 			return;
-		} finally {
-			if (logHandler != null){
-				logHandler.close();
-			}
 		}
 
 		this.dataLogger = fileLogger;
@@ -207,6 +208,13 @@ public class SignatureRecorder {
 		signatureCube.setImprovedFormat(upgrade);
 
 		// Imprimimos los datos del cubo en la salida de datos de firma
-		this.dataLogger.finest(signatureCube.toString());
+		final Logger logger = this.dataLogger;
+		final long millis = System.currentTimeMillis();
+		AsyncRecordWriter.getInstance().publish(new AsyncRecordWriter.Record() {
+			@Override
+			public void write() {
+				AsyncRecordWriter.log(logger, signatureCube.toString(), millis);
+			}
+		});
 	}
 }
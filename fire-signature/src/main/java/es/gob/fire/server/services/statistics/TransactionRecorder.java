@@ -84,7 +84,7 @@ public class TransactionRecorder {
 		}
 
 		// Instalamos el manejador para la impresion en el fichero de estadisticas
-		Handler logHandler = null;
+		DailyFileHandler logHandler = null;
 		try {
 			logHandler = new DailyFileHandler(new File(logsPath, LOG_FILENAME).getAbsolutePath());
 			logHandler.setEncoding(LOG_CHARSET);
@@ -96,15 +96,16 @@ public class TransactionRecorder {
 			});
 
 			fileLogger.addHandler(logHandler);
+
+			// Los registros se escriben por lotes desde un unico hilo, que vuelca el
+			// fichero tras cada lote
+			logHandler.setAutoFlush(false);
+			AsyncRecordWriter.getInstance().registerHandler(logHandler);
 		}
 		catch (final Exception e) {
 			LOGGER.log(Level.WARNING, "No se ha podido crear el fichero de datos para las estadisticas de transaccion", e); //$NON-NLS-1$
 			this.enable = false;
 			return;
-		} finally {
-			if (logHandler != null){
-				logHandler.close();
-			}
 		}
 
 		this.dataLogger = fileLogger;
@@ -169,6 +170,13 @@ public class TransactionRecorder {
 			transactionCube.setMandatoryProvider(true);
 		}
 
-		this.dataLogger.finest(transactionCube.toString());
+		final Logger logger = this.dataLogger;
+		final long millis = System.currentTimeMillis();
+		AsyncRecordWriter.getInstance().publish(new AsyncRecordWriter.Record() {
+			@Override
+			public void write() {
+				AsyncRecordWriter.log(logger, transactionCube.toString(), millis);
+			}
+		});
 	}
 }
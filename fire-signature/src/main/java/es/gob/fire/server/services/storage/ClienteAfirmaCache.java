@@ -1,33 +1,47 @@
 package es.gob.fire.server.services.storage;
 
-import java.util.Date;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import es.gob.fire.server.services.LogUtils;
 import es.gob.fire.signature.ConfigManager;
 
 /**
  * Cach&eacute; para el guardado en memoria de los datos intercambiados entre FIRe y el Cliente @firma.
+ * La cach&eacute; puede usarse desde varios hilos a la vez y limita el tama&ntilde;o total de los
+ * datos que mantiene en memoria. Cuando se supera ese l&iacute;mite, se descartan los datos que
+ * hace m&aacute;s tiempo que no se usan o, si se ha configurado, se trasladan a disco. Los datos
+ * caducan pasado el tiempo de vida de los temporales de FIRe.
  * @author carlos.gamuci
  */
 public class ClienteAfirmaCache {
 
-	/** Mapa en el que se almacenar&aacute;n los datos. */
-	private static Map<String, CachedResponse> cache = new HashMap<>();
+	private static final Logger LOGGER = Logger.getLogger(ClienteAfirmaCache.class.getName());
 
-	/**
-	 * Ejecutor del ser servicio de limpieza de la cache.
-	 */
-	private static ExecutorService executorService = null;
+	/** Nombre del subdirectorio del directorio temporal en el que se guardan los datos en disco. */
+	private static final String DISK_DIR_NAME = "clienteafirma"; //$NON-NLS-1$
 
-	/**
-	 * &Uacute;timo proceso de limpieza que se ejecut&oacute;.
-	 */
-	private static Future<?> cleaningProcess = null;
+	/** Prefijo de los ficheros en los que se guardan los datos en disco. */
+	private static final String DISK_FILE_PREFIX = "cache-"; //$NON-NLS-1$
 
 	/**
 	 * N&uacute;mero de guardados en cach&eacute; que se realizan entre cada una de
@@ -36,22 +50,110 @@ public class ClienteAfirmaCache {
 	 */
 	private static final int INITIAL_USE_COUNTER_VALUE = 500;
 
-	/**
-	 * N&ueacute;mero de guardados pendientes antes de la ejecuci&oacute;n del hilo de limpieza.
-	 */
-	private static int useCounter = INITIAL_USE_COUNTER_VALUE;
-
 	/**
 	 * Tiempo en milisegundos a partir del que es razonable ejecutar una nueva limpieza de la
 	 * cach&eacute;.
 	 */
 	private static final int CLEANING_INTERVAL_MILLIS = 30 * 60 * 1000;  // 30 minutos
 
+	/** Cach&eacute; usada por los servicios de guardado y recuperaci&oacute;n. */
+	private static ClienteAfirmaCache instance = null;
+
+	/** Mapa en el que se almacenar&aacute;n los datos, ordenados del menos al m&aacute;s usado. */
+	private final Map<String, CachedResponse> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * Datos expulsados de memoria que se est&aacute;n trasladando a disco. Se siguen
+	 * devolviendo mientras se escriben, ya que la escritura se hace sin bloquear la
+	 * cach&eacute;. Se protege con el mismo bloqueo que la cach&eacute;.
+	 */
+	private final Map<String, CachedResponse> spilling = new HashMap<>();
+
+	/** Tama&ntilde;o m&aacute;ximo en bytes de los datos en memoria. */
+	private final long maxSize;
+
+	/** Tiempo en milisegundos tras el que caducan los datos. */
+	private final long expirationPeriod;
+
+	/** Tama&ntilde;o a partir del cual los datos se guardan en disco o 0 si no se usa el disco. */
+	private final int diskThreshold;
+
+	/** Directorio en el que guardar los datos en disco o {@code null} si no se usa el disco. */
+	private final File diskDir;
+
+	/** Tama&ntilde;o en bytes de los datos en memoria. */
+	private long size = 0;
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	private final AtomicLong evictions = new AtomicLong();
+
+	/**
+	 * Ejecutor del ser servicio de limpieza de la cache.
+	 */
+	private ExecutorService executorService = null;
+
+	/**
+	 * &Uacute;timo proceso de limpieza que se ejecut&oacute;.
+	 */
+	private volatile Future<?> cleaningProcess = null;
+
+	/**
+	 * N&ueacute;mero de guardados pendientes antes de la ejecuci&oacute;n del hilo de limpieza.
+	 */
+	private int useCounter = INITIAL_USE_COUNTER_VALUE;
+
 	/**
 	 * Momento del tiempo en milisegundos a partir del que se podr&iacute;a realizar un nuevo
 	 * proceso de limpieza.
 	 */
-	private static long newCleanupTargetMillis = System.currentTimeMillis();
+	private long newCleanupTargetMillis = System.currentTimeMillis();
+
+	/**
+	 * Crea la cach&eacute;.
+	 * @param maxSize Tama&ntilde;o m&aacute;ximo en bytes de los datos en memoria.
+	 * @param expirationPeriod Tiempo en milisegundos tras el que caducan los datos.
+	 * @param diskThreshold Tama&ntilde;o a partir del cual los datos se guardan en disco
+	 * o 0 si no se debe usar el disco.
+	 * @param diskDir Directorio en el que guardar los datos en disco o {@code null} si no
+	 * se debe usar el disco.
+	 */
+	ClienteAfirmaCache(final long maxSize, final long expirationPeriod, final int diskThreshold, final File diskDir) {
+		this.maxSize = maxSize;
+		this.expirationPeriod = expirationPeriod;
+		this.diskThreshold = diskDir != null ? diskThreshold : 0;
+		this.diskDir = this.diskThreshold > 0 ? diskDir : null;
+	}
+
+	/**
+	 * Obtiene la cach&eacute; configurada, cre&aacute;ndola si es necesario.
+	 * @return Cach&eacute; de datos.
+	 */
+	private static synchronized ClienteAfirmaCache getInstance() {
+		if (instance == null) {
+			final int diskThreshold = ConfigManager.getClienteAfirmaCacheDiskThreshold();
+			File diskDir = null;
+			if (diskThreshold > 0) {
+				final String tempDir = ConfigManager.getTempDir();
+				if (tempDir != null) {
+					diskDir = new File(tempDir, DISK_DIR_NAME);
+					if (!diskDir.isDirectory() && !diskDir.mkdirs()) {
+						LOGGER.warning("No se pudo crear el directorio para el guardado en disco de los datos de la cache: " //$NON-NLS-1$
+								+ diskDir.getAbsolutePath());
+						diskDir = null;
+					}
+				}
+			}
+			instance = new ClienteAfirmaCache(
+					ConfigManager.getClienteAfirmaCacheMaxSize(),
+					ConfigManager.getTempsTimeout(),
+					diskThreshold,
+					diskDir);
+		}
+		return instance;
+	}
 
 	/**
 	 * Recupera datos de la cach&eacute;.
@@ -59,16 +161,74 @@ public class ClienteAfirmaCache {
 	 * @return El datos solicitado o {@code null} si no se encuentra disponible.
 	 */
 	public static byte[] recoverData(final String id) {
+		return getInstance().get(id);
+	}
+
+	/**
+	 * Almacena datos en cach&eacute;.
+	 * @param id Identificador del dato que se desea almacenar.
+	 * @param data Datos que se desean almacenar.
+	 */
+	public static void saveData(final String id, final byte[] data) {
+		getInstance().put(id, data);
+	}
+
+	/**
+	 * Recupera el n&uacute;mero de veces que se encontraron en cach&eacute; los datos solicitados.
+	 * @return N&uacute;mero de aciertos.
+	 */
+	public static long getHits() {
+		return getInstance().hits.get();
+	}
+
+	/**
+	 * Recupera el n&uacute;mero de veces que no se encontraron en cach&eacute; los datos solicitados.
+	 * @return N&uacute;mero de fallos.
+	 */
+	public static long getMisses() {
+		return getInstance().misses.get();
+	}
+
+	/**
+	 * Recupera el n&uacute;mero de veces que se descartaron datos de la cach&eacute; para
+	 * no superar el tama&ntilde;o m&aacute;ximo permitido.
+	 * @return N&uacute;mero de datos descartados.
+	 */
+	public static long getEvictions() {
+		return getInstance().evictions.get();
+	}
+
+	/**
+	 * Recupera datos de la cach&eacute;.
+	 * @param id Identificador del dato que se desea recuperar.
+	 * @return El datos solicitado o {@code null} si no se encuentra disponible.
+	 */
+	byte[] get(final String id) {
+
+		final CachedResponse response;
+		synchronized (this.cache) {
+			final CachedResponse cached = this.cache.get(id);
+			response = cached != null ? cached : this.spilling.get(id);
+			if (response != null && response.isExpired(System.currentTimeMillis())) {
+				remove(id);
+				deleteFile(response);
+				this.misses.incrementAndGet();
+				return null;
+			}
+		}
 
-		final CachedResponse response = cache.get(id);
 		if (response == null) {
+			this.misses.incrementAndGet();
 			return null;
 		}
-		if (response.isExpired(new Date())) {
-			cache.remove(id);
+
+		final byte[] data = response.getData();
+		if (data == null) {
+			this.misses.incrementAndGet();
 			return null;
 		}
-		return response.getData();
+		this.hits.incrementAndGet();
+		return data;
 	}
 
 	/**
@@ -76,40 +236,242 @@ public class ClienteAfirmaCache {
 	 * @param id Identificador del dato que se desea almacenar.
 	 * @param data Datos que se desean almacenar.
 	 */
-	public static void saveData(final String id, final byte[] data) {
-		cache.put(id, new CachedResponse(data));
+	void put(final String id, final byte[] data) {
+
+		final long expirationTime = System.currentTimeMillis() + this.expirationPeriod;
+
+		// Los datos que superan el umbral se guardan directamente en disco
+		CachedResponse response = null;
+		if (this.diskDir != null && data.length >= this.diskThreshold) {
+			response = storeInDisk(data, expirationTime);
+		}
+		if (response == null) {
+			response = new CachedResponse(data, expirationTime);
+		}
+
+		final List<CachedResponse> discarded = new ArrayList<>();
+		final List<Map.Entry<String, CachedResponse>> spilled = new ArrayList<>();
+		boolean cleaningNeeded;
+		synchronized (this.cache) {
+			final CachedResponse old = remove(id);
+			if (old != null) {
+				discarded.add(old);
+			}
+			this.cache.put(id, response);
+			this.size += response.getSize();
 
-		// Contabilizamos el guardado en el contador de usos
-		--useCounter;
+			evictEntries(discarded, spilled);
 
-		if (isCleanningNeeded()) {
+			// Contabilizamos el guardado en el contador de usos
+			--this.useCounter;
+			cleaningNeeded = isCleanningNeeded();
+			if (cleaningNeeded) {
+				this.useCounter = INITIAL_USE_COUNTER_VALUE;
+				this.newCleanupTargetMillis = System.currentTimeMillis() + CLEANING_INTERVAL_MILLIS;
+			}
+		}
+
+		for (final CachedResponse r : discarded) {
+			deleteFile(r);
+		}
+
+		// Escribimos en disco los datos expulsados sin bloquear la cache
+		for (final Map.Entry<String, CachedResponse> entry : spilled) {
+			moveToDisk(entry.getKey(), entry.getValue());
+		}
+
+		if (cleaningNeeded) {
 			cleanCache();
 		}
 	}
 
+	/**
+	 * Expulsa de memoria los datos menos usados hasta que los datos en memoria no
+	 * superen el tama&ntilde;o m&aacute;ximo. Los &uacute;ltimos datos guardados
+	 * s&oacute;lo se expulsan si por s&iacute; mismos superan ese tama&ntilde;o. Si se
+	 * usa el disco, los datos expulsados se marcan como pendientes de trasladarse a
+	 * disco para que se escriban tras liberar el bloqueo. Debe llamarse con la
+	 * cach&eacute; bloqueada.
+	 * @param discarded Listado al que agregar los datos descartados.
+	 * @param spilled Listado al que agregar los datos que se deben trasladar a disco.
+	 */
+	private void evictEntries(final List<CachedResponse> discarded,
+			final List<Map.Entry<String, CachedResponse>> spilled) {
+
+		final Iterator<Map.Entry<String, CachedResponse>> it = this.cache.entrySet().iterator();
+		while (this.size > this.maxSize && it.hasNext()) {
+			final Map.Entry<String, CachedResponse> entry = it.next();
+			final CachedResponse response = entry.getValue();
+			if (response.getSize() == 0) {
+				continue;
+			}
+
+			it.remove();
+			this.size -= response.getSize();
+
+			// Si se usa el disco, trasladamos los datos en lugar de descartarlos
+			if (this.diskDir != null) {
+				this.spilling.put(entry.getKey(), response);
+				spilled.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), response));
+				continue;
+			}
+
+			LOGGER.warning("Se descartan datos de la cache por superarse su tamano maximo: " + LogUtils.cleanText(entry.getKey())); //$NON-NLS-1$
+			discarded.add(response);
+			this.evictions.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Escribe en disco unos datos expulsados de memoria y los vuelve a agregar a la
+	 * cach&eacute; como datos en disco. Si entretanto se sustituyeron o eliminaron los
+	 * datos, se descarta el fichero escrito. Debe llamarse sin bloquear la cach&eacute;.
+	 * @param id Identificador de los datos.
+	 * @param response Datos expulsados de memoria.
+	 */
+	private void moveToDisk(final String id, final CachedResponse response) {
+
+		final CachedResponse diskResponse = storeInDisk(response.getData(), response.getExpirationTime());
+
+		synchronized (this.cache) {
+			if (this.spilling.get(id) == response) {
+				this.spilling.remove(id);
+				if (diskResponse != null) {
+					this.cache.put(id, diskResponse);
+					return;
+				}
+				LOGGER.warning("Se descartan datos de la cache por superarse su tamano maximo: " + LogUtils.cleanText(id)); //$NON-NLS-1$
+				this.evictions.incrementAndGet();
+			}
+		}
+
+		if (diskResponse != null) {
+			deleteFile(diskResponse);
+		}
+	}
+
+	/**
+	 * Elimina unos datos de la cach&eacute; y actualiza su tama&ntilde;o. Debe llamarse con
+	 * la cach&eacute; bloqueada.
+	 * @param id Identificador de los datos.
+	 * @return Datos eliminados o {@code null} si no estaban en cach&eacute;.
+	 */
+	private CachedResponse remove(final String id) {
+		final CachedResponse response = this.cache.remove(id);
+		if (response != null) {
+			this.size -= response.getSize();
+			return response;
+		}
+		return this.spilling.remove(id);
+	}
+
+	/**
+	 * Guarda unos datos en disco.
+	 * @param data Datos a guardar.
+	 * @param expirationTime Momento en el que caducan los datos.
+	 * @return Referencia a los datos guardados o {@code null} si no se pudieron guardar.
+	 */
+	private CachedResponse storeInDisk(final byte[] data, final long expirationTime) {
+		final File file = new File(this.diskDir, DISK_FILE_PREFIX + UUID.randomUUID().toString());
+		try {
+			Files.write(file.toPath(), data);
+		}
+		catch (final Exception e) {
+			LOGGER.log(Level.WARNING, "No se pudieron guardar en disco los datos de la cache", e); //$NON-NLS-1$
+			if (file.exists() && !file.delete()) {
+				file.deleteOnExit();
+			}
+			return null;
+		}
+		return new CachedResponse(file, expirationTime);
+	}
+
+	/**
+	 * Elimina el fichero en disco de unos datos.
+	 * @param response Datos de la cach&eacute;.
+	 */
+	private static void deleteFile(final CachedResponse response) {
+		if (response.getFile() != null && response.getFile().exists() && !response.getFile().delete()) {
+			LOGGER.warning("No se pudo eliminar el fichero de datos de la cache: " + response.getFile().getName()); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Elimina de la cach&eacute; los datos caducados y los ficheros en disco que no
+	 * se corresponden con ning&uacute;n dato de la cach&eacute;.
+	 */
+	void removeExpired() {
+
+		final long currentTime = System.currentTimeMillis();
+		final List<CachedResponse> expired = new ArrayList<>();
+		final Set<File> files = new HashSet<>();
+		synchronized (this.cache) {
+			final Iterator<CachedResponse> it = this.cache.values().iterator();
+			while (it.hasNext()) {
+				final CachedResponse response = it.next();
+				if (response.isExpired(currentTime)) {
+					it.remove();
+					this.size -= response.getSize();
+					expired.add(response);
+				}
+				else if (response.getFile() != null) {
+					files.add(response.getFile());
+				}
+			}
+		}
+
+		for (final CachedResponse response : expired) {
+			deleteFile(response);
+		}
+
+		// Eliminamos los ficheros caducados que hayan quedado en disco,
+		// por ejemplo, de una ejecucion anterior
+		if (this.diskDir != null) {
+			final File[] diskFiles = this.diskDir.listFiles();
+			if (diskFiles != null) {
+				for (final File file : diskFiles) {
+					if (file.getName().startsWith(DISK_FILE_PREFIX) && !files.contains(file)
+							&& file.lastModified() + this.expirationPeriod < currentTime && !file.delete()) {
+						LOGGER.warning("No se pudo eliminar el fichero caducado de la cache: " + file.getName()); //$NON-NLS-1$
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Recupera el tama&ntilde;o en bytes de los datos en memoria.
+	 * @return Tama&ntilde;o de los datos en memoria.
+	 */
+	long getSize() {
+		synchronized (this.cache) {
+			return this.size;
+		}
+	}
 
 	/**
 	 * Identifica si es necesaria limpiar la cache. Ser&aacute; necesario limpiar si se han
 	 * realizado m&aacute;s de un n&uacute;mero de operaciones determinado desde la &uacute;ltima
 	 * limpieza o si se ha excedido un tiempo determinado desde la &uacute;ltima limpieza. No es
-	 * necesario iniciar una limpieza si ya se esta ejecutando.
+	 * necesario iniciar una limpieza si ya se esta ejecutando. Debe llamarse con la cach&eacute;
+	 * bloqueada.
 	 * @return {@code true} si es necesario limpiar, {@code false} en caso contrario.
 	 */
-	private static boolean isCleanningNeeded() {
+	private boolean isCleanningNeeded() {
 
 		// Si se esta limpiando ahora mismo, no necesitamos limpieza
-		if (cleaningProcess != null && !cleaningProcess.isDone()) {
+		if (this.cleaningProcess != null && !this.cleaningProcess.isDone()) {
 			return false;
 		}
 
 		// Comprobamos si ya se han realizado los usos prefijado despues de la
 		// ultima limpieza
-		if (useCounter <= 0) {
+		if (this.useCounter <= 0) {
 			return true;
 		}
 
 		// Comprobamos si ha pasado un tiempo prefijado desde la ultima limpieza
-		if (newCleanupTargetMillis <= System.currentTimeMillis()) {
+		if (this.newCleanupTargetMillis <= System.currentTimeMillis()) {
 			return true;
 		}
 
@@ -119,13 +481,35 @@ public class ClienteAfirmaCache {
 	/**
 	 * Inicia la tarea de limpieza de la cache
 	 */
-	private static void cleanCache() {
-		useCounter = INITIAL_USE_COUNTER_VALUE;
-		newCleanupTargetMillis = System.currentTimeMillis() + CLEANING_INTERVAL_MILLIS;
-		if (executorService == null) {
-			executorService = Executors.newSingleThreadExecutor();
+	private synchronized void cleanCache() {
+		if (this.executorService == null) {
+			this.executorService = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(final Runnable r) {
+					final Thread thread = new Thread(r, "FIRe-ClienteAfirmaCacheCleaner"); //$NON-NLS-1$
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		this.cleaningProcess = this.executorService.submit(new CacheCleanerThread(this));
+	}
+
+	/**
+	 * Libera los recursos de la cach&eacute;.
+	 */
+	private synchronized void shutdown() {
+		if (this.executorService != null) {
+			this.executorService.shutdown();
+			try {
+				if (!this.executorService.awaitTermination(2000, TimeUnit.MILLISECONDS)) {
+					this.executorService.shutdownNow();
+				}
+			} catch (final InterruptedException e) {
+				this.executorService.shutdownNow();
+			}
+			this.executorService = null;
 		}
-		cleaningProcess = executorService.submit(new CacheCleanerThread(cache));
 	}
 
 	/**
@@ -133,41 +517,81 @@ public class ClienteAfirmaCache {
 	 */
 	private static class CachedResponse {
 
-		/**
-		 * Tiempo a partir del cual se considerar&aacute;n caducados los datos almacenados en
-		 * cach&eacute;.
-		 */
-		private static final long EXPIRATION_PERIOD = ConfigManager.getTempsTimeout();
-
-		private final Date expirationDate;
+		private final long expirationTime;
 		private final byte[] data;
+		private final File file;
 
 		/**
 		 * Crea los datos en cach&eacute;.
 		 * @param data Datos en cach&eacute;.
+		 * @param expirationTime Momento en el que caducan los datos.
 		 */
-		public CachedResponse(final byte[] data) {
-			this.expirationDate = new Date(System.currentTimeMillis() + EXPIRATION_PERIOD);
+		public CachedResponse(final byte[] data, final long expirationTime) {
+			this.expirationTime = expirationTime;
 			this.data = data;
+			this.file = null;
+		}
+
+		/**
+		 * Crea una referencia a datos en cach&eacute; guardados en disco.
+		 * @param file Fichero con los datos.
+		 * @param expirationTime Momento en el que caducan los datos.
+		 */
+		public CachedResponse(final File file, final long expirationTime) {
+			this.expirationTime = expirationTime;
+			this.data = null;
+			this.file = file;
 		}
 
 		/**
 		 * Recupera los datos guardados en cach&eacute;.
-		 * @return Datos guardados en cach&eacute;.
+		 * @return Datos guardados en cach&eacute; o {@code null} si no se pudieron leer de disco.
 		 */
 		public byte[] getData() {
-			return this.data;
+			if (this.file == null) {
+				return this.data;
+			}
+			try {
+				return Files.readAllBytes(this.file.toPath());
+			}
+			catch (final IOException e) {
+				LOGGER.log(Level.WARNING, "No se pudieron leer de disco los datos de la cache", e); //$NON-NLS-1$
+				return null;
+			}
+		}
+
+		/**
+		 * Recupera el fichero en el que se guardaron los datos.
+		 * @return Fichero de datos o {@code null} si los datos est&aacute;n en memoria.
+		 */
+		public File getFile() {
+			return this.file;
+		}
+
+		/**
+		 * Recupera el tama&ntilde;o que ocupan los datos en memoria.
+		 * @return Tama&ntilde;o en bytes.
+		 */
+		public long getSize() {
+			return this.data != null ? this.data.length : 0;
+		}
+
+		/**
+		 * Recupera el momento en el que caducan los datos.
+		 * @return Momento en milisegundos.
+		 */
+		public long getExpirationTime() {
+			return this.expirationTime;
 		}
 
 		/**
 		 * Comprueba si los datos est&aacute;n caducados.
-		 * @param currentDate Fecha actual.
+		 * @param currentTime Momento actual en milisegundos.
 		 * @return {@code true} si los datos est&aacute;n caducados, {@code false} en caso
 		 * contrario.
 		 */
-		public boolean isExpired(final Date currentDate) {
-			return this.expirationDate.before(currentDate);
-
+		public boolean isExpired(final long currentTime) {
+			return this.expirationTime < currentTime;
 		}
 	}
 
@@ -176,22 +600,15 @@ public class ClienteAfirmaCache {
 	 */
 	private static class CacheCleanerThread extends Thread {
 
-		private final Map<String, CachedResponse> cacheToClean;
+		private final ClienteAfirmaCache cacheToClean;
 
-		public CacheCleanerThread(final Map<String, CachedResponse> cache) {
+		public CacheCleanerThread(final ClienteAfirmaCache cache) {
 			this.cacheToClean = cache;
 		}
 
 		@Override
 		public void run() {
-			final Date currentDate = new Date();
-
-			for (final String id : this.cacheToClean.keySet().toArray(new String[0])) {
-				final CachedResponse response = this.cacheToClean.get(id);
-				if (response != null && response.isExpired(currentDate)) {
-					this.cacheToClean.remove(id);
-				}
-			}
+			this.cacheToClean.removeExpired();
 		}
 	}
 
@@ -199,17 +616,12 @@ public class ClienteAfirmaCache {
 	 * Libera los recursos de la cache.
 	 */
 	public static void release() {
-		if (executorService != null) {
-			executorService.shutdown();
-			try {
-				if (!executorService.awaitTermination(2000, TimeUnit.MILLISECONDS)) {
-					executorService.shutdownNow();
-				}
-			} catch (final InterruptedException e) {
-				executorService.shutdownNow();
-			}
-			executorService = null;
+		final ClienteAfirmaCache cache;
+		synchronized (ClienteAfirmaCache.class) {
+			cache = instance;
+		}
+		if (cache != null) {
+			cache.shutdown();
 		}
 	}
 }
-
@@ -0,0 +1,128 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.server.services;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import es.gob.fire.signature.ConfigManager;
+
+/** Pruebas de la lectura de par&aacute;metros del cuerpo de las peticiones. */
+public final class TestRequestParameters {
+
+	private static final String[] BASE64_PARAMS = new String[] { "dat" }; //$NON-NLS-1$
+
+	private static RequestParameters parse(final String body, final int paramsMaxSize) throws IOException {
+		final byte[] content = body.getBytes(StandardCharsets.UTF_8);
+		return RequestParameters.extractParametersFromBody(new ByteArrayInputStream(content), content.length,
+				paramsMaxSize, ConfigManager.UNLIMITED_MAX_SIZE, BASE64_PARAMS);
+	}
+
+	/**
+	 * Comprueba que se decodifican los datos a medida que se leen y que el resto de
+	 * par&aacute;metros se mantienen como texto.
+	 * @throws Exception Cuando falla la lectura.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testDecodeLargeParameter() throws Exception {
+
+		final byte[] data = new byte[100003];
+		new Random(1).nextBytes(data);
+
+		final RequestParameters params = parse("op=1&appid=A1&dat=" //$NON-NLS-1$
+				+ Base64.getUrlEncoder().encodeToString(data) + "&cfg=e30=&empty=", //$NON-NLS-1$
+				ConfigManager.UNLIMITED_MAX_SIZE);
+
+		Assert.assertEquals("1", params.getParameter("op")); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertEquals("A1", params.getParameter("appid")); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertEquals("e30=", params.getParameter("cfg")); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertEquals("", params.getParameter("empty")); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertNull(params.getParameter("dat")); //$NON-NLS-1$
+		Assert.assertTrue(params.hasParameterValue("dat")); //$NON-NLS-1$
+		Assert.assertArrayEquals(data, params.getDecodedParameter("dat")); //$NON-NLS-1$
+	}
+
+	/**
+	 * Comprueba que se admite el alfabeto normal de Base64 y el relleno escapado.
+	 * @throws Exception Cuando falla la lectura.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testDecodeStandardAlphabet() throws Exception {
+
+		final byte[] data = new byte[] { (byte) 0xfb, (byte) 0xff, 0x10, 0x7f };
+		final String encoded = Base64.getEncoder().encodeToString(data).replace("=", "%3D"); //$NON-NLS-1$ //$NON-NLS-2$
+
+		final RequestParameters params = parse("dat=" + encoded, ConfigManager.UNLIMITED_MAX_SIZE); //$NON-NLS-1$
+		Assert.assertArrayEquals(data, params.getDecodedParameter("dat")); //$NON-NLS-1$
+	}
+
+	/**
+	 * Comprueba que se detectan los datos mal codificados al recuperarlos.
+	 * @throws Exception Cuando falla la lectura.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testInvalidBase64() throws Exception {
+
+		final RequestParameters params = parse("dat=AB*C&op=1", ConfigManager.UNLIMITED_MAX_SIZE); //$NON-NLS-1$
+		Assert.assertEquals("1", params.getParameter("op")); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertTrue(params.hasParameterValue("dat")); //$NON-NLS-1$
+		try {
+			params.getDecodedParameter("dat"); //$NON-NLS-1$
+			Assert.fail("Se esperaba un error de codificacion"); //$NON-NLS-1$
+		}
+		catch (final IllegalArgumentException e) {
+			// Correcto
+		}
+	}
+
+	/**
+	 * Comprueba que se aplica el tama&ntilde;o m&aacute;ximo de los par&aacute;metros.
+	 * @throws Exception Cuando falla la lectura.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testParamMaxSize() throws Exception {
+
+		final String encoded = Base64.getUrlEncoder().encodeToString(new byte[20000]);
+		try {
+			parse("op=1&dat=" + encoded, 10000); //$NON-NLS-1$
+			Assert.fail("Se esperaba que se excediese el tamano maximo"); //$NON-NLS-1$
+		}
+		catch (final IOException e) {
+			// Correcto
+		}
+		Assert.assertEquals(20000, parse("dat=" + encoded, 30000).getDecodedParameter("dat").length); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Comprueba que se rechazan los par&aacute;metros sin valor.
+	 * @throws Exception Cuando falla la lectura.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testMalformedRequest() throws Exception {
+		try {
+			parse("op=1&malformado&appid=A1", ConfigManager.UNLIMITED_MAX_SIZE); //$NON-NLS-1$
+			Assert.fail("Se esperaba un error en el formato de la peticion"); //$NON-NLS-1$
+		}
+		catch (final IllegalArgumentException e) {
+			// Correcto
+		}
+	}
+}
@@ -0,0 +1,99 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.server.services.batch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Pruebas de la ejecuci&oacute;n en paralelo de las firmas de un lote. */
+public final class TestSignBatchConcurrent {
+
+	private static final int[] BATCH_SIZES = { 10, 100, 1000 };
+
+	private static final SignBatchConcurrent.FailureChecker<Integer> CHECKER =
+			new SignBatchConcurrent.FailureChecker<Integer>() {
+		@Override
+		public boolean isFailed(final Integer result) {
+			return result.intValue() < 0;
+		}
+	};
+
+	private static List<Callable<Integer>> newTasks(final int size, final int failedTask) {
+		final List<Callable<Integer>> tasks = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			final int n = i;
+			tasks.add(new Callable<Integer>() {
+				@Override
+				public Integer call() throws Exception {
+					// Las primeras tareas tardan mas para que terminen desordenadas y las
+					// posteriores a la que falla no terminan hasta que se cancelan
+					Thread.sleep(failedTask >= 0 && n > failedTask ? 60000 : n < 8 ? 8 - n : 0);
+					return Integer.valueOf(n == failedTask ? -1 : n);
+				}
+			});
+		}
+		return tasks;
+	}
+
+	/**
+	 * Comprueba que los resultados se devuelven en el orden de las tareas.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testResultsOrder() {
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			for (final int size : BATCH_SIZES) {
+				final List<Integer> results = SignBatchConcurrent.executeTasks(
+						newTasks(size, -1), CHECKER, false, 4, executor);
+				Assert.assertEquals(size, results.size());
+				for (int i = 0; i < size; i++) {
+					Assert.assertEquals(Integer.valueOf(i), results.get(i));
+				}
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Comprueba que, al detenerse ante un error, se completan todas las tareas
+	 * anteriores a la que falla y se cancelan las posteriores.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testStopOnError() {
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			for (final int size : BATCH_SIZES) {
+				final int failedTask = size / 2;
+				final List<Integer> results = SignBatchConcurrent.executeTasks(
+						newTasks(size, failedTask), CHECKER, true, 4, executor);
+				for (int i = 0; i < failedTask; i++) {
+					Assert.assertEquals(Integer.valueOf(i), results.get(i));
+				}
+				Assert.assertEquals(Integer.valueOf(-1), results.get(failedTask));
+				for (int i = failedTask + 1; i < size; i++) {
+					Assert.assertNull(results.get(i));
+				}
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+}
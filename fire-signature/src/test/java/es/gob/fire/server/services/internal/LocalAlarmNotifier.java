@@ -0,0 +1,97 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.server.services.internal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+
+import es.gob.fire.alarms.Alarm;
+import es.gob.fire.alarms.AlarmLevel;
+import es.gob.fire.alarms.AlarmNotifier;
+
+/**
+ * Notificador de alarmas para pruebas que guarda en memoria los mensajes
+ * notificados en lugar de enviarlos a un sistema externo. Permite bloquear
+ * los env&iacute;os para simular un sistema de alarmas que no responde.
+ */
+public class LocalAlarmNotifier implements AlarmNotifier {
+
+	private final List<String> messages = new ArrayList<>();
+
+	private volatile CountDownLatch blocker = null;
+
+	@Override
+	public void init(final Properties config) {
+		// No necesita configuracion
+	}
+
+	@Override
+	public void setModule(final String module) {
+		// No se usa
+	}
+
+	@Override
+	public void notify(final AlarmLevel level, final Alarm alarm, final String... source) throws IOException {
+		await();
+		addMessage(source == null ? alarm.getDescription() : alarm.formatDescription((Object[]) source));
+	}
+
+	@Override
+	public void notifyRepeated(final AlarmLevel level, final Alarm alarm, final int occurrences,
+			final long seconds, final String... source) throws IOException {
+		await();
+		addMessage(alarm.formatRepeatedDescription(occurrences, seconds, (Object[]) source));
+	}
+
+	/**
+	 * Hace que los env&iacute;os esperen hasta que se llame a {@link #unblock()}.
+	 */
+	public void block() {
+		this.blocker = new CountDownLatch(1);
+	}
+
+	/**
+	 * Permite continuar a los env&iacute;os bloqueados.
+	 */
+	public void unblock() {
+		final CountDownLatch latch = this.blocker;
+		if (latch != null) {
+			latch.countDown();
+		}
+	}
+
+	private void await() throws IOException {
+		final CountDownLatch latch = this.blocker;
+		if (latch != null) {
+			try {
+				latch.await();
+			}
+			catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Se interrumpio el envio de la alarma", e); //$NON-NLS-1$
+			}
+		}
+	}
+
+	private synchronized void addMessage(final String message) {
+		this.messages.add(message);
+	}
+
+	/**
+	 * Obtiene los mensajes notificados en el orden en el que se enviaron.
+	 * @return Mensajes notificados.
+	 */
+	public synchronized List<String> getMessages() {
+		return new ArrayList<>(this.messages);
+	}
+}
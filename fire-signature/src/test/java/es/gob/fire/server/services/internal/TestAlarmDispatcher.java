@@ -0,0 +1,111 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.server.services.internal;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import es.gob.fire.alarms.Alarm;
+import es.gob.fire.alarms.AlarmLevel;
+
+/** Pruebas del distribuidor as&iacute;ncrono de alarmas. */
+public final class TestAlarmDispatcher {
+
+	private static final String PROVIDER_1 = "proveedor1"; //$NON-NLS-1$
+
+	private static final String PROVIDER_2 = "proveedor2"; //$NON-NLS-1$
+
+	/**
+	 * Comprueba que las repeticiones de una alarma sobre un mismo recurso se
+	 * notifican de forma agrupada.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testCoalescing() {
+
+		final LocalAlarmNotifier notifier = new LocalAlarmNotifier();
+		final AlarmDispatcher dispatcher = new AlarmDispatcher(notifier, 16, 60000);
+
+		for (int i = 0; i < 10; i++) {
+			dispatcher.dispatch(AlarmLevel.ERROR, Alarm.CONNECTION_SIGNATURE_PROVIDER, PROVIDER_1);
+		}
+		dispatcher.dispatch(AlarmLevel.ERROR, Alarm.CONNECTION_SIGNATURE_PROVIDER, PROVIDER_2);
+		dispatcher.dispatch(AlarmLevel.ERROR, Alarm.CONNECTION_VALIDATION_PLATFORM);
+		dispatcher.dispatch(AlarmLevel.ERROR, Alarm.CONNECTION_VALIDATION_PLATFORM);
+		dispatcher.stop();
+
+		final List<String> messages = notifier.getMessages();
+		Assert.assertEquals(5, messages.size());
+		Assert.assertEquals(Alarm.CONNECTION_SIGNATURE_PROVIDER.formatDescription(PROVIDER_1), messages.get(0));
+		Assert.assertEquals(Alarm.CONNECTION_SIGNATURE_PROVIDER.formatDescription(PROVIDER_2), messages.get(1));
+		Assert.assertEquals(Alarm.CONNECTION_VALIDATION_PLATFORM.getDescription(), messages.get(2));
+		Assert.assertTrue(messages.contains(Alarm.CONNECTION_SIGNATURE_PROVIDER.formatRepeatedDescription(10, 0, PROVIDER_1)));
+		Assert.assertTrue(messages.contains(Alarm.CONNECTION_VALIDATION_PLATFORM.formatRepeatedDescription(2, 0, (Object[]) null)));
+
+		Assert.assertEquals(13, dispatcher.getReceivedAlarms());
+		Assert.assertEquals(10, dispatcher.getCoalescedAlarms());
+		Assert.assertEquals(5, dispatcher.getSentNotifications());
+		Assert.assertEquals(0, dispatcher.getDroppedAlarms());
+	}
+
+	/**
+	 * Comprueba que, al vencer el periodo de agrupaci&oacute;n, se notifican
+	 * las repeticiones y se vuelve a notificar la siguiente alarma.
+	 * @throws Exception Cuando se interrumpe la espera.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testWindowExpiration() throws Exception {
+
+		final LocalAlarmNotifier notifier = new LocalAlarmNotifier();
+		final AlarmDispatcher dispatcher = new AlarmDispatcher(notifier, 16, 100);
+
+		dispatcher.dispatch(AlarmLevel.ERROR, Alarm.CONNECTION_DB);
+		dispatcher.dispatch(AlarmLevel.ERROR, Alarm.CONNECTION_DB);
+		Thread.sleep(400);
+		dispatcher.dispatch(AlarmLevel.ERROR, Alarm.CONNECTION_DB);
+		dispatcher.stop();
+
+		final List<String> messages = notifier.getMessages();
+		Assert.assertEquals(3, messages.size());
+		Assert.assertEquals(Alarm.CONNECTION_DB.getDescription(), messages.get(0));
+		Assert.assertTrue(messages.get(1).startsWith(Alarm.CONNECTION_DB.getDescription() + " (2 veces")); //$NON-NLS-1$
+		Assert.assertEquals(Alarm.CONNECTION_DB.getDescription(), messages.get(2));
+	}
+
+	/**
+	 * Comprueba que no se bloquea al registrar alarmas cuando el notificador no
+	 * responde y que se descartan las que no caben en la cola.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testBoundedQueue() {
+
+		final LocalAlarmNotifier notifier = new LocalAlarmNotifier();
+		notifier.block();
+		final AlarmDispatcher dispatcher = new AlarmDispatcher(notifier, 2, 0);
+
+		final long start = System.currentTimeMillis();
+		for (int i = 0; i < 10; i++) {
+			dispatcher.dispatch(AlarmLevel.ERROR, Alarm.CONNECTION_DOCUMENT_MANAGER, "gestor" + i); //$NON-NLS-1$
+		}
+		Assert.assertTrue(System.currentTimeMillis() - start < 1000);
+		Assert.assertEquals(8, dispatcher.getDroppedAlarms());
+
+		notifier.unblock();
+		dispatcher.stop();
+
+		Assert.assertEquals(2, notifier.getMessages().size());
+		Assert.assertEquals(2, dispatcher.getSentNotifications());
+		Assert.assertEquals(0, dispatcher.getPendingNotifications());
+	}
+}
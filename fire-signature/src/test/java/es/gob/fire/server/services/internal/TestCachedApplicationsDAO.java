@@ -0,0 +1,94 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.server.services.internal;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Pruebas de la cach&eacute; de informaci&oacute;n de acceso de aplicaciones. */
+public final class TestCachedApplicationsDAO {
+
+	private static final String APP_ID = "A0000000001"; //$NON-NLS-1$
+
+	/** DAO que cuenta las consultas y solo conoce la aplicaci&oacute;n {@link #APP_ID}. */
+	private static final class CountingDAO implements ApplicationsDAO {
+
+		final AtomicInteger queries = new AtomicInteger(0);
+
+		@Override
+		public ApplicationAccessInfo getApplicationAccessInfo(final String appId, final TransactionAuxParams trAux)
+				throws IOException {
+			this.queries.incrementAndGet();
+			if (!APP_ID.equals(appId)) {
+				return null;
+			}
+			return new ApplicationAccessInfo(appId, "Prueba", true, //$NON-NLS-1$
+					new DigestInfo[] { DigestInfo.create(new byte[32]) });
+		}
+	}
+
+	/**
+	 * Comprueba que se reutiliza la informaci&oacute;n hasta que caduca.
+	 * @throws Exception Cuando falla la consulta.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testCacheAndExpiration() throws Exception {
+
+		final CountingDAO dao = new CountingDAO();
+		final CachedApplicationsDAO cachedDao = new CachedApplicationsDAO(dao, 200, 60000);
+
+		final ApplicationAccessInfo info = cachedDao.getApplicationAccessInfo(APP_ID, null);
+		Assert.assertSame(info, cachedDao.getApplicationAccessInfo(APP_ID, null));
+		Assert.assertNull(cachedDao.getApplicationAccessInfo("desconocida", null)); //$NON-NLS-1$
+		Assert.assertNull(cachedDao.getApplicationAccessInfo("desconocida", null)); //$NON-NLS-1$
+		Assert.assertEquals(2, dao.queries.get());
+
+		Thread.sleep(300);
+		Assert.assertNotSame(info, cachedDao.getApplicationAccessInfo(APP_ID, null));
+		Assert.assertEquals(3, dao.queries.get());
+	}
+
+	/**
+	 * Comprueba que no se recuerdan las aplicaciones no encontradas si no se configura.
+	 * @throws Exception Cuando falla la consulta.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testNoNegativeCache() throws Exception {
+
+		final CountingDAO dao = new CountingDAO();
+		final CachedApplicationsDAO cachedDao = new CachedApplicationsDAO(dao, 60000, 0);
+
+		cachedDao.getApplicationAccessInfo("desconocida", null); //$NON-NLS-1$
+		cachedDao.getApplicationAccessInfo("desconocida", null); //$NON-NLS-1$
+		Assert.assertEquals(2, dao.queries.get());
+	}
+
+	/**
+	 * Comprueba la b&uacute;squeda de huellas registradas.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testRegisteredDigest() {
+
+		final byte[] hash = new byte[32];
+		hash[0] = 1;
+		final ApplicationAccessInfo info = new ApplicationAccessInfo(APP_ID, APP_ID, true,
+				new DigestInfo[] { DigestInfo.create(hash) });
+
+		Assert.assertTrue(info.isRegisteredDigest("SHA256", hash.clone())); //$NON-NLS-1$
+		Assert.assertFalse(info.isRegisteredDigest("SHA256", new byte[32])); //$NON-NLS-1$
+		Assert.assertFalse(info.isRegisteredDigest("SHA-1", hash)); //$NON-NLS-1$
+	}
+}
@@ -0,0 +1,63 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.server.services.internal;
+
+import java.util.Properties;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Pruebas del registro de atributos modificados de la sesi&oacute;n. */
+public final class TestFireSession {
+
+	/** Comprueba que se registran los atributos establecidos y eliminados. */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testModifiedAttributes() {
+		final FireSession session = FireSession.newSession("tr1"); //$NON-NLS-1$
+		session.setAttribute(ServiceParams.SESSION_PARAM_SUBJECT_ID, "00001"); //$NON-NLS-1$
+		session.setAttribute(ServiceParams.SESSION_PARAM_BATCH_PENDING_SIGNS, Integer.valueOf(3));
+		session.getAndResetModifiedAttributes();
+
+		Assert.assertTrue(session.getAndResetModifiedAttributes().isEmpty());
+
+		session.setAttribute(ServiceParams.SESSION_PARAM_BATCH_PENDING_SIGNS, Integer.valueOf(2));
+		session.removeAttribute(ServiceParams.SESSION_PARAM_SUBJECT_ID);
+
+		final Set<String> modified = session.getAndResetModifiedAttributes();
+		Assert.assertEquals(2, modified.size());
+		Assert.assertTrue(modified.contains(ServiceParams.SESSION_PARAM_BATCH_PENDING_SIGNS));
+		Assert.assertTrue(modified.contains(ServiceParams.SESSION_PARAM_SUBJECT_ID));
+		Assert.assertTrue(session.getAndResetModifiedAttributes().isEmpty());
+	}
+
+	/**
+	 * Comprueba que los atributos con valores mutables s&oacute;lo se consideran modificados
+	 * cuando cambia su contenido.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testMutableAttributesModifiedInPlace() {
+		final FireSession session = FireSession.newSession("tr1"); //$NON-NLS-1$
+		final Properties upgradeConfig = new Properties();
+		session.setAttribute(ServiceParams.SESSION_PARAM_UPGRADE_CONFIG, upgradeConfig);
+		session.getAndResetModifiedAttributes();
+
+		Assert.assertTrue(session.getAndResetModifiedAttributes().isEmpty());
+
+		upgradeConfig.setProperty("afirma.appId", "app1"); //$NON-NLS-1$ //$NON-NLS-2$
+
+		final Set<String> modified = session.getAndResetModifiedAttributes();
+		Assert.assertEquals(1, modified.size());
+		Assert.assertTrue(modified.contains(ServiceParams.SESSION_PARAM_UPGRADE_CONFIG));
+		Assert.assertTrue(session.getAndResetModifiedAttributes().isEmpty());
+	}
+}
@@ -0,0 +1,145 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.server.services.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Pruebas del gestor del pool de tareas de lote. */
+public final class TestTasksPoolManager {
+
+	private static final String ATTR_PENDING = "pending"; //$NON-NLS-1$
+
+	/**
+	 * Comprueba que se ejecutan todas las tareas sin superar el n&uacute;mero m&aacute;ximo
+	 * de tareas simult&aacute;neas y que se actualiza el n&uacute;mero de pendientes.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testConcurrencyLimit() {
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger maxRunning = new AtomicInteger();
+		final AtomicInteger executed = new AtomicInteger();
+
+		final List<Callable<String>> tasks = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			tasks.add(new Callable<String>() {
+				@Override
+				public String call() throws Exception {
+					final int current = running.incrementAndGet();
+					synchronized (maxRunning) {
+						maxRunning.set(Math.max(maxRunning.get(), current));
+					}
+					Thread.sleep(10);
+					running.decrementAndGet();
+					executed.incrementAndGet();
+					return "OK"; //$NON-NLS-1$
+				}
+			});
+		}
+
+		final FireSession session = FireSession.newSession("tr1", new HashMap<String, Object>(), //$NON-NLS-1$
+				System.currentTimeMillis() + 60000);
+		final ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			TasksPoolManager.executeTasks(tasks, false, session, ATTR_PENDING, executor, 3);
+		}
+		finally {
+			executor.shutdown();
+		}
+
+		Assert.assertEquals(20, executed.get());
+		Assert.assertTrue(maxRunning.get() <= 3);
+		Assert.assertEquals(Integer.valueOf(0), session.getObject(ATTR_PENDING));
+	}
+
+	/**
+	 * Comprueba que, si se pide detener el proceso ante un error, no se inician
+	 * las tareas pendientes tras fallar una de ellas.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testStopOnError() {
+		final AtomicInteger executed = new AtomicInteger();
+
+		final List<Callable<String>> tasks = new ArrayList<>();
+		tasks.add(new Callable<String>() {
+			@Override
+			public String call() throws Exception {
+				executed.incrementAndGet();
+				throw new Exception("Error de prueba"); //$NON-NLS-1$
+			}
+		});
+		for (int i = 0; i < 10; i++) {
+			tasks.add(new Callable<String>() {
+				@Override
+				public String call() {
+					executed.incrementAndGet();
+					return "OK"; //$NON-NLS-1$
+				}
+			});
+		}
+
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			TasksPoolManager.executeTasks(tasks, true, null, null, executor, 1);
+		}
+		finally {
+			executor.shutdown();
+		}
+
+		Assert.assertEquals(1, executed.get());
+	}
+
+	/**
+	 * Comprueba que el n&uacute;mero de pendientes incluye las tareas que se
+	 * ejecutar&aacute;n despu&eacute;s y nunca baja de ellas.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testPendingAfter() {
+		final FireSession session = FireSession.newSession("tr2", new HashMap<String, Object>(), //$NON-NLS-1$
+				System.currentTimeMillis() + 60000);
+		final AtomicInteger minPending = new AtomicInteger(Integer.MAX_VALUE);
+
+		final List<Callable<String>> tasks = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			tasks.add(new Callable<String>() {
+				@Override
+				public String call() {
+					final Integer pending = (Integer) session.getObject(ATTR_PENDING);
+					synchronized (minPending) {
+						minPending.set(Math.min(minPending.get(), pending.intValue()));
+					}
+					return "OK"; //$NON-NLS-1$
+				}
+			});
+		}
+
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			TasksPoolManager.executeTasks(tasks, false, session, ATTR_PENDING, 7, executor, 1);
+		}
+		finally {
+			executor.shutdown();
+		}
+
+		Assert.assertTrue(minPending.get() > 7);
+		Assert.assertEquals(Integer.valueOf(7), session.getObject(ATTR_PENDING));
+	}
+}
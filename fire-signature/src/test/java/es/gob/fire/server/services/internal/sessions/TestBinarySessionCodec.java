@@ -0,0 +1,130 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.server.services.internal.sessions;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import es.gob.fire.server.services.internal.BatchResult;
+import es.gob.fire.server.services.internal.ServiceParams;
+import es.gob.fire.server.services.internal.SessionFlags;
+import es.gob.fire.server.services.internal.SignBatchConfig;
+import es.gob.fire.server.services.statistics.TransactionType;
+
+/** Pruebas del codificador binario de sesiones. */
+public final class TestBinarySessionCodec {
+
+	private static Map<String, Object> newSessionData() {
+		final Properties extraParams = new Properties();
+		extraParams.setProperty("mode", "implicit"); //$NON-NLS-1$ //$NON-NLS-2$
+
+		final Map<String, Object> sessionData = new HashMap<>();
+		sessionData.put(ServiceParams.SESSION_PARAM_TRANSACTION_ID, "b1a8f0e2-0000-4000-8000-000000000001"); //$NON-NLS-1$
+		sessionData.put(ServiceParams.SESSION_PARAM_SUBJECT_ID, "00001"); //$NON-NLS-1$
+		sessionData.put(ServiceParams.SESSION_PARAM_TRANSACTION_TYPE, TransactionType.BATCH);
+		sessionData.put(ServiceParams.SESSION_PARAM_PREVIOUS_OPERATION, SessionFlags.OP_PRE);
+		sessionData.put(ServiceParams.SESSION_PARAM_BATCH_STOP_ON_ERROR, Boolean.FALSE);
+		sessionData.put(ServiceParams.SESSION_PARAM_BATCH_PENDING_SIGNS, Integer.valueOf(3));
+		sessionData.put(ServiceParams.SESSION_PARAM_TRANSACTION_SIZE, Long.valueOf(123456L));
+		sessionData.put(ServiceParams.SESSION_PARAM_PROVIDERS, new String[] { "local", "clavefirma" }); //$NON-NLS-1$ //$NON-NLS-2$
+		sessionData.put(ServiceParams.SESSION_PARAM_EXTRA_PARAM, extraParams);
+		sessionData.put(ServiceParams.SESSION_PARAM_DOC_ID, new byte[] { 1, 2, 3 });
+		sessionData.put(ServiceParams.SESSION_PARAM_ERROR_MESSAGE, null);
+		sessionData.put("customattr", new StringBuilder("valor")); //$NON-NLS-1$ //$NON-NLS-2$
+		return sessionData;
+	}
+
+	private static Map<String, Object> roundTrip(final SessionCodec codec, final Map<String, Object> sessionData)
+			throws Exception {
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		codec.encode(sessionData, baos);
+		return new BinarySessionCodec().decode(new ByteArrayInputStream(baos.toByteArray()));
+	}
+
+	/**
+	 * Comprueba que se recuperan los mismos valores que se codificaron.
+	 * @throws Exception Cuando falla la codificaci&oacute;n.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testRoundTrip() throws Exception {
+
+		final Map<String, Object> decoded = roundTrip(new BinarySessionCodec(), newSessionData());
+
+		Assert.assertEquals("00001", decoded.get(ServiceParams.SESSION_PARAM_SUBJECT_ID)); //$NON-NLS-1$
+		Assert.assertSame(TransactionType.BATCH, decoded.get(ServiceParams.SESSION_PARAM_TRANSACTION_TYPE));
+		Assert.assertSame(SessionFlags.OP_PRE, decoded.get(ServiceParams.SESSION_PARAM_PREVIOUS_OPERATION));
+		Assert.assertEquals(Boolean.FALSE, decoded.get(ServiceParams.SESSION_PARAM_BATCH_STOP_ON_ERROR));
+		Assert.assertEquals(Integer.valueOf(3), decoded.get(ServiceParams.SESSION_PARAM_BATCH_PENDING_SIGNS));
+		Assert.assertEquals(Long.valueOf(123456L), decoded.get(ServiceParams.SESSION_PARAM_TRANSACTION_SIZE));
+		Assert.assertArrayEquals(new String[] { "local", "clavefirma" }, //$NON-NLS-1$ //$NON-NLS-2$
+				(String[]) decoded.get(ServiceParams.SESSION_PARAM_PROVIDERS));
+		Assert.assertEquals("implicit", //$NON-NLS-1$
+				((Properties) decoded.get(ServiceParams.SESSION_PARAM_EXTRA_PARAM)).getProperty("mode")); //$NON-NLS-1$
+		Assert.assertArrayEquals(new byte[] { 1, 2, 3 }, (byte[]) decoded.get(ServiceParams.SESSION_PARAM_DOC_ID));
+		Assert.assertTrue(decoded.containsKey(ServiceParams.SESSION_PARAM_ERROR_MESSAGE));
+		Assert.assertNull(decoded.get(ServiceParams.SESSION_PARAM_ERROR_MESSAGE));
+		Assert.assertEquals("valor", decoded.get("customattr").toString()); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Comprueba que se codifica el resultado de un lote.
+	 * @throws Exception Cuando falla la codificaci&oacute;n.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testBatchResultRoundTrip() throws Exception {
+
+		final SignBatchConfig config = new SignBatchConfig();
+		config.setCryptoOperation("sign"); //$NON-NLS-1$
+		config.setFormat("PAdES"); //$NON-NLS-1$
+
+		final BatchResult batchResult = new BatchResult();
+		batchResult.setProviderName("local"); //$NON-NLS-1$
+		batchResult.addDocument("doc1", "ref1", config, null); //$NON-NLS-1$ //$NON-NLS-2$
+		batchResult.addDocument("doc2", "ref2", null, null); //$NON-NLS-1$ //$NON-NLS-2$
+		batchResult.setSuccessResult("doc1"); //$NON-NLS-1$
+		batchResult.setErrorResult("doc2", BatchResult.PRESIGN_ERROR); //$NON-NLS-1$
+
+		final Map<String, Object> sessionData = new HashMap<>();
+		sessionData.put(ServiceParams.SESSION_PARAM_BATCH_RESULT, batchResult);
+
+		final BatchResult decoded = (BatchResult) roundTrip(new BinarySessionCodec(), sessionData)
+				.get(ServiceParams.SESSION_PARAM_BATCH_RESULT);
+
+		Assert.assertEquals("local", decoded.getProviderName()); //$NON-NLS-1$
+		Assert.assertEquals(2, decoded.documentsCount());
+		Assert.assertEquals("ref1", decoded.getDocumentReference("doc1")); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertEquals("PAdES", decoded.getSignConfig("doc1").getFormat()); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertFalse(decoded.isSignFailed("doc1")); //$NON-NLS-1$
+		Assert.assertTrue(decoded.isSignFailed("doc2")); //$NON-NLS-1$
+		Assert.assertNull(decoded.getSignConfig("doc2")); //$NON-NLS-1$
+	}
+
+	/**
+	 * Comprueba que se pueden decodificar las sesiones guardadas con serializaci&oacute;n de Java.
+	 * @throws Exception Cuando falla la codificaci&oacute;n.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testDecodeLegacySessions() throws Exception {
+
+		final Map<String, Object> decoded = roundTrip(new JavaSerializationSessionCodec(), newSessionData());
+
+		Assert.assertEquals("00001", decoded.get(ServiceParams.SESSION_PARAM_SUBJECT_ID)); //$NON-NLS-1$
+		Assert.assertSame(TransactionType.BATCH, decoded.get(ServiceParams.SESSION_PARAM_TRANSACTION_TYPE));
+	}
+}
@@ -0,0 +1,213 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.server.services.internal.sessions;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.http.HttpSession;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import es.gob.fire.server.services.internal.FireSession;
+import es.gob.fire.server.services.internal.ServiceParams;
+
+/**
+ * Pruebas de la cach&eacute; local de sesiones con dos nodos que comparten
+ * un mismo gestor de sesiones.
+ */
+public final class TestCachedSessionsDAO {
+
+	/**
+	 * Gestor de sesiones en memoria que simula la base de datos compartida
+	 * por los nodos.
+	 */
+	private static final class SharedSessionsDAO implements VersionedSessionsDAO {
+
+		private final Map<String, byte[]> sessions = new ConcurrentHashMap<>();
+		private final Map<String, Long> versions = new ConcurrentHashMap<>();
+		private final AtomicLong clock = new AtomicLong();
+		private final AtomicInteger loads = new AtomicInteger();
+		private final SessionCodec codec = new BinarySessionCodec();
+
+		SharedSessionsDAO() {
+			// Constructor por defecto
+		}
+
+		@Override
+		public long getSessionVersion(final String id) {
+			final Long version = this.versions.get(id);
+			return version != null ? version.longValue() : -1;
+		}
+
+		@Override
+		public long saveVersionedSession(final FireSession session, final boolean firstSave) {
+			try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+				this.codec.encode(session.getAttributtes(), baos);
+				this.sessions.put(session.getTransactionId(), baos.toByteArray());
+			}
+			catch (final IOException e) {
+				throw new IllegalStateException(e);
+			}
+			final long version = this.clock.incrementAndGet();
+			this.versions.put(session.getTransactionId(), Long.valueOf(version));
+			return version;
+		}
+
+		@Override
+		public long saveVersionedSessionChanges(final FireSession session, final Set<String> modifiedAttributes) {
+			return saveVersionedSession(session, false);
+		}
+
+		@Override
+		public boolean existsSession(final String id) {
+			return this.sessions.containsKey(id);
+		}
+
+		@Override
+		public FireSession recoverSession(final String id, final HttpSession session) {
+			final byte[] encoded = this.sessions.get(id);
+			if (encoded == null) {
+				return null;
+			}
+			this.loads.incrementAndGet();
+			try {
+				return FireSession.newSession(id, this.codec.decode(new ByteArrayInputStream(encoded)),
+						System.currentTimeMillis() + 60000);
+			}
+			catch (final IOException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		@Override
+		public void deleteSession(final String id) {
+			this.sessions.remove(id);
+			this.versions.remove(id);
+		}
+
+		@Override
+		public void deleteExpiredSessions(final long expirationTime) {
+			// No se usa
+		}
+
+		@Override
+		public TempDocumentsDAO getAssociatedDocumentsDAO() {
+			return null;
+		}
+
+		int getLoads() {
+			return this.loads.get();
+		}
+	}
+
+	/** Comprueba que un nodo reutiliza las sesiones que no han cambiado. */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testCacheHit() {
+		final SharedSessionsDAO shared = new SharedSessionsDAO();
+		final CachedSessionsDAO node = new CachedSessionsDAO(shared, 10);
+
+		final FireSession session = FireSession.newSession("tr1"); //$NON-NLS-1$
+		session.setAttribute(ServiceParams.SESSION_PARAM_SUBJECT_ID, "00001"); //$NON-NLS-1$
+		node.saveSession(session, true);
+
+		final FireSession recovered = node.recoverSession("tr1", null); //$NON-NLS-1$
+		Assert.assertEquals("00001", recovered.getString(ServiceParams.SESSION_PARAM_SUBJECT_ID)); //$NON-NLS-1$
+		Assert.assertEquals(0, shared.getLoads());
+		Assert.assertEquals(1, node.getHits());
+	}
+
+	/** Comprueba que un nodo detecta los cambios realizados desde otro nodo. */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testInvalidationFromOtherNode() {
+		final SharedSessionsDAO shared = new SharedSessionsDAO();
+		final CachedSessionsDAO node1 = new CachedSessionsDAO(shared, 10);
+		final CachedSessionsDAO node2 = new CachedSessionsDAO(shared, 10);
+
+		final FireSession session = FireSession.newSession("tr1"); //$NON-NLS-1$
+		session.setAttribute(ServiceParams.SESSION_PARAM_SUBJECT_ID, "00001"); //$NON-NLS-1$
+		node1.saveSession(session, true);
+
+		// El segundo nodo carga la sesion y la modifica
+		final FireSession session2 = node2.recoverSession("tr1", null); //$NON-NLS-1$
+		Assert.assertEquals(1, shared.getLoads());
+		session2.setAttribute(ServiceParams.SESSION_PARAM_BATCH_PENDING_SIGNS, Integer.valueOf(2));
+		node2.saveSessionChanges(session2, session2.getAndResetModifiedAttributes());
+
+		// El primer nodo debe descartar su copia y cargar la nueva version
+		final FireSession session1 = node1.recoverSession("tr1", null); //$NON-NLS-1$
+		Assert.assertEquals(2, shared.getLoads());
+		Assert.assertEquals(Integer.valueOf(2), session1.getObject(ServiceParams.SESSION_PARAM_BATCH_PENDING_SIGNS));
+
+		// Y, sin cambios posteriores, reutilizarla
+		node1.recoverSession("tr1", null); //$NON-NLS-1$
+		Assert.assertEquals(2, shared.getLoads());
+
+		// Al borrarla desde un nodo, el otro deja de encontrarla
+		node2.deleteSession("tr1"); //$NON-NLS-1$
+		Assert.assertNull(node1.recoverSession("tr1", null)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Comprueba que los cambios sobre los valores mutables de una sesi&oacute;n recuperada
+	 * no afectan a la copia de la cach&eacute; mientras no se guarden.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testMutableValuesAreCopied() {
+		final SharedSessionsDAO shared = new SharedSessionsDAO();
+		final CachedSessionsDAO node = new CachedSessionsDAO(shared, 10);
+
+		final FireSession session = FireSession.newSession("tr1"); //$NON-NLS-1$
+		final Properties config = new Properties();
+		config.setProperty("prop", "1"); //$NON-NLS-1$ //$NON-NLS-2$
+		session.setAttribute(ServiceParams.SESSION_PARAM_UPGRADE_CONFIG, config);
+		node.saveSession(session, true);
+
+		// Los cambios sobre la sesion ya guardada no llegan a la cache
+		config.setProperty("prop", "2"); //$NON-NLS-1$ //$NON-NLS-2$
+		final FireSession recovered = node.recoverSession("tr1", null); //$NON-NLS-1$
+		final Properties recoveredConfig = (Properties) recovered.getObject(ServiceParams.SESSION_PARAM_UPGRADE_CONFIG);
+		Assert.assertEquals("1", recoveredConfig.getProperty("prop")); //$NON-NLS-1$ //$NON-NLS-2$
+
+		// Ni los que se hacen sobre una sesion recuperada
+		recoveredConfig.setProperty("prop", "3"); //$NON-NLS-1$ //$NON-NLS-2$
+		final FireSession recovered2 = node.recoverSession("tr1", null); //$NON-NLS-1$
+		Assert.assertEquals("1", ((Properties) recovered2.getObject(ServiceParams.SESSION_PARAM_UPGRADE_CONFIG)).getProperty("prop")); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertEquals(0, shared.getLoads());
+	}
+
+	/** Comprueba que no se superan el n&uacute;mero m&aacute;ximo de sesiones en cach&eacute;. */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testEviction() {
+		final SharedSessionsDAO shared = new SharedSessionsDAO();
+		final CachedSessionsDAO node = new CachedSessionsDAO(shared, 2);
+
+		for (int i = 0; i < 3; i++) {
+			node.saveSession(FireSession.newSession("tr" + i), true); //$NON-NLS-1$
+		}
+
+		node.recoverSession("tr0", null); //$NON-NLS-1$
+		Assert.assertEquals(1, shared.getLoads());
+		node.recoverSession("tr2", null); //$NON-NLS-1$
+		Assert.assertEquals(1, shared.getLoads());
+	}
+}
@@ -0,0 +1,69 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.server.services.internal.sessions;
+
+import java.io.File;
+import java.security.MessageDigest;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import es.gob.fire.signature.ConfigManager;
+
+/** Pruebas del gestor de documentos temporales con deduplicaci&oacute;n de contenidos. */
+public final class TestFileSystemDedupTempDocumentsDAO {
+
+	private static File getContentFile(final byte[] data) throws Exception {
+		final String tempDir = ConfigManager.getTempDir();
+		final File baseDir = new File(tempDir != null && !tempDir.trim().isEmpty()
+				? tempDir.trim() : System.getProperty("java.io.tmpdir"), "documents"); //$NON-NLS-1$ //$NON-NLS-2$
+		final StringBuilder digest = new StringBuilder();
+		for (final byte b : MessageDigest.getInstance("SHA-256").digest(data)) { //$NON-NLS-1$
+			digest.append(String.format("%02x", Integer.valueOf(b & 0xFF))); //$NON-NLS-1$
+		}
+		return new File(new File(baseDir, "contents"), digest.toString()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Comprueba que un mismo contenido se guarda una &uacute;nica vez y que no
+	 * se elimina mientras quede alguna referencia a &eacute;l.
+	 * @throws Exception Cuando falla alguna operaci&oacute;n.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testDeduplicationAndExpiration() throws Exception {
+
+		final byte[] data = new byte[64 * 1024];
+		new Random().nextBytes(data);
+
+		final TempDocumentsDAO dao = new FileSystemDedupTempDocumentsDAO();
+		final String id1 = dao.storeDocument(null, data, true);
+		final String id2 = dao.storeDocument(null, data.clone(), true);
+		Assert.assertNotEquals(id1, id2);
+		Assert.assertArrayEquals(data, dao.retrieveDocument(id1));
+		Assert.assertArrayEquals(data, dao.retrieveDocument(id2));
+
+		final File contentFile = getContentFile(data);
+		Assert.assertTrue(contentFile.isFile());
+
+		// Aunque el contenido haya caducado, se conserva mientras se referencie
+		dao.deleteDocument(id1);
+		Assert.assertFalse(dao.existDocument(id1));
+		Assert.assertTrue(contentFile.setLastModified(0));
+		dao.deleteExpiredDocuments(60000);
+		Assert.assertArrayEquals(data, dao.retrieveDocument(id2));
+
+		// Sin referencias, se elimina
+		dao.deleteDocument(id2);
+		dao.deleteExpiredDocuments(60000);
+		Assert.assertFalse(contentFile.exists());
+	}
+}
@@ -0,0 +1,47 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.server.services.internal.sessions;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import es.gob.afirma.core.misc.AOUtil;
+
+/** Pruebas de las operaciones por flujos del gestor de documentos temporales en disco. */
+public final class TestFileSystemTempDocumentsDAO {
+
+	/**
+	 * Comprueba que un documento guardado desde un flujo se recupera completo.
+	 * @throws Exception Cuando falla el guardado o la lectura.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testStreamingRoundTrip() throws Exception {
+
+		final byte[] data = new byte[3 * 1024 * 1024 + 17];
+		new Random(1).nextBytes(data);
+
+		final TempDocumentsDAO dao = new FileSystemTempDocumentsDAO();
+		final String id = dao.storeDocument(null, Channels.newChannel(new ByteArrayInputStream(data)), true);
+		try {
+			try (InputStream is = dao.openDocument(id)) {
+				Assert.assertArrayEquals(data, AOUtil.getDataFromInputStream(is));
+			}
+		}
+		finally {
+			dao.deleteDocument(id);
+		}
+	}
+}
@@ -0,0 +1,124 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.server.services.internal.sessions;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import es.gob.fire.server.services.internal.FireSession;
+
+/** Pruebas del almac&eacute;n de sesiones fragmentado. */
+public final class TestShardedTransactionsStore {
+
+	private static FireSession newSession(final String id, final long expirationTime) {
+		return FireSession.newSession(id, new HashMap<String, Object>(), expirationTime);
+	}
+
+	/** Comprueba las operaciones b&aacute;sicas del almac&eacute;n. */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testPutGetRemove() {
+		final TransactionsStore store = new ShardedTransactionsStore(4);
+		final FireSession session = newSession("tr1", System.currentTimeMillis() + 60000); //$NON-NLS-1$
+
+		store.put(session);
+		Assert.assertTrue(store.contains("tr1")); //$NON-NLS-1$
+		Assert.assertSame(session, store.get("tr1")); //$NON-NLS-1$
+		Assert.assertEquals(1, store.size());
+
+		Assert.assertSame(session, store.remove("tr1")); //$NON-NLS-1$
+		Assert.assertNull(store.get("tr1")); //$NON-NLS-1$
+		Assert.assertEquals(0, store.size());
+	}
+
+	/** Comprueba que solo se extraen las sesiones caducadas. */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testExpire() {
+		final TransactionsStore store = new ShardedTransactionsStore(4);
+		final long now = System.currentTimeMillis();
+
+		store.put(newSession("expired", now - 1000)); //$NON-NLS-1$
+		store.put(newSession("alive", now + 60000)); //$NON-NLS-1$
+
+		final List<FireSession> expired = store.expire(now);
+		Assert.assertEquals(1, expired.size());
+		Assert.assertEquals("expired", expired.get(0).getTransactionId()); //$NON-NLS-1$
+		Assert.assertFalse(store.contains("expired")); //$NON-NLS-1$
+		Assert.assertTrue(store.contains("alive")); //$NON-NLS-1$
+	}
+
+	/** Comprueba que una sesi&oacute;n renovada no se considera caducada. */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testRenewedSessionIsNotExpired() {
+		final TransactionsStore store = new ShardedTransactionsStore(4);
+		final long now = System.currentTimeMillis();
+
+		final FireSession session = newSession("tr1", now - 1000); //$NON-NLS-1$
+		store.put(session);
+		session.updateExpirationTime();
+		store.put(session);
+
+		Assert.assertTrue(store.expire(now).isEmpty());
+		Assert.assertSame(session, store.get("tr1")); //$NON-NLS-1$
+	}
+
+	/**
+	 * Comprueba que el almac&eacute;n mantiene la coherencia cuando se accede desde
+	 * varios hilos.
+	 * @throws Exception Cuando falla alguno de los hilos.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testConcurrentAccess() throws Exception {
+		final TransactionsStore store = new ShardedTransactionsStore();
+		final int threads = 8;
+		final int sessionsPerThread = 5000;
+		final long expiration = System.currentTimeMillis() + 60000;
+
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			final Future<?>[] futures = new Future<?>[threads];
+			for (int t = 0; t < threads; t++) {
+				final int thread = t;
+				futures[t] = executor.submit(new Runnable() {
+					@Override
+					public void run() {
+						for (int i = 0; i < sessionsPerThread; i++) {
+							final String id = thread + "-" + i; //$NON-NLS-1$
+							store.put(newSession(id, expiration));
+							Assert.assertNotNull(store.get(id));
+							if (i % 2 == 0) {
+								store.remove(id);
+							}
+						}
+					}
+				});
+			}
+			for (final Future<?> future : futures) {
+				future.get();
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+
+		Assert.assertEquals(threads * sessionsPerThread / 2, store.size());
+		Assert.assertEquals(threads * sessionsPerThread / 2, store.expire(expiration + 1).size());
+		Assert.assertEquals(0, store.size());
+	}
+}
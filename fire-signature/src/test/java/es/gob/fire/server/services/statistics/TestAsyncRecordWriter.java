@@ -0,0 +1,166 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.server.services.statistics;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Pruebas del escritor as&iacute;ncrono de registros. */
+public final class TestAsyncRecordWriter {
+
+	private static final int THREADS = 4;
+
+	private static final int RECORDS_PER_THREAD = 5000;
+
+	/**
+	 * Comprueba que se escriben, en orden por hilo, todos los registros publicados
+	 * concurrentemente aunque el buffer sea menor que el n&uacute;mero de registros.
+	 * @throws Exception Cuando falla la prueba.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testBlockWritesAllRecords() throws Exception {
+
+		final AsyncRecordWriter writer = new AsyncRecordWriter(64, AsyncRecordWriter.OverflowPolicy.BLOCK);
+		final List<String> written = new CopyOnWriteArrayList<>();
+
+		final Thread[] threads = new Thread[THREADS];
+		for (int t = 0; t < THREADS; t++) {
+			final int threadId = t;
+			threads[t] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int i = 0; i < RECORDS_PER_THREAD; i++) {
+						final String value = threadId + ":" + i; //$NON-NLS-1$
+						writer.publish(new AsyncRecordWriter.Record() {
+							@Override
+							public void write() {
+								written.add(value);
+							}
+						});
+					}
+				}
+			});
+			threads[t].start();
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+		writer.stop();
+
+		Assert.assertEquals(THREADS * RECORDS_PER_THREAD, written.size());
+		Assert.assertEquals(0, writer.getDroppedRecords());
+		Assert.assertEquals(0, writer.getQueueDepth());
+		Assert.assertTrue(writer.getMaxQueueDepth() <= writer.getCapacity());
+
+		final int[] next = new int[THREADS];
+		for (final String value : written) {
+			final int sep = value.indexOf(':');
+			final int threadId = Integer.parseInt(value.substring(0, sep));
+			Assert.assertEquals(next[threadId]++, Integer.parseInt(value.substring(sep + 1)));
+		}
+	}
+
+	/**
+	 * Comprueba que se escriben todos los registros publicados mientras se detiene el escritor.
+	 * @throws Exception Cuando falla la prueba.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testPublishWhileStopping() throws Exception {
+
+		for (int round = 0; round < 20; round++) {
+			final AsyncRecordWriter writer = new AsyncRecordWriter(1024, AsyncRecordWriter.OverflowPolicy.BLOCK);
+			final AtomicInteger published = new AtomicInteger(0);
+			final AtomicInteger written = new AtomicInteger(0);
+			final CountDownLatch started = new CountDownLatch(THREADS);
+
+			final Thread[] threads = new Thread[THREADS];
+			for (int t = 0; t < THREADS; t++) {
+				threads[t] = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						started.countDown();
+						for (int i = 0; i < 500; i++) {
+							if (writer.publish(new AsyncRecordWriter.Record() {
+								@Override
+								public void write() {
+									written.incrementAndGet();
+								}
+							})) {
+								published.incrementAndGet();
+							}
+						}
+					}
+				});
+				threads[t].start();
+			}
+			started.await(10, TimeUnit.SECONDS);
+			writer.stop();
+			for (final Thread thread : threads) {
+				thread.join();
+			}
+
+			Assert.assertEquals(published.get(), written.get());
+		}
+	}
+
+	/**
+	 * Comprueba que se descartan y contabilizan los registros cuando el buffer est&aacute; lleno.
+	 * @throws Exception Cuando falla la prueba.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testCountDropsRecords() throws Exception {
+
+		final AsyncRecordWriter writer = new AsyncRecordWriter(4, AsyncRecordWriter.OverflowPolicy.COUNT);
+		final CountDownLatch blocked = new CountDownLatch(1);
+		final CountDownLatch unblock = new CountDownLatch(1);
+
+		// El primer registro bloquea al escritor para poder llenar el buffer
+		writer.publish(new AsyncRecordWriter.Record() {
+			@Override
+			public void write() {
+				blocked.countDown();
+				try {
+					unblock.await(10, TimeUnit.SECONDS);
+				}
+				catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		Assert.assertTrue(blocked.await(10, TimeUnit.SECONDS));
+
+		int published = 0;
+		for (int i = 0; i < 10; i++) {
+			if (writer.publish(new AsyncRecordWriter.Record() {
+				@Override
+				public void write() {
+					// No se hace nada
+				}
+			})) {
+				published++;
+			}
+		}
+		unblock.countDown();
+		writer.stop();
+
+		Assert.assertEquals(4, published);
+		Assert.assertEquals(6, writer.getDroppedRecords());
+		Assert.assertEquals(5, writer.getWrittenRecords());
+	}
+}
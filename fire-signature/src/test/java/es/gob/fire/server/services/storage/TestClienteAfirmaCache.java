@@ -0,0 +1,93 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.server.services.storage;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Pruebas de la cach&eacute; de datos del Cliente @firma. */
+public final class TestClienteAfirmaCache {
+
+	private static final long EXPIRATION = 60000;
+
+	/** Comprueba que se descartan los datos menos usados al superar el tama&ntilde;o m&aacute;ximo. */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testLruEviction() {
+		final ClienteAfirmaCache cache = new ClienteAfirmaCache(300, EXPIRATION, 0, null);
+
+		cache.put("a", new byte[100]); //$NON-NLS-1$
+		cache.put("b", new byte[100]); //$NON-NLS-1$
+		cache.put("c", new byte[100]); //$NON-NLS-1$
+
+		// Usamos "a" para que "b" pase a ser el dato menos usado
+		Assert.assertNotNull(cache.get("a")); //$NON-NLS-1$
+		cache.put("d", new byte[100]); //$NON-NLS-1$
+
+		Assert.assertNull(cache.get("b")); //$NON-NLS-1$
+		Assert.assertNotNull(cache.get("a")); //$NON-NLS-1$
+		Assert.assertNotNull(cache.get("c")); //$NON-NLS-1$
+		Assert.assertNotNull(cache.get("d")); //$NON-NLS-1$
+		Assert.assertEquals(300, cache.getSize());
+	}
+
+	/** Comprueba que los datos caducados no se devuelven y se eliminan. */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testExpiration() {
+		final ClienteAfirmaCache cache = new ClienteAfirmaCache(1000, -1, 0, null);
+
+		cache.put("a", new byte[10]); //$NON-NLS-1$
+		Assert.assertNull(cache.get("a")); //$NON-NLS-1$
+		Assert.assertEquals(0, cache.getSize());
+
+		cache.put("b", new byte[10]); //$NON-NLS-1$
+		cache.removeExpired();
+		Assert.assertEquals(0, cache.getSize());
+	}
+
+	/**
+	 * Comprueba que los datos grandes y los que se expulsan de memoria se guardan en disco.
+	 * @throws Exception Cuando falla la creaci&oacute;n del directorio temporal.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testDiskOverflow() throws Exception {
+		final File dir = Files.createTempDirectory("cacheclienteafirma").toFile(); //$NON-NLS-1$
+		try {
+			final ClienteAfirmaCache cache = new ClienteAfirmaCache(150, EXPIRATION, 500, dir);
+
+			final byte[] big = new byte[1000];
+			big[0] = 1;
+			cache.put("big", big); //$NON-NLS-1$
+			Assert.assertEquals(0, cache.getSize());
+			Assert.assertArrayEquals(big, cache.get("big")); //$NON-NLS-1$
+
+			cache.put("a", new byte[100]); //$NON-NLS-1$
+			cache.put("b", new byte[100]); //$NON-NLS-1$
+			Assert.assertEquals(100, cache.getSize());
+			Assert.assertEquals(100, cache.get("a").length); //$NON-NLS-1$
+			Assert.assertEquals(100, cache.get("b").length); //$NON-NLS-1$
+			Assert.assertEquals(2, dir.listFiles().length);
+
+			cache.put("big", new byte[10]); //$NON-NLS-1$
+			Assert.assertEquals(1, dir.listFiles().length);
+		}
+		finally {
+			for (final File f : dir.listFiles()) {
+				f.delete();
+			}
+			dir.delete();
+		}
+	}
+}
@@ -46,6 +46,31 @@ public class CompactedData {
 		this.auditSignatureData = new HashMap<>();
 	}
 
+	/**
+	 * Construye un conjunto de datos a partir de los datos ya agregados de cada fichero.
+	 * @param signatureData N&uacute;mero de firmas de cada tipo.
+	 * @param transactionData Totales de las transacciones de cada tipo.
+	 * @param auditSignatureData N&uacute;mero de firmas de auditor&iacute;a de cada tipo.
+	 * @param auditTransactionData Totales de las transacciones de auditor&iacute;a de cada tipo.
+	 */
+	CompactedData(final Map<SignatureCube, Long> signatureData,
+			final Map<TransactionCube, TransactionTotal> transactionData,
+			final Map<AuditSignatureCube, Long> auditSignatureData,
+			final Map<AuditTransactionCube, TransactionTotal> auditTransactionData) {
+
+		this.signatureData = signatureData;
+
+		this.transactionSizeData = new HashMap<>();
+
+		this.transactionData = transactionData;
+
+		this.auditTransactionSizeData = new HashMap<>();
+
+		this.auditTransactionData = auditTransactionData;
+
+		this.auditSignatureData = auditSignatureData;
+	}
+
 	/**
 	 * Agrega un nuevo registro del cubo de firmas al conjunto de datos.
 	 * @param signatureCube Registro del cubo de firmas.
@@ -148,6 +173,9 @@ public class CompactedData {
 					this.auditSignatureData.remove(signature);
 					this.auditSignatureData.put(auditSignatureCube, totalInstances);
 				}
+				// Solo puede haber una firma equivalente y no se puede seguir
+				// recorriendo el mapa si se ha modificado
+				break;
 			}
 		}
 		
@@ -46,6 +46,27 @@ public class FireStatistics {
 	public static final void init(final String path, final String time, final String jdbcDriver,
 			final String dbConnectionString, final String username, final String password, final boolean processCurrentDay)
 					throws IOException {
+		init(path, time, jdbcDriver, dbConnectionString, username, password, processCurrentDay,
+				LoadStatisticsRunnable.DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * Lanza la ejecuci&oacute;n de la carga de datos de los fichero de estad&iacute;sticas a la
+	 * base de datos, a la hora indicada por par&aacute;metro, insertando los datos en lotes
+	 * del tama&ntilde;o indicado.
+	 * @param path Ruta del directorio con los datos estad&iacute;sticos.
+	 * @param time Hora a la que realizar el volcado a base de datos. Si no se indica, se usar&aacute; la 00:00:00.
+	 * @param jdbcDriver Clase controladora JDBC para la conexi&oacute;n con la base de datos.
+	 * @param dbConnectionString Cadena de conexi&oacute;on a la base de datos.
+	 * @param username Nombre de usuario con el que conectarse a la base de datos.
+	 * @param password Contrase&ntilde;a del usuario.
+	 * @param processCurrentDay Indica si se deben procesar tambi&eacute;n los datos del d&iacute;a actual.
+	 * @param batchSize N&uacute;mero m&aacute;ximo de registros de cada lote de inserciones.
+	 * @throws IOException Cuando falla la inicializacion de la tarea.
+	 */
+	public static final void init(final String path, final String time, final String jdbcDriver,
+			final String dbConnectionString, final String username, final String password, final boolean processCurrentDay,
+			final int batchSize) throws IOException {
 
 		if (path == null) {
 			throw new NullPointerException("No se ha indicado la ruta del directorio con los ficheros de datos estadisticos"); //$NON-NLS-1$
@@ -59,7 +80,7 @@ public class FireStatistics {
 		startTime = time;
 
 		// Se crea una tarea para la carga de los datos de estadistica
-		final LoadStatisticsRunnable loadStatisticsDataTask = new LoadStatisticsRunnable(dataPath, processCurrentDay);
+		final LoadStatisticsRunnable loadStatisticsDataTask = new LoadStatisticsRunnable(dataPath, processCurrentDay, batchSize);
 
 		sch = Executors.newScheduledThreadPool(1);
 		try {
@@ -13,9 +13,11 @@ import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Comparator;
 import java.util.Date;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -23,11 +25,6 @@ import es.gob.fire.signature.DBConnectionException;
 import es.gob.fire.signature.DbManager;
 import es.gob.fire.statistics.dao.SignaturesDAO;
 import es.gob.fire.statistics.dao.TransactionsDAO;
-import es.gob.fire.statistics.entity.AuditSignatureCube;
-import es.gob.fire.statistics.entity.AuditTransactionCube;
-import es.gob.fire.statistics.entity.SignatureCube;
-import es.gob.fire.statistics.entity.TransactionCube;
-import es.gob.fire.statistics.entity.TransactionTotal;
 
 public class LoadStatisticsRunnable implements Runnable {
 
@@ -42,10 +39,17 @@ public class LoadStatisticsRunnable implements Runnable {
 	private static final String FILE_AUDIT_SIGN_PREFIX = "FIRE_AUDIT_SIGNATURE_";//$NON-NLS-1$
 	private static final String FILE_AUDIT_TRANS_PREFIX = "FIRE_AUDIT_TRANSACTION_";//$NON-NLS-1$
 
+	/** N&uacute;mero de registros que se insertan por defecto en cada lote. */
+	static final int DEFAULT_BATCH_SIZE = 500;
+
+	/** N&uacute;mero de hilos con los que se leen a la vez los ficheros de un d&iacute;a. */
+	private static final int EXTRACTOR_THREADS = 4;
+
 	private final static SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd"); //$NON-NLS-1$
 
 	private final String dataPath;
 	private final boolean processCurrentDay;
+	private final int batchSize;
 
 	private LoadStatisticsResult result = null;
 
@@ -74,8 +78,23 @@ public class LoadStatisticsRunnable implements Runnable {
 	 *                          ({@code true}) o si no ({@code false}).
 	 */
 	public LoadStatisticsRunnable(final String dataPath, final boolean processCurrentDay) {
+		this(dataPath, processCurrentDay, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * Crea la tarea indicando el directorio de los ficheros de datos estadisticos, si se
+	 * desea procesar la informaci&oacute;n de hoy y el n&uacute;mero de registros que se
+	 * env&iacute;an a la vez a la base de datos.
+	 *
+	 * @param dataPath Ruta de los ficheros de datos.
+	 * @param processCurrentDay Indica si se debe procesar los datos del d&iacute;a
+	 *                          actual ({@code true}) o si no ({@code false}).
+	 * @param batchSize N&uacute;mero m&aacute;ximo de registros de cada lote de inserciones.
+	 */
+	public LoadStatisticsRunnable(final String dataPath, final boolean processCurrentDay, final int batchSize) {
 		this.dataPath = dataPath;
 		this.processCurrentDay = processCurrentDay;
+		this.batchSize = batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
 	}
 
 	@Override
@@ -127,13 +146,25 @@ public class LoadStatisticsRunnable implements Runnable {
 			return;
 		}
 
-		// Cargamos los ficheros en base de datos
+		// Cargamos los ficheros en base de datos. Los ficheros de cada dia se procesan
+		// en paralelo
+		final ExecutorService executor = Executors.newFixedThreadPool(EXTRACTOR_THREADS, new ThreadFactory() {
+			private final AtomicInteger threadCount = new AtomicInteger(0);
+			@Override
+			public Thread newThread(final Runnable r) {
+				final Thread thread = new Thread(r, "FIRe-StatisticsLoader-" + this.threadCount.incrementAndGet()); //$NON-NLS-1$
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
 		try {
 			this.result = exeLoadStatistics(signatureFiles, transaccionFiles, auditSignatureFiles,
-					auditTransaccionFiles);
+					auditTransaccionFiles, new StatisticsDataExtractor(executor), this.batchSize);
 		} catch (final Exception e) {
 			LOGGER.log(Level.SEVERE, "No ha sido posible cargar todos los datos en base de datos", e); //$NON-NLS-1$
 			return;
+		} finally {
+			executor.shutdownNow();
 		}
 
 		// Registramos la fecha de los ultimos datos que se han podido cargar en base de
@@ -326,10 +357,13 @@ public class LoadStatisticsRunnable implements Runnable {
 	 * fecha.
 	 * @param signatureFiles Ficheros con los datos de las firmas ejecutadas.
 	 * @param transactionFiles Ficheros con los datos de las transacciones ejecutadas.
+	 * @param extractor Extractor con el que se leen los datos de los ficheros de cada d&iacute;a.
+	 * @param batchSize N&uacute;mero m&aacute;ximo de registros de cada lote de inserciones.
 	 * @return Resultado del proceso de carga.
 	 */
 	private static LoadStatisticsResult exeLoadStatistics(final File[] signatureFiles, final File[] transactionFiles,
-			final File[] auditSignatureFiles, final File[] auditTransactionFiles) {
+			final File[] auditSignatureFiles, final File[] auditTransactionFiles,
+			final StatisticsDataExtractor extractor, final int batchSize) {
 
 		Date lastDateProcessed = null;
 		String lastDateProcessedText = null;
@@ -386,7 +420,7 @@ public class LoadStatisticsRunnable implements Runnable {
 			// Extraemos la informacion de los ficheros
 			CompactedData compactedData;
 			try {
-				compactedData = extractData(signatureFiles[i], transactionFiles[i], auditSignatureFiles[i],
+				compactedData = extractor.extract(signatureFiles[i], transactionFiles[i], auditSignatureFiles[i],
 						auditTransactionFiles[i]);
 			} catch (final Exception e) {
 				final String errorMsg = "Ocurrio un error al extraer los datos de los ficheros del dia " + dateText; //$NON-NLS-1$
@@ -396,7 +430,7 @@ public class LoadStatisticsRunnable implements Runnable {
 
 			// Insertamos los datos en base de datos
 			try {
-				insertDataIntoDb(date, compactedData);
+				insertDataIntoDb(date, compactedData, batchSize);
 			} catch (final DBConnectionException e) {
 				final String errorMsg = "No se pudo conectar con la base de datos. Se aborta el proceso de carga de los datos del dia " //$NON-NLS-1$
 						+ dateText;
@@ -416,250 +450,50 @@ public class LoadStatisticsRunnable implements Runnable {
 		return new LoadStatisticsResult(true, lastDateProcessed, lastDateProcessedText);
 	}
 
-	/**
-	 * Funci&oacute;n que prepara los registros de los ficheros log pasados por
-	 * par&aacute;metro
-	 * para ser insertados en la BBDD. Si se encuentra algun registro mal formado,
-	 * se ignorar&aacute;.
-	 *
-	 * @param signaturesFile        Fichero con los datos de firma.
-	 * @param transactionsFile      Fichero con los datos de transacci&oacute;n.
-	 * @param auditSignaturesFile   Fichero con los datos de firma de auditoria.
-	 * @param auditTransactionsFile Fichero con los datos de transacci&oacute;n de
-	 *                              auditoria.
-	 * @return Datos extra&iacute;dos de los ficheros.
-	 * @throws IOException Cuando no se pueden leer los datos de los ficheros
-	 *                     indicados.
-	 */
-	private static CompactedData extractData(final File signaturesFile, final File transactionsFile,
-			final File auditSignaturesFile, final File auditTransactionsFile)
-			throws IOException {
-
-		final CompactedData compactedData = new CompactedData();
-
-		// Procesamos el fichero de datos de firma
-		try (final FileReader fr = new FileReader(signaturesFile);
-
-				final BufferedReader br = new BufferedReader(fr);) {
-
-			String registry;
-			while ((registry = br.readLine()) != null) {
-				if (registry.trim().isEmpty()) {
-					continue;
-				}
-
-				// Se obtiene el objeto SignatureCube del registro leido
-				SignatureCube signCube;
-				try {
-					signCube = SignatureCube.parse(registry);
-				} catch (final Exception e) {
-					LOGGER.warning(String.format("Error al cargar un registro de firma del fichero %1s: %2s", //$NON-NLS-1$
-							signaturesFile.getAbsolutePath(), e.getMessage()));
-					continue;
-				}
-
-				// Se inserta en el conjunto de datos
-				compactedData.addSignatureData(signCube);
-			}
-		}
-
-		// Procesamos el fichero de transacciones
-		try (final FileReader fr = new FileReader(transactionsFile);
-				final BufferedReader br = new BufferedReader(fr);) {
-
-			String registry;
-			while ((registry = br.readLine()) != null) {
-				if (registry.trim().isEmpty()) {
-					continue;
-				}
-
-				TransactionCube transCube;
-				try {
-					transCube = TransactionCube.parse(registry);
-				} catch (final Exception e) {
-					LOGGER.warning(String.format("Error al cargar un registro de transaccion del fichero %1s: %2s", //$NON-NLS-1$
-							transactionsFile.getAbsolutePath(), e.getMessage()));
-					continue;
-				}
-
-				// Se inserta en el conjunto de datos
-				compactedData.addTransactionData(transCube);
-			}
-		}
-
-		// Procesamos el fichero de firmas de auditoria
-		try (final FileReader fr = new FileReader(auditSignaturesFile);
-				final BufferedReader br = new BufferedReader(fr);) {
-
-			String registry;
-			while ((registry = br.readLine()) != null) {
-				if (registry.trim().isEmpty()) {
-					continue;
-				}
-
-				AuditSignatureCube auditSignatureCube;
-				try {
-					auditSignatureCube = AuditSignatureCube.parse(registry);
-				} catch (final Exception e) {
-					throw new IllegalArgumentException(
-							String.format("Se encontro un registro no valido en el fichero %1s", //$NON-NLS-1$
-									auditSignaturesFile.getAbsolutePath()),
-							e);
-				}
-
-				// Se inserta en el conjunto de datos
-				compactedData.addAuditSignatureData(auditSignatureCube);
-			}
-		}
-
-		// Procesamos el fichero de transacciones de auditoria
-		try (final FileReader fr = new FileReader(auditTransactionsFile);
-				final BufferedReader br = new BufferedReader(fr);) {
-
-			String registry;
-			while ((registry = br.readLine()) != null) {
-				if (registry.trim().isEmpty()) {
-					continue;
-				}
-
-				AuditTransactionCube auditTransactionCube;
-				try {
-					auditTransactionCube = AuditTransactionCube.parse(registry);
-				} catch (final Exception e) {
-					throw new IllegalArgumentException(
-							String.format("Se encontro un registro no valido en el fichero %1s", //$NON-NLS-1$
-									auditTransactionsFile.getAbsolutePath()),
-							e);
-				}
-
-				// Se inserta en el conjunto de datos
-				compactedData.addAuditTransactionData(auditTransactionCube);
-			}
-		}
-
-		/*
-		// Procesamos el fichero de firmas de auditoria
-		try (final FileReader fr = new FileReader(auditSignaturesFile);
-				final BufferedReader br = new BufferedReader(fr);) {
-
-			String registry;
-			while ((registry = br.readLine()) != null) {
-				if (registry.trim().isEmpty()) {
-					continue;
-				}
-
-				AuditSignatureCube auditSignatureCube;
-				try {
-					auditSignatureCube = AuditSignatureCube.parse(registry);
-				} catch (final Exception e) {
-					throw new IllegalArgumentException(
-							String.format("Se encontro un registro no valido en el fichero %1s", //$NON-NLS-1$
-									auditSignaturesFile.getAbsolutePath()),
-							e);
-				}
-
-				// Se inserta en el conjunto de datos
-				compactedData.addAuditSignatureData(auditSignatureCube);
-			}
-		}
-
-		// Procesamos el fichero de transacciones de auditoria
-		try (final FileReader fr = new FileReader(auditTransactionsFile);
-				final BufferedReader br = new BufferedReader(fr);) {
-
-			String registry;
-			while ((registry = br.readLine()) != null) {
-				if (registry.trim().isEmpty()) {
-					continue;
-				}
-
-				AuditTransactionCube auditTransactionCube;
-				try {
-					auditTransactionCube = AuditTransactionCube.parse(registry);
-				} catch (final Exception e) {
-					throw new IllegalArgumentException(
-							String.format("Se encontro un registro no valido en el fichero %1s", //$NON-NLS-1$
-									auditTransactionsFile.getAbsolutePath()),
-							e);
-				}
-
-				// Se inserta en el conjunto de datos
-				compactedData.addAuditTransactionData(auditTransactionCube);
-			}
-		}
-		*/
-
-		return compactedData;
-	}
-
 	/**
 	 * Inserta la informacion de las firmas y transacciones de un d&iacute;a en base
 	 * de datos.
 	 *
 	 * @param date          Fecha en la que se realizaron las operaciones.
 	 * @param compactedData Conjunto de datos de las operaciones.
+	 * @param batchSize     N&uacute;mero m&aacute;ximo de registros de cada lote de
+	 *                      inserciones.
 	 * @throws SQLException          Cuando se produce un error al insertar los
 	 *                               datos.
 	 * @throws DBConnectionException Cuando se produce un error de conexi&oacute;n
 	 *                               con la base de datos.
 	 */
-	private static void insertDataIntoDb(final Date date, final CompactedData compactedData)
+	private static void insertDataIntoDb(final Date date, final CompactedData compactedData, final int batchSize)
 			throws SQLException, DBConnectionException {
 
-		// Insertamos la informacion de las firmas realizadas
-		final Map<SignatureCube, Long> signaturesCube = compactedData.getSignatureData();
-
-		final Iterator<SignatureCube> itSigns = signaturesCube.keySet().iterator();
+		// Se insertan todos los datos del dia en una unica transaccion, de forma que o
+		// se registran todos o ninguno y la fecha de los ultimos datos cargados siga
+		// siendo valida
 		try (Connection conn = DbManager.getConnection(false)) {
-			while (itSigns.hasNext()) {
+			try {
+				// Insertamos la informacion de las firmas realizadas
+				SignaturesDAO.insertSignatures(date, compactedData.getSignatureData(), conn, batchSize);
 
-				final SignatureCube signatureConfig = itSigns.next();
-				final Long total = signaturesCube.get(signatureConfig);
-				try {
-					SignaturesDAO.insertSignature(date, signatureConfig, total.longValue(), conn);
-				} catch (final Exception e) {
-					LOGGER.log(Level.SEVERE,
-							String.format(
-									"No se pudo insertar las firmas del dia %1s. Se desharan las inserciones realizadas de este dia", //$NON-NLS-1$
-									new SimpleDateFormat("dd/MM/yyyy").format(date)), //$NON-NLS-1$
-							e);
-					try {
-						conn.rollback();
-					} catch (final Exception e1) {
-						LOGGER.log(Level.WARNING, "No se pudieron deshacer las inserciones ya realizadas", e1); //$NON-NLS-1$
-					}
-					throw e;
-				}
-			}
+				// Insertamos la informacion de las transacciones realizadas
+				TransactionsDAO.insertTransactions(date, compactedData.getTransactionData(), conn, batchSize);
 
-			// Insertamos la informacion de las transacciones realizadas
-			final Map<TransactionCube, TransactionTotal> transactionsCube = compactedData.getTransactionData();
+				// Actualizamos los resumenes mensuales con los que se consultan las estadisticas
+				SignaturesDAO.updateMonthlySignatures(date, conn);
+				TransactionsDAO.updateMonthlyTransactions(date, conn);
 
-			final Iterator<TransactionCube> itTrans = transactionsCube.keySet().iterator();
-			while (itTrans.hasNext()) {
-				final TransactionCube transactionConfig = itTrans.next();
-				final TransactionTotal total = transactionsCube.get(transactionConfig);
+				conn.commit();
+			} catch (final SQLException | RuntimeException e) {
+				LOGGER.log(Level.SEVERE,
+						String.format(
+								"No se pudieron insertar los datos del dia %1s. Se desharan las inserciones realizadas de este dia", //$NON-NLS-1$
+								new SimpleDateFormat("dd/MM/yyyy").format(date)), //$NON-NLS-1$
+						e);
 				try {
-					TransactionsDAO.insertTransaction(date, transactionConfig, total, conn);
-				} catch (final Exception e) {
-					LOGGER.log(Level.SEVERE,
-							String.format(
-									"No se pudo insertar las transacciones del dia %1s. Se desharan las inserciones realizadas de este dia", //$NON-NLS-1$
-									new SimpleDateFormat("dd/MM/yyyy").format(date)), //$NON-NLS-1$
-							e);
-					try {
-						conn.rollback();
-					} catch (final Exception e1) {
-						LOGGER.log(Level.WARNING, "No se pudieron deshacer las inserciones ya realizadas", e1); //$NON-NLS-1$
-					}
-					throw e;
+					conn.rollback();
+				} catch (final Exception e1) {
+					LOGGER.log(Level.WARNING, "No se pudieron deshacer las inserciones ya realizadas", e1); //$NON-NLS-1$
 				}
-			}
-
-			try {
-				conn.commit();
-			} catch (final Exception e1) {
-				LOGGER.log(Level.WARNING, "No se pudieron confirmar las inserciones ya realizadas", e1); //$NON-NLS-1$
+				throw e;
 			}
 		}
 	}
@@ -0,0 +1,419 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.statistics;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+import es.gob.fire.statistics.entity.AuditSignatureCube;
+import es.gob.fire.statistics.entity.AuditTransactionCube;
+import es.gob.fire.statistics.entity.SignatureCube;
+import es.gob.fire.statistics.entity.TransactionCube;
+import es.gob.fire.statistics.entity.TransactionTotal;
+
+/**
+ * Extrae los datos de los ficheros de estad&iacute;sticas de un d&iacute;a. Cada
+ * fichero se lee l&iacute;nea a l&iacute;nea en su propio hilo y se agrega sobre
+ * mapas propios de ese hilo. Al terminar, se combinan los resultados parciales
+ * completando los tama&ntilde;os de las transacciones con los de sus firmas.
+ */
+final class StatisticsDataExtractor {
+
+	private static final Logger LOGGER = Logger.getLogger(StatisticsDataExtractor.class.getName());
+
+	/** Tama&ntilde;o del buffer de lectura de los ficheros. */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final ExecutorService executor;
+
+	/**
+	 * Crea el extractor de datos.
+	 * @param executor Servicio en el que se procesan los ficheros. Deber&iacute;a
+	 * disponer de al menos 4 hilos para procesar a la vez todos los ficheros de un d&iacute;a.
+	 */
+	StatisticsDataExtractor(final ExecutorService executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Extrae los datos de los ficheros de un d&iacute;a. Los registros mal formados de
+	 * los ficheros de firmas y transacciones se ignoran.
+	 * @param signaturesFile Fichero con los datos de firma.
+	 * @param transactionsFile Fichero con los datos de transacci&oacute;n.
+	 * @param auditSignaturesFile Fichero con los datos de firma de auditoria.
+	 * @param auditTransactionsFile Fichero con los datos de transacci&oacute;n de auditoria.
+	 * @return Datos extra&iacute;dos de los ficheros.
+	 * @throws IOException Cuando no se pueden leer los datos de los ficheros indicados.
+	 * @throws IllegalArgumentException Cuando un registro de auditor&iacute;a no es v&aacute;lido.
+	 * @throws IllegalStateException Cuando hay transacciones pero no firmas.
+	 */
+	CompactedData extract(final File signaturesFile, final File transactionsFile,
+			final File auditSignaturesFile, final File auditTransactionsFile) throws IOException {
+
+		final List<Future<?>> futures = new ArrayList<>(4);
+		try {
+			final Future<SignaturesReader> signatures = submit(new SignaturesReader(signaturesFile), futures);
+			final Future<TransactionsReader> transactions = submit(new TransactionsReader(transactionsFile), futures);
+			final Future<AuditSignaturesReader> auditSignatures = submit(new AuditSignaturesReader(auditSignaturesFile), futures);
+			final Future<AuditTransactionsReader> auditTransactions = submit(new AuditTransactionsReader(auditTransactionsFile), futures);
+
+			final SignaturesReader signaturesData = get(signatures);
+			final TransactionsReader transactionsData = get(transactions);
+			if (signaturesData.counts.isEmpty() && !transactionsData.totals.isEmpty()) {
+				throw new IllegalStateException("Se deben cargar los datos de las firmas antes que los de transaccion"); //$NON-NLS-1$
+			}
+			transactionsData.addDataSizes(signaturesData.sizes);
+
+			final AuditSignaturesReader auditSignaturesData = get(auditSignatures);
+			final AuditTransactionsReader auditTransactionsData = get(auditTransactions);
+			if (auditSignaturesData.counts.isEmpty() && !auditTransactionsData.totals.isEmpty()) {
+				throw new IllegalStateException("Se deben cargar los datos de las firmas de auditoria antes que los de transaccion de auditoria"); //$NON-NLS-1$
+			}
+			auditTransactionsData.addDataSizes(auditSignaturesData.sizes);
+
+			return new CompactedData(
+					toLongMap(signaturesData.counts),
+					transactionsData.totals,
+					toLongMap(auditSignaturesData.counts),
+					auditTransactionsData.totals);
+		}
+		finally {
+			// Si fallo alguno de los ficheros, no es necesario terminar de leer el resto
+			for (final Future<?> future : futures) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	private <T> Future<T> submit(final Callable<T> task, final List<Future<?>> futures) {
+		final Future<T> future = this.executor.submit(task);
+		futures.add(future);
+		return future;
+	}
+
+	private static <T> T get(final Future<T> future) throws IOException {
+		try {
+			return future.get();
+		}
+		catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Se interrumpio la lectura de los ficheros de estadisticas", e); //$NON-NLS-1$
+		}
+		catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IOException("Error al leer un fichero de estadisticas", cause); //$NON-NLS-1$
+		}
+	}
+
+	private static <K> Map<K, Long> toLongMap(final Map<K, long[]> counters) {
+		final Map<K, Long> result = new HashMap<>((int) (counters.size() / 0.75f) + 1);
+		for (final Map.Entry<K, long[]> entry : counters.entrySet()) {
+			result.put(entry.getKey(), Long.valueOf(entry.getValue()[0]));
+		}
+		return result;
+	}
+
+	private static void addSize(final Map<String, long[]> sizes, final String trId, final long size) {
+		final long[] current = sizes.get(trId);
+		if (current == null) {
+			sizes.put(trId, new long[] { size });
+		}
+		else {
+			current[0] += size;
+		}
+	}
+
+	/**
+	 * Tarea que lee un fichero de datos l&iacute;nea a l&iacute;nea, ignorando las
+	 * l&iacute;neas vac&iacute;as, y devuelve el propio lector con los datos agregados.
+	 * @param <R> Tipo del lector.
+	 */
+	private abstract static class DataFileReader<R> implements Callable<R> {
+
+		protected final File file;
+
+		DataFileReader(final File file) {
+			this.file = file;
+		}
+
+		@Override
+		public final R call() throws IOException {
+			try (final BufferedReader br = new BufferedReader(new FileReader(this.file), BUFFER_SIZE)) {
+				String registry;
+				while ((registry = br.readLine()) != null) {
+					if (registry.trim().isEmpty()) {
+						continue;
+					}
+					processRegistry(registry);
+				}
+			}
+			return self();
+		}
+
+		/**
+		 * Procesa una l&iacute;nea no vac&iacute;a del fichero.
+		 * @param registry L&iacute;nea del fichero.
+		 */
+		abstract void processRegistry(String registry);
+
+		abstract R self();
+	}
+
+	/**
+	 * Agrega el n&uacute;mero de firmas de cada tipo y el tama&ntilde;o de los datos
+	 * firmados en cada transacci&oacute;n.
+	 */
+	private static final class SignaturesReader extends DataFileReader<SignaturesReader> {
+
+		final Map<SignatureCube, long[]> counts = new HashMap<>();
+
+		final Map<String, long[]> sizes = new HashMap<>();
+
+		SignaturesReader(final File file) {
+			super(file);
+		}
+
+		@Override
+		void processRegistry(final String registry) {
+			SignatureCube signCube;
+			try {
+				signCube = SignatureCube.parse(registry);
+			} catch (final Exception e) {
+				LOGGER.warning(String.format("Error al cargar un registro de firma del fichero %1s: %2s", //$NON-NLS-1$
+						this.file.getAbsolutePath(), e.getMessage()));
+				return;
+			}
+
+			final long[] count = this.counts.get(signCube);
+			if (count == null) {
+				this.counts.put(signCube, new long[] { 1 });
+			}
+			else {
+				count[0]++;
+			}
+			addSize(this.sizes, signCube.getIdTransaction(), signCube.getDataSize());
+		}
+
+		@Override
+		SignaturesReader self() {
+			return this;
+		}
+	}
+
+	/**
+	 * Agrega el n&uacute;mero de firmas de auditor&iacute;a de cada tipo y el
+	 * tama&ntilde;o de los datos firmados en cada transacci&oacute;n. Si una firma
+	 * equivalente a otra anterior incluye el detalle del error y la anterior no, se
+	 * conserva la nueva.
+	 */
+	private static final class AuditSignaturesReader extends DataFileReader<AuditSignaturesReader> {
+
+		final Map<AuditSignatureCube, long[]> counts = new HashMap<>();
+
+		/** Firma que se conserva para cada grupo de firmas equivalentes. */
+		private final Map<AuditSignatureCube, AuditSignatureCube> keys = new HashMap<>();
+
+		final Map<String, long[]> sizes = new HashMap<>();
+
+		AuditSignaturesReader(final File file) {
+			super(file);
+		}
+
+		@Override
+		void processRegistry(final String registry) {
+			AuditSignatureCube auditSignatureCube;
+			try {
+				auditSignatureCube = AuditSignatureCube.parse(registry);
+			} catch (final Exception e) {
+				throw new IllegalArgumentException(
+						String.format("Se encontro un registro no valido en el fichero %1s", //$NON-NLS-1$
+								this.file.getAbsolutePath()),
+						e);
+			}
+
+			final AuditSignatureCube key = this.keys.get(auditSignatureCube);
+			if (key == null) {
+				this.keys.put(auditSignatureCube, auditSignatureCube);
+				this.counts.put(auditSignatureCube, new long[] { 1 });
+			}
+			else {
+				final long[] count = this.counts.get(key);
+				count[0]++;
+				// El mapa conserva la clave original, asi que hay que eliminarla para sustituirla
+				if (key.checkErrorDetail(auditSignatureCube) == 3) {
+					this.keys.remove(key);
+					this.keys.put(auditSignatureCube, auditSignatureCube);
+					this.counts.remove(key);
+					this.counts.put(auditSignatureCube, count);
+				}
+			}
+			addSize(this.sizes, auditSignatureCube.getIdTransaction(), auditSignatureCube.getDataSize());
+		}
+
+		@Override
+		AuditSignaturesReader self() {
+			return this;
+		}
+	}
+
+	/**
+	 * Agrega el n&uacute;mero de transacciones de cada tipo. Como las transacciones se
+	 * leen a la vez que las firmas, se recuerda a qu&eacute; acumulados contribuye cada
+	 * transacci&oacute;n para sumarles despu&eacute;s el tama&ntilde;o de sus datos.
+	 * @param <T> Tipo de los registros de transacci&oacute;n.
+	 * @param <R> Tipo del lector.
+	 */
+	private abstract static class AbstractTransactionsReader<T, R> extends DataFileReader<R> {
+
+		final Map<T, TransactionTotal> totals = new HashMap<>();
+
+		/** Acumulados a los que contribuye cada transacci&oacute;n. */
+		private final Map<String, Object> pendingSizes = new HashMap<>();
+
+		AbstractTransactionsReader(final File file) {
+			super(file);
+		}
+
+		/**
+		 * Suma una transacci&oacute;n a los datos agregados.
+		 * @param transactionCube Datos de la transacci&oacute;n.
+		 * @param trId Identificador de la transacci&oacute;n.
+		 */
+		void addTransaction(final T transactionCube, final String trId) {
+			TransactionTotal total = this.totals.get(transactionCube);
+			if (total == null) {
+				total = new TransactionTotal(0, 0);
+				this.totals.put(transactionCube, total);
+			}
+			total.setTotal(total.getTotal() + 1);
+
+			// Lo normal es que haya un unico registro por transaccion, asi que solo se
+			// crea un listado cuando hay varios
+			final Object previous = this.pendingSizes.put(trId, total);
+			if (previous instanceof TransactionTotal) {
+				final List<TransactionTotal> list = new ArrayList<>(2);
+				list.add((TransactionTotal) previous);
+				list.add(total);
+				this.pendingSizes.put(trId, list);
+			}
+			else if (previous != null) {
+				@SuppressWarnings("unchecked")
+				final List<TransactionTotal> list = (List<TransactionTotal>) previous;
+				list.add(total);
+				this.pendingSizes.put(trId, list);
+			}
+		}
+
+		/**
+		 * Suma a los acumulados el tama&ntilde;o de los datos de sus transacciones.
+		 * @param sizes Tama&ntilde;o de los datos de cada transacci&oacute;n.
+		 */
+		void addDataSizes(final Map<String, long[]> sizes) {
+			for (final Map.Entry<String, Object> entry : this.pendingSizes.entrySet()) {
+				final long[] size = sizes.get(entry.getKey());
+				if (size == null) {
+					continue;
+				}
+				if (entry.getValue() instanceof TransactionTotal) {
+					addDataSize((TransactionTotal) entry.getValue(), size[0]);
+				}
+				else {
+					@SuppressWarnings("unchecked")
+					final List<TransactionTotal> list = (List<TransactionTotal>) entry.getValue();
+					for (final TransactionTotal total : list) {
+						addDataSize(total, size[0]);
+					}
+				}
+			}
+			this.pendingSizes.clear();
+		}
+
+		private static void addDataSize(final TransactionTotal total, final long size) {
+			total.setDataSize(total.getDataSize() + size);
+		}
+	}
+
+	/**
+	 * Agrega los datos del fichero de transacciones.
+	 */
+	private static final class TransactionsReader extends AbstractTransactionsReader<TransactionCube, TransactionsReader> {
+
+		TransactionsReader(final File file) {
+			super(file);
+		}
+
+		@Override
+		void processRegistry(final String registry) {
+			TransactionCube transCube;
+			try {
+				transCube = TransactionCube.parse(registry);
+			} catch (final Exception e) {
+				LOGGER.warning(String.format("Error al cargar un registro de transaccion del fichero %1s: %2s", //$NON-NLS-1$
+						this.file.getAbsolutePath(), e.getMessage()));
+				return;
+			}
+			addTransaction(transCube, transCube.getIdTransaction());
+		}
+
+		@Override
+		TransactionsReader self() {
+			return this;
+		}
+	}
+
+	/**
+	 * Agrega los datos del fichero de transacciones de auditor&iacute;a.
+	 */
+	private static final class AuditTransactionsReader extends AbstractTransactionsReader<AuditTransactionCube, AuditTransactionsReader> {
+
+		AuditTransactionsReader(final File file) {
+			super(file);
+		}
+
+		@Override
+		void processRegistry(final String registry) {
+			AuditTransactionCube auditTransactionCube;
+			try {
+				auditTransactionCube = AuditTransactionCube.parse(registry);
+			} catch (final Exception e) {
+				throw new IllegalArgumentException(
+						String.format("Se encontro un registro no valido en el fichero %1s", //$NON-NLS-1$
+								this.file.getAbsolutePath()),
+						e);
+			}
+			addTransaction(auditTransactionCube, auditTransactionCube.getIdTransaction());
+		}
+
+		@Override
+		AuditTransactionsReader self() {
+			return this;
+		}
+	}
+}
@@ -0,0 +1,32 @@
+package es.gob.fire.statistics.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Utilidades para la inserci&oacute;n de registros por lotes.
+ */
+final class BatchUpdate {
+
+	private BatchUpdate() {
+		// No se permite instanciar la clase
+	}
+
+	/**
+	 * Ejecuta el lote de inserciones acumulado en una sentencia y comprueba que se
+	 * insertaron todos los registros.
+	 * @param st Sentencia con el lote de inserciones.
+	 * @param errorMsg Mensaje de error si alguna de las inserciones no surti&oacute; efecto.
+	 * @throws SQLException Cuando falla la ejecuci&oacute;n del lote o alguna de las inserciones.
+	 */
+	static void execute(final PreparedStatement st, final String errorMsg) throws SQLException {
+		final int[] results = st.executeBatch();
+		for (final int result : results) {
+			// Algunos controladores no informan del numero de registros insertados
+			if (result == Statement.EXECUTE_FAILED || result == 0) {
+				throw new SQLException(errorMsg);
+			}
+		}
+	}
+}
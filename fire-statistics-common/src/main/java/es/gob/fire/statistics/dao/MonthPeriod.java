@@ -0,0 +1,70 @@
+package es.gob.fire.statistics.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * Utilidades para filtrar los datos estad&iacute;sticos por meses mediante rangos de
+ * fechas semiabiertos ({@code fecha >= inicio AND fecha < fin}), que a diferencia de
+ * extraer el a&ntilde;o y el mes de cada fecha, permiten a la base de datos usar los
+ * &iacute;ndices sobre las columnas de fecha.
+ */
+final class MonthPeriod {
+
+	private MonthPeriod() {
+		// No se permite instanciar la clase
+	}
+
+	/**
+	 * Obtiene el inicio de un mes.
+	 * @param year A&ntilde;o.
+	 * @param month Mes (1 a 12).
+	 * @return Primer instante del mes.
+	 */
+	static Timestamp start(final int year, final int month) {
+		final Calendar calendar = Calendar.getInstance();
+		calendar.clear();
+		calendar.set(year, month - 1, 1);
+		return new Timestamp(calendar.getTimeInMillis());
+	}
+
+	/**
+	 * Obtiene el inicio del mes al que pertenece una fecha.
+	 * @param date Fecha.
+	 * @return Primer instante del mes.
+	 */
+	static Timestamp start(final Date date) {
+		final Calendar calendar = Calendar.getInstance();
+		calendar.setTime(date);
+		return start(calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH) + 1);
+	}
+
+	/**
+	 * Obtiene el inicio del mes siguiente.
+	 * @param monthStart Inicio de un mes.
+	 * @return Primer instante del mes siguiente.
+	 */
+	static Timestamp next(final Timestamp monthStart) {
+		final Calendar calendar = Calendar.getInstance();
+		calendar.setTime(monthStart);
+		calendar.add(Calendar.MONTH, 1);
+		return new Timestamp(calendar.getTimeInMillis());
+	}
+
+	/**
+	 * Establece como dos primeros par&aacute;metros de una consulta el inicio del mes
+	 * indicado y el del mes siguiente.
+	 * @param st Consulta.
+	 * @param year A&ntilde;o.
+	 * @param month Mes (1 a 12).
+	 * @throws SQLException Cuando no se pueden establecer los par&aacute;metros.
+	 */
+	static void setMonthRange(final PreparedStatement st, final int year, final int month) throws SQLException {
+		final Timestamp monthStart = start(year, month);
+		st.setTimestamp(1, monthStart);
+		st.setTimestamp(2, next(monthStart));
+	}
+}
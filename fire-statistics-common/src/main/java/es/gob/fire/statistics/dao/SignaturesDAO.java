@@ -5,7 +5,9 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.Date;
+import java.util.Map;
 
 import javax.json.Json;
 import javax.json.JsonArrayBuilder;
@@ -27,24 +29,33 @@ public class SignaturesDAO {
 			+ "(fecha, formato, formato_mejorado, algoritmo, proveedor, navegador, correcta, total, aplicacion) " //$NON-NLS-1$
 			+ "VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?)"; //$NON-NLS-1$
 
-	/*Consultas estadisticas de firmas*/
+	/** SQL para eliminar el resumen mensual de las firmas de un mes. */
+	private static final String ST_DELETE_MONTHLY_SIGNATURES = "DELETE FROM TB_FIRMAS_MES WHERE mes = ?"; //$NON-NLS-1$
+
+	/** SQL para componer el resumen mensual de las firmas de un mes a partir de los datos diarios. */
+	private static final String ST_INSERT_MONTHLY_SIGNATURES = "INSERT INTO TB_FIRMAS_MES " //$NON-NLS-1$
+			+ "(mes, aplicacion, formato, formato_mejorado, proveedor, correcta, total) " //$NON-NLS-1$
+			+ "SELECT ?, f.aplicacion, f.formato, f.formato_mejorado, f.proveedor, f.correcta, SUM(f.total) " //$NON-NLS-1$
+			+ "FROM TB_FIRMAS f WHERE f.fecha >= ? AND f.fecha < ? " //$NON-NLS-1$
+			+ "GROUP BY f.aplicacion, f.formato, f.formato_mejorado, f.proveedor, f.correcta"; //$NON-NLS-1$
+
+	/*Consultas estadisticas de firmas. Se obtienen del resumen mensual de las firmas*/
 
 	/** Documentos firmados correctamente / incorrectamente por cada aplicaci&oacute;n.
 	 * (Filtrado por a&ntilde;o y mes). */
 	private static final String SIGNATURES_BYAPP = "SELECT f.aplicacion, "+ //$NON-NLS-1$
 			" SUM(CASE When f.correcta = '1' then f.total else 0 end) AS CORRECTAS, " + //$NON-NLS-1$
 			" SUM(CASE When f.correcta = '0' then f.total else 0 end) AS INCORRECTAS "+ //$NON-NLS-1$
-			" FROM tb_firmas f "+ //$NON-NLS-1$
-			" WHERE	year(f.fecha) = ? "+ //$NON-NLS-1$
-			" AND month(f.fecha) = ? "+ //$NON-NLS-1$
+			" FROM tb_firmas_mes f "+ //$NON-NLS-1$
+			" WHERE f.mes >= ? AND f.mes < ? "+ //$NON-NLS-1$
 			" GROUP BY f.aplicacion "; //$NON-NLS-1$
 
 	/** Documentos firmados por cada origen de certificados/proveedor. (Filtrado por a&ntilde;o y mes). */
 	private static final String SIGNATURES_BYPROVIDER = "SELECT f.proveedor, "+ //$NON-NLS-1$
 			 " SUM(CASE When f.correcta = '1' then f.total else 0 end) AS CORRECTAS, "+ //$NON-NLS-1$
 			 " SUM(CASE When f.correcta = '0' then f.total else 0 end) AS INCORRECTAS "+ //$NON-NLS-1$
-			 " FROM tb_firmas f "+ //$NON-NLS-1$
-			 " WHERE year(f.fecha) = ? AND month(f.fecha) = ? "+ //$NON-NLS-1$
+			 " FROM tb_firmas_mes f "+ //$NON-NLS-1$
+			 " WHERE f.mes >= ? AND f.mes < ? "+ //$NON-NLS-1$
 			 " GROUP BY f.proveedor"; //$NON-NLS-1$
 
 
@@ -52,16 +63,16 @@ public class SignaturesDAO {
 	private static final String SIGNATURES_BYFORMAT = "SELECT f.formato,"+  //$NON-NLS-1$
 			 " SUM(CASE When f.correcta = '1' then f.total else 0 end) AS CORRECTAS, "+ //$NON-NLS-1$
 			 " SUM(CASE When f.correcta = '0' then f.total else 0 end) AS INCORRECTAS "+ //$NON-NLS-1$
-			 " FROM tb_firmas f "+ //$NON-NLS-1$
-			 " WHERE year(f.fecha) = ? AND month(f.fecha) = ? "+ //$NON-NLS-1$
+			 " FROM tb_firmas_mes f "+ //$NON-NLS-1$
+			 " WHERE f.mes >= ? AND f.mes < ? "+ //$NON-NLS-1$
 			 " GROUP BY f.formato "; //$NON-NLS-1$
 
 	/** Documentos que utilizan cada formato de firma longevo. (Filtrado por a&ntilde;o y mes). */
 	private static final String SIGNMATURES_BYLONGLIVE_FORMAT = "SELECT f.formato_mejorado, "+  //$NON-NLS-1$
 			 " SUM(CASE When f.correcta = '1' then f.total else 0 end) AS CORRECTAS, "+ //$NON-NLS-1$
 			 " SUM(CASE When f.correcta = '0' then f.total else 0 end) AS INCORRECTAS " + //$NON-NLS-1$
-			 " FROM tb_firmas f "+ //$NON-NLS-1$
-			 " WHERE f.formato_mejorado IS NOT NULL AND  year(f.fecha) = ? AND month(f.fecha) = ? "+  //$NON-NLS-1$
+			 " FROM tb_firmas_mes f "+ //$NON-NLS-1$
+			 " WHERE f.formato_mejorado IS NOT NULL AND f.mes >= ? AND f.mes < ? "+  //$NON-NLS-1$
 			 " GROUP BY f.formato_mejorado "; //$NON-NLS-1$
 
 	/**
@@ -102,21 +113,81 @@ public class SignaturesDAO {
 			throws SQLException, DBConnectionException {
 
 		try (final PreparedStatement st = conn.prepareStatement(ST_INSERT_SIGNATURE)) {
-			st.setTimestamp (1, new java.sql.Timestamp(date.getTime()));
-			st.setString(2, signature.getFormat());
-			st.setString(3, signature.getImprovedFormat());
-			st.setString(4, signature.getAlgorithm());
-			st.setString(5, signature.getProvider());
-			st.setString(6, signature.getBrowser());
-			st.setBoolean(7, signature.isResultSign());
-			st.setLong(8, total);
-			st.setString(9, signature.getApplication());
+			setSignatureParams(st, new Timestamp(date.getTime()), signature, total);
 			if (st.executeUpdate() < 1) {
 				throw new SQLException("No se insertaron registros en la tabla de firmas"); //$NON-NLS-1$
 			}
 		}
 	}
 
+	/**
+	 * Inserta las configuraciones de operaci&oacute;n de firma de un d&iacute;a concreto
+	 * reutilizando la misma sentencia y envi&aacute;ndolas a la base de datos por lotes.
+	 * No se hace commit de la transacci&oacute;n, de forma que el llamante pueda
+	 * confirmar o deshacer a la vez todos los datos del d&iacute;a.
+	 * @param date Fecha del d&iacute;a en la que se realizaron las firmas.
+	 * @param signatures N&uacute;mero total de firmas de cada configuraci&oacute;n.
+	 * @param conn Conexi&oacute;n con la base de datos.
+	 * @param batchSize N&uacute;mero m&aacute;ximo de inserciones de cada lote.
+	 * @throws SQLException Cuando se produce un error al insertar los datos.
+	 */
+	public static void insertSignatures(final Date date, final Map<SignatureCube, Long> signatures,
+			final Connection conn, final int batchSize) throws SQLException {
+
+		final Timestamp timestamp = new Timestamp(date.getTime());
+		try (final PreparedStatement st = conn.prepareStatement(ST_INSERT_SIGNATURE)) {
+			int pending = 0;
+			for (final Map.Entry<SignatureCube, Long> signature : signatures.entrySet()) {
+				setSignatureParams(st, timestamp, signature.getKey(), signature.getValue().longValue());
+				st.addBatch();
+				if (++pending >= batchSize) {
+					BatchUpdate.execute(st, "No se insertaron registros en la tabla de firmas"); //$NON-NLS-1$
+					pending = 0;
+				}
+			}
+			if (pending > 0) {
+				BatchUpdate.execute(st, "No se insertaron registros en la tabla de firmas"); //$NON-NLS-1$
+			}
+		}
+	}
+
+	/**
+	 * Vuelve a componer el resumen mensual de las firmas del mes al que pertenece la
+	 * fecha indicada a partir de los datos diarios de ese mes. No se hace commit de la
+	 * transacci&oacute;n, de forma que se pueda confirmar junto con la carga de los
+	 * datos del d&iacute;a.
+	 * @param date Fecha de los datos cargados.
+	 * @param conn Conexi&oacute;n con la base de datos.
+	 * @throws SQLException Cuando se produce un error al actualizar los datos.
+	 */
+	public static void updateMonthlySignatures(final Date date, final Connection conn) throws SQLException {
+
+		final Timestamp monthStart = MonthPeriod.start(date);
+		try (final PreparedStatement st = conn.prepareStatement(ST_DELETE_MONTHLY_SIGNATURES)) {
+			st.setTimestamp(1, monthStart);
+			st.executeUpdate();
+		}
+		try (final PreparedStatement st = conn.prepareStatement(ST_INSERT_MONTHLY_SIGNATURES)) {
+			st.setTimestamp(1, monthStart);
+			st.setTimestamp(2, monthStart);
+			st.setTimestamp(3, MonthPeriod.next(monthStart));
+			st.executeUpdate();
+		}
+	}
+
+	private static void setSignatureParams(final PreparedStatement st, final Timestamp timestamp,
+			final SignatureCube signature, final long total) throws SQLException {
+		st.setTimestamp (1, timestamp);
+		st.setString(2, signature.getFormat());
+		st.setString(3, signature.getImprovedFormat());
+		st.setString(4, signature.getAlgorithm());
+		st.setString(5, signature.getProvider());
+		st.setString(6, signature.getBrowser());
+		st.setBoolean(7, signature.isResultSign());
+		st.setLong(8, total);
+		st.setString(9, signature.getApplication());
+	}
+
 	/**
 	 * Obtiene el total de documentos firmados correctamente e incorrectamente por cada origen
 	 * de certificados/proveedor. (Filtrado por a&ntilde;o y mes)
@@ -133,8 +204,7 @@ public class SignaturesDAO {
 
 		try (final Connection conn = DbManager.getConnection(false);
 				final PreparedStatement st = conn.prepareStatement(SIGNATURES_BYPROVIDER);) {
-			st.setInt(1, year);
-			st.setInt(2, month);
+			MonthPeriod.setMonthRange(st, year, month);
 			try (final ResultSet rs = st.executeQuery();) {
 
 				final JsonArrayBuilder data = Json.createArrayBuilder();
@@ -188,8 +258,7 @@ public class SignaturesDAO {
 
 		try (final Connection conn = DbManager.getConnection(false);
 				final PreparedStatement st = conn.prepareStatement(SIGNATURES_BYAPP);) {
-			st.setInt(1, year);
-			st.setInt(2, month);
+			MonthPeriod.setMonthRange(st, year, month);
 			try (final ResultSet rs = st.executeQuery();) {
 
 				final JsonArrayBuilder data = Json.createArrayBuilder();
@@ -243,8 +312,7 @@ public class SignaturesDAO {
 
 		try (final Connection conn = DbManager.getConnection(false);
 				final PreparedStatement st = conn.prepareStatement(SIGNATURES_BYFORMAT);) {
-			st.setInt(1, year);
-			st.setInt(2, month);
+			MonthPeriod.setMonthRange(st, year, month);
 			try (final ResultSet rs = st.executeQuery();) {
 
 				final JsonArrayBuilder data = Json.createArrayBuilder();
@@ -297,8 +365,7 @@ public class SignaturesDAO {
 
 		try (final Connection conn = DbManager.getConnection(true);
 				final PreparedStatement st = conn.prepareStatement(SIGNMATURES_BYLONGLIVE_FORMAT);) {
-			st.setInt(1, year);
-			st.setInt(2, month);
+			MonthPeriod.setMonthRange(st, year, month);
 
 			try (final ResultSet rs = st.executeQuery();) {
 
@@ -5,7 +5,9 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.Date;
+import java.util.Map;
 
 import javax.json.Json;
 import javax.json.JsonArrayBuilder;
@@ -27,6 +29,18 @@ public class TransactionsDAO {
 			+ "(fecha, aplicacion, operacion, proveedor, proveedor_forzado, correcta, tamanno, total)" //$NON-NLS-1$
 			+ " VALUES ( ?, ?, ?, ?, ?, ?, ?, ?)"; //$NON-NLS-1$
 
+	/** SQL para eliminar el resumen mensual de las transacciones de un mes. */
+	private static final String ST_DELETE_MONTHLY_TRANSACTIONS = "DELETE FROM TB_TRANSACCIONES_MES WHERE mes = ?"; //$NON-NLS-1$
+
+	/** SQL para componer el resumen mensual de las transacciones de un mes a partir de los datos diarios. */
+	private static final String ST_INSERT_MONTHLY_TRANSACTIONS = "INSERT INTO TB_TRANSACCIONES_MES " //$NON-NLS-1$
+			+ "(mes, aplicacion, operacion, proveedor, correcta, tamanno, total) " //$NON-NLS-1$
+			+ "SELECT ?, t.aplicacion, t.operacion, t.proveedor, t.correcta, SUM(t.tamanno), SUM(t.total) " //$NON-NLS-1$
+			+ "FROM TB_TRANSACCIONES t WHERE t.fecha >= ? AND t.fecha < ? " //$NON-NLS-1$
+			+ "GROUP BY t.aplicacion, t.operacion, t.proveedor, t.correcta"; //$NON-NLS-1$
+
+	/* Las consultas estadisticas de transacciones se obtienen del resumen mensual de las transacciones */
+
 	/** Transacciones finalizadas correctamente/ incorrectamente por cada aplicaci&oacute;n
 	 * (Filtrado por a&ntilde;o y mes). */
 	/*private static final String TRANSACTIONS_BYAPP = "SELECT  t.aplicacion AS NOMBRE_APP, " + //$NON-NLS-1$
@@ -39,8 +53,8 @@ public class TransactionsDAO {
 	private static final String TRANSACTIONS_BYAPP = "SELECT  t.aplicacion APLICACION, " + //$NON-NLS-1$
 			" SUM(CASE When t.correcta = '1' then t.total  else 0 end) AS CORRECTAS, " + //$NON-NLS-1$
 			" SUM(CASE When t.correcta = '0' then t.total else 0 end) AS INCORRECTAS " + //$NON-NLS-1$
-			" FROM tb_transacciones t " + //$NON-NLS-1$
-			" WHERE EXTRACT(YEAR FROM t.fecha) = ? AND EXTRACT(MONTH FROM t.fecha) = ? " + //$NON-NLS-1$
+			" FROM tb_transacciones_mes t " + //$NON-NLS-1$
+			" WHERE t.mes >= ? AND t.mes < ? " + //$NON-NLS-1$
 			" GROUP BY APLICACION "; //$NON-NLS-1$
 
 	/** Transacciones finalizadas correctamente/ incorrectamente por cada origen de
@@ -55,8 +69,8 @@ public class TransactionsDAO {
 	private static final String TRANSACTIONS_BYPROVIDER = "SELECT t.proveedor AS PROVEEDOR, " +  //$NON-NLS-1$
 			" SUM(CASE When t.correcta = '1' then t.total else 0 end) AS CORRECTAS, " +  //$NON-NLS-1$
 			" SUM(CASE When t.correcta = '0' then t.total else 0 end) AS INCORRECTAS " +  //$NON-NLS-1$
-			" FROM tb_transacciones t " +  //$NON-NLS-1$
-			" WHERE EXTRACT(YEAR FROM t.fecha) = ? AND EXTRACT(MONTH FROM t.fecha) = ? " +  //$NON-NLS-1$
+			" FROM tb_transacciones_mes t " +  //$NON-NLS-1$
+			" WHERE t.mes >= ? AND t.mes < ? " +  //$NON-NLS-1$
 			" GROUP BY t.proveedor"; //$NON-NLS-1$
 
 	/** Transacciones seg&uacute;n el tama&ntilde;o de los datos de cada aplicaci&oacute;n
@@ -67,8 +81,8 @@ public class TransactionsDAO {
 			" GROUP BY t.aplicacion";  //$NON-NLS-1$ */
 
 	private static final String TRANSACTIONS_BYDOCSIZE = "SELECT t.aplicacion APLICACION, SUM(t.tamanno) AS bytes " + //$NON-NLS-1$
-			" FROM tb_transacciones t "+ //$NON-NLS-1$
-			" WHERE EXTRACT(YEAR FROM t.fecha) = ? AND EXTRACT(MONTH FROM t.fecha) = ? "+  //$NON-NLS-1$
+			" FROM tb_transacciones_mes t "+ //$NON-NLS-1$
+			" WHERE t.mes >= ? AND t.mes < ? "+  //$NON-NLS-1$
 			" GROUP BY t.aplicacion"; //$NON-NLS-1$
 
 	/** Transacciones realizadas seg&uacute;n el tipo de transacci&oacute;n (simple o lote).
@@ -88,8 +102,8 @@ public class TransactionsDAO {
 			 " sum(case when t.operacion = 'SIGN' then (case when t.correcta = '0' then t.total else 0 end) else 0 end )FirmasSimplesINCorrectas,"+ //$NON-NLS-1$
 			 " sum(case when t.operacion = 'BATCH' then (case when t.correcta = '1' then t.total else 0 end) else 0 end )FirmasLotesCorrectas,"+ //$NON-NLS-1$
 			 " sum(case when t.operacion = 'BATCH' then (case when t.correcta = '0' then t.total else 0 end) else 0 end )FirmasLotesINCorrectas"+ //$NON-NLS-1$
-			 " FROM tb_transacciones t"+ //$NON-NLS-1$
-			 " WHERE EXTRACT(YEAR FROM t.fecha) = ? AND EXTRACT(MONTH FROM t.fecha) = ?  "+  //$NON-NLS-1$
+			 " FROM tb_transacciones_mes t"+ //$NON-NLS-1$
+			 " WHERE t.mes >= ? AND t.mes < ? "+  //$NON-NLS-1$
 			 " GROUP BY t.aplicacion" ; //$NON-NLS-1$
 
 	/**
@@ -131,14 +145,7 @@ public class TransactionsDAO {
 
 		int totalInsertReg = 0;
 		try (final PreparedStatement st = conn.prepareStatement(ST_INSERT_TRANSACTION);) {
-			st.setTimestamp(1, new java.sql.Timestamp(date.getTime()));
-			st.setString(2, transaction.getApplication());
-			st.setString(3, transaction.getOperation());
-			st.setString(4, transaction.getProvider());
-			st.setBoolean(5, transaction.isMandatoryProvider());
-			st.setBoolean(6, transaction.isResultTransaction());
-			st.setLong(7, total.getDataSize());
-			st.setLong(8, total.getTotal());
+			setTransactionParams(st, new Timestamp(date.getTime()), transaction, total);
 			totalInsertReg = st.executeUpdate();
 			if (totalInsertReg < 1) {
 				throw new SQLException("No se insertaron registros en la tabla de transacciones"); //$NON-NLS-1$
@@ -146,6 +153,73 @@ public class TransactionsDAO {
 		}
 	}
 
+	/**
+	 * Inserta las configuraciones de transacci&oacute;n de un d&iacute;a concreto
+	 * reutilizando la misma sentencia y envi&aacute;ndolas a la base de datos por lotes.
+	 * No se hace commit de la transacci&oacute;n, de forma que el llamante pueda
+	 * confirmar o deshacer a la vez todos los datos del d&iacute;a.
+	 * @param date Fecha del d&iacute;a en la que se realizaron las transacciones.
+	 * @param transactions Acumulado de las transacciones de cada configuraci&oacute;n.
+	 * @param conn Conexi&oacute;n con la base de datos.
+	 * @param batchSize N&uacute;mero m&aacute;ximo de inserciones de cada lote.
+	 * @throws SQLException Cuando se produce un error al insertar los datos.
+	 */
+	public static void insertTransactions(final Date date, final Map<TransactionCube, TransactionTotal> transactions,
+			final Connection conn, final int batchSize) throws SQLException {
+
+		final Timestamp timestamp = new Timestamp(date.getTime());
+		try (final PreparedStatement st = conn.prepareStatement(ST_INSERT_TRANSACTION)) {
+			int pending = 0;
+			for (final Map.Entry<TransactionCube, TransactionTotal> transaction : transactions.entrySet()) {
+				setTransactionParams(st, timestamp, transaction.getKey(), transaction.getValue());
+				st.addBatch();
+				if (++pending >= batchSize) {
+					BatchUpdate.execute(st, "No se insertaron registros en la tabla de transacciones"); //$NON-NLS-1$
+					pending = 0;
+				}
+			}
+			if (pending > 0) {
+				BatchUpdate.execute(st, "No se insertaron registros en la tabla de transacciones"); //$NON-NLS-1$
+			}
+		}
+	}
+
+	/**
+	 * Vuelve a componer el resumen mensual de las transacciones del mes al que pertenece
+	 * la fecha indicada a partir de los datos diarios de ese mes. No se hace commit de la
+	 * transacci&oacute;n, de forma que se pueda confirmar junto con la carga de los
+	 * datos del d&iacute;a.
+	 * @param date Fecha de los datos cargados.
+	 * @param conn Conexi&oacute;n con la base de datos.
+	 * @throws SQLException Cuando se produce un error al actualizar los datos.
+	 */
+	public static void updateMonthlyTransactions(final Date date, final Connection conn) throws SQLException {
+
+		final Timestamp monthStart = MonthPeriod.start(date);
+		try (final PreparedStatement st = conn.prepareStatement(ST_DELETE_MONTHLY_TRANSACTIONS)) {
+			st.setTimestamp(1, monthStart);
+			st.executeUpdate();
+		}
+		try (final PreparedStatement st = conn.prepareStatement(ST_INSERT_MONTHLY_TRANSACTIONS)) {
+			st.setTimestamp(1, monthStart);
+			st.setTimestamp(2, monthStart);
+			st.setTimestamp(3, MonthPeriod.next(monthStart));
+			st.executeUpdate();
+		}
+	}
+
+	private static void setTransactionParams(final PreparedStatement st, final Timestamp timestamp,
+			final TransactionCube transaction, final TransactionTotal total) throws SQLException {
+		st.setTimestamp(1, timestamp);
+		st.setString(2, transaction.getApplication());
+		st.setString(3, transaction.getOperation());
+		st.setString(4, transaction.getProvider());
+		st.setBoolean(5, transaction.isMandatoryProvider());
+		st.setBoolean(6, transaction.isResultTransaction());
+		st.setLong(7, total.getDataSize());
+		st.setLong(8, total.getTotal());
+	}
+
 	/**
 	 * Obtiene las transacciones finalizadas correctamente e incorrectamente por cada
 	 * aplicaci&oacute;n (Filtrado por a&ntilde;o y mes).
@@ -163,8 +237,7 @@ public class TransactionsDAO {
 
 		try (final Connection conn = DbManager.getConnection(false);
 				final PreparedStatement st = conn.prepareStatement(TRANSACTIONS_BYAPP);) {
-			st.setInt(1, year);
-			st.setInt(2, month);
+			MonthPeriod.setMonthRange(st, year, month);
 			try (final ResultSet rs = st.executeQuery();) {
 
 				final JsonArrayBuilder data = Json.createArrayBuilder();
@@ -218,8 +291,7 @@ public class TransactionsDAO {
 
 		try (final Connection conn = DbManager.getConnection(false);
 				final PreparedStatement st = conn.prepareStatement(TRANSACTIONS_BYPROVIDER);) {
-			st.setInt(1, year);
-			st.setInt(2, month);
+			MonthPeriod.setMonthRange(st, year, month);
 
 			try (final ResultSet rs = st.executeQuery();) {
 
@@ -275,8 +347,7 @@ public class TransactionsDAO {
 
 		try (final Connection conn = DbManager.getConnection(false);
 				final PreparedStatement st = conn.prepareStatement(TRANSACTIONS_BYDOCSIZE);) {
-			st.setInt(1, year);
-			st.setInt(2, month);
+			MonthPeriod.setMonthRange(st, year, month);
 			try (final ResultSet rs = st.executeQuery();) {
 
 				final JsonArrayBuilder data = Json.createArrayBuilder();
@@ -331,8 +402,7 @@ public class TransactionsDAO {
 
 		try (final Connection conn = DbManager.getConnection(false);
 				final PreparedStatement st = conn.prepareStatement(TRANSACTIONS_BYOPERATION);) {
-			st.setInt(1, year);
-			st.setInt(2, month);
+			MonthPeriod.setMonthRange(st, year, month);
 			try (final ResultSet rs = st.executeQuery();) {
 
 				final JsonArrayBuilder data = Json.createArrayBuilder();
@@ -7,6 +7,10 @@ import java.util.Objects;
  * Conjunto de datos de las firmas de auditor&iacute;a que se registran con objeto de obtener estad&iacute;sticas.
  */
 public class AuditSignatureCube {
+
+	/** Posiciones de los campos que pueden estar vac&iacute;os. */
+	private static final int[] NULLABLE_INDEX = new int[]{1, 4, 6};
+
 	private String idIntLote;
 	private String cryptoOperation;
 	private String format;
@@ -34,21 +38,24 @@ public class AuditSignatureCube {
 			throw new IllegalArgumentException("Se ha proporcionado una cadena vacia"); //$NON-NLS-1$
 		}
 
-		final String [] cube = registry.split(";"); //$NON-NLS-1$
+		final FieldTokenizer cube = new FieldTokenizer(registry);
 		if (!checkRegistryData(cube)) {
 			throw new IllegalArgumentException("Se ha encontrado un registro con formato no valido: " + registry); //$NON-NLS-1$
 		}
+		cube.reset();
 		
 		final AuditSignatureCube auditSignature = new AuditSignatureCube();
 		
-		auditSignature.setIdTransaction(cube[0]);
-		auditSignature.setIdIntLote(cube[1]);
-		auditSignature.setCryptoOperation(cube[2]);
-		auditSignature.setFormat(cube[3]);
-		auditSignature.setImprovedFormat(cube[4]);
-		auditSignature.setDataSize(Long.parseLong(cube[5]));
-		auditSignature.setErrorDetail(cube[6]);
-		auditSignature.setResult(cube[7].equals("1"));
+		auditSignature.setIdTransaction(cube.nextValue());
+		auditSignature.setIdIntLote(cube.nextValue());
+		auditSignature.setCryptoOperation(cube.nextValue());
+		auditSignature.setFormat(cube.nextValue());
+		auditSignature.setImprovedFormat(cube.nextValue());
+		cube.next();
+		auditSignature.setDataSize(cube.longValue());
+		auditSignature.setErrorDetail(cube.nextValue());
+		cube.next();
+		auditSignature.setResult(cube.valueEquals("1"));
 		
 		return auditSignature;
 		
@@ -61,17 +68,14 @@ public class AuditSignatureCube {
 	 * @return {@code true} si el registro contiene los campos requeridos,
 	 * {@code false} en caso contrario.
 	 */
-	private static boolean checkRegistryData(final String[] registryDatas) {
+	private static boolean checkRegistryData(final FieldTokenizer registryDatas) {
 
-		int[] nullableIndex = new int[]{1, 4, 6};
-		
-		if (registryDatas == null || registryDatas.length != 8) {
+		if (registryDatas.count() != 8) {
 			return false;
 		}
 
-		for (int i = 0; i < registryDatas.length; i++) {
-			String data = registryDatas[i];
-			if ((data == null) || (data.isEmpty() && Arrays.binarySearch(nullableIndex, i) < 0)) {
+		for (int i = 0; registryDatas.next(); i++) {
+			if (registryDatas.isEmpty() && Arrays.binarySearch(NULLABLE_INDEX, i) < 0) {
 				return false;
 			}
 		}
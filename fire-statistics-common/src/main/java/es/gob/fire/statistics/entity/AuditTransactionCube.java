@@ -15,6 +15,17 @@ import org.slf4j.LoggerFactory;
 public class AuditTransactionCube {
 	
 	private static final Logger LOGGER = LoggerFactory.getLogger(AuditTransactionCube.class);
+
+	/** Posiciones de los campos que pueden estar vac&iacute;os. */
+	private static final int[] NULLABLE_INDEX = new int[]{7, 13};
+
+	/** Formato de fecha de los registros. Se reutiliza en cada hilo por no ser seguro entre hilos. */
+	private static final ThreadLocal<SimpleDateFormat> DATE_FORMAT = new ThreadLocal<SimpleDateFormat>() {
+		@Override
+		protected SimpleDateFormat initialValue() {
+			return new SimpleDateFormat("dd/MM/yyyy HH:mm"); //$NON-NLS-1$
+		}
+	};
 	
 	private Date date;
 	private String idApplication;
@@ -51,35 +62,37 @@ public class AuditTransactionCube {
 			throw new IllegalArgumentException("Se ha proporcionado una cadena vacia"); //$NON-NLS-1$
 		}
 
-		final String [] cube = registry.split(";"); //$NON-NLS-1$
+		final FieldTokenizer cube = new FieldTokenizer(registry);
 		if (!checkRegistryData(cube)) {
 			throw new IllegalArgumentException("Se ha encontrado un registro con formato no valido: " + registry); //$NON-NLS-1$
 		}
+		cube.reset();
 		
 		final AuditTransactionCube auditTransaction = new AuditTransactionCube();
 		
 
-		auditTransaction.setIdTransaction(cube[0]);
+		auditTransaction.setIdTransaction(cube.nextValue());
 		
-		SimpleDateFormat format = new SimpleDateFormat("dd/MM/yyyy HH:mm");
 		try {
-			auditTransaction.setDate(format.parse(cube[1]));
+			auditTransaction.setDate(DATE_FORMAT.get().parse(cube.nextValue()));
 		} catch (ParseException e) {
 			LOGGER.error("Ha ocurrido un error al establecer la fecha. Excepcion: " + e);
 		}
-		auditTransaction.setIdApplication(cube[2]);
-		auditTransaction.setNameApplication(cube[3]);
-		auditTransaction.setOperation(cube[4]);
-		auditTransaction.setCryptoOperation(cube[5]);
-		auditTransaction.setFormat(cube[6]);
-		auditTransaction.setImprovedFormat(cube[7]);
-		auditTransaction.setAlgorithm(cube[8]);
-		auditTransaction.setProvider(cube[9]);
-		auditTransaction.setMandatoryProvider(cube[10].equals("1"));
-		auditTransaction.setBrowser(cube[11]);
-		auditTransaction.setNode(cube[12]);
-		auditTransaction.setErrorDetail(cube[13]);
-		auditTransaction.setResult(cube[14].equals("1"));
+		auditTransaction.setIdApplication(cube.nextValue());
+		auditTransaction.setNameApplication(cube.nextValue());
+		auditTransaction.setOperation(cube.nextValue());
+		auditTransaction.setCryptoOperation(cube.nextValue());
+		auditTransaction.setFormat(cube.nextValue());
+		auditTransaction.setImprovedFormat(cube.nextValue());
+		auditTransaction.setAlgorithm(cube.nextValue());
+		auditTransaction.setProvider(cube.nextValue());
+		cube.next();
+		auditTransaction.setMandatoryProvider(cube.valueEquals("1"));
+		auditTransaction.setBrowser(cube.nextValue());
+		auditTransaction.setNode(cube.nextValue());
+		auditTransaction.setErrorDetail(cube.nextValue());
+		cube.next();
+		auditTransaction.setResult(cube.valueEquals("1"));
 		
 		return auditTransaction;
 		
@@ -92,18 +105,14 @@ public class AuditTransactionCube {
 	 * @return {@code true} si el registro contiene los campos requeridos,
 	 * {@code false} en caso contrario.
 	 */
-	private static boolean checkRegistryData(final String[] registryDatas) {
+	private static boolean checkRegistryData(final FieldTokenizer registryDatas) {
 
-		int[] nullableIndex = new int[]{7, 13};
-		
-		if (registryDatas == null || registryDatas.length != 15) {
+		if (registryDatas.count() != 15) {
 			return false;
 		}
 
-		for (int i = 0; i < registryDatas.length; i++) {
-			String data = registryDatas[i];
-			
-			if ((data == null) || (data.isEmpty() && Arrays.binarySearch(nullableIndex, i) < 0)) {
+		for (int i = 0; registryDatas.next(); i++) {
+			if (registryDatas.isEmpty() && Arrays.binarySearch(NULLABLE_INDEX, i) < 0) {
 				return false;
 			}
 		}
@@ -0,0 +1,182 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.statistics.entity;
+
+/**
+ * Recorre los campos separados por punto y coma de un registro de datos sin
+ * dividirlo en un array. S&oacute;lo se crean cadenas para los campos que se
+ * solicitan como texto; los booleanos y n&uacute;meros se interpretan
+ * directamente sobre el registro. Igual que {@code String.split(";")}, no se
+ * consideran los campos vac&iacute;os del final del registro.
+ */
+final class FieldTokenizer {
+
+	private static final char SEPARATOR = ';';
+
+	private final String text;
+
+	/** Final del registro sin los separadores finales. */
+	private final int end;
+
+	private final int count;
+
+	private int start;
+
+	private int fieldEnd;
+
+	private int nextStart;
+
+	/**
+	 * Prepara el recorrido de los campos de un registro.
+	 * @param text Registro de datos.
+	 */
+	FieldTokenizer(final String text) {
+		this.text = text;
+
+		int textEnd = text.length();
+		while (textEnd > 0 && text.charAt(textEnd - 1) == SEPARATOR) {
+			textEnd--;
+		}
+		this.end = textEnd;
+
+		int fields = 0;
+		if (textEnd > 0 || text.isEmpty()) {
+			fields = 1;
+			for (int i = 0; i < textEnd; i++) {
+				if (text.charAt(i) == SEPARATOR) {
+					fields++;
+				}
+			}
+		}
+		this.count = fields;
+		reset();
+	}
+
+	/**
+	 * N&uacute;mero de campos del registro.
+	 * @return N&uacute;mero de campos.
+	 */
+	int count() {
+		return this.count;
+	}
+
+	/**
+	 * Vuelve a situar el recorrido antes del primer campo.
+	 */
+	void reset() {
+		this.start = 0;
+		this.fieldEnd = -1;
+		this.nextStart = 0;
+	}
+
+	/**
+	 * Avanza al siguiente campo.
+	 * @return {@code true} si hab&iacute;a otro campo, {@code false} en caso contrario.
+	 */
+	boolean next() {
+		if (this.nextStart > this.end) {
+			return false;
+		}
+		this.start = this.nextStart;
+		int sepPos = this.text.indexOf(SEPARATOR, this.start);
+		if (sepPos < 0 || sepPos > this.end) {
+			sepPos = this.end;
+		}
+		this.fieldEnd = sepPos;
+		this.nextStart = sepPos + 1;
+		return true;
+	}
+
+	/**
+	 * Avanza al siguiente campo y devuelve su valor.
+	 * @return Valor del campo.
+	 */
+	String nextValue() {
+		next();
+		return value();
+	}
+
+	/**
+	 * Indica si el campo actual est&aacute; vac&iacute;o.
+	 * @return {@code true} si el campo est&aacute; vac&iacute;o.
+	 */
+	boolean isEmpty() {
+		return this.fieldEnd == this.start;
+	}
+
+	/**
+	 * Obtiene el valor del campo actual.
+	 * @return Valor del campo.
+	 */
+	String value() {
+		return this.text.substring(this.start, this.fieldEnd);
+	}
+
+	/**
+	 * Comprueba si el campo actual tiene el valor indicado.
+	 * @param expected Valor esperado.
+	 * @return {@code true} si el campo tiene ese valor, {@code false} en caso contrario.
+	 */
+	boolean valueEquals(final String expected) {
+		final int length = this.fieldEnd - this.start;
+		return length == expected.length() && this.text.regionMatches(this.start, expected, 0, length);
+	}
+
+	/**
+	 * Interpreta el campo actual como un n&uacute;mero con las mismas reglas que
+	 * {@link Long#parseLong(String)}.
+	 * @return Valor num&eacute;rico del campo.
+	 * @throws NumberFormatException Cuando el campo no es un n&uacute;mero v&aacute;lido.
+	 */
+	long longValue() throws NumberFormatException {
+
+		int i = this.start;
+		if (i >= this.fieldEnd) {
+			throw newNumberFormatException();
+		}
+
+		boolean negative = false;
+		long limit = -Long.MAX_VALUE;
+		final char firstChar = this.text.charAt(i);
+		if (firstChar < '0') {
+			if (firstChar == '-') {
+				negative = true;
+				limit = Long.MIN_VALUE;
+			}
+			else if (firstChar != '+') {
+				throw newNumberFormatException();
+			}
+			i++;
+			if (i == this.fieldEnd) {
+				throw newNumberFormatException();
+			}
+		}
+
+		// Se acumula en negativo para poder representar Long.MIN_VALUE
+		final long multmin = limit / 10;
+		long result = 0;
+		while (i < this.fieldEnd) {
+			final int digit = Character.digit(this.text.charAt(i++), 10);
+			if (digit < 0 || result < multmin) {
+				throw newNumberFormatException();
+			}
+			result *= 10;
+			if (result < limit + digit) {
+				throw newNumberFormatException();
+			}
+			result -= digit;
+		}
+		return negative ? result : -result;
+	}
+
+	private NumberFormatException newNumberFormatException() {
+		return new NumberFormatException("For input string: \"" + value() + "\""); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
@@ -43,39 +43,43 @@ public class SignatureCube {
 			throw new IllegalArgumentException("Se ha proporcionado una cadena vacia"); //$NON-NLS-1$
 		}
 
-		final String [] cube = registry.split(";"); //$NON-NLS-1$
+		final FieldTokenizer cube = new FieldTokenizer(registry);
 		if (!checkRegistryData(cube)) {
 			throw new IllegalArgumentException("Se ha encontrado un registro con formato no valido: " + registry); //$NON-NLS-1$
 		}
+		cube.reset();
 
 		final SignatureCube sign =  new SignatureCube();
 
 		// Aplicacion
-		sign.setApplication(cube[0]);
+		sign.setApplication(cube.nextValue());
 
 		// Formato
-		sign.setFormat(cube[1]);
+		sign.setFormat(cube.nextValue());
 
 		// Formato Mejorado
-		sign.setImprovedFormat(cube[2].isEmpty() ? null : cube[2]);
+		cube.next();
+		sign.setImprovedFormat(cube.isEmpty() ? null : cube.value());
 
 		// Algoritmo
-		sign.setAlgorithm(cube[3]);
+		sign.setAlgorithm(cube.nextValue());
 
 		// Proveedor
-		sign.setProvider(cube[4]);
+		sign.setProvider(cube.nextValue());
 
 		// Navegador
-		sign.setBrowser(cube[5]);
+		sign.setBrowser(cube.nextValue());
 
 		// Resultado de la firma
-		sign.setResultSign("1".equals(cube[6])); //$NON-NLS-1$
+		cube.next();
+		sign.setResultSign(cube.valueEquals("1")); //$NON-NLS-1$
 
 		// Identificador de la transaccion
-		sign.setIdTransaction(cube[7]);
+		sign.setIdTransaction(cube.nextValue());
 
 		// Tamano de la firma
-		sign.setDataSize(Long.parseLong(cube[8]));
+		cube.next();
+		sign.setDataSize(cube.longValue());
 
 		return sign;
 	}
@@ -87,21 +91,20 @@ public class SignatureCube {
 	 * @return {@code true} si el registro contiene los campos requeridos,
 	 * {@code false} en caso contrario.
 	 */
-	private static boolean checkRegistryData(final String[] registryDatas) {
+	private static boolean checkRegistryData(final FieldTokenizer registryDatas) {
 
-		if (registryDatas == null || registryDatas.length != 9) {
+		if (registryDatas.count() != 9) {
 			return false;
 		}
 
-		for (int i = 0; i < registryDatas.length; i++) {
+		for (int i = 0; registryDatas.next(); i++) {
 
 			// El campo de formato mejorado puede estar vacio
 			if (i == 2) {
 				continue;
 			}
 
-			final String data = registryDatas[i];
-			if (data == null || data.isEmpty()) {
+			if (registryDatas.isEmpty()) {
 				return false;
 			}
 		}
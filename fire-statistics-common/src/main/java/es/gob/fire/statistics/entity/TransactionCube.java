@@ -46,30 +46,33 @@ public class TransactionCube {
 			throw new IllegalArgumentException("Se ha proporcionado una cadena vacia"); //$NON-NLS-1$
 		}
 
-		final String [] cube = registry.split(";"); //$NON-NLS-1$
+		final FieldTokenizer cube = new FieldTokenizer(registry);
 		if (!checkRegistryData(cube)) {
 			throw new IllegalArgumentException("Se ha encontrado un registro con formato no valido: " + registry); //$NON-NLS-1$
 		}
+		cube.reset();
 
 		final TransactionCube trans =  new TransactionCube();
 
 		// Aplicacion
-		trans.setApplication(cube[0]);
+		trans.setApplication(cube.nextValue());
 
 		// Operacion
-		trans.setOperation(cube[1]);
+		trans.setOperation(cube.nextValue());
 
 		// Proveedor
-		trans.setProvider(cube[2]);
+		trans.setProvider(cube.nextValue());
 
 		// Proveedor forzado
-		trans.setMandatoryProvider("1".equals(cube[3])); //$NON-NLS-1$
+		cube.next();
+		trans.setMandatoryProvider(cube.valueEquals("1")); //$NON-NLS-1$
 
 		// Resultado de la transaccion
-		trans.setResultTransaction("1".equals(cube[4])); //$NON-NLS-1$
+		cube.next();
+		trans.setResultTransaction(cube.valueEquals("1")); //$NON-NLS-1$
 
 		// Identificador de la transaccion
-		trans.setIdTransaction(cube[5]);
+		trans.setIdTransaction(cube.nextValue());
 
 		return trans;
 	}
@@ -82,14 +85,14 @@ public class TransactionCube {
 	 * @return {@code true} si el registro contiene los campos requeridos,
 	 * {@code false} en caso contrario.
 	 */
-	private static boolean checkRegistryData(final String[] registryDatas) {
+	private static boolean checkRegistryData(final FieldTokenizer registryDatas) {
 
-		if (registryDatas == null || registryDatas.length != 6) {
+		if (registryDatas.count() != 6) {
 			return false;
 		}
 
-		for (final String data : registryDatas) {
-			if (data == null || data.isEmpty()) {
+		while (registryDatas.next()) {
+			if (registryDatas.isEmpty()) {
 				return false;
 			}
 		}
@@ -0,0 +1,179 @@
+package es.gob.fire.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import es.gob.fire.statistics.entity.AuditSignatureCube;
+import es.gob.fire.statistics.entity.AuditTransactionCube;
+import es.gob.fire.statistics.entity.SignatureCube;
+import es.gob.fire.statistics.entity.TransactionCube;
+import es.gob.fire.statistics.entity.TransactionTotal;
+
+public class StatisticsDataExtractorTest {
+
+	private static final int TRANSACTIONS = 2000;
+
+	@Test
+	public void testParseEmptyFields() throws Exception {
+		final SignatureCube sign = SignatureCube.parse("App;CAdES;;SHA256withRSA;local;Chrome;1;tr1;1024");
+		assertNull(sign.getImprovedFormat());
+		assertEquals(1024, sign.getDataSize());
+
+		// Como con String.split, no se tienen en cuenta los campos vacios finales
+		final AuditTransactionCube auditTrans = AuditTransactionCube.parse(
+				"tr1;01/02/2024 10:30;A1;App;SIGN;sign;CAdES;;SHA256withRSA;local;0;Chrome;node1;;1");
+		assertEquals("", auditTrans.getImprovedFormat());
+		assertEquals("", auditTrans.getErrorDetail());
+		try {
+			AuditSignatureCube.parse("tr1;;sign;CAdES;;1024;;");
+			throw new AssertionError("Se admitio un registro sin resultado");
+		} catch (final IllegalArgumentException e) {
+			// Resultado esperado
+		}
+		try {
+			SignatureCube.parse("App;CAdES;;SHA256withRSA;local;Chrome;1;tr1;1O24");
+			throw new AssertionError("Se admitio un tamano no numerico");
+		} catch (final NumberFormatException e) {
+			// Resultado esperado
+		}
+	}
+
+	@Test
+	public void testExtractMatchesSequentialLoad() throws Exception {
+
+		final File signFile = File.createTempFile("FIRE_SIGNATURE_", ".log");
+		final File transFile = File.createTempFile("FIRE_TRANSACTION_", ".log");
+		final File auditSignFile = File.createTempFile("FIRE_AUDIT_SIGNATURE_", ".log");
+		final File auditTransFile = File.createTempFile("FIRE_AUDIT_TRANSACTION_", ".log");
+
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			writeDataFiles(signFile, transFile, auditSignFile, auditTransFile);
+
+			final CompactedData expected = new CompactedData();
+			for (final String line : readLines(signFile)) {
+				try {
+					expected.addSignatureData(SignatureCube.parse(line));
+				} catch (final Exception e) {
+					// Se ignoran los registros no validos
+				}
+			}
+			for (final String line : readLines(transFile)) {
+				try {
+					expected.addTransactionData(TransactionCube.parse(line));
+				} catch (final Exception e) {
+					// Se ignoran los registros no validos
+				}
+			}
+
+			final CompactedData data = new StatisticsDataExtractor(executor)
+					.extract(signFile, transFile, auditSignFile, auditTransFile);
+
+			assertEquals(expected.getSignatureData(), data.getSignatureData());
+			assertTotals(expected.getTransactionData(), data.getTransactionData());
+			assertFalse(data.getAuditSignatureData().isEmpty());
+
+			long auditSignatures = 0;
+			for (final Long total : data.getAuditSignatureData().values()) {
+				auditSignatures += total.longValue();
+			}
+			assertEquals(TRANSACTIONS, auditSignatures);
+
+			long auditSize = 0;
+			for (final TransactionTotal total : data.getAuditTransactionData().values()) {
+				auditSize += total.getDataSize();
+			}
+			assertEquals(sumAuditSizes(), auditSize);
+		}
+		finally {
+			executor.shutdownNow();
+			signFile.delete();
+			transFile.delete();
+			auditSignFile.delete();
+			auditTransFile.delete();
+		}
+	}
+
+	private static <K> void assertTotals(final Map<K, TransactionTotal> expected, final Map<K, TransactionTotal> actual) {
+		assertEquals(expected.keySet(), actual.keySet());
+		for (final Map.Entry<K, TransactionTotal> entry : expected.entrySet()) {
+			assertEquals(entry.getValue().getTotal(), actual.get(entry.getKey()).getTotal());
+			assertEquals(entry.getValue().getDataSize(), actual.get(entry.getKey()).getDataSize());
+		}
+	}
+
+	private static long auditSize(final int i) {
+		return 100 + i % 7;
+	}
+
+	private static long sumAuditSizes() {
+		long size = 0;
+		for (int i = 0; i < TRANSACTIONS; i++) {
+			size += auditSize(i);
+		}
+		return size;
+	}
+
+	private static void writeDataFiles(final File signFile, final File transFile,
+			final File auditSignFile, final File auditTransFile) throws IOException {
+
+		final String[] apps = { "App1", "App2", "App3" };
+		final String[] formats = { "CAdES", "PAdES", "XAdES" };
+		final Random random = new Random(1);
+
+		try (Writer sign = new FileWriter(signFile);
+				Writer trans = new FileWriter(transFile);
+				Writer auditSign = new FileWriter(auditSignFile);
+				Writer auditTrans = new FileWriter(auditTransFile)) {
+
+			for (int i = 0; i < TRANSACTIONS; i++) {
+				final String trId = "tr" + i;
+				final String app = apps[random.nextInt(apps.length)];
+				final int signs = 1 + random.nextInt(3);
+				for (int j = 0; j < signs; j++) {
+					sign.write(app + ";" + formats[random.nextInt(formats.length)] + ";"
+							+ (random.nextBoolean() ? "" : "T") + ";SHA256withRSA;local;Chrome;"
+							+ random.nextInt(2) + ";" + trId + ";" + random.nextInt(10000) + "\n");
+				}
+				trans.write(app + ";" + (signs > 1 ? "BATCH" : "SIMPLE") + ";local;0;" + random.nextInt(2) + ";" + trId + "\n");
+				if (i % 100 == 0) {
+					sign.write("registro;no;valido\n\n");
+					trans.write("  \n");
+				}
+
+				auditSign.write(trId + ";;sign;" + formats[i % formats.length] + ";;" + auditSize(i) + ";;1\n");
+				auditTrans.write(trId + ";01/02/2024 10:30;A1;" + app + ";SIGN;sign;" + formats[i % formats.length]
+						+ ";;SHA256withRSA;local;0;Chrome;node1;;1\n");
+			}
+		}
+	}
+
+	private static List<String> readLines(final File file) throws IOException {
+		final List<String> lines = new ArrayList<>();
+		try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+			String line;
+			while ((line = br.readLine()) != null) {
+				if (!line.trim().isEmpty()) {
+					lines.add(line);
+				}
+			}
+		}
+		return lines;
+	}
+}
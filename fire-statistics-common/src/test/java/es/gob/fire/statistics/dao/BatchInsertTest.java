@@ -0,0 +1,125 @@
+package es.gob.fire.statistics.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import es.gob.fire.statistics.entity.SignatureCube;
+import es.gob.fire.statistics.entity.TransactionCube;
+import es.gob.fire.statistics.entity.TransactionTotal;
+
+public class BatchInsertTest {
+
+	/**
+	 * Conexi&oacute;n simulada que registra las operaciones realizadas sobre sus sentencias.
+	 */
+	private static final class FakeConnection implements InvocationHandler {
+
+		final List<Integer> executedBatches = new ArrayList<>();
+		int preparedStatements = 0;
+		int pendingBatch = 0;
+		int resultCode = 1;
+
+		Connection connection() {
+			return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+					new Class<?>[] { Connection.class }, this);
+		}
+
+		@Override
+		public Object invoke(final Object proxy, final Method method, final Object[] args) {
+			if ("prepareStatement".equals(method.getName())) {
+				this.preparedStatements++;
+				return Proxy.newProxyInstance(getClass().getClassLoader(),
+						new Class<?>[] { PreparedStatement.class }, new InvocationHandler() {
+							@Override
+							public Object invoke(final Object p, final Method m, final Object[] a) {
+								switch (m.getName()) {
+								case "addBatch":
+									FakeConnection.this.pendingBatch++;
+									return null;
+								case "executeBatch":
+									final int[] results = new int[FakeConnection.this.pendingBatch];
+									java.util.Arrays.fill(results, FakeConnection.this.resultCode);
+									FakeConnection.this.executedBatches.add(Integer.valueOf(results.length));
+									FakeConnection.this.pendingBatch = 0;
+									return results;
+								case "executeUpdate":
+									throw new AssertionError("Se inserto un registro fuera de un lote");
+								default:
+									return null;
+								}
+							}
+						});
+			}
+			return null;
+		}
+	}
+
+	@Test
+	public void testInsertSignaturesInChunks() throws SQLException {
+
+		final Map<SignatureCube, Long> signatures = new HashMap<>();
+		for (int i = 0; i < 7; i++) {
+			final SignatureCube cube = new SignatureCube();
+			cube.setApplication("App" + i);
+			signatures.put(cube, Long.valueOf(i + 1));
+		}
+
+		final FakeConnection conn = new FakeConnection();
+		SignaturesDAO.insertSignatures(new Date(), signatures, conn.connection(), 3);
+
+		assertEquals(1, conn.preparedStatements);
+		assertEquals(3, conn.executedBatches.size());
+		assertEquals(Integer.valueOf(3), conn.executedBatches.get(0));
+		assertEquals(Integer.valueOf(3), conn.executedBatches.get(1));
+		assertEquals(Integer.valueOf(1), conn.executedBatches.get(2));
+	}
+
+	@Test
+	public void testInsertTransactionsAcceptsUnknownCounts() throws SQLException {
+
+		final Map<TransactionCube, TransactionTotal> transactions = new HashMap<>();
+		for (int i = 0; i < 4; i++) {
+			final TransactionCube cube = new TransactionCube();
+			cube.setApplication("App" + i);
+			transactions.put(cube, new TransactionTotal(100, 1));
+		}
+
+		final FakeConnection conn = new FakeConnection();
+		conn.resultCode = Statement.SUCCESS_NO_INFO;
+		TransactionsDAO.insertTransactions(new Date(), transactions, conn.connection(), 500);
+
+		assertEquals(1, conn.executedBatches.size());
+		assertEquals(Integer.valueOf(4), conn.executedBatches.get(0));
+	}
+
+	@Test
+	public void testFailedInsertIsReported() {
+
+		final Map<TransactionCube, TransactionTotal> transactions = new HashMap<>();
+		transactions.put(new TransactionCube(), new TransactionTotal(0, 1));
+
+		final FakeConnection conn = new FakeConnection();
+		conn.resultCode = Statement.EXECUTE_FAILED;
+		try {
+			TransactionsDAO.insertTransactions(new Date(), transactions, conn.connection(), 500);
+			fail("No se detecto el error de insercion");
+		} catch (final SQLException e) {
+			// Resultado esperado
+		}
+	}
+}
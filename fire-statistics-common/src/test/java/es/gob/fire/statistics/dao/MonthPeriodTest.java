@@ -0,0 +1,30 @@
+package es.gob.fire.statistics.dao;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.Timestamp;
+import java.util.Calendar;
+
+import org.junit.Test;
+
+public class MonthPeriodTest {
+
+	private static Timestamp timestamp(final int year, final int month, final int day, final int hour) {
+		final Calendar calendar = Calendar.getInstance();
+		calendar.clear();
+		calendar.set(year, month - 1, day, hour, 0);
+		return new Timestamp(calendar.getTimeInMillis());
+	}
+
+	@Test
+	public void testMonthStartOfDate() {
+		assertEquals(timestamp(2024, 2, 1, 0), MonthPeriod.start(timestamp(2024, 2, 29, 23)));
+	}
+
+	@Test
+	public void testNextMonthCrossesYear() {
+		final Timestamp start = MonthPeriod.start(2023, 12);
+		assertEquals(timestamp(2023, 12, 1, 0), start);
+		assertEquals(timestamp(2024, 1, 1, 0), MonthPeriod.next(start));
+	}
+}
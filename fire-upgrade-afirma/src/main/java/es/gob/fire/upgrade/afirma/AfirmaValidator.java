@@ -10,8 +10,27 @@
 package es.gob.fire.upgrade.afirma;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
 
+import es.gob.fire.upgrade.BatchItemResult;
 import es.gob.fire.upgrade.ConnectionException;
 import es.gob.fire.upgrade.SignatureValidator;
 import es.gob.fire.upgrade.UpgradeException;
@@ -26,8 +45,21 @@ import es.gob.fire.upgrade.afirma.ws.WSServiceInvokerException;
  */
 public class AfirmaValidator implements SignatureValidator {
 
+	private static final Logger LOGGER = Logger.getLogger(AfirmaValidator.class.getName());
+
 	private static final String PROP_AFIRMA_APPID = "afirma.appId"; //$NON-NLS-1$
 
+	/**
+	 * N&uacute;mero m&aacute;ximo de peticiones de un mismo lote que se env&iacute;an a la vez
+	 * a la Plataforma @firma. El l&iacute;mite se aplica a cada lote por separado.
+	 */
+	private static final String PROP_BATCH_CONCURRENCY = "webservices.batch.concurrency"; //$NON-NLS-1$
+
+	private static final int DEFAULT_BATCH_CONCURRENCY = 8;
+
+	/** Segundos que se mantienen los hilos de env&iacute;o de lotes sin uso. */
+	private static final long BATCH_THREADS_KEEP_ALIVE = 60;
+
 	private static final String PROP_IGNORE_GRACE_PERIOD = "ignoreGracePeriod"; //$NON-NLS-1$
 
 	/**
@@ -46,12 +78,27 @@ public class AfirmaValidator implements SignatureValidator {
 
 	private String appId = null;
 
+	private int batchConcurrency = DEFAULT_BATCH_CONCURRENCY;
+
+	private ExecutorService batchExecutor = null;
+
 	@Override
 	public void init(final Properties config) {
 		this.conn = new AfirmaConnector();
 		this.conn.init(config);
 
 		this.appId = config.getProperty(PROP_AFIRMA_APPID);
+
+		final String concurrency = config.getProperty(PROP_BATCH_CONCURRENCY);
+		if (concurrency != null && !concurrency.trim().isEmpty()) {
+			try {
+				this.batchConcurrency = Math.max(1, Integer.parseInt(concurrency.trim()));
+			}
+			catch (final NumberFormatException e) {
+				LOGGER.warning("Valor no valido para la propiedad " + PROP_BATCH_CONCURRENCY //$NON-NLS-1$
+						+ ". Se usara el valor por defecto: " + DEFAULT_BATCH_CONCURRENCY); //$NON-NLS-1$
+			}
+		}
 	}
 
 	/**
@@ -186,6 +233,181 @@ public class AfirmaValidator implements SignatureValidator {
 		return verifyResult;
 	}
 
+	/**
+	 * Indica que el validador env&iacute;a en paralelo las peticiones de un lote, salvo
+	 * que se haya configurado una concurrencia de una &uacute;nica petici&oacute;n.
+	 * @return {@code true} si se admite el procesado en lote, {@code false} en caso contrario.
+	 */
+	@Override
+	public boolean supportsBatch() {
+		return this.batchConcurrency > 1;
+	}
+
+	/**
+	 * Actualiza un conjunto de firmas utilizando la Plataforma @firma. Nunca hay en curso
+	 * a la vez m&aacute;s peticiones del lote que las configuradas y, en cuanto termina una,
+	 * se env&iacute;a la siguiente.
+	 * @param signatures Firmas que se desean actualizar.
+	 * @param upgradeFormat Formato avanzado al que actualizar.
+	 * @param config Configuraci&oacute;n adicional para la operaci&oacute;n.
+	 * @return Resultado de la actualizaci&oacute;n de cada firma.
+	 */
+	@Override
+	public List<BatchItemResult<UpgradeResult>> upgradeSignatures(final List<byte[]> signatures,
+			final String upgradeFormat, final Properties config) {
+
+		if (signatures.size() < 2 || !supportsBatch()) {
+			return SignatureValidator.super.upgradeSignatures(signatures, upgradeFormat, config);
+		}
+
+		final List<Callable<UpgradeResult>> tasks = new ArrayList<>(signatures.size());
+		for (final byte[] signature : signatures) {
+			tasks.add(new Callable<UpgradeResult>() {
+				@Override
+				public UpgradeResult call() throws Exception {
+					return upgradeSignature(signature, upgradeFormat, config);
+				}
+			});
+		}
+		return executeBatch(tasks);
+	}
+
+	/**
+	 * Valida un conjunto de firmas utilizando la Plataforma @firma. Las peticiones se
+	 * env&iacute;an con la misma concurrencia limitada que en la actualizaci&oacute;n.
+	 * @param signatures Firmas que se desean validar.
+	 * @param config Configuraci&oacute;n adicional para la operaci&oacute;n.
+	 * @return Resultado de la validaci&oacute;n de cada firma.
+	 */
+	@Override
+	public List<BatchItemResult<VerifyResult>> validateSignatures(final List<byte[]> signatures,
+			final Properties config) {
+
+		if (signatures.size() < 2 || !supportsBatch()) {
+			return SignatureValidator.super.validateSignatures(signatures, config);
+		}
+
+		final List<Callable<VerifyResult>> tasks = new ArrayList<>(signatures.size());
+		for (final byte[] signature : signatures) {
+			tasks.add(new Callable<VerifyResult>() {
+				@Override
+				public VerifyResult call() throws Exception {
+					return validateSignature(signature, config);
+				}
+			});
+		}
+		return executeBatch(tasks);
+	}
+
+	/**
+	 * Ejecuta las peticiones de un lote y espera a obtener todos sus resultados. Se
+	 * mantienen en curso como m&aacute;ximo tantas peticiones del lote como indique la
+	 * concurrencia configurada y se env&iacute;a la siguiente cada vez que termina una,
+	 * de forma que los lotes de distintas transacciones avanzan a la vez sobre el pool
+	 * compartido en lugar de esperar unos a otros. Si se interrumpe el hilo, se cancelan
+	 * las peticiones pendientes.
+	 * @param tasks Peticiones del lote.
+	 * @param <T> Tipo del resultado de las peticiones.
+	 * @return Resultado de cada petici&oacute;n, en el mismo orden que las peticiones.
+	 */
+	private <T> List<BatchItemResult<T>> executeBatch(final List<Callable<T>> tasks) {
+
+		final CompletionService<T> completionService = new ExecutorCompletionService<>(getBatchExecutor());
+		final Map<Future<T>, Integer> running = new HashMap<>();
+		final List<BatchItemResult<T>> results = new ArrayList<>(
+				Collections.<BatchItemResult<T>>nCopies(tasks.size(), null));
+
+		int next = 0;
+		Exception stopError = null;
+		while (next < tasks.size() && running.size() < this.batchConcurrency) {
+			running.put(completionService.submit(tasks.get(next)), Integer.valueOf(next));
+			next++;
+		}
+
+		while (!running.isEmpty()) {
+
+			final Future<T> future;
+			try {
+				future = completionService.take();
+			}
+			catch (final InterruptedException e) {
+				for (final Map.Entry<Future<T>, Integer> entry : running.entrySet()) {
+					entry.getKey().cancel(true);
+					results.set(entry.getValue().intValue(),
+							new BatchItemResult<T>(new UpgradeException("Se ha interrumpido la operacion", e))); //$NON-NLS-1$
+				}
+				running.clear();
+				stopError = new UpgradeException("Se ha interrumpido la operacion", e); //$NON-NLS-1$
+				Thread.currentThread().interrupt();
+				break;
+			}
+
+			results.set(running.remove(future).intValue(), getResult(future));
+
+			// Enviamos la siguiente peticion en sustitucion de la que ha terminado
+			if (stopError == null && next < tasks.size()) {
+				try {
+					running.put(completionService.submit(tasks.get(next)), Integer.valueOf(next));
+					next++;
+				}
+				catch (final RejectedExecutionException e) {
+					LOGGER.warning("No se pudo enviar una peticion del lote a la Plataforma @firma: " + e); //$NON-NLS-1$
+					stopError = new UpgradeException("No se pudo enviar la peticion a la Plataforma @firma", e); //$NON-NLS-1$
+				}
+			}
+		}
+
+		// Las peticiones que no se llegaron a enviar se dan por fallidas
+		for (int i = next; i < tasks.size(); i++) {
+			results.set(i, new BatchItemResult<T>(stopError));
+		}
+		return results;
+	}
+
+	/**
+	 * Obtiene el resultado de una petici&oacute;n ya terminada.
+	 * @param future Petici&oacute;n terminada.
+	 * @param <T> Tipo del resultado de la petici&oacute;n.
+	 * @return Resultado de la petici&oacute;n o error que se produjo al ejecutarla.
+	 */
+	private static <T> BatchItemResult<T> getResult(final Future<T> future) {
+		try {
+			return new BatchItemResult<>(future.get());
+		}
+		catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			return new BatchItemResult<>(cause instanceof Exception ? (Exception) cause : e);
+		}
+		catch (final Exception e) {
+			return new BatchItemResult<>(e);
+		}
+	}
+
+	/**
+	 * Obtiene el pool de hilos compartido por todos los lotes. Los hilos se crean
+	 * seg&uacute;n se necesitan y se liberan cuando dejan de usarse. El n&uacute;mero de
+	 * hilos no se limita aqu&iacute;, sino en cada lote mediante la concurrencia configurada.
+	 * @return Pool de hilos de las peticiones de los lotes.
+	 */
+	private synchronized ExecutorService getBatchExecutor() {
+		if (this.batchExecutor == null) {
+			final AtomicInteger threadCount = new AtomicInteger(0);
+			this.batchExecutor = new ThreadPoolExecutor(
+					0, Integer.MAX_VALUE,
+					BATCH_THREADS_KEEP_ALIVE, TimeUnit.SECONDS,
+					new SynchronousQueue<Runnable>(),
+					new ThreadFactory() {
+						@Override
+						public Thread newThread(final Runnable r) {
+							final Thread thread = new Thread(r, "FIRe-AfirmaBatch-" + threadCount.incrementAndGet()); //$NON-NLS-1$
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+		}
+		return this.batchExecutor;
+	}
+
 	/**
 	 * Indica si se debe ignorar el periodo de gracia en las operaciones de actualizacion de firmas.
 	 * @param config Configuraci&oacute;n proporcionada para la operaci&oacute;n.
@@ -70,6 +70,12 @@ public class AbstractCommonHandler extends AbstractHandler {
 	 */
 	private String keystoreType;
 
+	/**
+	 * Attribute that represents the WSS4J cryptographic manager built with the current configuration.
+	 * It is built once and reused by all the requests, so the keystore is not reloaded on each call.
+	 */
+	private volatile Crypto crypto = null;
+
 	/**
 	 * {@inheritDoc}
 	 * @see org.apache.axis2.engine.Handler#invoke(org.apache.axis2.context.MessageContext)
@@ -81,11 +87,17 @@ public class AbstractCommonHandler extends AbstractHandler {
 
 	/**
 	 * Method that configures the properties related to WSS4J cryptographic manager.
+	 * The manager is built the first time it is requested and reused until the configuration changes.
 	 * @return the configured properties related to WSS4J cryptographic manager.
 	 * @throws WSSecurityException If there is an error in loading the cryptographic properties.
 	 */
 	final Crypto getCryptoInstance() throws WSSecurityException {
 
+		final Crypto cachedCrypto = this.crypto;
+		if (cachedCrypto != null) {
+			return cachedCrypto;
+		}
+
 		final Properties properties = new Properties();
 
 		// Configuracion del certificado SSL Cliente para el acceso al servidor
@@ -115,14 +127,15 @@ public class AbstractCommonHandler extends AbstractHandler {
 		// el que se encuentren los certificados emisores del certificado cliente usado para establecer
 		// la conexion en caso de que estos no estuviesen en el mismo almacen del certificado cliente.
 
-		Crypto crypto;
+		final Crypto newCrypto;
 		try {
-			crypto = CryptoFactory.getInstance(properties);
+			newCrypto = CryptoFactory.getInstance(properties);
 		}
 		catch (final Exception e) {
 			throw new WSSecurityException("Error al configurar el certificado cliente SSL o el almacen de confianza", e); //$NON-NLS-1$
 		}
-		return crypto;
+		this.crypto = newCrypto;
+		return newCrypto;
 	}
 
 	/**
@@ -139,6 +152,7 @@ public class AbstractCommonHandler extends AbstractHandler {
 	 */
 	public final void setPassword(final String passParam) {
 		this.password = passParam;
+		this.crypto = null;
 	}
 
 	/**
@@ -175,6 +189,7 @@ public class AbstractCommonHandler extends AbstractHandler {
 	 */
 	public final void setKeystore(final String keystore) {
 		this.keystore = keystore;
+		this.crypto = null;
 	}
 
 	/**
@@ -191,6 +206,7 @@ public class AbstractCommonHandler extends AbstractHandler {
 	 */
 	final void setKeystorePass(final String keystorePass) {
 		this.keystorePass = keystorePass;
+		this.crypto = null;
 	}
 
 	/**
@@ -207,6 +223,7 @@ public class AbstractCommonHandler extends AbstractHandler {
 	 */
 	public final void setKeystoreType(final String keystoreType) {
 		this.keystoreType = keystoreType;
+		this.crypto = null;
 	}
 
 	/**
@@ -223,5 +240,6 @@ public class AbstractCommonHandler extends AbstractHandler {
 	 */
 	public final void setUserAlias(final String userAliasParam) {
 		this.userAlias = userAliasParam;
+		this.crypto = null;
 	}
 }
@@ -22,8 +22,11 @@ import java.io.InputStream;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
 import java.security.cert.X509Certificate;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -35,6 +38,8 @@ import org.apache.axis2.AxisFault;
 import org.apache.axis2.addressing.EndpointReference;
 import org.apache.axis2.client.Options;
 import org.apache.axis2.client.ServiceClient;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.ConfigurationContextFactory;
 import org.apache.axis2.engine.AxisConfiguration;
 import org.apache.axis2.engine.Handler;
 import org.apache.axis2.engine.Phase;
@@ -69,9 +74,20 @@ public class WebServiceInvoker {
 	private X509Certificate signingCert;
 
 	/**
-	 * List of handlers added to the Axis engine.
+	 * Maximum number of idle clients kept for each service.
 	 */
-	private static List<String> handlerAdded = new ArrayList<>();
+	private static final int MAX_IDLE_CLIENTS = 16;
+
+	/**
+	 * Axis2 configuration context shared by all the clients of this invoker. It keeps the
+	 * security handlers and the pooled HTTP connections.
+	 */
+	private ConfigurationContext configContext = null;
+
+	/**
+	 * Idle service clients of each service, ready to be reused.
+	 */
+	private final Map<String, Queue<ServiceClient>> idleClients = new ConcurrentHashMap<>();
 
 	/**
 	 * Constructor method.
@@ -96,6 +112,18 @@ public class WebServiceInvoker {
 				LOGGER.log(Level.SEVERE, "No se ha podido cargar el certificado para la validacion de las respuestas del servicio @firma", e); //$NON-NLS-1$
 			}
 		}
+
+		//TODO: Buscar un modo de poder asignar el almacen de confianza exclusivamente para esta conexion
+		// y no como configuracion generar de la JVM
+		if (this.config.getTruststorePath() != null) {
+			System.setProperty("javax.net.ssl.trustStore", this.config.getTruststorePath()); //$NON-NLS-1$
+		}
+		if (this.config.getTruststorePass() != null) {
+			System.setProperty("javax.net.ssl.trustStorePassword", this.config.getTruststorePass()); //$NON-NLS-1$
+		}
+		if (this.config.getTruststoreType() != null) {
+			System.setProperty("javax.net.ssl.trustStoreType", this.config.getTruststoreType()); //$NON-NLS-1$
+		}
 	}
 
 
@@ -127,6 +155,8 @@ public class WebServiceInvoker {
 
 	/**
 	 * Method that performs the invocation to a method from @Firma web services.
+	 * The method is thread-safe: each call uses its own service client, taken from a pool, and
+	 * all the clients share the security handlers and the HTTP connections.
 	 * @param reqBody Request body XML.
 	 * @param service Parameter that represents the name of service.
 	 * @param method Parameter that represents the name of the method to invoke.
@@ -135,93 +165,173 @@ public class WebServiceInvoker {
 	 */
 	public final Object performCall(final String reqBody, final String service, final String method) throws WSServiceInvokerException {
 
+		LOGGER.fine("Metodo a invocar: " + method); //$NON-NLS-1$
+
+		// Creamos la factoria de objetos XML de AXIS2.
+		final OMFactory fac = OMAbstractFactory.getOMFactory();
+
+		// Creamos el namespace de la peticion.
+		final OMNamespace ns = createNamespace(fac, service);
+		// Creamos el elemento XML raiz del SOAP body que indica la
+		// operacion a realizar.
+		final OMElement operationElem = fac.createOMElement(method, ns);
+		// Creamos el elemento XML que contendra la peticion SOAP completa.
+		final OMElement inputParamElem = fac.createOMElement("arg0", ns); //$NON-NLS-1$
+		// Anadimos la peticion al parametro de entrada principal.
+		inputParamElem.setText(reqBody);
+		// Incluimos el parametro a la operacion para formar el body del
+		// SOAP
+		// completamente.
+		operationElem.addChild(inputParamElem);
+
 		Object res = null;
-		ServiceClient client = null;
+		final ServiceClient client = takeClient(service);
+		boolean reusable = false;
 		try {
-			final String endPoint = this.config.getEndpoint();
-
-			final String serviceUrl = endPoint
-					+ (endPoint.endsWith("/") ? "" : "/") //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-					+ service;
-
-			final String securityOption = this.config.getAuthMethod();
-			final ClientHandler requestHandler = newRequestHandler(securityOption);
-			final ResponseHandler responseHandler = new ResponseHandler(this.signingCert);
-
-			LOGGER.fine("Metodo a invocar: " + method); //$NON-NLS-1$
-
-			// Creamos la factoria de objetos XML de AXIS2.
-			final OMFactory fac = OMAbstractFactory.getOMFactory();
-
-			// Creamos el namespace de la peticion.
-			final OMNamespace ns = createNamespace(fac, service);
-			// Creamos el elemento XML raiz del SOAP body que indica la
-			// operacion a realizar.
-			final OMElement operationElem = fac.createOMElement(method, ns);
-			// Creamos el elemento XML que contendra la peticion SOAP completa.
-			final OMElement inputParamElem = fac.createOMElement("arg0", ns); //$NON-NLS-1$
-			// Anadimos la peticion al parametro de entrada principal.
-			inputParamElem.setText(reqBody);
-			// Incluimos el parametro a la operacion para formar el body del
-			// SOAP
-			// completamente.
-			operationElem.addChild(inputParamElem);
-
-			// Creamos un objeto Option que albergara la configuracion de
-			// conexion al servicio.
-			final Options options = new Options();
-			options.setTimeOutInMilliSeconds(this.config.getTimeout());
-			options.setTo(new EndpointReference(serviceUrl));
-
-			// Desactivamos el chunked.
-			options.setProperty(HTTPConstants.CHUNKED, Boolean.FALSE.toString().toLowerCase());
-
-			//TODO: Buscar un modo de poder asignar el almacen de confianza exclusivamente para esta conexion
-			// y no como configuracion generar de la JVM
-			if (this.config.getTruststorePath() != null) {
-				System.setProperty("javax.net.ssl.trustStore", this.config.getTruststorePath()); //$NON-NLS-1$
-			}
-			if (this.config.getTruststorePass() != null) {
-				System.setProperty("javax.net.ssl.trustStorePassword", this.config.getTruststorePass()); //$NON-NLS-1$
-			}
-			if (this.config.getTruststoreType() != null) {
-				System.setProperty("javax.net.ssl.trustStoreType", this.config.getTruststoreType()); //$NON-NLS-1$
-			}
-
-			// Creamos el cliente y le anadimos la configuracion anterior.
-			client = new ServiceClient();
-			client.setOptions(options);
-
-			// Anadimos los handler generados al flujo de handlers de Axis2.
-			addHandlers(client, requestHandler, responseHandler);
-
 			// Realizamos la llamada.
 			LOGGER.fine("Realizando la llamada al servicio web..."); //$NON-NLS-1$
 			final OMElement result = client.sendReceive(operationElem);
 			if (result != null && result.getFirstElement() != null && !result.getFirstElement().getText().isEmpty()) {
 				res = result.getFirstElement().getText();
 			}
-		} catch (final WSServiceInvokerException e) {
-			throw e;
+			reusable = true;
 		} catch (final Exception e) {
 			throw new WSServiceInvokerException(e);
 		} finally {
-			removeHandlers(client);
+			releaseClient(service, client, reusable);
 		}
 
 		return res;
 	}
 
+	/**
+	 * Obtiene un cliente para el servicio indicado. Se reutiliza un cliente libre o,
+	 * si no lo hay, se crea uno nuevo.
+	 * @param service Nombre del servicio.
+	 * @return Cliente de uso exclusivo hasta que se libere.
+	 * @throws WSServiceInvokerException Cuando no se puede crear el cliente.
+	 */
+	private ServiceClient takeClient(final String service) throws WSServiceInvokerException {
+
+		final Queue<ServiceClient> clients = this.idleClients.get(service);
+		if (clients != null) {
+			final ServiceClient client = clients.poll();
+			if (client != null) {
+				return client;
+			}
+		}
+
+		final String endPoint = this.config.getEndpoint();
+
+		final String serviceUrl = endPoint
+				+ (endPoint.endsWith("/") ? "" : "/") //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				+ service;
+
+		// Creamos un objeto Option que albergara la configuracion de
+		// conexion al servicio.
+		final Options options = new Options();
+		options.setTimeOutInMilliSeconds(this.config.getTimeout());
+		options.setTo(new EndpointReference(serviceUrl));
+
+		// Desactivamos el chunked.
+		options.setProperty(HTTPConstants.CHUNKED, Boolean.FALSE.toString().toLowerCase());
+
+		// Reutilizamos las conexiones HTTP entre llamadas.
+		options.setProperty(HTTPConstants.REUSE_HTTP_CLIENT, Boolean.TRUE);
+
+		// Creamos el cliente y le anadimos la configuracion anterior.
+		final ServiceClient client;
+		try {
+			client = new ServiceClient(getConfigurationContext(), null);
+		}
+		catch (final AxisFault e) {
+			throw new WSServiceInvokerException("No se pudo crear el cliente del servicio web " + service, e); //$NON-NLS-1$
+		}
+		client.setOptions(options);
+
+		return client;
+	}
+
+	/**
+	 * Libera un cliente tras una llamada. Si la llamada termin&oacute; correctamente y no
+	 * se ha alcanzado el n&uacute;mero m&aacute;ximo de clientes libres, se guarda para
+	 * reutilizarlo. En caso contrario, se liberan sus recursos.
+	 * @param service Nombre del servicio.
+	 * @param client Cliente.
+	 * @param reusable Indica si el cliente puede reutilizarse.
+	 */
+	private void releaseClient(final String service, final ServiceClient client, final boolean reusable) {
+
+		// Devolvemos la conexion HTTP al pool de conexiones
+		try {
+			client.cleanupTransport();
+		}
+		catch (final Exception e) {
+			LOGGER.log(Level.FINE, "No se pudo liberar la conexion con el servicio web", e); //$NON-NLS-1$
+		}
+
+		if (reusable) {
+			Queue<ServiceClient> clients = this.idleClients.get(service);
+			if (clients == null) {
+				final Queue<ServiceClient> newClients = new ConcurrentLinkedQueue<>();
+				clients = this.idleClients.putIfAbsent(service, newClients);
+				if (clients == null) {
+					clients = newClients;
+				}
+			}
+			// El tamano de la cola es aproximado, pero basta para limitar los clientes libres
+			if (clients.size() < MAX_IDLE_CLIENTS) {
+				clients.offer(client);
+				return;
+			}
+		}
+
+		try {
+			client.cleanup();
+		}
+		catch (final Exception e) {
+			LOGGER.log(Level.FINE, "No se pudieron liberar los recursos del cliente del servicio web", e); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Obtiene el contexto de configuraci&oacute;n de Axis2 compartido por los clientes
+	 * de este objeto. La primera vez que se solicita se crea y se le agregan los
+	 * manejadores de seguridad de la petici&oacute;n y la respuesta.
+	 * @return Contexto de configuraci&oacute;n.
+	 * @throws AxisFault Cuando no se puede crear el contexto.
+	 * @throws WSServiceInvokerException Cuando el m&eacute;todo de autenticaci&oacute;n
+	 * configurado no es v&aacute;lido.
+	 */
+	private synchronized ConfigurationContext getConfigurationContext() throws AxisFault, WSServiceInvokerException {
+
+		if (this.configContext == null) {
+			final ClientHandler requestHandler = newRequestHandler(this.config.getAuthMethod());
+			final ResponseHandler responseHandler = new ResponseHandler(this.signingCert);
+
+			final ConfigurationContext context =
+					ConfigurationContextFactory.createConfigurationContextFromFileSystem(null, null);
+
+			// Mantenemos el cliente HTTP, y con el sus conexiones, entre llamadas
+			context.setProperty(HTTPConstants.REUSE_HTTP_CLIENT, Boolean.TRUE);
+
+			// Anadimos los handler generados al flujo de handlers de Axis2.
+			addHandlers(context.getAxisConfiguration(), requestHandler, responseHandler);
+
+			this.configContext = context;
+		}
+		return this.configContext;
+	}
+
 	/**
 	 * Auxiliary method that adds the generated handlers to the 'phases' of Axis2.
-	 * @param client Service client.
+	 * @param config Axis configuration.
 	 * @param requestHandler Request handler.
 	 * @param responseHandler Response handler.
 	 */
-	private static void addHandlers(final ServiceClient client, final ClientHandler requestHandler, final ResponseHandler responseHandler) {
+	private static void addHandlers(final AxisConfiguration config, final ClientHandler requestHandler, final ResponseHandler responseHandler) {
 
 		// Anadimos el handler de seguridad de salida.
-		final AxisConfiguration config = client.getAxisConfiguration();
 		final List<Phase> phasesOut = config.getOutFlowPhases();
 		for (final Phase phase: phasesOut) {
 			if (PHASE_NAME_SECURITY.equals(phase.getPhaseName())) {
@@ -250,48 +360,6 @@ public class WebServiceInvoker {
 		}
 	}
 
-	/**
-	 * Method that removes the added handler from the axis engine.
-	 * @param client Axis service client.
-	 */
-	private static void removeHandlers(final ServiceClient client) {
-		if (client != null && !handlerAdded.isEmpty()) {
-			final AxisConfiguration config = client.getAxisConfiguration();
-
-			// Recorremos las phases de salida.
-			final List<Phase> phasesOut = config.getOutFlowPhases();
-			for (final Phase phase: phasesOut) {
-				removeHandler(phase);
-			}
-
-			// Recorremos las phases de entrada.
-			final List<Phase> phasesIn = config.getInFlowPhases();
-			for (final Phase phase: phasesIn) {
-				removeHandler(phase);
-			}
-
-			// Reiniciamos la lista de handlers.
-			handlerAdded = new ArrayList<>();
-		}
-
-	}
-
-	/**
-	 * Auxiliary method that removes the added handler from the given phase.
-	 * @param phase Axis phase where the handlers are.
-	 */
-	private static void removeHandler(final Phase phase) {
-		if (phase != null) {
-			final List<Handler> handlers = phase.getHandlers();
-			for (final Handler handler: handlers) {
-				if (handlerAdded.contains(handler.getName())) {
-					handler.getHandlerDesc().setHandler(handler);
-					phase.removeHandler(handler.getHandlerDesc());
-				}
-			}
-		}
-	}
-
 	/**
 	 * Auxiliary method that add a handler into an AXIS2 phase.
 	 * @param phase AXIS2 phase.
@@ -302,17 +370,14 @@ public class WebServiceInvoker {
 	private static void addHandler(final Phase phase, final Handler handler, final int position) throws PhaseException {
 		if (position == 0 && !isHandlerInPhase(phase, handler)) {
 			phase.setPhaseFirst(handler);
-			handlerAdded.add(handler.getName());
 			return;
 		}
 		if (position == 1 && !isHandlerInPhase(phase, handler)) {
 			phase.addHandler(handler);
-			handlerAdded.add(handler.getName());
 			return;
 		}
 		if (position == 2 && !isHandlerInPhase(phase, handler)) {
 			phase.setPhaseLast(handler);
-			handlerAdded.add(handler.getName());
 			return;
 		}
 	}
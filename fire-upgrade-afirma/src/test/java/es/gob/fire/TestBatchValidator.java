@@ -0,0 +1,78 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import es.gob.fire.upgrade.BatchItemResult;
+import es.gob.fire.upgrade.UpgradeResult;
+import es.gob.fire.upgrade.VerifyException;
+import es.gob.fire.upgrade.VerifyResult;
+import es.gob.fire.upgrade.afirma.AfirmaValidator;
+
+/**
+ * Pruebas del procesado en lote de firmas del validador de la Plataforma @firma que
+ * no requieren conexi&oacute;n con la plataforma.
+ */
+public final class TestBatchValidator {
+
+	private static List<byte[]> newSignatures(final int count) {
+		final List<byte[]> signatures = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			signatures.add(new byte[] { (byte) i });
+		}
+		return signatures;
+	}
+
+	/**
+	 * Comprueba que los resultados del lote se devuelven en el orden de las firmas.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testUpgradeResultsOrder() {
+
+		final List<byte[]> signatures = newSignatures(100);
+
+		// Sin formato de actualizacion se devuelve la propia firma sin conectar con la plataforma
+		final List<BatchItemResult<UpgradeResult>> results =
+				new AfirmaValidator().upgradeSignatures(signatures, null, null);
+
+		Assert.assertEquals(signatures.size(), results.size());
+		for (int i = 0; i < signatures.size(); i++) {
+			Assert.assertFalse(results.get(i).isFailed());
+			Assert.assertSame(signatures.get(i), results.get(i).getResult().getResult());
+		}
+	}
+
+	/**
+	 * Comprueba que el error de cada firma se devuelve en su resultado sin detener el lote.
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testErrorsPerSignature() {
+
+		final List<byte[]> signatures = newSignatures(10);
+
+		// El validador no se ha inicializado, asi que falla cada una de las validaciones
+		final List<BatchItemResult<VerifyResult>> results =
+				new AfirmaValidator().validateSignatures(signatures, null);
+
+		Assert.assertEquals(signatures.size(), results.size());
+		for (final BatchItemResult<VerifyResult> result : results) {
+			Assert.assertTrue(result.isFailed());
+			Assert.assertNull(result.getResult());
+			Assert.assertTrue(result.getError() instanceof VerifyException);
+		}
+	}
+}
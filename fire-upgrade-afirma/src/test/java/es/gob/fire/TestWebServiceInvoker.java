@@ -0,0 +1,219 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import es.gob.fire.upgrade.afirma.ws.WebServiceInvoker;
+import es.gob.fire.upgrade.afirma.ws.WebServiceInvokerConfig;
+
+/**
+ * Pruebas del invocador de servicios web contra un servicio DSS simulado que
+ * devuelve en cada respuesta el contenido de la petici&oacute;n.
+ */
+public final class TestWebServiceInvoker {
+
+	private static final String SERVICE = "DSSAfirmaVerify"; //$NON-NLS-1$
+
+	private static final String METHOD = "verify"; //$NON-NLS-1$
+
+	private static final Pattern ARG_PATTERN = Pattern.compile("<(?:\\w+:)?arg0[^>]*>(.*?)</(?:\\w+:)?arg0>", Pattern.DOTALL); //$NON-NLS-1$
+
+	/** Firma con estructura v&aacute;lida. No se valida al no configurarse el certificado de firma. */
+	private static final String RESPONSE_SIGNATURE =
+			"<ds:Signature xmlns:ds=\"http://www.w3.org/2000/09/xmldsig#\"><ds:SignedInfo>" //$NON-NLS-1$
+			+ "<ds:CanonicalizationMethod Algorithm=\"http://www.w3.org/2001/10/xml-exc-c14n#\"/>" //$NON-NLS-1$
+			+ "<ds:SignatureMethod Algorithm=\"http://www.w3.org/2000/09/xmldsig#rsa-sha1\"/>" //$NON-NLS-1$
+			+ "<ds:Reference URI=\"\"><ds:DigestMethod Algorithm=\"http://www.w3.org/2000/09/xmldsig#sha1\"/>" //$NON-NLS-1$
+			+ "<ds:DigestValue>AAAAAAAAAAAAAAAAAAAAAAAAAAA=</ds:DigestValue></ds:Reference></ds:SignedInfo>" //$NON-NLS-1$
+			+ "<ds:SignatureValue>AAAA</ds:SignatureValue></ds:Signature>"; //$NON-NLS-1$
+
+	private HttpServer server;
+
+	private WebServiceInvoker invoker;
+
+	/** Puertos remotos de las conexiones recibidas por el servicio simulado. */
+	private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+	private final AtomicInteger requests = new AtomicInteger(0);
+
+	/**
+	 * Inicia el servicio simulado y crea el invocador.
+	 * @throws IOException Cuando no se puede iniciar el servicio.
+	 */
+	@Before
+	public void startServer() throws IOException {
+
+		this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0); //$NON-NLS-1$
+		this.server.createContext("/" + SERVICE, new HttpHandler() { //$NON-NLS-1$
+			@Override
+			public void handle(final HttpExchange exchange) throws IOException {
+				TestWebServiceInvoker.this.requests.incrementAndGet();
+				TestWebServiceInvoker.this.clientPorts.add(Integer.valueOf(exchange.getRemoteAddress().getPort()));
+
+				final String request;
+				try (InputStream is = exchange.getRequestBody()) {
+					request = new String(readAll(is), StandardCharsets.UTF_8);
+				}
+				final Matcher matcher = ARG_PATTERN.matcher(request);
+				final String arg = matcher.find() ? matcher.group(1) : ""; //$NON-NLS-1$
+
+				final byte[] response = buildResponse(arg).getBytes(StandardCharsets.UTF_8);
+				exchange.getResponseHeaders().set("Content-Type", "text/xml; charset=UTF-8"); //$NON-NLS-1$ //$NON-NLS-2$
+				exchange.sendResponseHeaders(200, response.length);
+				try (OutputStream os = exchange.getResponseBody()) {
+					os.write(response);
+				}
+			}
+		});
+		this.server.setExecutor(Executors.newFixedThreadPool(16));
+		this.server.start();
+
+		final Properties config = new Properties();
+		config.setProperty("webservices.endpoint", "http://localhost:" + this.server.getAddress().getPort() + "/"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		config.setProperty("webservices.timeout", "10000"); //$NON-NLS-1$ //$NON-NLS-2$
+		config.setProperty("webservices.authorization.method", "none"); //$NON-NLS-1$ //$NON-NLS-2$
+		this.invoker = new WebServiceInvoker(new WebServiceInvokerConfig(config));
+	}
+
+	/** Detiene el servicio simulado. */
+	@After
+	public void stopServer() {
+		this.server.stop(0);
+	}
+
+	/**
+	 * Comprueba que las llamadas concurrentes reciben cada una su respuesta y
+	 * que se reutilizan las conexiones.
+	 * @throws Exception Cuando falla alguna llamada.
+	 */
+	@Test
+	public void testConcurrentCalls() throws Exception {
+
+		final int threads = 8;
+		final int calls = 200;
+
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			final List<Future<Object>> results = new ArrayList<>();
+			for (int i = 0; i < calls; i++) {
+				final String request = "peticion-" + i; //$NON-NLS-1$
+				results.add(executor.submit(new Callable<Object>() {
+					@Override
+					public Object call() throws Exception {
+						return TestWebServiceInvoker.this.invoker.performCall(request, SERVICE, METHOD);
+					}
+				}));
+			}
+			for (int i = 0; i < calls; i++) {
+				Assert.assertEquals("peticion-" + i, results.get(i).get()); //$NON-NLS-1$
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		Assert.assertEquals(calls, this.requests.get());
+		Assert.assertTrue("No se reutilizaron las conexiones: " + this.clientPorts.size(), //$NON-NLS-1$
+				this.clientPorts.size() < calls);
+	}
+
+	/**
+	 * Mide el n&uacute;mero de llamadas por segundo contra el servicio simulado.
+	 * @throws Exception Cuando falla alguna llamada.
+	 */
+	@Test
+	@Ignore
+	public void benchmarkThroughput() throws Exception {
+
+		final int threads = 16;
+		final int callsPerThread = 500;
+
+		// Calentamiento
+		for (int i = 0; i < 200; i++) {
+			this.invoker.performCall("calentamiento", SERVICE, METHOD); //$NON-NLS-1$
+		}
+
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			final List<Callable<Void>> tasks = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				tasks.add(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						for (int i = 0; i < callsPerThread; i++) {
+							TestWebServiceInvoker.this.invoker.performCall("peticion", SERVICE, METHOD); //$NON-NLS-1$
+						}
+						return null;
+					}
+				});
+			}
+
+			final long start = System.nanoTime();
+			for (final Future<Void> result : executor.invokeAll(tasks)) {
+				result.get();
+			}
+			final long elapsed = System.nanoTime() - start;
+
+			final int calls = threads * callsPerThread;
+			System.out.println(String.format("%d llamadas en %d ms: %.1f llamadas/s con %d conexiones", //$NON-NLS-1$
+					Integer.valueOf(calls), Long.valueOf(elapsed / 1000000),
+					Double.valueOf(calls * 1e9 / elapsed), Integer.valueOf(this.clientPorts.size())));
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	static String buildResponse(final String arg) {
+		return "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\">" //$NON-NLS-1$
+				+ "<soapenv:Header>" + RESPONSE_SIGNATURE + "</soapenv:Header>" //$NON-NLS-1$ //$NON-NLS-2$
+				+ "<soapenv:Body><ns1:verifyResponse xmlns:ns1=\"http://afirmaws/services/" + SERVICE + "\">" //$NON-NLS-1$ //$NON-NLS-2$
+				+ "<verifyReturn>" + arg + "</verifyReturn>" //$NON-NLS-1$ //$NON-NLS-2$
+				+ "</ns1:verifyResponse></soapenv:Body></soapenv:Envelope>"; //$NON-NLS-1$
+	}
+
+	static byte[] readAll(final InputStream is) throws IOException {
+		int n;
+		final byte[] buffer = new byte[4096];
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		while ((n = is.read(buffer)) != -1) {
+			baos.write(buffer, 0, n);
+		}
+		return baos.toByteArray();
+	}
+}
@@ -0,0 +1,66 @@
+/* Copyright (C) 2017 [Gobierno de Espana]
+ * This file is part of FIRe.
+ * FIRe is free software; you can redistribute it and/or modify it under the terms of:
+ *   - the GNU General Public License as published by the Free Software Foundation;
+ *     either version 2 of the License, or (at your option) any later version.
+ *   - or The European Software License; either version 1.1 or (at your option) any later version.
+ * Date: 08/09/2017
+ * You may contact the copyright holder at: soporte.afirma@correo.gob.es
+ */
+package es.gob.fire.upgrade;
+
+/**
+ * Resultado de la validaci&oacute;n o actualizaci&oacute;n de una de las firmas de un
+ * lote. Contiene el resultado de la operaci&oacute;n o el error que impidi&oacute;
+ * completarla.
+ * @param <T> Tipo del resultado de la operaci&oacute;n.
+ */
+public class BatchItemResult<T> {
+
+	private final T result;
+
+	private final Exception error;
+
+	/**
+	 * Construye el resultado de una operaci&oacute;n que termin&oacute; correctamente.
+	 * @param result Resultado de la operaci&oacute;n.
+	 */
+	public BatchItemResult(final T result) {
+		this.result = result;
+		this.error = null;
+	}
+
+	/**
+	 * Construye el resultado de una operaci&oacute;n que fall&oacute;.
+	 * @param error Error que impidi&oacute; completar la operaci&oacute;n. Normalmente,
+	 * un {@link UpgradeException}, un {@link VerifyException} o un {@link ConnectionException}.
+	 */
+	public BatchItemResult(final Exception error) {
+		this.result = null;
+		this.error = error;
+	}
+
+	/**
+	 * Recupera el resultado de la operaci&oacute;n.
+	 * @return Resultado de la operaci&oacute;n o {@code null} si fall&oacute;.
+	 */
+	public T getResult() {
+		return this.result;
+	}
+
+	/**
+	 * Recupera el error que impidi&oacute; completar la operaci&oacute;n.
+	 * @return Error de la operaci&oacute;n o {@code null} si termin&oacute; correctamente.
+	 */
+	public Exception getError() {
+		return this.error;
+	}
+
+	/**
+	 * Indica si la operaci&oacute;n fall&oacute;.
+	 * @return {@code true} si la operaci&oacute;n fall&oacute;, {@code false} en caso contrario.
+	 */
+	public boolean isFailed() {
+		return this.error != null;
+	}
+}
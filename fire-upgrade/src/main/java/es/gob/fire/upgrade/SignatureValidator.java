@@ -1,6 +1,8 @@
 package es.gob.fire.upgrade;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 /**
@@ -54,4 +56,73 @@ public interface SignatureValidator {
 	 */
 	VerifyResult validateSignature(byte[] signature, Properties config) throws VerifyException,
 		ConnectionException;
+
+	/**
+	 * Indica si el validador procesa los conjuntos de firmas de forma m&aacute;s eficiente
+	 * que validando o actualizando las firmas de una en una. Los validadores que
+	 * sobrescriban {@link #upgradeSignatures(List, String, Properties)} y
+	 * {@link #validateSignatures(List, Properties)} para agrupar o paralelizar las
+	 * peticiones deben sobrescribir tambi&eacute;n este m&eacute;todo.
+	 * @return {@code true} si el validador admite el procesado en lote, {@code false}
+	 * en caso contrario. Por defecto, {@code false}.
+	 */
+	default boolean supportsBatch() {
+		return false;
+	}
+
+	/**
+	 * Actualiza un conjunto de firmas electr&oacute;nicas a un formato longevo. El error
+	 * al actualizar una firma no impide actualizar las dem&aacute;s. Por defecto, se
+	 * actualizan las firmas de una en una mediante
+	 * {@link #upgradeSignature(byte[], String, Properties)}. Los validadores que puedan
+	 * agrupar o paralelizar las peticiones a la plataforma deber&iacute;an sobrescribir
+	 * este m&eacute;todo y {@link #supportsBatch()}.
+	 * @param signatures Firmas electr&oacute;nicas a actualizar.
+	 * @param upgradeFormat Nombre del formato longevo.
+	 * @param config Opciones de configuraci&oacute;n adicionales para la operaci&oacute;n.
+	 * @return Resultado de la actualizaci&oacute;n de cada firma, en el mismo orden en el
+	 * que se proporcionaron.
+	 */
+	default List<BatchItemResult<UpgradeResult>> upgradeSignatures(final List<byte[]> signatures,
+			final String upgradeFormat, final Properties config) {
+
+		final List<BatchItemResult<UpgradeResult>> results = new ArrayList<>(signatures.size());
+		for (final byte[] signature : signatures) {
+			BatchItemResult<UpgradeResult> result;
+			try {
+				result = new BatchItemResult<>(upgradeSignature(signature, upgradeFormat, config));
+			}
+			catch (final Exception e) {
+				result = new BatchItemResult<>(e);
+			}
+			results.add(result);
+		}
+		return results;
+	}
+
+	/**
+	 * Valida un conjunto de firmas electr&oacute;nicas. El error al validar una firma no
+	 * impide validar las dem&aacute;s. Por defecto, se validan las firmas de una en una
+	 * mediante {@link #validateSignature(byte[], Properties)}.
+	 * @param signatures Firmas electr&oacute;nicas a validar.
+	 * @param config Opciones de configuraci&oacute;n adicionales para la operaci&oacute;n.
+	 * @return Resultado de la validaci&oacute;n de cada firma, en el mismo orden en el
+	 * que se proporcionaron.
+	 */
+	default List<BatchItemResult<VerifyResult>> validateSignatures(final List<byte[]> signatures,
+			final Properties config) {
+
+		final List<BatchItemResult<VerifyResult>> results = new ArrayList<>(signatures.size());
+		for (final byte[] signature : signatures) {
+			BatchItemResult<VerifyResult> result;
+			try {
+				result = new BatchItemResult<>(validateSignature(signature, config));
+			}
+			catch (final Exception e) {
+				result = new BatchItemResult<>(e);
+			}
+			results.add(result);
+		}
+		return results;
+	}
 }
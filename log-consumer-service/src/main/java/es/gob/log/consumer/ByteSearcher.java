@@ -0,0 +1,127 @@
+package es.gob.log.consumer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Buscador de una secuencia de bytes mediante el algoritmo de Boyer-Moore-Horspool.
+ * Permite recorrer un fichero por bloques sin decodificar su contenido.
+ */
+final class ByteSearcher {
+
+	/** Tama&ntilde;o de los bloques del fichero que se cargan para la b&uacute;squeda. */
+	static final int BUFFER_SIZE = 512000;
+
+	private final byte[] pattern;
+
+	/** Desplazamiento que corresponde a cada valor del &uacute;ltimo byte comparado. */
+	private final int[] shifts = new int[256];
+
+	/**
+	 * Prepara la b&uacute;squeda de una secuencia de bytes.
+	 * @param pattern Secuencia de bytes a buscar. No puede estar vac&iacute;a.
+	 */
+	ByteSearcher(final byte[] pattern) {
+
+		if (pattern == null || pattern.length == 0) {
+			throw new IllegalArgumentException("No se ha indicado la secuencia a buscar"); //$NON-NLS-1$
+		}
+
+		this.pattern = pattern.clone();
+
+		final int last = pattern.length - 1;
+		Arrays.fill(this.shifts, pattern.length);
+		for (int i = 0; i < last; i++) {
+			this.shifts[pattern[i] & 0xff] = last - i;
+		}
+	}
+
+	/**
+	 * Busca la secuencia en un fragmento de datos.
+	 * @param data Datos en los que buscar.
+	 * @param from Posici&oacute;n a partir de la que buscar.
+	 * @param to Posici&oacute;n hasta la que buscar (no incluida).
+	 * @return Posici&oacute;n de la primera aparici&oacute;n de la secuencia o -1 si no se encuentra.
+	 */
+	int indexOf(final byte[] data, final int from, final int to) {
+
+		final byte[] p = this.pattern;
+		final int last = p.length - 1;
+		final byte lastByte = p[last];
+
+		int pos = from;
+		while (pos + last < to) {
+			final byte b = data[pos + last];
+			if (b == lastByte) {
+				int i = last - 1;
+				while (i >= 0 && data[pos + i] == p[i]) {
+					i--;
+				}
+				if (i < 0) {
+					return pos;
+				}
+			}
+			pos += this.shifts[b & 0xff];
+		}
+		return -1;
+	}
+
+	/**
+	 * Busca la secuencia en un fichero.
+	 * @param channel Canal de lectura del fichero.
+	 * @param from Posici&oacute;n del fichero a partir de la que buscar.
+	 * @param to Posici&oacute;n del fichero hasta la que buscar (no incluida).
+	 * @return Posici&oacute;n del fichero de la primera aparici&oacute;n de la secuencia
+	 * o -1 si no se encuentra.
+	 * @throws IOException Cuando falla la lectura del fichero.
+	 */
+	long find(final AsynchronousFileChannel channel, final long from, final long to) throws IOException {
+
+		final ByteBuffer buf = ByteBuffer.allocate(Math.max(BUFFER_SIZE, this.pattern.length * 2));
+		final byte[] data = buf.array();
+
+		// Los bloques se solapan en la longitud de la secuencia menos uno para
+		// encontrar las apariciones que queden partidas entre dos bloques
+		final int overlap = this.pattern.length - 1;
+
+		long position = from;
+		while (to - position >= this.pattern.length) {
+			buf.clear();
+			buf.limit((int) Math.min(buf.capacity(), to - position));
+			final int read = read(channel, buf, position);
+			if (read <= 0) {
+				break;
+			}
+			final int idx = indexOf(data, 0, read);
+			if (idx >= 0) {
+				return position + idx;
+			}
+			if (read <= overlap) {
+				break;
+			}
+			position += read - overlap;
+		}
+		return -1;
+	}
+
+	/**
+	 * Carga un bloque de un fichero.
+	 * @param channel Canal de lectura del fichero.
+	 * @param buf Buffer en el que cargar los datos.
+	 * @param position Posici&oacute;n del fichero desde la que leer.
+	 * @return N&uacute;mero de bytes le&iacute;dos o -1 si se alcanz&oacute; el final del fichero.
+	 * @throws IOException Cuando falla la lectura o se interrumpe.
+	 */
+	static int read(final AsynchronousFileChannel channel, final ByteBuffer buf, final long position)
+			throws IOException {
+		try {
+			return channel.read(buf, position).get().intValue();
+		}
+		catch (final InterruptedException | ExecutionException e) {
+			throw new IOException("Se interrumpio la carga del fichero", e); //$NON-NLS-1$
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package es.gob.log.consumer;
+
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.util.List;
+
+/**
+ * Lector de logs sobre un conjunto de l&iacute;neas ya cargadas en memoria. Permite
+ * analizar los registros de un fragmento del fichero con {@link LogRegistryParser}.
+ */
+final class LinesReader implements LogReader {
+
+	private final List<String> lines;
+
+	private final Charset charset;
+
+	private int index = -1;
+
+	private CharBuffer currentLine = null;
+
+	private boolean endFile = false;
+
+	/**
+	 * Crea el lector.
+	 * @param lines L&iacute;neas del fragmento.
+	 * @param charset Juego de caracteres del log.
+	 */
+	LinesReader(final List<String> lines, final Charset charset) {
+		this.lines = lines;
+		this.charset = charset;
+	}
+
+	/**
+	 * Sit&uacute;a el lector en una l&iacute;nea y la carga como l&iacute;nea actual.
+	 * @param lineIndex &Iacute;ndice de la l&iacute;nea.
+	 */
+	void moveTo(final int lineIndex) {
+		this.index = lineIndex - 1;
+		this.endFile = false;
+		readLine();
+	}
+
+	@Override
+	public void setIgnoreEmptyLines(final boolean ignoreEmptyLines) {
+		// Las lineas se proporcionan ya filtradas
+	}
+
+	@Override
+	public Charset getCharset() {
+		return this.charset;
+	}
+
+	@Override
+	public void load() {
+		load(0L);
+	}
+
+	@Override
+	public void load(final long position) {
+		this.index = -1;
+		this.currentLine = null;
+		this.endFile = false;
+	}
+
+	@Override
+	public void reload(final long position) {
+		load(position);
+	}
+
+	@Override
+	public CharBuffer getCurrentLine() {
+		return this.currentLine;
+	}
+
+	@Override
+	public CharBuffer readLine() {
+		if (this.index + 1 >= this.lines.size()) {
+			this.index = this.lines.size();
+			this.currentLine = null;
+			this.endFile = true;
+			return null;
+		}
+		this.index++;
+		this.currentLine = CharBuffer.wrap(this.lines.get(this.index));
+		return this.currentLine;
+	}
+
+	@Override
+	public void rewind() {
+		load();
+	}
+
+	@Override
+	public void close() {
+		// No hay recursos que liberar
+	}
+
+	@Override
+	public long getFilePosition() {
+		return 0L;
+	}
+
+	@Override
+	public long getFileFragmentedPosition() {
+		return 0L;
+	}
+
+	@Override
+	public boolean isEndFile() {
+		return this.endFile;
+	}
+
+	@Override
+	public void setEndFile(final boolean endOfFile) {
+		this.endFile = endOfFile;
+	}
+
+	@Override
+	public boolean isReloaded() {
+		return false;
+	}
+}
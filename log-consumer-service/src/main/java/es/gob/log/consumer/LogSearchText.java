@@ -2,7 +2,10 @@ package es.gob.log.consumer;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.charset.Charset;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,6 +16,7 @@ public class LogSearchText {
 
 	private final LogInfo logInfo;
 	private int nLinesReaded = 0;
+	private long searchPosition = 0L;
 
 	/** Construye el objeto para la b&uacute;squeda de texto en un log.
 	 * @param logInfo Informaci&oacute;n del log cargado. */
@@ -68,7 +72,7 @@ public class LogSearchText {
 		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
 		while (!found && !reader.isEndFile()) {
 			final byte[] filteredLines = filter.filter(2);
-			if (new String(filteredLines).indexOf(text) != -1) {
+			if (new String(filteredLines, reader.getCharset()).indexOf(text) != -1) {
 				baos.write(filteredLines);
 				found = true;
 			}
@@ -90,23 +94,208 @@ public class LogSearchText {
 		return baos.toByteArray();
 	}
 
+	/**
+	 * Permite buscar un texto en un log a partir de la posici&oacute;n en la que termin&oacute;
+	 * la b&uacute;squeda anterior. Si no se indica una fecha, el texto se busca directamente
+	 * sobre los bytes del fichero y s&oacute;lo se copian las l&iacute;neas del resultado, sin
+	 * decodificar ni analizar los registros intermedios. Tras la b&uacute;squeda, el lector
+	 * queda situado tras las l&iacute;neas devueltas y {@link #getSearchPosition()} indica la
+	 * posici&oacute;n desde la que continuar la pr&oacute;xima b&uacute;squeda. Si no se conoce
+	 * la posici&oacute;n, por ejemplo porque se ha movido el lector con otra operaci&oacute;n,
+	 * la b&uacute;squeda contin&uacute;a desde la posici&oacute;n actual del lector.
+	 * @param numLines N&uacute;mero m&aacute;ximo de l&iacute;neas a recuperar.
+	 * @param text Texto a buscar.
+	 * @param dateTimeMillisec Fecha m&iacute;nima en milisegundos en la que se debieron imprimir
+	 * los registros o un valor menor o igual a 0 para no filtrar por fecha.
+	 * @param reader Lector para el acceso al texto.
+	 * @param channel Canal de lectura del fichero de log.
+	 * @param position Posici&oacute;n del fichero desde la que buscar o -1 para buscar desde
+	 * la posici&oacute;n actual del lector. Debe ser el inicio de una l&iacute;nea.
+	 * @return Bytes de los registros recuperados o {@code null} si no se encontr&oacute; el texto.
+	 * @throws IOException Cuando ocurre un error durante la operaci&oacute;n.
+	 * @throws InvalidPatternException Cuando se encuentra un loginfo para el fichero de log
+	 * que configura un patr&oacute;n de registro inv&aacute;lido.
+	 */
+	public final byte[] searchText(final int numLines, final String text, final long dateTimeMillisec,
+			final LogReader reader, final AsynchronousFileChannel channel, final long position)
+					throws IOException, InvalidPatternException {
+
+		final Charset charset = reader.getCharset();
+
+		// El filtrado por fecha requiere analizar los registros y, en los juegos de caracteres
+		// en los que un salto de linea ocupa varios bytes, no se pueden localizar las lineas
+		// sobre los bytes del fichero. En ese caso, o si no se conoce la posicion desde la
+		// que continuar, se busca con el lector y la siguiente busqueda continuara tambien
+		// desde la posicion del lector
+		if (position < 0 || dateTimeMillisec > 0 || LogTail.getLineSeparator(charset).length != 1) {
+			this.searchPosition = -1L;
+			return searchText(numLines, text, dateTimeMillisec > 0 ? dateTimeMillisec : -1, reader);
+		}
+
+		final ByteSearcher searcher = new ByteSearcher(text.getBytes(charset));
+		final long fileSize = channel.size();
+
+		long from = position;
+		long match;
+		while ((match = searcher.find(channel, from, fileSize)) >= 0) {
+
+			final long lineStart = findLineStart(channel, match, position);
+			final byte[] result = readLines(channel, lineStart, numLines);
+
+			// Se comprueba que el texto este realmente en la primera linea por si la
+			// secuencia de bytes apareciese dentro de otros caracteres multibyte
+			int firstLineLength = 0;
+			while (firstLineLength < result.length && result[firstLineLength] != '\n') {
+				firstLineLength++;
+			}
+			if (new String(result, 0, firstLineLength, charset).indexOf(text) != -1) {
+				setnLinesReaded(getnLinesReaded() + countLines(result));
+				reader.close();
+				reader.load(this.searchPosition);
+				return result;
+			}
+			from = match + 1;
+		}
+
+		LOGGER.info("No se han encontrado mas ocurrencias en la  busqueda"); //$NON-NLS-1$
+
+		// La siguiente busqueda continuara desde el inicio de la ultima linea, que
+		// podria completarse si se siguen escribiendo registros
+		this.searchPosition = findLineStart(channel, fileSize, position);
+		return null;
+	}
+
+	/**
+	 * Obtiene la posici&oacute;n del fichero desde la que se debe continuar la b&uacute;squeda
+	 * tras la &uacute;ltima llamada a
+	 * {@link #searchText(int, String, long, LogReader, AsynchronousFileChannel, long)}.
+	 * @return Posici&oacute;n del fichero o -1 si la b&uacute;squeda se realiz&oacute; con el
+	 * lector y debe continuar desde la posici&oacute;n de este.
+	 */
+	public final long getSearchPosition() {
+		return this.searchPosition;
+	}
+
+	/**
+	 * Busca hacia atr&aacute;s el inicio de la l&iacute;nea que contiene una posici&oacute;n
+	 * del fichero.
+	 * @param channel Canal de lectura del fichero.
+	 * @param offset Posici&oacute;n del fichero.
+	 * @param lowerBound Posici&oacute;n m&iacute;nima que se puede devolver.
+	 * @return Posici&oacute;n de inicio de la l&iacute;nea.
+	 * @throws IOException Cuando falla la lectura del fichero.
+	 */
+	private static long findLineStart(final AsynchronousFileChannel channel, final long offset,
+			final long lowerBound) throws IOException {
+
+		final ByteBuffer buf = ByteBuffer.allocate(ByteSearcher.BUFFER_SIZE);
+		long end = offset;
+		while (end > lowerBound) {
+			final long begin = Math.max(lowerBound, end - buf.capacity());
+			buf.clear();
+			buf.limit((int) (end - begin));
+			final int read = ByteSearcher.read(channel, buf, begin);
+			for (int i = read - 1; i >= 0; i--) {
+				if (buf.get(i) == '\n') {
+					return begin + i + 1;
+				}
+			}
+			end = begin;
+		}
+		return lowerBound;
+	}
+
+	/**
+	 * Copia las l&iacute;neas no vac&iacute;as del fichero a partir de una posici&oacute;n,
+	 * termin&aacute;ndolas con un salto de l&iacute;nea simple, y establece la posici&oacute;n
+	 * de b&uacute;squeda tras la &uacute;ltima l&iacute;nea copiada.
+	 * @param channel Canal de lectura del fichero.
+	 * @param start Posici&oacute;n de inicio de la primera l&iacute;nea.
+	 * @param numLines N&uacute;mero m&aacute;ximo de l&iacute;neas.
+	 * @return L&iacute;neas le&iacute;das.
+	 * @throws IOException Cuando falla la lectura del fichero.
+	 */
+	private byte[] readLines(final AsynchronousFileChannel channel, final long start, final int numLines)
+			throws IOException {
+
+		final ByteArrayOutputStream result = new ByteArrayOutputStream();
+		final ByteArrayOutputStream line = new ByteArrayOutputStream();
+		final ByteBuffer buf = ByteBuffer.allocate(ByteSearcher.BUFFER_SIZE);
+		final byte[] data = buf.array();
+
+		int lines = 0;
+		long position = start;
+		long end = start;
+		while (lines < Math.max(1, numLines)) {
+			buf.clear();
+			final int read = ByteSearcher.read(channel, buf, position);
+
+			// La ultima linea del fichero puede no terminar en salto de linea
+			if (read <= 0) {
+				if (writeLine(result, line)) {
+					lines++;
+				}
+				end = position;
+				break;
+			}
+
+			int lineBegin = 0;
+			for (int i = 0; i < read && lines < Math.max(1, numLines); i++) {
+				if (data[i] == '\n') {
+					line.write(data, lineBegin, i - lineBegin);
+					if (writeLine(result, line)) {
+						lines++;
+					}
+					lineBegin = i + 1;
+					end = position + lineBegin;
+				}
+			}
+			line.write(data, lineBegin, read - lineBegin);
+			position += read;
+		}
+
+		this.searchPosition = end;
+		return result.toByteArray();
+	}
+
+	/**
+	 * Agrega una l&iacute;nea al resultado sin el retorno de carro final, salvo
+	 * que est&eacute; vac&iacute;a, y vac&iacute;a el buffer de la l&iacute;nea.
+	 * @param result Resultado.
+	 * @param line L&iacute;nea.
+	 * @return {@code true} si se agreg&oacute; la l&iacute;nea, {@code false} si estaba vac&iacute;a.
+	 */
+	private static boolean writeLine(final ByteArrayOutputStream result, final ByteArrayOutputStream line) {
+		final byte[] lineData = line.toByteArray();
+		line.reset();
+		int length = lineData.length;
+		if (length > 0 && lineData[length - 1] == '\r') {
+			length--;
+		}
+		if (length == 0) {
+			return false;
+		}
+		result.write(lineData, 0, length);
+		result.write('\n');
+		return true;
+	}
 
 	private final byte[] getText( final int lines, final LogReader reader) throws IOException {
-		String result = ""; //$NON-NLS-1$
+		final StringBuilder result = new StringBuilder();
 		CharBuffer cbLine;
 		int numLines = 1;
 		if(reader.getCurrentLine() != null) {
-			result = result.concat(reader.getCurrentLine().toString()).concat("\n"); //$NON-NLS-1$
+			result.append(reader.getCurrentLine()).append('\n');
 		}
 
 		while(numLines < lines && (cbLine = reader.readLine()) != null) {
 			cbLine.rewind();
-			result = result.concat(cbLine.toString()).concat("\n"); //$NON-NLS-1$
+			result.append(cbLine).append('\n');
 			numLines++;
 		}
 		setnLinesReaded(getnLinesReaded() + numLines);
 
-		return result.getBytes(reader.getCharset());
+		return result.toString().getBytes(reader.getCharset());
 	}
 
 	private final static int countLines(final byte[] data) {
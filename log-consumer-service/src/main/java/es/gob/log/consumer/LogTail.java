@@ -5,20 +5,26 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.ByteBuffer;
-import java.nio.channels.SeekableByteChannel;
-import java.nio.file.Files;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 
 /**
  * Manejador para la lectura de las &uacute;ltimas l&iacute;neas del log.
+ * El fichero se recorre desde el final en bloques, contando los saltos de
+ * l&iacute;nea sobre los bytes sin decodificarlos, y s&oacute;lo se decodifica
+ * el fragmento que contiene las l&iacute;neas solicitadas.
  */
 public class LogTail {
 
-	private  final int PART_SIZE = 1024;
-	private  long filePosition = 0L;
-	private  int totalBufferLines = 0;
+	/** Tama&ntilde;o de los bloques que se leen desde el final del fichero. */
+	private static final int PART_SIZE = 64 * 1024;
+
+	private long filePosition = 0L;
 	private final LogInfo logInfor;
 	private final Path path;
 
@@ -41,84 +47,150 @@ public class LogTail {
 	 * @throws IOException Cuando ocurre un error durante la lectura del fichero.
 	 */
 	public final StringBuilder getLogTail(final int numLines) throws IOException {
-		StringBuilder result = new StringBuilder();
-		// Creamos el canal asociado al fichero
-		try (SeekableByteChannel channel = Files.newByteChannel(this.path, StandardOpenOption.READ)) {
-			// Obtenemos el tamano del fichero. Creamos un array con las posiciones
-			// obtenidas de la division del fichero en partes (PART_SIZE)
-			final long totalSize = Files.size(this.path);
+
+		final Charset charset = this.logInfor.getCharset();
+
+		final byte[] data;
+		try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ)) {
+			final long totalSize = channel.size();
 			setFilePosition(totalSize);
-			final int totalNext =  (int) (totalSize/this.PART_SIZE) + 1;
-			final int [] positions = new int [totalNext];
-			for (int i = 0; i < totalNext; i++) {
-				positions[i] = i * this.PART_SIZE;
+			if (numLines <= 0 || totalSize == 0) {
+				return new StringBuilder();
 			}
-			if (positions.length > 0) {
-				int i = 1;
-				// Leemos el fichero n veces hasta obtener el numero de lineas indicadas,
-				// obteniendo en cada lectura un nuevo bloque del fichero
-				while (numLines > getTotalBufferLines()  && i <= positions.length) {
-					final ByteBuffer buf =  ByteBuffer.allocate((int) totalSize - positions[positions.length - i]);
-					channel.position(positions[positions.length - i]);
-					channel.read(buf);
-					buf.flip();
-					final byte[]  data = new byte[buf.limit()];
-					buf.get(data);
-					//XXX: Esto carece de sentido, ya que en cada iteracion del bucle se
-					// pisaria el objeto. Hay que revisarlo.
-					result = readLines(data, numLines);
-					buf.clear() ;
-					i++;
+			final long start = findTailStart(channel, totalSize, numLines, getLineSeparator(charset));
+			data = readFragment(channel, start, totalSize);
+		}
+
+		return readLines(data, numLines, charset);
+	}
+
+	/**
+	 * Busca desde el final del fichero la posici&oacute;n en la que comienza la
+	 * primera de las &uacute;ltimas l&iacute;neas indicadas. El salto de l&iacute;nea
+	 * con el que termine el fichero no da lugar a una nueva l&iacute;nea.
+	 * @param channel Canal de lectura del fichero.
+	 * @param totalSize Tama&ntilde;o del fichero.
+	 * @param numLines N&uacute;mero de l&iacute;neas.
+	 * @param separator Bytes del salto de l&iacute;nea en el juego de caracteres del log.
+	 * @return Posici&oacute;n de inicio de las l&iacute;neas.
+	 * @throws IOException Cuando falla la lectura del fichero.
+	 */
+	private static long findTailStart(final FileChannel channel, final long totalSize,
+			final int numLines, final byte[] separator) throws IOException {
+
+		// Los saltos de linea de los juegos de caracteres de varios bytes por
+		// caracter (UTF-16, UTF-32...) estan alineados con el final del fichero,
+		// asi que se usan bloques multiplos de su tamano para no partirlos
+		final int unit = separator.length;
+		final int partSize = PART_SIZE - PART_SIZE % unit;
+		final ByteBuffer buf = ByteBuffer.allocate(partSize);
+
+		int remaining = numLines;
+		boolean lastSeparator = true;
+		long end = totalSize;
+		while (end > 0) {
+			final long begin = Math.max(0, end - partSize);
+			buf.clear();
+			buf.limit((int) (end - begin));
+			readFully(channel, buf, begin);
+			final byte[] block = buf.array();
+
+			for (int i = buf.limit() - unit; i >= 0; i -= unit) {
+				if (isSeparator(block, i, separator)) {
+					// El salto de linea final del fichero no cuenta como linea
+					if (lastSeparator && begin + i + unit == totalSize) {
+						continue;
+					}
+					if (--remaining == 0) {
+						return begin + i + unit;
+					}
 				}
 			}
+			lastSeparator = false;
+			end = begin;
+		}
+		return 0;
+	}
+
+	private static boolean isSeparator(final byte[] block, final int pos, final byte[] separator) {
+		for (int j = separator.length - 1; j >= 0; j--) {
+			if (block[pos + j] != separator[j]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Obtiene los bytes con los que se codifica un salto de l&iacute;nea en un juego
+	 * de caracteres, sin la marca de orden de bytes que puedan a&ntilde;adir algunos
+	 * codificadores.
+	 * @param charset Juego de caracteres.
+	 * @return Bytes del salto de l&iacute;nea.
+	 */
+	static byte[] getLineSeparator(final Charset charset) {
+		final byte[] one = "\n".getBytes(charset); //$NON-NLS-1$
+		final byte[] two = "\n\n".getBytes(charset); //$NON-NLS-1$
+		final int unit = two.length - one.length;
+		return Arrays.copyOfRange(one, one.length - unit, one.length);
+	}
+
+	private static byte[] readFragment(final FileChannel channel, final long start, final long end)
+			throws IOException {
+		final long size = end - start;
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("Las lineas solicitadas superan el tamano maximo que se puede cargar"); //$NON-NLS-1$
+		}
+		final ByteBuffer buf = ByteBuffer.allocate((int) size);
+		readFully(channel, buf, start);
+		return buf.array();
+	}
+
+	private static void readFully(final FileChannel channel, final ByteBuffer buf, final long position)
+			throws IOException {
+		long pos = position;
+		while (buf.hasRemaining()) {
+			final int read = channel.read(buf, pos);
+			if (read < 0) {
+				throw new IOException("Se alcanzo el final del fichero antes de lo esperado"); //$NON-NLS-1$
+			}
+			pos += read;
 		}
-		return result;
+		buf.flip();
 	}
 
 	/**
-	 * Obtiene el m&aacute;ximo n&uacute;mero de l&iacute;neas del bloque de datos pasado como
-	 * par&aacute;metro (data) hasta completar  el n&uacute;mero indicado en el par&aacute;metro
-	 * (lines).
+	 * Decodifica el bloque de datos y obtiene como mucho el n&uacute;mero de
+	 * l&iacute;neas indicado, contando desde el final.
 	 * @param data Datos de los que leer.
 	 * @param lines N&uacute;mero de l&iacute;neas que leer.
+	 * @param charset Juego de caracteres de los datos.
 	 * @return L&iacute;neas le&iacute;das.
 	 * @throws IOException Cuando falla la lectura.
 	 */
-	private  StringBuilder readLines(final byte[] data, final int lines) throws IOException {
-		final StringBuilder linesDataRead = new StringBuilder();
+	private static StringBuilder readLines(final byte[] data, final int lines, final Charset charset)
+			throws IOException {
+
+		// Los retornos de carro aislados tambien separan lineas al leerlas, por lo
+		// que puede haber mas lineas de las contadas y se conservan las ultimas
+		final ArrayDeque<String> tail = new ArrayDeque<>(Math.min(lines, 1024));
 		try (	final ByteArrayInputStream bais = new ByteArrayInputStream(data);
-				final InputStreamReader isr = new InputStreamReader(bais, this.logInfor.getCharset());
+				final InputStreamReader isr = new InputStreamReader(bais, charset);
 				final BufferedReader reader = new BufferedReader (isr)) {
 			String line;
-			int numLines = 0;
-			final int totalLines = getNumLines(data);
 			while ((line = reader.readLine()) != null) {
-				numLines++;
-				if (numLines > totalLines - lines) {
-					linesDataRead.append(line).append('\n');
+				if (tail.size() == lines) {
+					tail.removeFirst();
 				}
+				tail.addLast(line);
 			}
-			setTotalBufferLines(numLines);
 		}
-		return linesDataRead;
-	}
 
-	/**
-	 * Obtiene el n&uacute;mero de l&iacute;neas del bloque de datos pasado como par&aacute;metro (data)
-	 * @param data
-	 * @return
-	 * @throws IOException
-	 */
-	private static  int getNumLines(final byte[] data) throws IOException {
-		int numLines = 0;
-		try (	final ByteArrayInputStream bais = new ByteArrayInputStream(data);
-				final InputStreamReader isr = new InputStreamReader(bais);
-				final BufferedReader reader = new BufferedReader (isr)) {
-			while (reader.readLine() != null){
-				numLines++;
-			}
+		final StringBuilder linesDataRead = new StringBuilder(data.length + tail.size());
+		for (final String line : tail) {
+			linesDataRead.append(line).append('\n');
 		}
-		return numLines;
+		return linesDataRead;
 	}
 
 	/**
@@ -136,20 +208,4 @@ public class LogTail {
 	public final long getFilePosition() {
 		return this.filePosition;
 	}
-
-	/**
-	 * Obtiene el total de l&iacute;neas leidas
-	 * @return
-	 */
-	private final int getTotalBufferLines() {
-		return this.totalBufferLines;
-	}
-
-	/**
-	 * Establece el total de l&iacute;neas leidas
-	 * @param totalBufferLines
-	 */
-	private final  void setTotalBufferLines(final int totalBufferLines) {
-		this.totalBufferLines = totalBufferLines;
-	}
 }
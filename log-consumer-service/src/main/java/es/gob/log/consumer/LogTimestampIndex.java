@@ -0,0 +1,283 @@
+package es.gob.log.consumer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * &Iacute;ndice disperso de las fechas de los registros de un fichero de log. Cada
+ * cierto n&uacute;mero de bytes se guarda la posici&oacute;n de inicio de un registro
+ * junto con su fecha, de forma que los filtros y b&uacute;squedas por fecha puedan
+ * empezar a leer cerca del primer registro candidato en lugar de analizar el
+ * fichero desde el principio. El &iacute;ndice se comparte entre sesiones y se
+ * ampl&iacute;a a medida que crece el fichero.
+ */
+public class LogTimestampIndex {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(LogTimestampIndex.class);
+
+	/** Distancia aproximada en bytes entre las entradas del &iacute;ndice. */
+	private static final int INDEX_INTERVAL = 256 * 1024;
+
+	/** Tama&ntilde;o del fragmento que se carga en cada punto del &iacute;ndice para
+	 * localizar el inicio de un registro. */
+	private static final int WINDOW_SIZE = 16 * 1024;
+
+	/** N&uacute;mero m&aacute;ximo de ficheros de los que se mantiene el &iacute;ndice. */
+	private static final int MAX_CACHED_INDEXES = 32;
+
+	/** Car&aacute;cter de BOM. */
+	private static final char CHAR_BOM_PREFIX = 65279;
+
+	private static final Map<String, LogTimestampIndex> INDEXES =
+			new LinkedHashMap<String, LogTimestampIndex>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(final Map.Entry<String, LogTimestampIndex> eldest) {
+					return size() > MAX_CACHED_INDEXES;
+				}
+			};
+
+	private final LogRegistryParser registryParser;
+
+	private final Charset charset;
+
+	/** Indica si se pueden indexar los registros del log. Es necesario que su patr&oacute;n
+	 * incluya la fecha y que el salto de l&iacute;nea ocupe un &uacute;nico byte. */
+	private final boolean indexable;
+
+	private long[] offsets = new long[64];
+
+	private long[] millis = new long[64];
+
+	private int size = 0;
+
+	/** Posici&oacute;n del fichero a partir de la cual se buscar&aacute; el siguiente
+	 * registro que indexar. */
+	private long nextPosition = 0L;
+
+	/** Tama&ntilde;o del fichero en la &uacute;ltima actualizaci&oacute;n. */
+	private long indexedSize = 0L;
+
+	/** Fecha del &uacute;ltimo registro identificado por {@link #findRegistry(List)}. */
+	private long lastRegistryMillis = 0L;
+
+	/**
+	 * Obtiene el &iacute;ndice de un fichero de log, cre&aacute;ndolo si no exist&iacute;a.
+	 * @param logFile Fichero de log.
+	 * @param logInfo Informaci&oacute;n del formato del log.
+	 * @return &Iacute;ndice del fichero.
+	 * @throws IOException Cuando no se puede obtener la ruta del fichero.
+	 * @throws InvalidPatternException Cuando la informaci&oacute;n del log configura un
+	 * patr&oacute;n de registro inv&aacute;lido.
+	 */
+	public static LogTimestampIndex getInstance(final File logFile, final LogInfo logInfo)
+			throws IOException, InvalidPatternException {
+
+		final String key = logFile.getCanonicalPath() + '\n' + logInfo.getCharset().name()
+				+ '\n' + logInfo.getLogPattern() + '\n' + logInfo.getDateFormat();
+
+		synchronized (INDEXES) {
+			LogTimestampIndex index = INDEXES.get(key);
+			if (index == null) {
+				index = new LogTimestampIndex(logInfo);
+				INDEXES.put(key, index);
+			}
+			return index;
+		}
+	}
+
+	private LogTimestampIndex(final LogInfo logInfo) throws InvalidPatternException {
+		this.registryParser = new LogRegistryParser(logInfo);
+		this.charset = logInfo.getCharset();
+		this.indexable = logInfo.getDateFormat() != null
+				&& logInfo.getLogPattern() != null
+				&& ParticlePattern.DATE.indexOf(logInfo.getLogPattern()) != -1
+				&& LogTail.getLineSeparator(this.charset).length == 1;
+	}
+
+	/**
+	 * Sit&uacute;a el lector en la posici&oacute;n m&aacute;s avanzada del fichero a partir
+	 * de la cual se pueden encontrar registros con la fecha indicada o posterior. Antes se
+	 * indexa la parte del fichero que se haya escrito desde la &uacute;ltima vez.
+	 * @param reader Lector del fichero de log.
+	 * @param channel Canal de lectura del fichero de log.
+	 * @param startMillis Fecha m&iacute;nima de los registros en milisegundos.
+	 * @return Posici&oacute;n en la que se ha situado el lector o 0 si se debe leer
+	 * desde el principio.
+	 * @throws IOException Cuando falla la lectura del fichero.
+	 */
+	public long seek(final LogReader reader, final AsynchronousFileChannel channel, final long startMillis)
+			throws IOException {
+
+		update(channel);
+		final long position = findPosition(startMillis);
+		if (position > 0L) {
+			reader.close();
+			reader.load(position);
+		}
+		return position;
+	}
+
+	/**
+	 * Obtiene la posici&oacute;n m&aacute;s avanzada del fichero antes de la cual todos
+	 * los registros indexados son anteriores a la fecha indicada.
+	 * @param startMillis Fecha m&iacute;nima de los registros en milisegundos.
+	 * @return Posici&oacute;n del inicio de un registro o 0 si se debe leer desde el principio.
+	 */
+	public synchronized long findPosition(final long startMillis) {
+		long position = 0L;
+		for (int i = 0; i < this.size && this.millis[i] < startMillis; i++) {
+			position = this.offsets[i];
+		}
+		return position;
+	}
+
+	/**
+	 * Indexa la parte del fichero que no se haya indexado a&uacute;n. Si el fichero es
+	 * m&aacute;s peque&ntilde;o que la &uacute;ltima vez, se entiende que se ha sustituido
+	 * y se vuelve a indexar desde el principio.
+	 * @param channel Canal de lectura del fichero de log.
+	 * @throws IOException Cuando falla la lectura del fichero.
+	 */
+	public synchronized void update(final AsynchronousFileChannel channel) throws IOException {
+
+		if (!this.indexable) {
+			return;
+		}
+
+		final long fileSize = channel.size();
+		if (fileSize < this.indexedSize) {
+			LOGGER.info("El fichero de log se ha reducido. Se reconstruira su indice de fechas"); //$NON-NLS-1$
+			this.size = 0;
+			this.nextPosition = 0L;
+		}
+		this.indexedSize = fileSize;
+
+		final ByteBuffer buf = ByteBuffer.allocate(WINDOW_SIZE);
+		final byte[] data = buf.array();
+		final List<String> lines = new ArrayList<>();
+		final List<Long> lineOffsets = new ArrayList<>();
+
+		while (this.nextPosition < fileSize) {
+
+			// Se carga desde el byte anterior al punto de muestreo para saber si en
+			// el empieza una linea
+			final long windowStart = this.nextPosition > 0 ? this.nextPosition - 1 : 0L;
+			buf.clear();
+			buf.limit((int) Math.min(WINDOW_SIZE, fileSize - windowStart));
+			final int read = ByteSearcher.read(channel, buf, windowStart);
+			if (read <= 0) {
+				break;
+			}
+
+			// Se toman las lineas completas del fragmento
+			lines.clear();
+			lineOffsets.clear();
+			int lineBegin = -1;
+			if (this.nextPosition == 0L) {
+				lineBegin = 0;
+			}
+			for (int i = 0; i < read; i++) {
+				if (data[i] == '\n') {
+					if (lineBegin >= 0) {
+						addLine(lines, lineOffsets, data, lineBegin, i, windowStart);
+					}
+					lineBegin = i + 1;
+				}
+			}
+
+			final boolean endOfFile = windowStart + read >= fileSize;
+			final long lastLineEnd = lineBegin > 0 ? windowStart + lineBegin : windowStart;
+
+			final int registryLine = findRegistry(lines);
+			if (registryLine >= 0) {
+				addEntry(lineOffsets.get(registryLine).longValue(), this.lastRegistryMillis);
+				this.nextPosition = lineOffsets.get(registryLine).longValue() + INDEX_INTERVAL;
+			}
+			// Si no se encontro ningun registro y no hay mas datos, se esperara a que se
+			// completen las lineas
+			else if (endOfFile) {
+				break;
+			}
+			// Si no, se continua desde la ultima linea completa, que se volvera a analizar
+			// junto a las siguientes por si su registro continuaba fuera del fragmento
+			else if (lineOffsets.size() > 1) {
+				this.nextPosition = lineOffsets.get(lineOffsets.size() - 1).longValue();
+			}
+			else if (lastLineEnd > this.nextPosition) {
+				this.nextPosition = lastLineEnd;
+			}
+			else {
+				this.nextPosition = windowStart + read;
+			}
+		}
+	}
+
+	/**
+	 * Busca la primera l&iacute;nea a partir de la cual se puede analizar un registro
+	 * completo con fecha.
+	 * @param lines L&iacute;neas en las que buscar.
+	 * @return &Iacute;ndice de la l&iacute;nea o -1 si no se encuentra ninguna.
+	 */
+	private int findRegistry(final List<String> lines) {
+		final LinesReader reader = new LinesReader(lines, this.charset);
+		for (int i = 0; i < lines.size(); i++) {
+			reader.moveTo(i);
+			try {
+				final LogRegistry registry = this.registryParser.parse(reader);
+				if (registry != null) {
+					this.lastRegistryMillis = registry.getCurrentMillis();
+					return i;
+				}
+			}
+			catch (final Exception e) {
+				// La linea no es el inicio de un registro valido
+			}
+		}
+		return -1;
+	}
+
+	private void addLine(final List<String> lines, final List<Long> lineOffsets, final byte[] data,
+			final int begin, final int end, final long windowStart) {
+
+		int length = end - begin;
+		if (length > 0 && data[end - 1] == '\r') {
+			length--;
+		}
+		// Igual que el lector del fichero, se ignoran las lineas vacias
+		if (length == 0) {
+			return;
+		}
+		String line = new String(data, begin, length, this.charset);
+		if (windowStart + begin == 0L && line.charAt(0) == CHAR_BOM_PREFIX) {
+			line = line.substring(1);
+		}
+		lines.add(line);
+		lineOffsets.add(Long.valueOf(windowStart + begin));
+	}
+
+	private void addEntry(final long offset, final long registryMillis) {
+		if (this.size > 0 && offset <= this.offsets[this.size - 1]) {
+			return;
+		}
+		if (this.size == this.offsets.length) {
+			this.offsets = Arrays.copyOf(this.offsets, this.size * 2);
+			this.millis = Arrays.copyOf(this.millis, this.size * 2);
+		}
+		this.offsets[this.size] = offset;
+		this.millis[this.size] = registryMillis;
+		this.size++;
+	}
+}
@@ -14,6 +14,7 @@ import es.gob.log.consumer.InvalidPatternException;
 import es.gob.log.consumer.LogFilter;
 import es.gob.log.consumer.LogInfo;
 import es.gob.log.consumer.LogReader;
+import es.gob.log.consumer.LogTimestampIndex;
 
 /**
  * Clase para la gesti&oacute;n de las peticiones de registros de logs filtrados.
@@ -88,12 +89,16 @@ public class LogFilteredServiceManager {
 		final Long fileSize = (Long) session.getAttribute(SessionParams.FILE_SIZE);
 		final AsynchronousFileChannel channel = (AsynchronousFileChannel) session.getAttribute(SessionParams.FILE_CHANNEL);
 		Long filePosition = (Long) session.getAttribute(SessionParams.FILE_POSITION);
+		final LogTimestampIndex index = (LogTimestampIndex) session.getAttribute(SessionParams.LOG_INDEX);
 
 		byte[] result = null;
 		try {
 
 			final LogFilter filter = new LogFilter(info);
 
+			// Al mover el lector, la siguiente busqueda debe continuar desde su posicion
+			session.removeAttribute(SessionParams.SEARCH_POSITION);
+
 			// Se carga el registro en el caso de ser la primera vez que entra al proceso
 			if (reset) {
 				reader.close();
@@ -103,6 +108,10 @@ public class LogFilteredServiceManager {
 					filePosition = new Long(0L);
 					session.setAttribute(SessionParams.FILE_POSITION, filePosition);
 				}
+				// Si se filtra por fecha, se empieza a leer cerca del primer registro candidato
+				if (index != null && crit.getStartDate() > 0L) {
+					index.seek(reader, channel, crit.getStartDate());
+				}
 			}
 
 			// Se recarga el registro en caso de que el tamanno del fichero haya aumentado
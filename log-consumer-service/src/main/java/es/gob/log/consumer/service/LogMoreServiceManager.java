@@ -48,6 +48,9 @@ public class LogMoreServiceManager {
 		final AsynchronousFileChannel channel = (AsynchronousFileChannel) session.getAttribute(SessionParams.FILE_CHANNEL);
 
 		try {
+			// Al mover el lector, la siguiente busqueda debe continuar desde su posicion
+			session.removeAttribute(SessionParams.SEARCH_POSITION);
+
 			// Comprobamos que el fichero de log no se ha modificado en el trascurso de haber pulsado
 			// anteriormente la funcion Tail, y pueda haber mas lineas, en ese caso se cierra el
 			// reader para cargarlo en la nueva posicion
@@ -16,12 +16,16 @@ import javax.json.JsonWriter;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import es.gob.log.consumer.LogConstants;
 import es.gob.log.consumer.LogDirInfo;
 import es.gob.log.consumer.LogFilenameFilter;
 import es.gob.log.consumer.LogInfo;
 import es.gob.log.consumer.LogOpen;
 import es.gob.log.consumer.LogReader;
+import es.gob.log.consumer.LogTimestampIndex;
 import es.gob.log.consumer.NegativeLogFilenameFilter;
 
 public class LogOpenServiceManager implements Serializable {
@@ -29,6 +33,8 @@ public class LogOpenServiceManager implements Serializable {
 	/** Serial Id. */
 	private static final long serialVersionUID = 3381831208944096820L;
 
+	private static final Logger LOGGER = LoggerFactory.getLogger(LogOpenServiceManager.class);
+
 	/**
 	 * Lanza el proceso de obtener los datos loginfo asociado al fichero log indicado por
 	 * par&aacute;metro "fname" de HttpServletRequest (req)
@@ -86,6 +92,16 @@ public class LogOpenServiceManager implements Serializable {
 			final LogReader logReader = logOpen.getReader();
 			session.setAttribute(SessionParams.FILE_READER, logReader);
 			session.setAttribute(SessionParams.FILE_POSITION, new Long(0L));
+			session.setAttribute(SessionParams.SEARCH_POSITION, Long.valueOf(0L));
+
+			// El indice de fechas se comparte entre todas las sesiones que abran el fichero
+			try {
+				session.setAttribute(SessionParams.LOG_INDEX, LogTimestampIndex.getInstance(logFile, logInfo));
+			}
+			catch (final Exception e) {
+				LOGGER.warn("No se pudo preparar el indice de fechas del fichero de log. Los filtros por fecha lo recorreran completo", e); //$NON-NLS-1$
+				session.removeAttribute(SessionParams.LOG_INDEX);
+			}
 
 		} catch (final IOException e) {
 			throw new IOException("Error al abrir el fichero de log " + logFile.getAbsolutePath(), e); //$NON-NLS-1$
@@ -13,6 +13,7 @@ import es.gob.log.consumer.InvalidPatternException;
 import es.gob.log.consumer.LogInfo;
 import es.gob.log.consumer.LogReader;
 import es.gob.log.consumer.LogSearchText;
+import es.gob.log.consumer.LogTimestampIndex;
 
 /**
  * Manejador encargado de realizar b&uacute;squedas de texto en los ficheros de log.
@@ -62,6 +63,8 @@ public class LogSearchServiceManager {
 		final Long fileSize = (Long) session.getAttribute(SessionParams.FILE_SIZE);
 		final AsynchronousFileChannel channel = (AsynchronousFileChannel) session.getAttribute(SessionParams.FILE_CHANNEL);
 		Long filePosition = (Long) session.getAttribute(SessionParams.FILE_POSITION);
+		final Long searchPosition = (Long) session.getAttribute(SessionParams.SEARCH_POSITION);
+		final LogTimestampIndex index = (LogTimestampIndex) session.getAttribute(SessionParams.LOG_INDEX);
 
 		byte[] result = null;
 
@@ -74,6 +77,10 @@ public class LogSearchServiceManager {
 					filePosition = new Long(0L);
 					session.setAttribute(SessionParams.FILE_POSITION, filePosition);
 				}
+				// Si se busca a partir de una fecha, se empieza a leer cerca del primer registro candidato
+				if (index != null && sdateTime > 0L) {
+					index.seek(reader, channel, sdateTime);
+				}
 			}
 
 			if (channel.size() > fileSize.longValue() && reader.isEndFile()) {
@@ -85,14 +92,24 @@ public class LogSearchServiceManager {
 
 			final LogSearchText logSearch = new LogSearchText(info);
 
-			if (sdateTime < 0L) {
-				result = logSearch.searchText(numLines, text, reader);
+			// La busqueda continua desde donde termino la anterior salvo que se reinicie. Si
+			// otra operacion ha movido el lector desde entonces, continua desde el lector
+			long position = -1L;
+			if (reset) {
+				position = 0L;
 			}
-			else {
-				result = logSearch.searchText(numLines, text, sdateTime, reader);
+			else if (searchPosition != null) {
+				position = searchPosition.longValue();
 			}
+			result = logSearch.searchText(numLines, text, sdateTime, reader, channel, position);
 
 			session.setAttribute(SessionParams.FILE_READER, reader);
+			if (logSearch.getSearchPosition() >= 0L) {
+				session.setAttribute(SessionParams.SEARCH_POSITION, Long.valueOf(logSearch.getSearchPosition()));
+			}
+			else {
+				session.removeAttribute(SessionParams.SEARCH_POSITION);
+			}
 
 			if (result == null) {
 				throw new NoResultException("No se han encontrado mas ocurrencias en la busqueda"); //$NON-NLS-1$
@@ -379,7 +379,9 @@ public class LogService extends HttpServlet {
 
 		session.removeAttribute(SessionParams.FILE_READER);
 		session.removeAttribute(SessionParams.LOG_INFO);
+		session.removeAttribute(SessionParams.LOG_INDEX);
 		session.removeAttribute(SessionParams.FILE_POSITION);
+		session.removeAttribute(SessionParams.SEARCH_POSITION);
 		session.removeAttribute(SessionParams.FILE_SIZE);
 
 		final Object channelObject = session.getAttribute(SessionParams.FILE_CHANNEL);
@@ -77,6 +77,8 @@ public class LogTailServiceManager {
 
 			final LogReader reader = (LogReader) session.getAttribute(SessionParams.FILE_READER);
 			reader.setEndFile(true);
+			// Al mover el lector, la siguiente busqueda debe continuar desde su posicion
+			session.removeAttribute(SessionParams.SEARCH_POSITION);
 			session.setAttribute(SessionParams.FILE_READER, reader);
 		}
 		catch (final Exception e) {
@@ -38,6 +38,15 @@ public class SessionParams {
 	 * Objeto de tipo Long. */
 	static final String FILE_POSITION = "FilePosition";  //$NON-NLS-1$
 
+	/** Almacena el &iacute;ndice de fechas del fichero de log abierto.
+	 * Objeto de tipo LogTimestampIndex. */
+	static final String LOG_INDEX = "LogIndex";  //$NON-NLS-1$
+
+	/** Almacena la posici&oacute;n del fichero de log desde la que debe continuar la
+	 * siguiente b&uacute;squeda de texto. Si no est&aacute; establecida, la b&uacute;squeda
+	 * contin&uacute;a desde la posici&oacute;n del lector. Objeto de tipo Long. */
+	static final String SEARCH_POSITION = "SearchPosition";  //$NON-NLS-1$
+
 	/** Almacena el tama&ntilde;o del fichero de log.
 	 * Objeto de tipo Long. */
 	static final String FILE_SIZE = "FileSize";  //$NON-NLS-1$
@@ -0,0 +1,158 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import es.gob.log.consumer.FragmentedFileReader;
+import es.gob.log.consumer.LogInfo;
+import es.gob.log.consumer.LogMore;
+import es.gob.log.consumer.LogReader;
+import es.gob.log.consumer.LogSearchText;
+
+public class TestLogSearchText {
+
+	private static File createLog(final String content) throws IOException {
+		final File logFile = File.createTempFile("search", ".log"); //$NON-NLS-1$ //$NON-NLS-2$
+		logFile.deleteOnExit();
+		Files.write(logFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return logFile;
+	}
+
+	@Test
+	public void testSearchAndResume() throws Exception {
+
+		final File logFile = createLog(
+				"uno\r\nerror en dos\r\ntres\r\n\r\ncuatro\r\nerror en cinco\r\nseis"); //$NON-NLS-1$
+
+		try (final AsynchronousFileChannel channel =
+				AsynchronousFileChannel.open(logFile.toPath(), StandardOpenOption.READ)) {
+
+			final LogReader reader = new FragmentedFileReader(channel, StandardCharsets.UTF_8);
+			reader.load();
+
+			LogSearchText search = new LogSearchText(new LogInfo());
+			byte[] result = search.searchText(3, "error", -1, reader, channel, 0L); //$NON-NLS-1$
+			Assert.assertEquals("error en dos\ntres\ncuatro\n", new String(result, StandardCharsets.UTF_8)); //$NON-NLS-1$
+
+			// El lector queda situado tras las lineas devueltas
+			Assert.assertEquals("error en cinco", reader.readLine().toString()); //$NON-NLS-1$
+
+			final long position = search.getSearchPosition();
+			search = new LogSearchText(new LogInfo());
+			result = search.searchText(3, "error", -1, reader, channel, position); //$NON-NLS-1$
+			Assert.assertEquals("error en cinco\nseis\n", new String(result, StandardCharsets.UTF_8)); //$NON-NLS-1$
+
+			Assert.assertNull(search.searchText(3, "error", -1, reader, channel, search.getSearchPosition())); //$NON-NLS-1$
+		}
+	}
+
+	@Test
+	public void testSearchAfterMore() throws Exception {
+
+		final StringBuilder content = new StringBuilder();
+		for (int i = 1; i <= 6; i++) {
+			content.append("Mar 28, 2018 12:41:1").append(i).append(" PM es.gob.fire.Servicio operacion\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			content.append("SEVERE: error ").append(i).append('\n'); //$NON-NLS-1$
+		}
+		final File logFile = createLog(content.toString());
+
+		try (final AsynchronousFileChannel channel =
+				AsynchronousFileChannel.open(logFile.toPath(), StandardOpenOption.READ)) {
+
+			final LogReader reader = new FragmentedFileReader(channel, StandardCharsets.UTF_8);
+			reader.load();
+
+			final StringBuilder returned = new StringBuilder();
+
+			LogSearchText search = new LogSearchText(new LogInfo());
+			byte[] result = search.searchText(2, "error", -1, reader, channel, 0L); //$NON-NLS-1$
+			returned.append(new String(result, StandardCharsets.UTF_8));
+
+			result = LogMore.getLogMore(2, reader);
+			returned.append(new String(result, StandardCharsets.UTF_8));
+
+			// Tras mover el lector, la busqueda continua desde su posicion
+			search = new LogSearchText(new LogInfo());
+			result = search.searchText(2, "error", -1, reader, channel, -1L); //$NON-NLS-1$
+			returned.append(new String(result, StandardCharsets.UTF_8));
+			Assert.assertEquals(-1L, search.getSearchPosition());
+
+			final String[] lines = returned.toString().split("\n"); //$NON-NLS-1$
+			for (int i = 0; i < lines.length; i++) {
+				for (int j = i + 1; j < lines.length; j++) {
+					Assert.assertNotEquals(lines[i], lines[j]);
+				}
+			}
+			Assert.assertTrue(returned.indexOf("SEVERE: error 3") != -1); //$NON-NLS-1$
+		}
+	}
+
+	@Test
+	public void testMatchAcrossBlocks() throws Exception {
+
+		final StringBuilder content = new StringBuilder();
+		while (content.length() < 511990) {
+			content.append("registro sin coincidencias ñ\n"); //$NON-NLS-1$
+		}
+		content.append("texto buscado: Operación fallida\n"); //$NON-NLS-1$
+		content.append("siguiente\n"); //$NON-NLS-1$
+
+		final File logFile = createLog(content.toString());
+		try (final AsynchronousFileChannel channel =
+				AsynchronousFileChannel.open(logFile.toPath(), StandardOpenOption.READ)) {
+
+			final LogReader reader = new FragmentedFileReader(channel, StandardCharsets.UTF_8);
+			reader.load();
+
+			final LogSearchText search = new LogSearchText(new LogInfo());
+			final byte[] result = search.searchText(2, "Operación fallida", -1, reader, channel, 0L); //$NON-NLS-1$
+			Assert.assertEquals("texto buscado: Operación fallida\nsiguiente\n", //$NON-NLS-1$
+					new String(result, StandardCharsets.UTF_8));
+			Assert.assertEquals(channel.size(), search.getSearchPosition());
+		}
+	}
+
+	/**
+	 * Prueba de rendimiento de la b&uacute;squeda sobre un log sint&eacute;tico de gran tama&ntilde;o.
+	 */
+	@Test
+	@Ignore
+	public void benchmarkSearchThroughput() throws Exception {
+
+		final File logFile = File.createTempFile("search-bench", ".log"); //$NON-NLS-1$ //$NON-NLS-2$
+		logFile.deleteOnExit();
+		try (BufferedWriter writer = Files.newBufferedWriter(logFile.toPath(), StandardCharsets.UTF_8)) {
+			for (int i = 0; i < 10000000; i++) {
+				writer.write("2018-03-28 12:41:13 INFO [main] es.gob.fire.Servicio - Operación completada: "); //$NON-NLS-1$
+				writer.write(Integer.toString(i));
+				writer.write('\n');
+			}
+			writer.write("2018-03-28 12:41:14 SEVERE [main] es.gob.fire.Servicio - Error inesperado\n"); //$NON-NLS-1$
+		}
+
+		try (final AsynchronousFileChannel channel =
+				AsynchronousFileChannel.open(logFile.toPath(), StandardOpenOption.READ)) {
+
+			final LogReader reader = new FragmentedFileReader(channel, StandardCharsets.UTF_8);
+			reader.load();
+
+			for (int i = 0; i < 5; i++) {
+				final long start = System.nanoTime();
+				final byte[] result = new LogSearchText(new LogInfo()).searchText(
+						10, "Error inesperado", -1, reader, channel, 0L); //$NON-NLS-1$
+				final double seconds = (System.nanoTime() - start) / 1000000000.0;
+				Assert.assertNotNull(result);
+				System.out.println(String.format("%d MB en %.3f s: %.1f MB/s", //$NON-NLS-1$
+						Long.valueOf(channel.size() / (1024 * 1024)), Double.valueOf(seconds),
+						Double.valueOf(channel.size() / (1024 * 1024) / seconds)));
+			}
+		}
+	}
+}
@@ -0,0 +1,105 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import es.gob.log.consumer.LogInfo;
+import es.gob.log.consumer.LogTail;
+
+public class TestLogTail {
+
+	private static File createLog(final String content, final Charset charset) throws IOException {
+		final File logFile = File.createTempFile("tail", ".log"); //$NON-NLS-1$ //$NON-NLS-2$
+		logFile.deleteOnExit();
+		Files.write(logFile.toPath(), content.getBytes(charset));
+		return logFile;
+	}
+
+	private static String tail(final File logFile, final Charset charset, final int numLines) throws IOException {
+		final LogInfo info = new LogInfo();
+		info.setCharset(charset);
+		final LogTail logTail = new LogTail(info, logFile.getAbsolutePath());
+		final String result = logTail.getLogTail(numLines).toString();
+		Assert.assertEquals(logFile.length(), logTail.getFilePosition());
+		return result;
+	}
+
+	@Test
+	public void testTailLines() throws Exception {
+		final File logFile = createLog("uno\ndos\ntres\ncuatro\n", StandardCharsets.UTF_8); //$NON-NLS-1$
+		Assert.assertEquals("tres\ncuatro\n", tail(logFile, StandardCharsets.UTF_8, 2)); //$NON-NLS-1$
+		Assert.assertEquals("uno\ndos\ntres\ncuatro\n", tail(logFile, StandardCharsets.UTF_8, 10)); //$NON-NLS-1$
+		Assert.assertEquals("", tail(logFile, StandardCharsets.UTF_8, 0)); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testWindowsLineEndingsWithoutFinalNewLine() throws Exception {
+		final File logFile = createLog("uno\r\ndos\r\ntres", StandardCharsets.ISO_8859_1); //$NON-NLS-1$
+		Assert.assertEquals("dos\ntres\n", tail(logFile, StandardCharsets.ISO_8859_1, 2)); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testMultiByteCharsets() throws Exception {
+		final String content = "primera línea\nsegunda €ñ\ntercera 中文\n"; //$NON-NLS-1$
+		final String expected = "segunda €ñ\ntercera 中文\n"; //$NON-NLS-1$
+		for (final Charset charset : new Charset[] {
+				StandardCharsets.UTF_8, StandardCharsets.UTF_16BE, StandardCharsets.UTF_16LE }) {
+			Assert.assertEquals(charset.name(), expected, tail(createLog(content, charset), charset, 2));
+		}
+	}
+
+	@Test
+	public void testLinesAcrossBlocks() throws Exception {
+		final StringBuilder content = new StringBuilder();
+		for (int i = 0; i < 20000; i++) {
+			content.append("2018-03-28 12:41:13 INFO linea ñ ").append(i).append('\n'); //$NON-NLS-1$
+		}
+		final String result = tail(createLog(content.toString(), StandardCharsets.UTF_8), StandardCharsets.UTF_8, 5000);
+		Assert.assertTrue(result.startsWith("2018-03-28 12:41:13 INFO linea ñ 15000\n")); //$NON-NLS-1$
+		Assert.assertTrue(result.endsWith(" 19999\n")); //$NON-NLS-1$
+		Assert.assertEquals(5000, result.split("\n").length); //$NON-NLS-1$
+	}
+
+	/**
+	 * Prueba de rendimiento sobre un log sint&eacute;tico de gran tama&ntilde;o.
+	 */
+	@Test
+	@Ignore
+	public void benchmarkLargeLog() throws Exception {
+
+		final File logFile = File.createTempFile("tail-bench", ".log"); //$NON-NLS-1$ //$NON-NLS-2$
+		logFile.deleteOnExit();
+		try (BufferedWriter writer = Files.newBufferedWriter(logFile.toPath(), StandardCharsets.UTF_8)) {
+			for (int i = 0; i < 10000000; i++) {
+				writer.write("2018-03-28 12:41:13 INFO [main] es.gob.fire.Servicio - Operación completada: "); //$NON-NLS-1$
+				writer.write(Integer.toString(i));
+				writer.write('\n');
+			}
+		}
+
+		final LogInfo info = new LogInfo();
+		info.setCharset(StandardCharsets.UTF_8);
+		final LogTail logTail = new LogTail(info, logFile.getAbsolutePath());
+		for (final int numLines : new int[] { 10, 100, 1000, 10000, 100000 }) {
+			// Calentamiento
+			for (int i = 0; i < 5; i++) {
+				logTail.getLogTail(numLines);
+			}
+			final int iterations = 20;
+			final long start = System.nanoTime();
+			for (int i = 0; i < iterations; i++) {
+				logTail.getLogTail(numLines);
+			}
+			final long elapsed = (System.nanoTime() - start) / iterations;
+			System.out.println(String.format("%d MB, %d lineas: %.3f ms", //$NON-NLS-1$
+					Long.valueOf(logFile.length() / (1024 * 1024)), Integer.valueOf(numLines),
+					Double.valueOf(elapsed / 1000000.0)));
+		}
+	}
+}
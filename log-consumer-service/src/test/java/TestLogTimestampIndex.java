@@ -0,0 +1,94 @@
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import es.gob.log.consumer.Criteria;
+import es.gob.log.consumer.FragmentedFileReader;
+import es.gob.log.consumer.LogFilter;
+import es.gob.log.consumer.LogInfo;
+import es.gob.log.consumer.LogReader;
+import es.gob.log.consumer.LogTimestampIndex;
+
+public class TestLogTimestampIndex {
+
+	private static final String DATE_FORMAT = "yyyy-MM-dd HH:mm:ss"; //$NON-NLS-1$
+
+	private static final long FIRST_MILLIS = 1522233600000L;
+
+	private static LogInfo newLogInfo() throws IOException {
+		final String config = "charset=UTF-8\n" //$NON-NLS-1$
+				+ "levels=TRACE,DEBUG,INFO,WARN,ERROR\n" //$NON-NLS-1$
+				+ "dateTimeFormat=" + DATE_FORMAT + "\n" //$NON-NLS-1$ //$NON-NLS-2$
+				+ "logPattern=[DATE] [*] [LEVEL] *\n"; //$NON-NLS-1$
+		final LogInfo info = new LogInfo();
+		info.load(new ByteArrayInputStream(config.getBytes(StandardCharsets.UTF_8)));
+		return info;
+	}
+
+	private static void writeRegistries(final File logFile, final int first, final int count) throws IOException {
+		final SimpleDateFormat formatter = new SimpleDateFormat(DATE_FORMAT);
+		try (BufferedWriter writer = Files.newBufferedWriter(logFile.toPath(), StandardCharsets.UTF_8,
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+			for (int i = first; i < first + count; i++) {
+				writer.write(formatter.format(Long.valueOf(FIRST_MILLIS + i * 1000L)));
+				writer.write(" [main] INFO Operación número " + i + "\n"); //$NON-NLS-1$ //$NON-NLS-2$
+				if (i % 100 == 0) {
+					writer.write("java.io.IOException: error simulado\n\tat es.gob.Clase.metodo(Clase.java:1)\n"); //$NON-NLS-1$
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testSeekToFirstCandidate() throws Exception {
+
+		final File logFile = File.createTempFile("index", ".log"); //$NON-NLS-1$ //$NON-NLS-2$
+		logFile.deleteOnExit();
+		writeRegistries(logFile, 0, 60000);
+
+		final LogInfo info = newLogInfo();
+		final LogTimestampIndex index = LogTimestampIndex.getInstance(logFile, info);
+
+		try (final AsynchronousFileChannel channel =
+				AsynchronousFileChannel.open(logFile.toPath(), StandardOpenOption.READ)) {
+
+			final LogReader reader = new FragmentedFileReader(channel, info.getCharset());
+			reader.load();
+
+			final long startMillis = FIRST_MILLIS + 45000 * 1000L;
+			final long position = index.seek(reader, channel, startMillis);
+			Assert.assertTrue(position > channel.size() / 2);
+			Assert.assertTrue(position < channel.size() * 3 / 4);
+
+			final Criteria criteria = new Criteria();
+			criteria.setStartDate(startMillis);
+			final LogFilter filter = new LogFilter(info);
+			filter.loadReaderToFilter(reader);
+			filter.setCriteria(criteria);
+			final String result = new String(filter.filter(1), StandardCharsets.UTF_8);
+			Assert.assertTrue(result, result.startsWith(
+					new SimpleDateFormat(DATE_FORMAT).format(Long.valueOf(startMillis)) + " [main] INFO Operación número 45000\n")); //$NON-NLS-1$
+
+			// Las fechas anteriores al primer registro no desplazan la lectura
+			Assert.assertEquals(0L, index.findPosition(FIRST_MILLIS));
+		}
+
+		// El indice se amplia con los nuevos registros del fichero
+		writeRegistries(logFile, 60000, 20000);
+		try (final AsynchronousFileChannel channel =
+				AsynchronousFileChannel.open(logFile.toPath(), StandardOpenOption.READ)) {
+			final long before = index.findPosition(Long.MAX_VALUE);
+			index.update(channel);
+			Assert.assertTrue(index.findPosition(Long.MAX_VALUE) > before);
+		}
+	}
+}
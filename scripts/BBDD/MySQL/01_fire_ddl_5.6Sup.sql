@@ -68,7 +68,8 @@ CREATE TABLE `tb_firmas` (
   `navegador` varchar(20) NOT NULL COMMENT 'Navegador web',
   `correcta` tinyint(1) DEFAULT NULL COMMENT 'Si la firma es correcta o no',
   `total` int(11) DEFAULT NULL COMMENT 'Numero de operaciones con la esta configuracion',
-  PRIMARY KEY (`id`)
+  PRIMARY KEY (`id`),
+  KEY `tb_firmas_fecha_idx` (`fecha`)
 ) ENGINE=InnoDB AUTO_INCREMENT=1 DEFAULT CHARSET=UTF8MB4;
 
 
@@ -82,10 +83,35 @@ CREATE TABLE `tb_transacciones` (
   `correcta` tinyint(1) DEFAULT '0' COMMENT 'Si termino correctamente o no',
   `tamanno` int(11) DEFAULT '0' COMMENT 'Tamano total de los datos procesados',
   `total` int(11) DEFAULT '0' COMMENT 'Numero de transacciones con esta configuracion',
-  PRIMARY KEY (`id`)
+  PRIMARY KEY (`id`),
+  KEY `tb_transacciones_fecha_idx` (`fecha`)
 ) ENGINE=InnoDB AUTO_INCREMENT=1 DEFAULT CHARSET=UTF8MB4;
 
 
+CREATE TABLE `tb_firmas_mes` (
+  `mes` datetime NOT NULL COMMENT 'Primer dia del mes de las operaciones',
+  `aplicacion` varchar(45) DEFAULT NULL COMMENT 'Aplicacion que solicito la operacion',
+  `formato` varchar(20) DEFAULT NULL COMMENT 'Formato de firma',
+  `formato_mejorado` varchar(20) DEFAULT NULL COMMENT 'Formato longevo al que actualizar',
+  `proveedor` varchar(45) DEFAULT NULL COMMENT 'Nombre del proveedor de certificados utilizado',
+  `correcta` tinyint(1) DEFAULT NULL COMMENT 'Si la firma es correcta o no',
+  `total` bigint(20) DEFAULT '0' COMMENT 'Numero de operaciones del mes con esta configuracion',
+  KEY `tb_firmas_mes_idx` (`mes`)
+) ENGINE=InnoDB DEFAULT CHARSET=UTF8MB4 COMMENT='Resumen mensual de tb_firmas';
+
+
+CREATE TABLE `tb_transacciones_mes` (
+  `mes` datetime NOT NULL COMMENT 'Primer dia del mes de las operaciones',
+  `aplicacion` varchar(45) NOT NULL COMMENT 'Aplicacion que solicito la operacion',
+  `operacion` varchar(10) NOT NULL COMMENT 'Tipo de operacion',
+  `proveedor` varchar(45) NOT NULL COMMENT 'Nombre del proveedor de firma',
+  `correcta` tinyint(1) DEFAULT '0' COMMENT 'Si termino correctamente o no',
+  `tamanno` bigint(20) DEFAULT '0' COMMENT 'Tamano total de los datos procesados en el mes',
+  `total` bigint(20) DEFAULT '0' COMMENT 'Numero de transacciones del mes con esta configuracion',
+  KEY `tb_transacciones_mes_idx` (`mes`)
+) ENGINE=InnoDB DEFAULT CHARSET=UTF8MB4 COMMENT='Resumen mensual de tb_transacciones';
+
+
 CREATE TABLE `tb_roles` (
   `id` int(11) NOT NULL,
   `nombre_rol` varchar(45) NOT NULL,
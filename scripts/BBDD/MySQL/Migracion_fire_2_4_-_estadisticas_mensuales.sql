@@ -0,0 +1,51 @@
+-- Script para incorporar los resumenes mensuales de estadisticas a una base de datos de FIRe 2.4
+-- Los resumenes se actualizan en cada volcado de estadisticas y son los que se consultan
+-- desde el panel de administracion. Este script los compone con los datos ya cargados.
+
+SET character_set_client = UTF8MB4 ;
+
+-- Indices para filtrar por fecha los datos diarios
+
+ALTER TABLE `tb_firmas` ADD KEY `tb_firmas_fecha_idx` (`fecha`);
+
+ALTER TABLE `tb_transacciones` ADD KEY `tb_transacciones_fecha_idx` (`fecha`);
+
+-- Tablas de resumenes mensuales
+
+CREATE TABLE `tb_firmas_mes` (
+  `mes` datetime NOT NULL COMMENT 'Primer dia del mes de las operaciones',
+  `aplicacion` varchar(45) DEFAULT NULL COMMENT 'Aplicacion que solicito la operacion',
+  `formato` varchar(20) DEFAULT NULL COMMENT 'Formato de firma',
+  `formato_mejorado` varchar(20) DEFAULT NULL COMMENT 'Formato longevo al que actualizar',
+  `proveedor` varchar(45) DEFAULT NULL COMMENT 'Nombre del proveedor de certificados utilizado',
+  `correcta` tinyint(1) DEFAULT NULL COMMENT 'Si la firma es correcta o no',
+  `total` bigint(20) DEFAULT '0' COMMENT 'Numero de operaciones del mes con esta configuracion',
+  KEY `tb_firmas_mes_idx` (`mes`)
+) ENGINE=InnoDB DEFAULT CHARSET=UTF8MB4 COMMENT='Resumen mensual de tb_firmas';
+
+
+CREATE TABLE `tb_transacciones_mes` (
+  `mes` datetime NOT NULL COMMENT 'Primer dia del mes de las operaciones',
+  `aplicacion` varchar(45) NOT NULL COMMENT 'Aplicacion que solicito la operacion',
+  `operacion` varchar(10) NOT NULL COMMENT 'Tipo de operacion',
+  `proveedor` varchar(45) NOT NULL COMMENT 'Nombre del proveedor de firma',
+  `correcta` tinyint(1) DEFAULT '0' COMMENT 'Si termino correctamente o no',
+  `tamanno` bigint(20) DEFAULT '0' COMMENT 'Tamano total de los datos procesados en el mes',
+  `total` bigint(20) DEFAULT '0' COMMENT 'Numero de transacciones del mes con esta configuracion',
+  KEY `tb_transacciones_mes_idx` (`mes`)
+) ENGINE=InnoDB DEFAULT CHARSET=UTF8MB4 COMMENT='Resumen mensual de tb_transacciones';
+
+
+-- Composicion de los resumenes con los datos ya cargados
+
+INSERT INTO `tb_firmas_mes` (`mes`, `aplicacion`, `formato`, `formato_mejorado`, `proveedor`, `correcta`, `total`)
+SELECT STR_TO_DATE(DATE_FORMAT(f.`fecha`, '%Y-%m-01'), '%Y-%m-%d'), f.`aplicacion`, f.`formato`, f.`formato_mejorado`, f.`proveedor`, f.`correcta`, SUM(f.`total`)
+FROM `tb_firmas` f
+GROUP BY STR_TO_DATE(DATE_FORMAT(f.`fecha`, '%Y-%m-01'), '%Y-%m-%d'), f.`aplicacion`, f.`formato`, f.`formato_mejorado`, f.`proveedor`, f.`correcta`;
+
+INSERT INTO `tb_transacciones_mes` (`mes`, `aplicacion`, `operacion`, `proveedor`, `correcta`, `tamanno`, `total`)
+SELECT STR_TO_DATE(DATE_FORMAT(t.`fecha`, '%Y-%m-01'), '%Y-%m-%d'), t.`aplicacion`, t.`operacion`, t.`proveedor`, t.`correcta`, SUM(t.`tamanno`), SUM(t.`total`)
+FROM `tb_transacciones` t
+GROUP BY STR_TO_DATE(DATE_FORMAT(t.`fecha`, '%Y-%m-01'), '%Y-%m-%d'), t.`aplicacion`, t.`operacion`, t.`proveedor`, t.`correcta`;
+
+COMMIT;
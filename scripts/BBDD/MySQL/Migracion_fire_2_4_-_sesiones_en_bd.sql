@@ -0,0 +1,18 @@
+-- Script para actualizar las tablas de guardado de sesiones en base de datos de FIRe 2.4
+-- Solo es necesario si se activo el guardado de sesiones en base de datos y las tablas
+-- se crearon con una version anterior del script Opcional_sesiones_en_bd_ddl.sql.
+
+SET character_set_client = UTF8MB4 ;
+
+-- Contador de versiones de las sesiones, que se incrementa en cada guardado
+ALTER TABLE `tb_comp_sesiones` ADD `version` bigint(20) NOT NULL DEFAULT '0' AFTER `f_modificacion`;
+
+-- Tabla para el guardado de los atributos modificados de las sesiones en BD
+CREATE TABLE `tb_comp_sesiones_atributos` (
+  `id_sesion` varchar(64) NOT NULL,
+  `nombre` varchar(100) NOT NULL,
+  `valor` longblob,
+  PRIMARY KEY (`id_sesion`, `nombre`)
+) ENGINE=InnoDB DEFAULT CHARSET=UTF8MB4;
+
+COMMIT;
@@ -9,10 +9,19 @@
 CREATE TABLE `tb_comp_sesiones` (
   `id` varchar(64) NOT NULL,
   `f_modificacion` bigint(10) NOT NULL,
+  `version` bigint(20) NOT NULL DEFAULT '0',
   `sesion` blob,
   PRIMARY KEY (`id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=UTF8MB4;
 
+-- Tabla para el guardado de los atributos modificados de las sesiones en BD
+CREATE TABLE `tb_comp_sesiones_atributos` (
+  `id_sesion` varchar(64) NOT NULL,
+  `nombre` varchar(100) NOT NULL,
+  `valor` longblob,
+  PRIMARY KEY (`id_sesion`, `nombre`)
+) ENGINE=InnoDB DEFAULT CHARSET=UTF8MB4;
+
 -- Tabla para el guardado temporal de documentos en BD
 CREATE TABLE `tb_comp_documentos` (
   `id` varchar(80) NOT NULL,
@@ -188,6 +188,36 @@ end;
 
 ALTER TRIGGER "BI_TB_TRANSACCIONES" ENABLE;
 
+CREATE INDEX "TB_FIRMAS_FECHA_IDX" ON "TB_FIRMAS" ("FECHA");
+
+CREATE INDEX "TB_TRANSACCIONES_FECHA_IDX" ON "TB_TRANSACCIONES" ("FECHA");
+
+-- Resumenes mensuales de las tablas de estadisticas de firmas y transacciones
+
+CREATE TABLE "TB_FIRMAS_MES" (
+  "MES" TIMESTAMP (6) NOT NULL,
+  "APLICACION" VARCHAR2(45) NOT NULL, 
+  "FORMATO" VARCHAR2(20) NOT NULL, 
+  "FORMATO_MEJORADO" VARCHAR2(20),
+  "PROVEEDOR" VARCHAR2(45) NOT NULL, 
+  "CORRECTA" NUMBER(1,0) NOT NULL,
+  "TOTAL" NUMBER DEFAULT 0 NOT NULL
+);
+
+CREATE INDEX "TB_FIRMAS_MES_IDX" ON "TB_FIRMAS_MES" ("MES");
+
+CREATE TABLE "TB_TRANSACCIONES_MES" (
+  "MES" TIMESTAMP (6) NOT NULL,
+  "APLICACION" VARCHAR2(45) NOT NULL,
+  "OPERACION" VARCHAR2(10) NOT NULL,
+  "PROVEEDOR" VARCHAR2(45) NOT NULL,
+  "CORRECTA" NUMBER(1,0) NOT NULL,
+  "TAMANNO" NUMBER DEFAULT 0 NOT NULL,
+  "TOTAL" NUMBER DEFAULT 0 NOT NULL
+);
+
+CREATE INDEX "TB_TRANSACCIONES_MES_IDX" ON "TB_TRANSACCIONES_MES" ("MES");
+
 -- Tabla de auditoria de las transacciones
 
 CREATE TABLE "TB_AUDIT_TRANSACCIONES" (
@@ -0,0 +1,49 @@
+-- Script para incorporar los resumenes mensuales de estadisticas a una base de datos de FIRe 2.4
+-- Los resumenes se actualizan en cada volcado de estadisticas y son los que se consultan
+-- desde el panel de administracion. Este script los compone con los datos ya cargados.
+
+-- Indices para filtrar por fecha los datos diarios
+
+CREATE INDEX "TB_FIRMAS_FECHA_IDX" ON "TB_FIRMAS" ("FECHA");
+
+CREATE INDEX "TB_TRANSACCIONES_FECHA_IDX" ON "TB_TRANSACCIONES" ("FECHA");
+
+-- Resumenes mensuales de las tablas de estadisticas de firmas y transacciones
+
+CREATE TABLE "TB_FIRMAS_MES" (
+  "MES" TIMESTAMP (6) NOT NULL,
+  "APLICACION" VARCHAR2(45) NOT NULL, 
+  "FORMATO" VARCHAR2(20) NOT NULL, 
+  "FORMATO_MEJORADO" VARCHAR2(20),
+  "PROVEEDOR" VARCHAR2(45) NOT NULL, 
+  "CORRECTA" NUMBER(1,0) NOT NULL,
+  "TOTAL" NUMBER DEFAULT 0 NOT NULL
+);
+
+CREATE INDEX "TB_FIRMAS_MES_IDX" ON "TB_FIRMAS_MES" ("MES");
+
+CREATE TABLE "TB_TRANSACCIONES_MES" (
+  "MES" TIMESTAMP (6) NOT NULL,
+  "APLICACION" VARCHAR2(45) NOT NULL,
+  "OPERACION" VARCHAR2(10) NOT NULL,
+  "PROVEEDOR" VARCHAR2(45) NOT NULL,
+  "CORRECTA" NUMBER(1,0) NOT NULL,
+  "TAMANNO" NUMBER DEFAULT 0 NOT NULL,
+  "TOTAL" NUMBER DEFAULT 0 NOT NULL
+);
+
+CREATE INDEX "TB_TRANSACCIONES_MES_IDX" ON "TB_TRANSACCIONES_MES" ("MES");
+
+-- Composicion de los resumenes con los datos ya cargados
+
+INSERT INTO "TB_FIRMAS_MES" ("MES", "APLICACION", "FORMATO", "FORMATO_MEJORADO", "PROVEEDOR", "CORRECTA", "TOTAL")
+SELECT TRUNC(f."FECHA", 'MM'), f."APLICACION", f."FORMATO", f."FORMATO_MEJORADO", f."PROVEEDOR", f."CORRECTA", SUM(f."TOTAL")
+FROM "TB_FIRMAS" f
+GROUP BY TRUNC(f."FECHA", 'MM'), f."APLICACION", f."FORMATO", f."FORMATO_MEJORADO", f."PROVEEDOR", f."CORRECTA";
+
+INSERT INTO "TB_TRANSACCIONES_MES" ("MES", "APLICACION", "OPERACION", "PROVEEDOR", "CORRECTA", "TAMANNO", "TOTAL")
+SELECT TRUNC(t."FECHA", 'MM'), t."APLICACION", t."OPERACION", t."PROVEEDOR", t."CORRECTA", SUM(t."TAMANNO"), SUM(t."TOTAL")
+FROM "TB_TRANSACCIONES" t
+GROUP BY TRUNC(t."FECHA", 'MM'), t."APLICACION", t."OPERACION", t."PROVEEDOR", t."CORRECTA";
+
+COMMIT;
@@ -0,0 +1,16 @@
+-- Script para actualizar las tablas de guardado de sesiones en base de datos de FIRe 2.4
+-- Solo es necesario si se activo el guardado de sesiones en base de datos y las tablas
+-- se crearon con una version anterior del script Opcional_sesiones_en_bd_ddl.sql.
+
+-- Contador de versiones de las sesiones, que se incrementa en cada guardado
+ALTER TABLE "TB_COMP_SESIONES" ADD "VERSION" NUMBER (20,0) DEFAULT 0 NOT NULL;
+
+-- Tabla para el guardado de los atributos modificados de las sesiones en BD
+CREATE TABLE "TB_COMP_SESIONES_ATRIBUTOS" (
+  "ID_SESION" VARCHAR2(64) NOT NULL,
+  "NOMBRE" VARCHAR2(100) NOT NULL,
+  "VALOR" BLOB,
+  CONSTRAINT  "TB_SESIONES_ATRIBUTOS_PK" PRIMARY KEY ("ID_SESION", "NOMBRE")
+);
+
+COMMIT;
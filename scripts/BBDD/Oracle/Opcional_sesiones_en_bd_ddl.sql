@@ -9,10 +9,19 @@
 CREATE TABLE "TB_COMP_SESIONES" (
   "ID" VARCHAR2(64) NOT NULL,
   "F_MODIFICACION" NUMBER (20,0) NOT NULL,
+  "VERSION" NUMBER (20,0) DEFAULT 0 NOT NULL,
   "SESION" BLOB,
   CONSTRAINT  "TB_SESIONES_PK" PRIMARY KEY ("ID")
 );
 
+-- Tabla para el guardado de los atributos modificados de las sesiones en BD
+CREATE TABLE "TB_COMP_SESIONES_ATRIBUTOS" (
+  "ID_SESION" VARCHAR2(64) NOT NULL,
+  "NOMBRE" VARCHAR2(100) NOT NULL,
+  "VALOR" BLOB,
+  CONSTRAINT  "TB_SESIONES_ATRIBUTOS_PK" PRIMARY KEY ("ID_SESION", "NOMBRE")
+);
+
 -- Tabla para el guardado temporal de documentos en BD
 CREATE TABLE "TB_COMP_DOCUMENTOS" (
   "ID" VARCHAR2(80) NOT NULL,